@@ -26,11 +26,17 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.search.SearcherManager;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.dltk.core.DLTKLanguageManager;
 import org.eclipse.dltk.core.IDLTKLanguageToolkit;
 import org.eclipse.dltk.core.IShutdownListener;
@@ -57,6 +63,14 @@ import org.eclipse.dltk.internal.core.search.DLTKWorkspaceScope;
  *     |_timestamps (index data)
  * </pre></code>
  * </p>
+ * <p>
+ * Searchers are opened on the index writers, changes become visible to
+ * searches within {@link #REFRESH_DELAY} milliseconds after they are written
+ * and are committed to disk separately, once the indexer is idle. While the
+ * indexer runs the searchers are reopened at most every
+ * {@link #INDEXING_REFRESH_DELAY} milliseconds, so a large build does not
+ * flush a tiny segment per document.
+ * </p>
  * 
  * @author Bartlomiej Laczkowski
  */
@@ -82,15 +96,86 @@ public enum LuceneManager {
 
 		@Override
 		public void aboutToBeIdle() {
-			commit();
+			fIndexing = false;
+			if (!fChangedContainers.isEmpty()) {
+				// the batch is done, show it right away
+				fRefreshPending.set(true);
+				fRefresher.schedule();
+			}
+			if (fCommitPending.compareAndSet(false, true)) {
+				fCommitter.schedule(COMMIT_DELAY);
+			}
 		}
 
 		@Override
 		public void aboutToBeRun(long idlingTime) {
+			fIndexing = true;
+		}
+
+	}
+
+	private final class Refresher extends Job {
+
+		public Refresher() {
+			super(""); //$NON-NLS-1$
+			setUser(false);
+			setSystem(true);
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == LucenePlugin.LUCENE_JOB_FAMILY;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			fRefreshPending.set(false);
+			refresh();
+			return Status.OK_STATUS;
+		}
+
+	}
+
+	private final class Committer extends Job {
+
+		public Committer() {
+			super(""); //$NON-NLS-1$
+			setUser(false);
+			setSystem(true);
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == LucenePlugin.LUCENE_JOB_FAMILY;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			fCommitPending.set(false);
+			commit();
+			return Status.OK_STATUS;
 		}
 
 	}
 
+	/**
+	 * Maximum delay (in milliseconds) before changes written to the indexes
+	 * become visible to searches.
+	 */
+	private static final long REFRESH_DELAY = 100;
+
+	/**
+	 * Maximum delay (in milliseconds) before changes become visible to
+	 * searches while the indexer is running.
+	 */
+	private static final long INDEXING_REFRESH_DELAY = 2000;
+
+	/**
+	 * Delay (in milliseconds) between the indexer going idle and the commit of
+	 * the changes to disk.
+	 */
+	private static final long COMMIT_DELAY = 1000;
+
 	private static final String INDEX_DIR = "index"; //$NON-NLS-1$
 	private static final String PROPERTIES_FILE = ".properties"; //$NON-NLS-1$
 	private static final String MAPPINGS_FILE = ".mappings"; //$NON-NLS-1$
@@ -99,6 +184,25 @@ public enum LuceneManager {
 	private final Properties fIndexProperties;
 	private final Map<String, String> fContainerMappings;
 	private final Map<String, IndexContainer> fIndexContainers;
+	private final Set<IndexContainer> fChangedContainers = ConcurrentHashMap
+			.newKeySet();
+	private final AtomicBoolean fRefreshPending = new AtomicBoolean();
+	private final AtomicBoolean fCommitPending = new AtomicBoolean();
+	private volatile boolean fIndexing;
+	private final Job fRefresher = new Refresher();
+	private final Job fCommitter = new Committer();
+
+	private void refresh() {
+		for (IndexContainer indexContainer : fChangedContainers) {
+			// remove first, so changes written during the refresh are not lost
+			fChangedContainers.remove(indexContainer);
+			try {
+				indexContainer.refresh();
+			} catch (Exception e) {
+				Logger.logException(e);
+			}
+		}
+	}
 
 	private void commit() {
 		try {
@@ -156,6 +260,27 @@ public enum LuceneManager {
 				elementType);
 	}
 
+	/**
+	 * Notifies that documents of the given container were added or removed, the
+	 * container searchers will be refreshed within {@link #REFRESH_DELAY}
+	 * milliseconds, or once the indexer is idle or
+	 * {@link #INDEXING_REFRESH_DELAY} milliseconds elapsed while it runs.
+	 * 
+	 * @param container
+	 */
+	public final void changed(String container) {
+		synchronized (fContainerMappings) {
+			if (fContainerMappings.get(container) == null) {
+				return;
+			}
+		}
+		fChangedContainers.add(getIndexContainer(container));
+		if (fRefreshPending.compareAndSet(false, true)) {
+			fRefresher.schedule(
+					fIndexing ? INDEXING_REFRESH_DELAY : REFRESH_DELAY);
+		}
+	}
+
 	/**
 	 * Finds and returns time stamps index writer for given container.
 	 * 
@@ -273,6 +398,11 @@ public enum LuceneManager {
 	}
 
 	private synchronized void shutdown() {
+		fRefresher.cancel();
+		fCommitter.cancel();
+		fChangedContainers.clear();
+		// Commit pending changes, writers do not commit on close
+		commit();
 		// Close all searchers & writers in all container entries
 		for (IndexContainer entry : fIndexContainers.values()) {
 			entry.close();
@@ -30,22 +30,23 @@ import static org.eclipse.dltk.internal.core.index.lucene.IndexFields.NDV_OFFSET
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiReader;
 import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MatchAllDocsQuery;
@@ -115,20 +116,33 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 
 	private static final class ResultsCollector implements Collector {
 
+		// order must match the column indexes below
 		private static final String[] NUMERIC_FIELDS = new String[] {
 				NDV_OFFSET, NDV_LENGTH, NDV_FLAGS, NDV_NAME_OFFSET,
 				NDV_NAME_LENGTH };
+		private static final int OFFSET = 0;
+		private static final int LENGTH = 1;
+		private static final int FLAGS = 2;
+		private static final int NAME_OFFSET = 3;
+		private static final int NAME_LENGTH = 4;
 		private static final String[] BINARY_FIELDS = new String[] { BDV_PATH,
 				BDV_ELEMENT_NAME, BDV_QUALIFIER, BDV_PARENT, BDV_METADATA,
 				BDV_DOC };
-		private Map<String, NumericDocValues> fDocNumericValues;
-		private Map<String, BinaryDocValues> fDocBinaryValues;
-		private String fContainer;
-		private int fElementType;
-		private List<SearchMatch> fResult = new LinkedList<>();
+		private static final int PATH = 0;
+		private static final int ELEMENT_NAME = 1;
+		private static final int QUALIFIER = 2;
+		private static final int PARENT = 3;
+		private static final int METADATA = 4;
+		private static final int DOC = 5;
+		private final String[] fContainers;
+		private final int[] fDocStarts;
+		private final int fElementType;
+		private final List<SearchMatch> fResult = new ArrayList<>();
 
-		public ResultsCollector(String container, int elementType) {
-			this.fContainer = container;
+		public ResultsCollector(String[] containers, int[] docStarts,
+				int elementType) {
+			this.fContainers = containers;
+			this.fDocStarts = docStarts;
 			this.fElementType = elementType;
 		}
 
@@ -145,19 +159,15 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 		public LeafCollector getLeafCollector(final LeafReaderContext context)
 				throws IOException {
 			final LeafReader reader = context.reader();
-			fDocNumericValues = new HashMap<>();
-			for (String field : NUMERIC_FIELDS) {
-				NumericDocValues docValues = reader.getNumericDocValues(field);
-				if (docValues != null) {
-					fDocNumericValues.put(field, docValues);
-				}
+			final String container = fContainers[ReaderUtil
+					.subIndex(context.docBase, fDocStarts)];
+			final NumericDocValues[] numericValues = new NumericDocValues[NUMERIC_FIELDS.length];
+			for (int i = 0; i < NUMERIC_FIELDS.length; i++) {
+				numericValues[i] = reader.getNumericDocValues(NUMERIC_FIELDS[i]);
 			}
-			fDocBinaryValues = new HashMap<>();
-			for (String field : BINARY_FIELDS) {
-				BinaryDocValues docValues = reader.getBinaryDocValues(field);
-				if (docValues != null) {
-					fDocBinaryValues.put(field, docValues);
-				}
+			final BinaryDocValues[] binaryValues = new BinaryDocValues[BINARY_FIELDS.length];
+			for (int i = 0; i < BINARY_FIELDS.length; i++) {
+				binaryValues[i] = reader.getBinaryDocValues(BINARY_FIELDS[i]);
 			}
 			return new LeafCollector() {
 
@@ -167,31 +177,26 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 
 				@Override
 				public void collect(int docId) throws IOException {
-					addResult(docId);
+					fResult.add(new SearchMatch(container, fElementType,
+							getNumericValue(numericValues[OFFSET], docId),
+							getNumericValue(numericValues[LENGTH], docId),
+							getNumericValue(numericValues[NAME_OFFSET], docId),
+							getNumericValue(numericValues[NAME_LENGTH], docId),
+							getNumericValue(numericValues[FLAGS], docId),
+							getStringValue(binaryValues[ELEMENT_NAME], docId),
+							getStringValue(binaryValues[PATH], docId),
+							getStringValue(binaryValues[PARENT], docId),
+							getStringValue(binaryValues[QUALIFIER], docId),
+							getStringValue(binaryValues[DOC], docId),
+							getStringValue(binaryValues[METADATA], docId)));
 				}
 			};
 		}
 
-		private void addResult(int docId) {
-			fResult.add(new SearchMatch(fContainer, fElementType,
-					getNumericValue(NDV_OFFSET, docId),
-					getNumericValue(NDV_LENGTH, docId),
-					getNumericValue(NDV_NAME_OFFSET, docId),
-					getNumericValue(NDV_NAME_LENGTH, docId),
-					getNumericValue(NDV_FLAGS, docId),
-					getStringValue(BDV_ELEMENT_NAME, docId),
-					getStringValue(BDV_PATH, docId),
-					getStringValue(BDV_PARENT, docId),
-					getStringValue(BDV_QUALIFIER, docId),
-					getStringValue(BDV_DOC, docId),
-					getStringValue(BDV_METADATA, docId)));
-		}
-
-		private long getNumericValue(String field, int docId) {
-			NumericDocValues docValues = fDocNumericValues.get(field);
+		private static long getNumericValue(NumericDocValues docValues,
+				int docId) {
 			if (docValues != null) {
 				try {
-					docValues.advanceExact(docId);
 					if (!docValues.advanceExact(docId)) {
 						return 0;
 					}
@@ -203,8 +208,8 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 			return 0;
 		}
 
-		private String getStringValue(String field, int docId) {
-			BinaryDocValues docValues = fDocBinaryValues.get(field);
+		private static String getStringValue(BinaryDocValues docValues,
+				int docId) {
 			if (docValues != null) {
 				try {
 					if (!docValues.advanceExact(docId)) {
@@ -223,6 +228,42 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 
 	}
 
+	/**
+	 * Creates a collector for each slice of segments searched in parallel
+	 * and concatenates their results in the order of the segments.
+	 */
+	private static final class ResultsCollectorManager implements
+			CollectorManager<ResultsCollector, List<SearchMatch>> {
+
+		private final String[] fContainers;
+		private final int[] fDocStarts;
+		private final int fElementType;
+
+		public ResultsCollectorManager(String[] containers, int[] docStarts,
+				int elementType) {
+			this.fContainers = containers;
+			this.fDocStarts = docStarts;
+			this.fElementType = elementType;
+		}
+
+		@Override
+		public ResultsCollector newCollector() {
+			return new ResultsCollector(fContainers, fDocStarts, fElementType);
+		}
+
+		@Override
+		public List<SearchMatch> reduce(Collection<ResultsCollector> collectors) {
+			if (collectors.size() == 1) {
+				return collectors.iterator().next().getfResult();
+			}
+			List<SearchMatch> result = new ArrayList<>();
+			for (ResultsCollector collector : collectors) {
+				result.addAll(collector.getfResult());
+			}
+			return result;
+		}
+	}
+
 	@Override
 	public void search(int elementType, String qualifier, String elementName,
 			int trueFlags, int falseFlags, int limit, SearchFor searchFor,
@@ -242,32 +283,82 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 		boolean searchForRefs = searchFor == SearchFor.REFERENCES
 				|| searchFor == SearchFor.ALL_OCCURRENCES;
 
-		List<SearchTask> tasks = new LinkedList<>();
 		List<String> containers = SearchScope.getContainers(scope);
 		List<String> scripts = SearchScope.getScripts(scope);
 		final SearchMatchHandler searchMatchHandler = new SearchMatchHandler(
 				scope, requestor);
 		if (searchForRefs) {
-			for (String container : containers) {
-				tasks.add(new SearchTask(elementType, qualifier, elementName,
-						parent, trueFlags, falseFlags, true, matchRule, scripts,
-						container));
+			Query query = createQuery(elementName, qualifier, parent,
+					trueFlags, falseFlags, true, matchRule, scripts);
+			for (SearchMatch match : search(containers, IndexType.REFERENCES,
+					elementType, query)) {
+				searchMatchHandler.handle(match, true);
 			}
-			tasks.stream().map(ForkJoinTask::fork).forEach(t -> t.join()
-					.stream().forEach(m -> searchMatchHandler.handle(m, true)));
-
 		}
 		if (searchForDecls) {
-			tasks.clear();
+			Query query = createQuery(elementName, qualifier, parent,
+					trueFlags, falseFlags, false, matchRule, scripts);
+			for (SearchMatch match : search(containers,
+					IndexType.DECLARATIONS, elementType, query)) {
+				searchMatchHandler.handle(match, false);
+			}
+		}
+	}
+
+	/**
+	 * Searches the indexes of all the given containers at once: the current
+	 * readers of the containers are combined in a single {@link MultiReader}
+	 * and its segments are searched in parallel.
+	 */
+	private List<SearchMatch> search(List<String> containers,
+			IndexType dataType, int elementType, Query query) {
+		List<SearcherManager> searcherManagers = new ArrayList<>();
+		List<IndexSearcher> indexSearchers = new ArrayList<>();
+		List<String> searchedContainers = new ArrayList<>();
+		try {
 			for (String container : containers) {
-				tasks.add(new SearchTask(elementType, qualifier, elementName,
-						parent, trueFlags, falseFlags, false, matchRule,
-						scripts, container));
+				SearcherManager searcherManager = LuceneManager.INSTANCE
+						.findIndexSearcher(container, dataType, elementType);
+				if (searcherManager == null) {
+					continue;
+				}
+				indexSearchers.add(searcherManager.acquire());
+				searcherManagers.add(searcherManager);
+				searchedContainers.add(container);
+			}
+			if (indexSearchers.isEmpty()) {
+				return Collections.emptyList();
+			}
+			int size = indexSearchers.size();
+			IndexReader[] readers = new IndexReader[size];
+			int[] docStarts = new int[size];
+			int maxDoc = 0;
+			for (int i = 0; i < size; i++) {
+				readers[i] = indexSearchers.get(i).getIndexReader();
+				docStarts[i] = maxDoc;
+				maxDoc += readers[i].maxDoc();
+			}
+			try (MultiReader reader = new MultiReader(readers, false)) {
+				IndexSearcher indexSearcher = new IndexSearcher(reader,
+						ForkJoinPool.commonPool());
+				return indexSearcher.search(
+						query != null ? query : new MatchAllDocsQuery(),
+						new ResultsCollectorManager(
+								searchedContainers.toArray(new String[size]),
+								docStarts, elementType));
+			}
+		} catch (IOException e) {
+			Logger.logException(e);
+		} finally {
+			for (int i = 0; i < indexSearchers.size(); i++) {
+				try {
+					searcherManagers.get(i).release(indexSearchers.get(i));
+				} catch (IOException e) {
+					Logger.logException(e);
+				}
 			}
-			tasks.stream().map(ForkJoinTask::fork)
-					.forEach(t -> t.join().stream()
-							.forEach(m -> searchMatchHandler.handle(m, false)));
 		}
+		return Collections.emptyList();
 	}
 
 	private Query createQuery(final String elementName, final String qualifier,
@@ -319,71 +410,4 @@ public class LuceneSearchEngine implements ISearchEngineExtension {
 		return query.clauses().isEmpty() ? null : query;
 	}
 
-	private class SearchTask extends RecursiveTask<List<SearchMatch>> {
-		int elementType;
-		String qualifier;
-		String elementName;
-		String parent;
-		int trueFlags;
-		int falseFlags;
-		boolean searchForRefs;
-		MatchRule matchRule;
-		List<String> scripts;
-		String container;
-
-		private SearchTask(int elementType, String qualifier,
-				String elementName, String parent, int trueFlags,
-				final int falseFlags, boolean searchForRefs,
-				MatchRule matchRule, List<String> scripts, String container) {
-			this.elementType = elementType;
-			this.qualifier = qualifier;
-			this.elementName = elementName;
-			this.parent = parent;
-			this.trueFlags = trueFlags;
-			this.falseFlags = falseFlags;
-			this.searchForRefs = searchForRefs;
-			this.matchRule = matchRule;
-			this.scripts = scripts;
-			this.container = container;
-		}
-
-		@Override
-		protected List<SearchMatch> compute() {
-			SearcherManager searcherManager = LuceneManager.INSTANCE
-					.findIndexSearcher(container,
-							searchForRefs ? IndexType.REFERENCES
-									: IndexType.DECLARATIONS,
-							elementType);
-			if (searcherManager == null) {
-				return Collections.emptyList();
-			}
-			IndexSearcher indexSearcher = null;
-			try {
-				indexSearcher = searcherManager.acquire();
-				Query query = createQuery(elementName, qualifier, parent,
-						trueFlags, falseFlags, searchForRefs, matchRule,
-						scripts);
-				ResultsCollector collector = new ResultsCollector(container,
-						elementType);
-				if (query != null) {
-					indexSearcher.search(query, collector);
-				} else {
-					indexSearcher.search(new MatchAllDocsQuery(), collector);
-				}
-				return collector.getfResult();
-			} catch (IOException e) {
-				Logger.logException(e);
-			} finally {
-				if (indexSearcher != null) {
-					try {
-						searcherManager.release(indexSearcher);
-					} catch (IOException e) {
-						Logger.logException(e);
-					}
-				}
-			}
-			return Collections.emptyList();
-		}
-	}
-
 }
@@ -15,7 +15,8 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.IScriptProject;
 
-public class DefaultProblemFactory implements IProblemFactory {
+public class DefaultProblemFactory
+		implements IProblemFactory, IProblemFactoryExtension {
 
 	@Override
 	public String getMarkerType(IProblem problem) {
@@ -52,6 +53,29 @@ public class DefaultProblemFactory implements IProblemFactory {
 				IResource.DEPTH_INFINITE);
 	}
 
+	/**
+	 * Returns the markers deleted by {@link #deleteMarkers(IResource)}, the
+	 * subclasses which override it should override this method too, otherwise
+	 * their markers are still deleted and created again on each build.
+	 *
+	 * @since 6.3
+	 */
+	@Override
+	public IMarker[] findMarkers(IResource resource) throws CoreException {
+		final IMarker[] problems = resource.findMarkers(
+				DefaultProblem.MARKER_TYPE_PROBLEM, true,
+				IResource.DEPTH_INFINITE);
+		final IMarker[] tasks = resource.findMarkers(
+				DefaultProblem.MARKER_TYPE_TASK, true, IResource.DEPTH_INFINITE);
+		if (tasks.length == 0) {
+			return problems;
+		}
+		final IMarker[] result = new IMarker[problems.length + tasks.length];
+		System.arraycopy(problems, 0, result, 0, problems.length);
+		System.arraycopy(tasks, 0, result, problems.length, tasks.length);
+		return result;
+	}
+
 	@Override
 	public boolean isValidMarker(IMarker marker) {
 		try {
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.compiler.problem;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Optional interface to be implemented by {@link IProblemFactory problem
+ * factories}, so the builder updates the markers of a resource instead of
+ * deleting and creating them again.
+ *
+ * @since 6.3
+ */
+public interface IProblemFactoryExtension {
+
+	/**
+	 * Returns the markers of the resource which
+	 * {@link IProblemFactory#deleteMarkers(IResource)} deletes.
+	 */
+	IMarker[] findMarkers(IResource resource) throws CoreException;
+
+}
@@ -14,7 +14,9 @@ package org.eclipse.dltk.compiler.problem;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
@@ -251,39 +253,58 @@ public class ProblemCollector extends AbstractProblemReporter implements ITaskRe
 	public void createMarkers(IResource resource, IProblemFactory problemFactory, IProblemSeverityTranslator translator)
 			throws CoreException {
 		for (final IProblem problem : problems) {
-			ProblemSeverity severity = problem.getSeverity();
-			if (!problem.isTask()) {
-				severity = translator.getSeverity(problem.getID(), severity);
-				if (severity == null || severity == ProblemSeverity.IGNORE) {
-					continue;
-				}
+			final Map<String, Object> attributes = getMarkerAttributes(problem, translator);
+			if (attributes == null) {
+				continue;
 			}
 			final IMarker m = problemFactory.createMarker(resource, problem);
-			if (problem.getSourceLineNumber() >= 0) {
-				m.setAttribute(IMarker.LINE_NUMBER, problem.getSourceLineNumber() + 1);
-			}
-			m.setAttribute(IMarker.MESSAGE, problem.getMessage());
-			if (problem.getSourceStart() >= 0) {
-				m.setAttribute(IMarker.CHAR_START, problem.getSourceStart());
-			}
-			if (problem.getSourceEnd() >= 0) {
-				m.setAttribute(IMarker.CHAR_END, problem.getSourceEnd());
-			}
-			if (!problem.isTask()) {
-				m.setAttribute(IMarker.SEVERITY, severity.value);
-			} else {
-				m.setAttribute(IMarker.USER_EDITABLE, Boolean.FALSE);
-				if (problem instanceof TaskInfo) {
-					m.setAttribute(IMarker.PRIORITY, ((TaskInfo) problem).getPriority());
-				}
-			}
-			if (problem.getID() != null) {
-				m.setAttribute(IScriptModelMarker.ID, DefaultProblemIdentifier.encode(problem.getID()));
+			m.setAttributes(attributes.keySet().toArray(new String[attributes.size()]), attributes.values().toArray());
+		}
+	}
+
+	/**
+	 * Returns the attributes of the marker of the problem, or <code>null</code>
+	 * if the problem is ignored. The attributes are set at once, as setting each
+	 * of them is a separate workspace operation.
+	 *
+	 * @param problem
+	 * @param translator
+	 * @return
+	 */
+	public static Map<String, Object> getMarkerAttributes(IProblem problem, IProblemSeverityTranslator translator) {
+		ProblemSeverity severity = problem.getSeverity();
+		if (!problem.isTask()) {
+			severity = translator.getSeverity(problem.getID(), severity);
+			if (severity == null || severity == ProblemSeverity.IGNORE) {
+				return null;
 			}
-			final String[] arguments = problem.getArguments();
-			if (arguments != null && arguments.length != 0) {
-				m.setAttribute(IScriptModelMarker.ARGUMENTS, Util.getProblemArgumentsForMarker(arguments));
+		}
+		final Map<String, Object> attributes = new LinkedHashMap<>();
+		if (problem.getSourceLineNumber() >= 0) {
+			attributes.put(IMarker.LINE_NUMBER, problem.getSourceLineNumber() + 1);
+		}
+		attributes.put(IMarker.MESSAGE, problem.getMessage());
+		if (problem.getSourceStart() >= 0) {
+			attributes.put(IMarker.CHAR_START, problem.getSourceStart());
+		}
+		if (problem.getSourceEnd() >= 0) {
+			attributes.put(IMarker.CHAR_END, problem.getSourceEnd());
+		}
+		if (!problem.isTask()) {
+			attributes.put(IMarker.SEVERITY, severity.value);
+		} else {
+			attributes.put(IMarker.USER_EDITABLE, Boolean.FALSE);
+			if (problem instanceof TaskInfo) {
+				attributes.put(IMarker.PRIORITY, ((TaskInfo) problem).getPriority());
 			}
 		}
+		if (problem.getID() != null) {
+			attributes.put(IScriptModelMarker.ID, DefaultProblemIdentifier.encode(problem.getID()));
+		}
+		final String[] arguments = problem.getArguments();
+		if (arguments != null && arguments.length != 0) {
+			attributes.put(IScriptModelMarker.ARGUMENTS, Util.getProblemArgumentsForMarker(arguments));
+		}
+		return attributes;
 	}
 }
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.environment;
+
+import java.io.File;
+import java.util.Collection;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Local copy of the folders of a remote environment, so the files of a large
+ * folder (e.g. the libraries of an interpreter) are transferred at once
+ * instead of one by one.
+ *
+ * Remote environments may provide it as an adapter of their
+ * {@link IEnvironment}, their file handles then read the files from the copy
+ * as long as the remote files have the same timestamps.
+ */
+public interface IEnvironmentMirror {
+
+	/**
+	 * Makes sure the local copy of the files is up to date, the whole folder
+	 * is transferred if enough of the files are missing from the copy or
+	 * changed since. Returns <code>false</code> if the folder can't be copied.
+	 *
+	 * @param folder
+	 *            the environment-local path of the folder
+	 * @param files
+	 *            the files of the folder which are going to be read
+	 * @param monitor
+	 *            progress monitor, may be <code>null</code>
+	 */
+	boolean prefetch(IPath folder, Collection<IFileHandle> files,
+			IProgressMonitor monitor);
+
+	/**
+	 * Returns the local copy of the file, or <code>null</code> if it is not
+	 * copied or the remote file changed since.
+	 */
+	File getFile(IFileHandle file);
+}
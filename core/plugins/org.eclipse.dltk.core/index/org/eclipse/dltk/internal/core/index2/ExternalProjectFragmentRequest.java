@@ -49,6 +49,11 @@ public class ExternalProjectFragmentRequest extends AbstractIndexRequest {
 		return fragment.getElementName();
 	}
 
+	@Override
+	public Object getSchedulingKey() {
+		return fragment.getPath();
+	}
+
 	@Override
 	protected void run() throws CoreException, IOException {
 		if (isCancelled) {
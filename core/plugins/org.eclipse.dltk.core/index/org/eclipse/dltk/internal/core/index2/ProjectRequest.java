@@ -46,6 +46,11 @@ public class ProjectRequest extends AbstractIndexRequest {
 		return project.getElementName();
 	}
 
+	@Override
+	public Object getSchedulingKey() {
+		return project.getPath();
+	}
+
 	@Override
 	protected void run() throws CoreException {
 		final IProjectFragment[] fragments = project.getAllProjectFragments();
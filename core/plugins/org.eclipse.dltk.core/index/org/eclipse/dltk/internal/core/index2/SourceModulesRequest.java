@@ -50,6 +50,11 @@ public class SourceModulesRequest extends AbstractIndexRequest {
 		return containerPath.toString();
 	}
 
+	@Override
+	public Object getSchedulingKey() {
+		return containerPath;
+	}
+
 	@Override
 	protected void run() throws CoreException, IOException {
 
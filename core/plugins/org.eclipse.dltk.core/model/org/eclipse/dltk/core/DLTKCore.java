@@ -381,6 +381,79 @@ public class DLTKCore extends Plugin {
 	 * Possible configurable option ID.
 	 */
 	public static final String INDEXER_ID = PLUGIN_ID + ".indexer.id"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value is the maximum number of index
+	 * containers indexed at the same time, <code>0</code> to compute it from
+	 * the number of available processors.
+	 */
+	public static final String INDEXER_THREADS = PLUGIN_ID
+			+ ".indexer.threads"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value is the number of threads building
+	 * the modules of a project, <code>0</code> to compute it from the number of
+	 * available processors. Can be set per project.
+	 */
+	public static final String BUILDER_THREADS = PLUGIN_ID
+			+ ".builder.threads"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value should be {@link #ENABLED} or
+	 * {@link #DISABLED}. When enabled, disk indexes are memory mapped and
+	 * queried without locking. The option is read once per session.
+	 */
+	public static final String INDEX_MAPPED_READS = PLUGIN_ID
+			+ ".index.mappedReads"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value should be {@link #ENABLED} or
+	 * {@link #DISABLED}. When enabled, the indexes selected for a search are
+	 * queried in parallel.
+	 */
+	public static final String SEARCH_PARALLEL_INDEX_QUERIES = PLUGIN_ID
+			+ ".search.parallelIndexQueries"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value should be {@link #ENABLED} or
+	 * {@link #DISABLED}. When enabled, the subgoals of the default type
+	 * inferencer are evaluated in parallel, so the registered goal evaluators
+	 * must not depend on the calling thread.
+	 */
+	public static final String TYPE_INFERENCE_PARALLEL_GOALS = PLUGIN_ID
+			+ ".typeInference.parallelGoals"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value should be {@link #ENABLED} or
+	 * {@link #DISABLED}. When enabled, the results of the goals evaluated by
+	 * the default type inferencer are kept until the model changes.
+	 */
+	public static final String TYPE_INFERENCE_RESULT_CACHE = PLUGIN_ID
+			+ ".typeInference.resultCache"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value is the estimated memory in
+	 * megabytes the source module information cache may use, <code>0</code>
+	 * to compute it from the maximum heap size.
+	 */
+	public static final String SOURCE_MODULE_INFO_CACHE_MEMORY = PLUGIN_ID
+			+ ".sourceModuleInfoCache.memory"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value should be {@link #ENABLED} or
+	 * {@link #DISABLED}. When enabled, the types of each level of a type
+	 * hierarchy are searched in parallel.
+	 */
+	public static final String TYPE_HIERARCHY_PARALLEL_RESOLUTION = PLUGIN_ID
+			+ ".typeHierarchy.parallelResolution"; //$NON-NLS-1$
+
+	/**
+	 * Possible configurable option ID. Value should be {@link #ENABLED} or
+	 * {@link #DISABLED}. When enabled, the type hierarchies which are slow to
+	 * compute are kept on disk until the indexes change.
+	 */
+	public static final String TYPE_HIERARCHY_SNAPSHOTS = PLUGIN_ID
+			+ ".typeHierarchy.snapshots"; //$NON-NLS-1$
 	
 	/**
 	 * Possible project configurable option ID. Value is the identifier of
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core;
+
+/**
+ * Extension of {@link ITypeHierarchyChangedListener} which is also notified
+ * when the type hierarchy was refreshed.
+ * <p>
+ * This interface may be implemented by clients.
+ * </p>
+ */
+public interface ITypeHierarchyChangedListenerExtension
+		extends ITypeHierarchyChangedListener {
+	/**
+	 * Notifies that the given type hierarchy was refreshed.
+	 *
+	 * @param typeHierarchy
+	 *            the given type hierarchy
+	 * @param changedTypes
+	 *            the types whose super types or subtypes changed, or
+	 *            <code>null</code> if the whole hierarchy was computed again
+	 */
+	void typeHierarchyRefreshed(ITypeHierarchy typeHierarchy,
+			IType[] changedTypes);
+}
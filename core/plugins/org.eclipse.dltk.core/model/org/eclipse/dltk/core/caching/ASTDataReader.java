@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.caching;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.dltk.ast.ASTNode;
+import org.eclipse.dltk.internal.core.util.Messages;
+
+/**
+ * Reads the data written by an {@link ASTDataWriter}. Malformed data is
+ * reported as {@link IOException}.
+ */
+public class ASTDataReader {
+	private final ByteBuffer in;
+	private final List<String> strings = new ArrayList<>();
+
+	public ASTDataReader(ByteBuffer in) {
+		this.in = in;
+	}
+
+	public int readInt() throws IOException {
+		int v = 0;
+		try {
+			for (int shift = 0; shift < 35; shift += 7) {
+				final int b = in.get();
+				v |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return (v >>> 1) ^ -(v & 1);
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			// fall through
+		}
+		throw new IOException(Messages.exception_wrongFormat);
+	}
+
+	public long readLong() throws IOException {
+		try {
+			return in.getLong();
+		} catch (BufferUnderflowException e) {
+			throw new IOException(Messages.exception_wrongFormat);
+		}
+	}
+
+	public boolean readBoolean() throws IOException {
+		try {
+			return in.get() != 0;
+		} catch (BufferUnderflowException e) {
+			throw new IOException(Messages.exception_wrongFormat);
+		}
+	}
+
+	public String readString() throws IOException {
+		final int tag = readInt();
+		if (tag == 0) {
+			return null;
+		}
+		if (tag == 1) {
+			final int length = readInt();
+			if (length < 0 || length > in.remaining()) {
+				throw new IOException(Messages.exception_wrongFormat);
+			}
+			final byte[] bytes = new byte[length];
+			in.get(bytes);
+			final String value = new String(bytes, StandardCharsets.UTF_8);
+			strings.add(value);
+			return value;
+		}
+		final int index = tag - 2;
+		if (index < 0 || index >= strings.size()) {
+			throw new IOException(Messages.exception_wrongFormat);
+		}
+		return strings.get(index);
+	}
+
+	public String[] readStrings() throws IOException {
+		final int length = readInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > in.remaining()) {
+			throw new IOException(Messages.exception_wrongFormat);
+		}
+		final String[] values = new String[length];
+		for (int i = 0; i < length; ++i) {
+			values[i] = readString();
+		}
+		return values;
+	}
+
+	/**
+	 * Skips a section written by {@link ASTDataWriter#writeSection}, returns
+	 * the reader of its data.
+	 */
+	public ASTDataReader readSection() throws IOException {
+		final int length = readInt();
+		if (length < 0 || length > in.remaining()) {
+			throw new IOException(Messages.exception_wrongFormat);
+		}
+		final ByteBuffer section = in.slice();
+		section.limit(length);
+		in.position(in.position() + length);
+		return new ASTDataReader(section);
+	}
+
+	/**
+	 * Reads the source range written by
+	 * {@link ASTDataWriter#writeBounds(ASTNode)} into the node.
+	 */
+	public void readBounds(ASTNode node) throws IOException {
+		final int start = readInt();
+		node.setStart(start);
+		node.setEnd(start + readInt());
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.caching;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.dltk.ast.ASTNode;
+
+/**
+ * Compact binary encoding of the AST nodes stored by a {@link BinaryASTCache}.
+ *
+ * Integers are written as variable length zigzag numbers, so small positive
+ * and negative values (offsets, lengths, <code>-1</code>) take one or two
+ * bytes. Each distinct string is written once, the next occurrences refer to
+ * the first one.
+ *
+ * @see ASTDataReader
+ */
+public class ASTDataWriter {
+	private final ByteArrayOutputStream data = new ByteArrayOutputStream(4096);
+	private final DataOutputStream out = new DataOutputStream(data);
+	private final Map<String, Integer> strings = new HashMap<>();
+
+	public void writeInt(int value) throws IOException {
+		int v = (value << 1) ^ (value >> 31);
+		while ((v & ~0x7F) != 0) {
+			out.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte(v);
+	}
+
+	public void writeLong(long value) throws IOException {
+		out.writeLong(value);
+	}
+
+	public void writeBoolean(boolean value) throws IOException {
+		out.writeBoolean(value);
+	}
+
+	public void writeString(String value) throws IOException {
+		if (value == null) {
+			writeInt(0);
+			return;
+		}
+		final Integer index = strings.get(value);
+		if (index != null) {
+			writeInt(index.intValue() + 2);
+			return;
+		}
+		strings.put(value, Integer.valueOf(strings.size()));
+		writeInt(1);
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public void writeStrings(String[] values) throws IOException {
+		if (values == null) {
+			writeInt(-1);
+			return;
+		}
+		writeInt(values.length);
+		for (String value : values) {
+			writeString(value);
+		}
+	}
+
+	/**
+	 * Writes the source range of the node.
+	 */
+	public void writeBounds(ASTNode node) throws IOException {
+		writeInt(node.sourceStart());
+		writeInt(node.sourceEnd() - node.sourceStart());
+	}
+
+	/**
+	 * Writes the data of another writer as a section, which has its own
+	 * strings and so can be read independently of the rest of the data.
+	 *
+	 * @see ASTDataReader#readSection()
+	 */
+	public void writeSection(ASTDataWriter section) throws IOException {
+		final byte[] bytes = section.toByteArray();
+		writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public byte[] toByteArray() {
+		return data.toByteArray();
+	}
+}
@@ -13,6 +13,7 @@ package org.eclipse.dltk.core.caching;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -23,7 +24,7 @@ import org.eclipse.dltk.core.environment.IFileHandle;
 
 public abstract class AbstractContentCache implements IContentCache {
 	@Override
-	public synchronized String getCacheEntryAttributeString(IFileHandle handle,
+	public String getCacheEntryAttributeString(IFileHandle handle,
 			String attribute) {
 		return getCacheEntryAttributeString(handle, attribute, false);
 	}
@@ -32,7 +33,7 @@ public abstract class AbstractContentCache implements IContentCache {
 	 * @since 2.0
 	 */
 	@Override
-	public synchronized String getCacheEntryAttributeString(IFileHandle handle,
+	public String getCacheEntryAttributeString(IFileHandle handle,
 			String attribute, boolean localonly) {
 		InputStream stream = getCacheEntryAttribute(handle, attribute,
 				localonly);
@@ -85,7 +86,7 @@ public abstract class AbstractContentCache implements IContentCache {
 	}
 
 	@Override
-	public synchronized long getCacheEntryAttributeLong(IFileHandle handle,
+	public long getCacheEntryAttributeLong(IFileHandle handle,
 			String attribute) {
 		return getCacheEntryAttributeLong(handle, attribute, false);
 	}
@@ -94,7 +95,7 @@ public abstract class AbstractContentCache implements IContentCache {
 	 * @since 2.0
 	 */
 	@Override
-	public synchronized long getCacheEntryAttributeLong(IFileHandle handle,
+	public long getCacheEntryAttributeLong(IFileHandle handle,
 			String attribute, boolean localonly) {
 		InputStream stream = getCacheEntryAttribute(handle, attribute,
 				localonly);
@@ -149,4 +150,17 @@ public abstract class AbstractContentCache implements IContentCache {
 		return false;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Returns the file the attribute of the entry is stored in, or
+	 * <code>null</code> if it is not stored locally. Unlike
+	 * {@link #getEntryAsFile(IFileHandle, String)} the entry is neither created
+	 * nor checked against the modification stamp of the file. The caches which
+	 * can't look their entries up without changing them return
+	 * <code>null</code>.
+	 *
+	 * @since 6.3
+	 */
+	public File findEntryAsFile(IFileHandle handle, String attribute) {
+		return null;
+	}
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+import org.eclipse.dltk.ast.parser.IASTCache;
+import org.eclipse.dltk.ast.parser.IModuleDeclaration;
+import org.eclipse.dltk.ast.parser.SourceParserManager;
+import org.eclipse.dltk.compiler.problem.DefaultProblem;
+import org.eclipse.dltk.compiler.problem.DefaultProblemIdentifier;
+import org.eclipse.dltk.compiler.problem.IProblem;
+import org.eclipse.dltk.compiler.problem.ProblemCollector;
+import org.eclipse.dltk.compiler.problem.ProblemSeverity;
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.DLTKLanguageManager;
+import org.eclipse.dltk.core.IDLTKContributedExtension;
+import org.eclipse.dltk.core.IDLTKLanguageToolkit;
+import org.eclipse.dltk.core.ISourceModule;
+import org.eclipse.dltk.core.environment.EnvironmentPathUtils;
+import org.eclipse.dltk.core.environment.IFileHandle;
+import org.eclipse.dltk.internal.core.ModelManager;
+
+/**
+ * {@link IASTCache} which keeps the parsed modules on disk, so they survive
+ * restarts and the eviction of the in-memory cache.
+ *
+ * The modules are stored in the core {@link IContentCache} of the file, under
+ * an attribute named after the id of the source parser, with the modification
+ * stamp of the file they were parsed from. Working copies are not cached.
+ * The entries are looked up locally, without creating them, so a miss writes
+ * nothing. Large entries are memory mapped, so only the pages actually decoded
+ * are read, and they are written to a new file as a module decoded lazily may
+ * still map the previous one.
+ *
+ * Languages contribute a subclass to the <code>astCache</code> extension
+ * point which encodes their nodes, the problems reported by the parser are
+ * encoded here.
+ *
+ * @see DeclarationASTCache
+ */
+public abstract class BinaryASTCache implements IASTCache {
+	private static final int MAGIC = 0x44415354; // DAST
+	private static final String ATTRIBUTE_PREFIX = "_ast:"; //$NON-NLS-1$
+	private static final int MAPPED_READ_THRESHOLD = 64 * 1024;
+
+	/**
+	 * Returns the version of the encoding, the entries written with another
+	 * version are ignored.
+	 */
+	protected int getVersion() {
+		return 0;
+	}
+
+	/**
+	 * Writes the module, returns <code>false</code> if it can't be encoded and
+	 * should not be cached.
+	 */
+	protected abstract boolean writeModule(ASTDataWriter out,
+			IModuleDeclaration module) throws IOException;
+
+	/**
+	 * Reads the module written by {@link #writeModule}. Parts of it may be
+	 * decoded later, a failure then should {@link #discard(ISourceModule)}
+	 * the entry.
+	 */
+	protected abstract IModuleDeclaration readModule(ISourceModule module,
+			ASTDataReader in) throws IOException;
+
+	/**
+	 * Removes the entry of the module, so it is parsed again next time.
+	 */
+	protected void discard(ISourceModule module) {
+		final IFileHandle handle = getHandle(module);
+		final String attribute = getAttribute(module);
+		if (handle != null && attribute != null) {
+			getCache().removeCacheEntryAttributes(handle, attribute);
+		}
+	}
+
+	@Override
+	public ASTCacheEntry restoreModule(ISourceModule module) {
+		final IFileHandle handle = getHandle(module);
+		final String attribute = getAttribute(module);
+		if (handle == null || attribute == null) {
+			return null;
+		}
+		final IContentCache cache = getCache();
+		final File file = cache instanceof AbstractContentCache
+				? ((AbstractContentCache) cache).findEntryAsFile(handle,
+						attribute)
+				: null;
+		if (file == null) {
+			return null;
+		}
+		try {
+			final ByteBuffer data = read(file);
+			if (!data.hasRemaining()) {
+				return null;
+			}
+			final ASTDataReader in = new ASTDataReader(data);
+			if (in.readInt() != MAGIC || in.readInt() != getVersion()
+					|| in.readLong() != handle.lastModified()) {
+				return null;
+			}
+			final ASTCacheEntry entry = new ASTCacheEntry();
+			entry.problems = readProblems(in);
+			entry.module = readModule(module, in);
+			return entry.module != null ? entry : null;
+		} catch (IOException | RuntimeException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			cache.removeCacheEntryAttributes(handle, attribute);
+			return null;
+		}
+	}
+
+	@Override
+	public void storeModule(ISourceModule module,
+			IModuleDeclaration moduleDeclaration, ProblemCollector problems) {
+		final IFileHandle handle = getHandle(module);
+		final String attribute = getAttribute(module);
+		if (handle == null || attribute == null) {
+			return;
+		}
+		if (problems != null) {
+			for (IProblem problem : problems.getProblems()) {
+				if (problem.getClass() != DefaultProblem.class) {
+					return;
+				}
+			}
+		}
+		try {
+			final ASTDataWriter out = new ASTDataWriter();
+			out.writeInt(MAGIC);
+			out.writeInt(getVersion());
+			out.writeLong(handle.lastModified());
+			writeProblems(out, problems);
+			if (!writeModule(out, moduleDeclaration)) {
+				return;
+			}
+			final IContentCache cache = getCache();
+			// the previous file may still be mapped by a lazily decoded module
+			cache.removeCacheEntryAttributes(handle, attribute);
+			final OutputStream stream = cache
+					.getCacheEntryAttributeOutputStream(handle, attribute);
+			if (stream != null) {
+				try {
+					stream.write(out.toByteArray());
+				} finally {
+					stream.close();
+				}
+			}
+		} catch (IOException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static ByteBuffer read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size >= MAPPED_READ_THRESHOLD) {
+				return channel.map(MapMode.READ_ONLY, 0, size);
+			}
+			final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining()
+					&& channel.read(buffer, buffer.position()) > 0) {
+				// read the whole file
+			}
+			buffer.flip();
+			return buffer;
+		}
+	}
+
+	private static void writeProblems(ASTDataWriter out,
+			ProblemCollector problems) throws IOException {
+		if (problems == null) {
+			out.writeInt(0);
+			return;
+		}
+		out.writeInt(problems.getProblems().size());
+		for (IProblem problem : problems.getProblems()) {
+			final DefaultProblem p = (DefaultProblem) problem;
+			out.writeString(p.getOriginatingFileName());
+			out.writeString(p.getMessage());
+			out.writeString(DefaultProblemIdentifier.encode(p.getID()));
+			out.writeStrings(p.getArguments());
+			final ProblemSeverity severity = p.getSeverity();
+			out.writeString(severity != null ? severity.name() : null);
+			out.writeInt(p.getSourceStart());
+			out.writeInt(p.getSourceEnd());
+			out.writeInt(p.getSourceLineNumber());
+			out.writeInt(p.getColumn());
+		}
+	}
+
+	private static ProblemCollector readProblems(ASTDataReader in)
+			throws IOException {
+		final int count = in.readInt();
+		if (count == 0) {
+			return null;
+		}
+		final ProblemCollector problems = new ProblemCollector();
+		for (int i = 0; i < count; ++i) {
+			final String fileName = in.readString();
+			final String message = in.readString();
+			final String id = in.readString();
+			final String[] arguments = in.readStrings();
+			final String severity = in.readString();
+			problems.reportProblem(new DefaultProblem(fileName, message,
+					DefaultProblemIdentifier.decode(id), arguments,
+					severity != null ? ProblemSeverity.valueOf(severity)
+							: null,
+					in.readInt(), in.readInt(), in.readInt(), in.readInt()));
+		}
+		return problems;
+	}
+
+	private static IFileHandle getHandle(ISourceModule module) {
+		if (module.isWorkingCopy()) {
+			return null;
+		}
+		return EnvironmentPathUtils.getFile(module);
+	}
+
+	private static String getAttribute(ISourceModule module) {
+		final IDLTKLanguageToolkit toolkit = DLTKLanguageManager
+				.getLanguageToolkit(module);
+		if (toolkit == null) {
+			return null;
+		}
+		final IDLTKContributedExtension parser = SourceParserManager
+				.getInstance()
+				.getSelectedContribution(
+						module.getScriptProject().getProject(),
+						toolkit.getNatureId());
+		if (parser == null || parser.getId() == null) {
+			return null;
+		}
+		return ATTRIBUTE_PREFIX + parser.getId();
+	}
+
+	private static IContentCache getCache() {
+		return ModelManager.getModelManager().getCoreCache();
+	}
+}
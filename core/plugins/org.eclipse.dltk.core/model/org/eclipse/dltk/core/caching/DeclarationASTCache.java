@@ -0,0 +1,417 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.caching;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.dltk.ast.ASTListNode;
+import org.eclipse.dltk.ast.ASTNode;
+import org.eclipse.dltk.ast.ASTVisitor;
+import org.eclipse.dltk.ast.DLTKToken;
+import org.eclipse.dltk.ast.declarations.Argument;
+import org.eclipse.dltk.ast.declarations.Declaration;
+import org.eclipse.dltk.ast.declarations.FieldDeclaration;
+import org.eclipse.dltk.ast.declarations.MethodDeclaration;
+import org.eclipse.dltk.ast.declarations.ModuleDeclaration;
+import org.eclipse.dltk.ast.declarations.TypeDeclaration;
+import org.eclipse.dltk.ast.parser.IModuleDeclaration;
+import org.eclipse.dltk.ast.references.SimpleReference;
+import org.eclipse.dltk.ast.statements.Block;
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.ISourceModule;
+import org.eclipse.dltk.internal.core.util.Messages;
+import org.eclipse.dltk.utils.CorePrinter;
+
+/**
+ * {@link BinaryASTCache} of the modules built of the core declaration nodes:
+ * {@link ModuleDeclaration}, {@link TypeDeclaration},
+ * {@link MethodDeclaration}, {@link FieldDeclaration}, {@link Argument},
+ * {@link Block} and {@link SimpleReference}. The modules containing any other
+ * node, including a subclass of those, are not cached.
+ *
+ * The bodies of the types and methods are written as separate sections and
+ * decoded when they are first accessed, so restoring a module only decodes
+ * its top level declarations.
+ *
+ * The class can be contributed as is to the <code>astCache</code> extension
+ * point by the languages whose parser builds such modules.
+ */
+public class DeclarationASTCache extends BinaryASTCache {
+	private static final int NULL = 0;
+	private static final int BLOCK = 1;
+	private static final int TYPE = 2;
+	private static final int METHOD = 3;
+	private static final int FIELD = 4;
+	private static final int ARGUMENT = 5;
+	private static final int REFERENCE = 6;
+
+	@Override
+	protected boolean writeModule(ASTDataWriter out, IModuleDeclaration module)
+			throws IOException {
+		if (module == null || module.getClass() != ModuleDeclaration.class) {
+			return false;
+		}
+		final ModuleDeclaration declaration = (ModuleDeclaration) module;
+		if (!declaration.getTypeList().isEmpty()
+				|| !declaration.getFunctionList().isEmpty()
+				|| !declaration.getVariablesList().isEmpty()) {
+			return false;
+		}
+		out.writeBounds(declaration);
+		return writeNodes(out, declaration.getStatements());
+	}
+
+	@Override
+	protected IModuleDeclaration readModule(ISourceModule module,
+			ASTDataReader in) throws IOException {
+		final ModuleDeclaration declaration = new ModuleDeclaration(0);
+		in.readBounds(declaration);
+		declaration.setStatements(readNodes(module, in));
+		return declaration;
+	}
+
+	private boolean writeNodes(ASTDataWriter out, List<?> nodes)
+			throws IOException {
+		if (nodes == null) {
+			return false;
+		}
+		out.writeInt(nodes.size());
+		for (Object node : nodes) {
+			if (!(node instanceof ASTNode) || !writeNode(out, (ASTNode) node)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean writeNode(ASTDataWriter out, ASTNode node)
+			throws IOException {
+		if (node == null) {
+			out.writeInt(NULL);
+			return true;
+		}
+		final Class<?> nodeClass = node.getClass();
+		if (nodeClass == Block.class || nodeClass == LazyBlock.class) {
+			out.writeInt(BLOCK);
+			out.writeBounds(node);
+			return writeNodes(out, ((Block) node).getStatements());
+		} else if (nodeClass == TypeDeclaration.class) {
+			out.writeInt(TYPE);
+			return writeType(out, (TypeDeclaration) node);
+		} else if (nodeClass == MethodDeclaration.class) {
+			out.writeInt(METHOD);
+			return writeMethod(out, (MethodDeclaration) node);
+		} else if (nodeClass == FieldDeclaration.class) {
+			out.writeInt(FIELD);
+			return writeDeclaration(out, (Declaration) node);
+		} else if (nodeClass == Argument.class) {
+			out.writeInt(ARGUMENT);
+			return writeDeclaration(out, (Declaration) node)
+					&& writeNode(out, ((Argument) node).getInitialization());
+		} else if (nodeClass == SimpleReference.class) {
+			out.writeInt(REFERENCE);
+			out.writeBounds(node);
+			out.writeString(((SimpleReference) node).getName());
+			return true;
+		}
+		return false;
+	}
+
+	private boolean writeDeclaration(ASTDataWriter out, Declaration node)
+			throws IOException {
+		if (node.getRef() == null) {
+			return false;
+		}
+		out.writeBounds(node);
+		out.writeString(node.getName());
+		out.writeInt(node.getNameStart());
+		out.writeInt(node.getNameEnd());
+		out.writeInt(node.getModifiers());
+		out.writeString(node.getComments());
+		return true;
+	}
+
+	private boolean writeType(ASTDataWriter out, TypeDeclaration type)
+			throws IOException {
+		final String enclosingTypeName = type.getEnclosingTypeName();
+		if (type.getParentStart() != 0 || type.getParentEnd() != 0
+				|| !type.getMethodList().isEmpty()
+				|| !type.getTypeList().isEmpty()
+				|| !type.getFieldList().isEmpty()
+				|| enclosingTypeName != null
+						&& enclosingTypeName.startsWith("$")) { //$NON-NLS-1$
+			return false;
+		}
+		out.writeString(enclosingTypeName);
+		if (!writeDeclaration(out, type)) {
+			return false;
+		}
+		final ASTListNode superClasses = type.getSuperClasses();
+		if (superClasses == null) {
+			out.writeBoolean(false);
+		} else if (superClasses.getClass() == ASTListNode.class) {
+			out.writeBoolean(true);
+			out.writeBounds(superClasses);
+			if (!writeNodes(out, superClasses.getChilds())) {
+				return false;
+			}
+		} else {
+			return false;
+		}
+		final Block body = type.getBody();
+		if (!writeBody(out, body)) {
+			return false;
+		}
+		if (body == null) {
+			out.writeInt(type.getBodyStart());
+			out.writeInt(type.getBodyEnd());
+		}
+		return true;
+	}
+
+	private boolean writeMethod(ASTDataWriter out, MethodDeclaration method)
+			throws IOException {
+		final List<?> decorators = method.getDecorators();
+		if (decorators != null && !decorators.isEmpty()
+				|| !writeDeclaration(out, method)) {
+			return false;
+		}
+		out.writeString(method.getDeclaringTypeName());
+		final List<?> arguments = method.getArguments();
+		if (arguments == null) {
+			return false;
+		}
+		out.writeInt(arguments.size());
+		for (Object argument : arguments) {
+			if (argument == null || argument.getClass() != Argument.class
+					|| !writeDeclaration(out, (Argument) argument)
+					|| !writeNode(out,
+							((Argument) argument).getInitialization())) {
+				return false;
+			}
+		}
+		return writeBody(out, method.getBody());
+	}
+
+	/**
+	 * Writes the body as a section, so it can be decoded on demand.
+	 */
+	private boolean writeBody(ASTDataWriter out, Block body)
+			throws IOException {
+		if (body == null) {
+			out.writeBoolean(false);
+			return true;
+		}
+		if (body.getClass() != Block.class
+				&& body.getClass() != LazyBlock.class) {
+			return false;
+		}
+		out.writeBoolean(true);
+		out.writeBounds(body);
+		final ASTDataWriter section = new ASTDataWriter();
+		if (!writeNodes(section, body.getStatements())) {
+			return false;
+		}
+		out.writeSection(section);
+		return true;
+	}
+
+	List<ASTNode> readNodes(ISourceModule module, ASTDataReader in)
+			throws IOException {
+		final int count = in.readInt();
+		if (count < 0) {
+			throw new IOException(Messages.exception_wrongFormat);
+		}
+		final List<ASTNode> nodes = new ArrayList<>(Math.min(count, 1024));
+		for (int i = 0; i < count; ++i) {
+			final ASTNode node = readNode(module, in);
+			if (node == null) {
+				throw new IOException(Messages.exception_wrongFormat);
+			}
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+	private ASTNode readNode(ISourceModule module, ASTDataReader in)
+			throws IOException {
+		switch (in.readInt()) {
+		case NULL:
+			return null;
+		case BLOCK: {
+			final Block block = new Block();
+			in.readBounds(block);
+			block.acceptStatements(readNodes(module, in));
+			return block;
+		}
+		case TYPE:
+			return readType(module, in);
+		case METHOD:
+			return readMethod(module, in);
+		case FIELD:
+			return readDeclaration(in,
+					new FieldDeclaration(null, 0, 0, 0, 0));
+		case ARGUMENT:
+			return readArgument(module, in);
+		case REFERENCE: {
+			final SimpleReference reference = new SimpleReference(0, 0,
+					null);
+			in.readBounds(reference);
+			reference.setName(in.readString());
+			return reference;
+		}
+		default:
+			throw new IOException(Messages.exception_wrongFormat);
+		}
+	}
+
+	private static <T extends Declaration> T readDeclaration(ASTDataReader in,
+			T node) throws IOException {
+		in.readBounds(node);
+		node.setName(in.readString());
+		node.setNameStart(in.readInt());
+		node.setNameEnd(in.readInt());
+		node.setModifiers(in.readInt());
+		node.setComments(in.readString());
+		return node;
+	}
+
+	private TypeDeclaration readType(ISourceModule module, ASTDataReader in)
+			throws IOException {
+		final String enclosingTypeName = in.readString();
+		// only the second constructor initializes the enclosing type name
+		final TypeDeclaration type = readDeclaration(in,
+				enclosingTypeName == null
+						? new TypeDeclaration((DLTKToken) null, 0, 0)
+						: new TypeDeclaration(null, 0, 0, 0, 0));
+		if (enclosingTypeName != null) {
+			type.setEnclosingTypeName(enclosingTypeName);
+		}
+		if (in.readBoolean()) {
+			final ASTListNode superClasses = new ASTListNode();
+			in.readBounds(superClasses);
+			superClasses.setChilds(readNodes(module, in));
+			type.setSuperClasses(superClasses);
+		}
+		final Block body = readBody(module, in);
+		if (body != null) {
+			type.setBody(body);
+		} else {
+			type.setBody(in.readInt(), null, in.readInt());
+		}
+		return type;
+	}
+
+	private MethodDeclaration readMethod(ISourceModule module,
+			ASTDataReader in) throws IOException {
+		final MethodDeclaration method = readDeclaration(in,
+				new MethodDeclaration(0, 0));
+		method.setDeclaringTypeName(in.readString());
+		final int count = in.readInt();
+		if (count < 0) {
+			throw new IOException(Messages.exception_wrongFormat);
+		}
+		for (int i = 0; i < count; ++i) {
+			method.addArgument(readArgument(module, in));
+		}
+		method.acceptBody(readBody(module, in), false);
+		return method;
+	}
+
+	private Argument readArgument(ISourceModule module, ASTDataReader in)
+			throws IOException {
+		final Argument argument = readDeclaration(in, new Argument());
+		argument.setInitializationExpression(readNode(module, in));
+		return argument;
+	}
+
+	private Block readBody(ISourceModule module, ASTDataReader in)
+			throws IOException {
+		if (!in.readBoolean()) {
+			return null;
+		}
+		final LazyBlock body = new LazyBlock(this, module);
+		in.readBounds(body);
+		body.data = in.readSection();
+		return body;
+	}
+
+	/**
+	 * Body which decodes its statements when they are first accessed. If the
+	 * data turns out to be malformed the body stays empty and the cache entry
+	 * is discarded.
+	 */
+	private static final class LazyBlock extends Block {
+		private DeclarationASTCache cache;
+		private ISourceModule module;
+		ASTDataReader data;
+
+		LazyBlock(DeclarationASTCache cache, ISourceModule module) {
+			this.cache = cache;
+			this.module = module;
+		}
+
+		private synchronized void decode() {
+			final ASTDataReader in = data;
+			if (in == null) {
+				return;
+			}
+			data = null;
+			try {
+				super.acceptStatements(cache.readNodes(module, in));
+			} catch (IOException | RuntimeException e) {
+				DLTKCore.error("Failed to decode the cached AST of " //$NON-NLS-1$
+						+ (module != null ? module.getElementName() : null), e);
+				cache.discard(module);
+			} finally {
+				cache = null;
+				module = null;
+			}
+		}
+
+		@Override
+		public void traverse(ASTVisitor visitor) throws Exception {
+			decode();
+			super.traverse(visitor);
+		}
+
+		@Override
+		public void acceptStatements(List<ASTNode> statems) {
+			decode();
+			super.acceptStatements(statems);
+		}
+
+		@Override
+		public List<ASTNode> getStatements() {
+			decode();
+			return super.getStatements();
+		}
+
+		@Override
+		public void addStatement(ASTNode statem) {
+			decode();
+			super.addStatement(statem);
+		}
+
+		@Override
+		public void printNode(CorePrinter output) {
+			decode();
+			super.printNode(output);
+		}
+
+		@Override
+		public void removeStatement(ASTNode node) {
+			decode();
+			super.removeStatement(node);
+		}
+	}
+}
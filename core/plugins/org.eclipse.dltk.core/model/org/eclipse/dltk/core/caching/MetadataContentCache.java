@@ -3,7 +3,7 @@
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0 which is available at
  * http://www.eclipse.org/legal/epl-2.0.
- * 
+ *
  * SPDX-License-Identifier: EPL-2.0
  *
  * Contributors:
@@ -15,6 +15,7 @@ import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -22,10 +23,14 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.CRC32;
 
 import org.eclipse.core.runtime.IPath;
@@ -33,30 +38,45 @@ import org.eclipse.dltk.compiler.util.Util;
 import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.RuntimePerformanceMonitor;
 import org.eclipse.dltk.core.RuntimePerformanceMonitor.PerformanceNode;
-import org.eclipse.dltk.core.caching.cache.CacheEntry;
-import org.eclipse.dltk.core.caching.cache.CacheEntryAttribute;
-import org.eclipse.dltk.core.caching.cache.CacheFactory;
-import org.eclipse.dltk.core.caching.cache.CacheIndex;
 import org.eclipse.dltk.core.environment.EnvironmentManager;
 import org.eclipse.dltk.core.environment.IEnvironment;
 import org.eclipse.dltk.core.environment.IFileHandle;
-import org.eclipse.emf.common.util.EList;
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
 
 /**
  * This class is designed to store any kind of information into metadata cache.
+ *
+ * The index of the cache is a binary log: every change of an entry is appended
+ * to the <code>index.log</code> file and the log is replayed on startup. The
+ * log is rewritten without the obsolete records when they outnumber the live
+ * ones. Lookups don't lock the cache, only the changes are serialized.
  */
 public class MetadataContentCache extends AbstractContentCache {
 	private static final int DAY_IN_MILIS = 60;// 1000 * 60 * 60 * 24;
 	private static final int SAVE_DELTA = 1000 * 60; // Minute
-	private Resource indexResource = null;
+
+	private static final String INDEX_FILE = "index.log"; //$NON-NLS-1$
+	private static final String LEGACY_INDEX_FILE = "index"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x444C4D43; // DLMC
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 8;
+
+	private static final byte RECORD_ENTRY = 1;
+	private static final byte RECORD_ATTRIBUTE = 2;
+	private static final byte RECORD_REMOVE_ATTRIBUTE = 3;
+	private static final byte RECORD_REMOVE_ENTRY = 4;
+
+	/**
+	 * Compact the log only when it has at least this number of obsolete
+	 * records.
+	 */
+	private static final int MIN_GARBAGE = 1024;
+
 	private long newSaveTime = 0;
 
 	private static class EntryKey {
-		private String environment;
-		private String path;
+		private final String environment;
+		private final String path;
 
 		public EntryKey(String environment, String path) {
 			this.environment = environment;
@@ -96,79 +116,340 @@ public class MetadataContentCache extends AbstractContentCache {
 		}
 	}
 
-	private Map<EntryKey, CacheEntry> entryCache = new HashMap<>();
+	private static class CacheEntry {
+		final EntryKey key;
+		final long timestamp;
+		volatile long lastAccessTime;
+		/**
+		 * attribute name to the location of its file, relative to the cache
+		 * location
+		 */
+		final Map<String, String> attributes = new ConcurrentHashMap<>();
+
+		CacheEntry(EntryKey key, long timestamp) {
+			this.key = key;
+			this.timestamp = timestamp;
+		}
+	}
+
+	private final Map<EntryKey, CacheEntry> entryCache = new ConcurrentHashMap<>();
+	private final Map<String, Long> lastIndexes = new ConcurrentHashMap<>();
 	private IPath cacheLocation;
 	private CRC32 checksum = new CRC32();
 
+	private volatile boolean initialized;
+	private File indexFileHandle;
+	private DataOutputStream log;
+	/**
+	 * number of records in the log
+	 */
+	private long logRecords;
+	/**
+	 * number of records needed to restore the current entries
+	 */
+	private long liveRecords;
+
 	public MetadataContentCache(IPath cacheLocation) {
 		this.cacheLocation = cacheLocation;
 	}
 
-	private synchronized void initialize() {
-		if (indexResource == null) {
-			File file = new File(cacheLocation.toOSString());
-			if (!file.exists()) {
-				file.mkdir();
+	private void initialize() {
+		if (!initialized) {
+			synchronized (this) {
+				if (!initialized) {
+					File file = new File(cacheLocation.toOSString());
+					if (!file.exists()) {
+						file.mkdir();
+					}
+					indexFileHandle = new File(
+							cacheLocation.append(INDEX_FILE).toOSString());
+					if (indexFileHandle.exists()) {
+						load();
+					} else {
+						File legacyIndex = new File(cacheLocation
+								.append(LEGACY_INDEX_FILE).toOSString());
+						if (legacyIndex.exists()) {
+							// the files of the old index can't be found anymore
+							deleteContents(file);
+						}
+					}
+					openLog();
+					initialized = true;
+				}
 			}
+		}
+	}
 
-			IPath indexFile = cacheLocation.append("index");
-			indexResource = new XMIResourceImpl();
-			indexFileHandle = new File(indexFile.toOSString());
-			if (indexFileHandle.exists()) {
-				try {
-					BufferedInputStream loadStream = new BufferedInputStream(
-							new FileInputStream(indexFileHandle), 4096);
-					indexResource.load(loadStream, null);
-					loadStream.close();
-				} catch (Exception e) {
-					save(false);
-					if (DLTKCore.DEBUG) {
-						// e.printStackTrace();
+	/**
+	 * Replays the log. The log is read at once, a record which was not
+	 * completely written is discarded with the rest of the log.
+	 */
+	private void load() {
+		long valid = 0;
+		try (FileChannel channel = FileChannel.open(indexFileHandle.toPath(),
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final long size = channel.size();
+			if (size >= HEADER_SIZE && size <= Integer.MAX_VALUE) {
+				final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+				while (buffer.hasRemaining()
+						&& channel.read(buffer, buffer.position()) > 0) {
+					// read the whole file
+				}
+				buffer.flip();
+				if (buffer.getInt() == MAGIC && buffer.getInt() == VERSION) {
+					valid = buffer.position();
+					try {
+						while (buffer.hasRemaining()) {
+							replay(buffer);
+							valid = buffer.position();
+						}
+					} catch (RuntimeException e) {
+						if (DLTKCore.DEBUG) {
+							e.printStackTrace();
+						}
 					}
 				}
 			}
-			EList<EObject> contents = indexResource.getContents();
-			for (EObject eObject : contents) {
-				CacheIndex index = (CacheIndex) eObject;
-				// String to entry cache.
-				EList<CacheEntry> entries = index.getEntries();
-				for (CacheEntry cacheEntry : entries) {
-					entryCache.put(makeKey(cacheEntry), cacheEntry);
+			if (valid < size) {
+				channel.truncate(valid);
+			}
+		} catch (IOException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			entryCache.clear();
+			logRecords = liveRecords = 0;
+			indexFileHandle.delete();
+		}
+	}
+
+	private void replay(ByteBuffer buffer) {
+		final byte type = buffer.get();
+		final EntryKey key = new EntryKey(readString(buffer),
+				readString(buffer));
+		switch (type) {
+		case RECORD_ENTRY:
+			final long timestamp = buffer.getLong();
+			final CacheEntry old = entryCache.put(key,
+					new CacheEntry(key, timestamp));
+			if (old != null) {
+				liveRecords -= 1 + old.attributes.size();
+			}
+			++liveRecords;
+			break;
+		case RECORD_ATTRIBUTE: {
+			final String name = readString(buffer);
+			final String location = readString(buffer);
+			final CacheEntry entry = entryCache.get(key);
+			if (entry != null
+					&& entry.attributes.put(name, location) == null) {
+				++liveRecords;
+			}
+			break;
+		}
+		case RECORD_REMOVE_ATTRIBUTE: {
+			final String name = readString(buffer);
+			final CacheEntry entry = entryCache.get(key);
+			if (entry != null && entry.attributes.remove(name) != null) {
+				--liveRecords;
+			}
+			break;
+		}
+		case RECORD_REMOVE_ENTRY: {
+			final CacheEntry entry = entryCache.remove(key);
+			if (entry != null) {
+				liveRecords -= 1 + entry.attributes.size();
+			}
+			break;
+		}
+		default:
+			throw new IllegalArgumentException("Unknown record " + type); //$NON-NLS-1$
+		}
+		++logRecords;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		final int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid length " + length); //$NON-NLS-1$
+		}
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream out, String value)
+			throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private void openLog() {
+		try {
+			final boolean empty = indexFileHandle.length() == 0;
+			log = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(indexFileHandle, true), 4096));
+			if (empty) {
+				log.writeInt(MAGIC);
+				log.writeInt(VERSION);
+			}
+		} catch (IOException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			closeLog();
+		}
+	}
+
+	private void closeLog() {
+		if (log != null) {
+			try {
+				log.close();
+			} catch (IOException e) {
+				if (DLTKCore.DEBUG) {
+					e.printStackTrace();
 				}
 			}
+			log = null;
 		}
 	}
 
-	private synchronized CacheEntry getEntry(IFileHandle handle) {
+	private void appendEntry(DataOutputStream out, CacheEntry entry)
+			throws IOException {
+		out.writeByte(RECORD_ENTRY);
+		writeString(out, entry.key.environment);
+		writeString(out, entry.key.path);
+		out.writeLong(entry.timestamp);
+	}
+
+	private void appendAttribute(DataOutputStream out, EntryKey key,
+			String name, String location) throws IOException {
+		out.writeByte(RECORD_ATTRIBUTE);
+		writeString(out, key.environment);
+		writeString(out, key.path);
+		writeString(out, name);
+		writeString(out, location);
+	}
+
+	/**
+	 * Appends a record to the log, the caller should hold the lock.
+	 */
+	private void append(byte type, EntryKey key, String name, String location,
+			CacheEntry entry) {
+		++logRecords;
+		if (log == null) {
+			return;
+		}
+		try {
+			switch (type) {
+			case RECORD_ENTRY:
+				appendEntry(log, entry);
+				break;
+			case RECORD_ATTRIBUTE:
+				appendAttribute(log, key, name, location);
+				break;
+			case RECORD_REMOVE_ATTRIBUTE:
+				log.writeByte(type);
+				writeString(log, key.environment);
+				writeString(log, key.path);
+				writeString(log, name);
+				break;
+			case RECORD_REMOVE_ENTRY:
+				log.writeByte(type);
+				writeString(log, key.environment);
+				writeString(log, key.path);
+				break;
+			}
+		} catch (IOException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			closeLog();
+		}
+	}
+
+	/**
+	 * Rewrites the log with the records of the current entries only.
+	 */
+	private void compact() {
+		closeLog();
+		final File temp = new File(indexFileHandle.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(temp),
+							4096))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				for (CacheEntry entry : entryCache.values()) {
+					appendEntry(out, entry);
+					for (Map.Entry<String, String> attr : entry.attributes
+							.entrySet()) {
+						appendAttribute(out, entry.key, attr.getKey(),
+								attr.getValue());
+					}
+				}
+			}
+			Files.move(temp.toPath(), indexFileHandle.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+			logRecords = liveRecords;
+		} catch (IOException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			temp.delete();
+		}
+		openLog();
+	}
+
+	private static void deleteContents(File folder) {
+		File[] files = folder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.isDirectory()) {
+					deleteContents(file);
+				}
+				file.delete();
+			}
+		}
+	}
+
+	private CacheEntry getEntry(IFileHandle handle) {
 		initialize();
 		EntryKey key = makeKey(handle);
-		if (entryCache.containsKey(key)) {
-			CacheEntry entry = entryCache.get(key);
-			long accessTime = entry.getLastAccessTime();
-			long timeMillis = System.currentTimeMillis();
-			if (timeMillis - accessTime > DAY_IN_MILIS) {
-				long entryTimestamp = entry.getTimestamp() / 1000;
-				long handleTimestamp = getHandleLastModification(handle) / 1000;
-				if (entryTimestamp == handleTimestamp) {
-					entry.setLastAccessTime(timeMillis);
-					return entry;
-				} else {
-					entry.setLastAccessTime(timeMillis);
-					removeCacheEntry(entry, key);
-				}
-			} else {
-				entry.setLastAccessTime(timeMillis);
+		CacheEntry entry = entryCache.get(key);
+		long timeMillis = System.currentTimeMillis();
+		long handleTimestamp;
+		if (entry != null) {
+			long accessTime = entry.lastAccessTime;
+			entry.lastAccessTime = timeMillis;
+			if (timeMillis - accessTime <= DAY_IN_MILIS) {
+				return entry;
+			}
+			handleTimestamp = getHandleLastModification(handle);
+			if (entry.timestamp / 1000 == handleTimestamp / 1000) {
 				return entry;
 			}
+		} else {
+			handleTimestamp = getHandleLastModification(handle);
+		}
+		synchronized (this) {
+			CacheEntry current = entryCache.get(key);
+			if (current != entry) {
+				// changed by another thread
+				if (current != null) {
+					return current;
+				}
+			} else if (entry != null) {
+				removeCacheEntry(entry);
+			}
+			CacheEntry newEntry = new CacheEntry(key, handleTimestamp);
+			newEntry.lastAccessTime = timeMillis;
+			entryCache.put(key, newEntry);
+			++liveRecords;
+			append(RECORD_ENTRY, key, null, null, newEntry);
+			return newEntry;
 		}
-		CacheIndex index = getCacheIndex(handle.getEnvironmentId());
-		CacheEntry entry = CacheFactory.eINSTANCE.createCacheEntry();
-		entry.setPath(handle.getPath().toPortableString());
-		entry.setTimestamp(getHandleLastModification(handle));
-		index.getEntries().add(entry);
-		entry.setLastAccessTime(System.currentTimeMillis());
-		entryCache.put(key, entry);
-		return entry;
 	}
 
 	private long getHandleLastModification(IFileHandle handle) {
@@ -190,38 +471,21 @@ public class MetadataContentCache extends AbstractContentCache {
 		return handle.lastModified();
 	}
 
-	private CacheIndex getCacheIndex(String environmentId) {
-		EList<EObject> contents = indexResource.getContents();
-		for (EObject eObject : contents) {
-			CacheIndex index = (CacheIndex) eObject;
-			if (index.getEnvironment().equals(environmentId)) {
-				return index;
-			}
-		}
-		CacheIndex index = CacheFactory.eINSTANCE.createCacheIndex();
-		index.setEnvironment(environmentId);
-		index.setLastIndex(0);
-		contents.add(index);
-		return index;
-	}
-
-	private void removeCacheEntry(CacheEntry entry, EntryKey key) {
-		if (entry == null || key == null) {
+	private synchronized void removeCacheEntry(CacheEntry entry) {
+		if (entry == null || entryCache.get(entry.key) != entry) {
 			return;
 		}
 		// We need to remove old files
-		EList<CacheEntryAttribute> attributes = entry.getAttributes();
-		for (CacheEntryAttribute attr : attributes) {
-			removeAttribute(attr);
-		}
-		attributes.clear();
-		CacheIndex index = (CacheIndex) entry.eContainer();
-		index.getEntries().remove(entry);
-		entryCache.remove(key);
+		for (String location : entry.attributes.values()) {
+			removeAttribute(location);
+		}
+		liveRecords -= 1 + entry.attributes.size();
+		entry.attributes.clear();
+		entryCache.remove(entry.key);
+		append(RECORD_REMOVE_ENTRY, entry.key, null, null, null);
 	}
 
-	private void removeAttribute(CacheEntryAttribute attr) {
-		String location = attr.getLocation();
+	private void removeAttribute(String location) {
 		IPath cacheEntryFile = cacheLocation.append(location);
 		File file = new File(cacheEntryFile.toOSString());
 		if (file.exists()) {
@@ -229,23 +493,30 @@ public class MetadataContentCache extends AbstractContentCache {
 		}
 	}
 
-	private EntryKey makeKey(CacheEntry entry) {
-		CacheIndex index = (CacheIndex) entry.eContainer();
-		return new EntryKey(index.getEnvironment(), entry.getPath());
-	}
-
 	private EntryKey makeKey(IFileHandle handle) {
 		return new EntryKey(handle.getEnvironmentId(),
 				handle.getPath().toString());
 	}
 
-	long changeCount = 0;
-	private File indexFileHandle;
-
+	/**
+	 * Writes the pending changes of the index. When <code>countSaves</code> is
+	 * <code>false</code> or a minute passed since the previous check the log
+	 * is also compacted if it contains mostly obsolete records.
+	 */
 	public synchronized void save(boolean countSaves) {
-		if (indexResource == null) {
+		if (!initialized) {
 			return;
 		}
+		if (log != null) {
+			try {
+				log.flush();
+			} catch (IOException e) {
+				if (DLTKCore.DEBUG) {
+					e.printStackTrace();
+				}
+				closeLog();
+			}
+		}
 		if (countSaves) {
 			long current = System.currentTimeMillis();
 			if (current > newSaveTime) {
@@ -254,17 +525,9 @@ public class MetadataContentCache extends AbstractContentCache {
 				return;
 			}
 		}
-		try {
-			Map<String, Object> options = new HashMap<>();
-			options.put(Resource.OPTION_SAVE_ONLY_IF_CHANGED, Boolean.TRUE);
-			BufferedOutputStream outStream = new BufferedOutputStream(
-					new FileOutputStream(indexFileHandle), 4096);
-			indexResource.save(outStream, options);
-			outStream.close();
-		} catch (IOException e) {
-			if (DLTKCore.DEBUG) {
-				e.printStackTrace();
-			}
+		final long garbage = logRecords - liveRecords;
+		if (garbage >= MIN_GARBAGE && garbage > liveRecords) {
+			compact();
 		}
 	}
 
@@ -275,18 +538,10 @@ public class MetadataContentCache extends AbstractContentCache {
 			return null;
 		}
 		File file = null;
-		CacheEntry entry = null;
-		synchronized (this) {
-			entry = getEntry(handle);
-			EList<CacheEntryAttribute> attributes = entry.getAttributes();
-			for (CacheEntryAttribute cacheEntryAttribute : attributes) {
-				if (cacheEntryAttribute.getName().equals(attribute)) {
-					file = new File(cacheLocation
-							.append(cacheEntryAttribute.getLocation())
-							.toOSString());
-					break;
-				}
-			}
+		CacheEntry entry = getEntry(handle);
+		String location = entry.attributes.get(attribute);
+		if (location != null) {
+			file = new File(cacheLocation.append(location).toOSString());
 		}
 		if (file != null && file.exists()) {
 			try {
@@ -329,32 +584,43 @@ public class MetadataContentCache extends AbstractContentCache {
 	}
 
 	@Override
-	public File getEntryAsFile(IFileHandle handle, String attribute) {
+	public synchronized File getEntryAsFile(IFileHandle handle,
+			String attribute) {
 		if (handle == null) {
 			return null;
 		}
 		CacheEntry entry = getEntry(handle);
-		File file = null;
-		EList<CacheEntryAttribute> attributes = entry.getAttributes();
-		for (CacheEntryAttribute cacheEntryAttribute : attributes) {
-			if (cacheEntryAttribute.getName().equals(attribute)) {
-				file = new File(
-						cacheLocation.append(cacheEntryAttribute.getLocation())
-								.toOSString());
-				return file;
-			}
+		String location = entry.attributes.get(attribute);
+		if (location != null) {
+			return new File(cacheLocation.append(location).toOSString());
 		}
 
-		IPath location = generateNewLocation(handle.getPath(),
+		IPath newLocation = generateNewLocation(handle.getPath(),
 				handle.getEnvironmentId());
-		CacheEntryAttribute attrEntry = CacheFactory.eINSTANCE
-				.createCacheEntryAttribute();
-		attrEntry.setLocation(location.toPortableString());
-		attrEntry.setName(attribute);
-		entry.getAttributes().add(attrEntry);
+		location = newLocation.toPortableString();
+		entry.attributes.put(attribute, location);
+		++liveRecords;
+		append(RECORD_ATTRIBUTE, entry.key, attribute, location, null);
 		save(true);
-		file = new File(cacheLocation.append(location).toOSString());
-		return file;
+		return new File(cacheLocation.append(newLocation).toOSString());
+	}
+
+	@Override
+	public File findEntryAsFile(IFileHandle handle, String attribute) {
+		if (handle == null) {
+			return null;
+		}
+		initialize();
+		final CacheEntry entry = entryCache.get(makeKey(handle));
+		if (entry == null) {
+			return null;
+		}
+		final String location = entry.attributes.get(attribute);
+		if (location == null) {
+			return null;
+		}
+		final File file = new File(cacheLocation.append(location).toOSString());
+		return file.exists() ? file : null;
 	}
 
 	private IPath generateNewLocation(IPath path, String environment) {
@@ -374,14 +640,14 @@ public class MetadataContentCache extends AbstractContentCache {
 		if (!folderFile.exists()) {
 			folderFile.mkdir();
 		}
-		CacheIndex index = getCacheIndex(environment);
+		Long lastIndex = lastIndexes.get(environment);
 		IPath location = null;
-		long i = index.getLastIndex() + 1;
+		long i = (lastIndex != null ? lastIndex.longValue() : 0) + 1;
 		while (true) {
 			location = folder.append(Long.toString(i++) + ".idx");
 			File file = new File(location.toOSString());
 			if (!file.exists()) {
-				index.setLastIndex(i);
+				lastIndexes.put(environment, Long.valueOf(i));
 				return location
 						.removeFirstSegments(cacheLocation.segmentCount())
 						.setDevice(null);
@@ -396,14 +662,12 @@ public class MetadataContentCache extends AbstractContentCache {
 			return;
 		}
 		CacheEntry entry = getEntry(handle);
-		EList<CacheEntryAttribute> attributes = entry.getAttributes();
-		for (CacheEntryAttribute cacheEntryAttribute : attributes) {
-			if (cacheEntryAttribute.getName().equals(attribute)) {
-				removeAttribute(cacheEntryAttribute);
-				attributes.remove(cacheEntryAttribute);
-				save(true);
-				return;
-			}
+		String location = entry.attributes.remove(attribute);
+		if (location != null) {
+			removeAttribute(location);
+			--liveRecords;
+			append(RECORD_REMOVE_ATTRIBUTE, entry.key, attribute, null, null);
+			save(true);
 		}
 	}
 
@@ -412,10 +676,10 @@ public class MetadataContentCache extends AbstractContentCache {
 		if (handle == null) {
 			return;
 		}
-		EntryKey key = makeKey(handle);
-		if (entryCache.containsKey(key)) {
-			CacheEntry entry = entryCache.get(key);
-			removeCacheEntry(entry, key);
+		initialize();
+		CacheEntry entry = entryCache.get(makeKey(handle));
+		if (entry != null) {
+			removeCacheEntry(entry);
 			save(true);
 		}
 	}
@@ -423,11 +687,10 @@ public class MetadataContentCache extends AbstractContentCache {
 	@Override
 	public synchronized void clear() {
 		initialize();
-		Set<EntryKey> keySet = new HashSet<>(entryCache.keySet());
-		for (EntryKey k : keySet) {
-			removeCacheEntry(entryCache.get(k), k);
+		for (CacheEntry entry : entryCache.values()) {
+			removeCacheEntry(entry);
 		}
-		save(true);
+		compact();
 	}
 
 	/**
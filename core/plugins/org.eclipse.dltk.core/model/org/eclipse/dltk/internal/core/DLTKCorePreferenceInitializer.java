@@ -46,6 +46,20 @@ public class DLTKCorePreferenceInitializer
 				DLTKCore.ENABLED);
 		defaultOptionsMap.put(DLTKCore.INDEXER_ENABLED, DLTKCore.ENABLED);
 		defaultOptionsMap.put(DLTKCore.BUILDER_ENABLED, DLTKCore.ENABLED);
+		defaultOptionsMap.put(DLTKCore.INDEXER_THREADS, "0"); //$NON-NLS-1$
+		defaultOptionsMap.put(DLTKCore.BUILDER_THREADS, "0"); //$NON-NLS-1$
+		defaultOptionsMap.put(DLTKCore.INDEX_MAPPED_READS, DLTKCore.DISABLED);
+		defaultOptionsMap.put(DLTKCore.SEARCH_PARALLEL_INDEX_QUERIES,
+				DLTKCore.ENABLED);
+		defaultOptionsMap.put(DLTKCore.TYPE_INFERENCE_PARALLEL_GOALS,
+				DLTKCore.DISABLED);
+		defaultOptionsMap.put(DLTKCore.TYPE_INFERENCE_RESULT_CACHE,
+				DLTKCore.ENABLED);
+		defaultOptionsMap.put(DLTKCore.SOURCE_MODULE_INFO_CACHE_MEMORY, "0"); //$NON-NLS-1$
+		defaultOptionsMap.put(DLTKCore.TYPE_HIERARCHY_PARALLEL_RESOLUTION,
+				DLTKCore.ENABLED);
+		defaultOptionsMap.put(DLTKCore.TYPE_HIERARCHY_SNAPSHOTS,
+				DLTKCore.ENABLED);
 		defaultOptionsMap.put(DLTKCore.CODEASSIST_CAMEL_CASE_MATCH,
 				DLTKCore.ENABLED);
 		defaultOptionsMap.put(DLTKCore.CODEASSIST_SUBSTRING_MATCH,
@@ -3,50 +3,424 @@
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License v. 2.0 which is available at
  * http://www.eclipse.org/legal/epl-2.0.
- * 
+ *
  * SPDX-License-Identifier: EPL-2.0
  *
- 
+
  *******************************************************************************/
 package org.eclipse.dltk.internal.core;
 
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.eclipse.dltk.core.IModelElement;
 import org.eclipse.dltk.core.IProjectFragment;
 import org.eclipse.dltk.core.IScriptFolder;
 import org.eclipse.dltk.core.ModelException;
-import org.eclipse.dltk.internal.core.util.LRUCache;
+import org.eclipse.dltk.internal.core.util.ILRUCacheable;
 
 /**
- * An LRU cache of <code>ModelElements</code>.
+ * A cache of <code>ModelElements</code> which removes the least recently used
+ * elements, when the cache is full.
+ *
+ * <p>
+ * The entries are spread over segments with their own locks, so lookups from
+ * different threads don't block each other. Updates are expected to be
+ * serialized by the caller (the {@link ModelManager} does it), as removing an
+ * element closes it and so removes its children from the other caches.
+ *
+ * <p>
+ * The order of use is approximated as by the clock algorithm: each segment
+ * queues its entries in the order they are put, and a lookup only marks the
+ * entry as used. The oldest head of the queues is removed first, unless it is
+ * marked, then it is unmarked and queued again. So making space doesn't sort
+ * the entries, and takes a few steps for each removed one.
+ *
+ * <p>
+ * The space of a module is estimated from the number of its children, the
+ * other elements take one unit. Like in the {@link OverflowingLRUCache}, the
+ * elements which can't be closed (e.g. with unsaved changes) stay in the
+ * cache, then the cache overflows and attempts to shrink on the next
+ * <code>put</code>.
+ *
+ * <p>
+ * Like the {@link java.util.concurrent.ConcurrentHashMap}, the cache doesn't
+ * accept <code>null</code> keys or values, the lookups of a <code>null</code>
+ * key return <code>null</code>.
  */
-public class ElementCache extends OverflowingLRUCache {
+public class ElementCache {
+
+	private static final int SEGMENTS = 16;
+
+	/**
+	 * The number of elements attempted to be closed on each
+	 * <code>put</code> while the cache overflows, not to attempt all the ones
+	 * which can't be closed every time.
+	 */
+	private static final int OVERFLOW_CANDIDATES = 2 * SEGMENTS;
+
+	/**
+	 * Average number of children of a module, a module with more children
+	 * takes more space.
+	 */
+	private static final int AVERAGE_CHILDREN = ModelCache.DEFAULT_CHILDREN_SIZE
+			/ ModelCache.DEFAULT_OPENABLE_SIZE;
+
+	private static class Entry {
+		final Object key;
+		final Object value;
+		final int space;
+		/**
+		 * The position in the queues, guarded by the lock of the segment.
+		 */
+		long position;
+		/**
+		 * Whether the entry has been used since it was queued.
+		 */
+		volatile boolean used;
+
+		Entry(Object key, Object value, int space) {
+			this.key = key;
+			this.value = value;
+			this.space = space;
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class Segment extends ReentrantLock {
+		/**
+		 * The entries in the order they are queued.
+		 */
+		final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>();
+	}
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	private final AtomicLong lastPosition = new AtomicLong();
+
+	private volatile int spaceLimit;
+
+	private final AtomicInteger currentSpace = new AtomicInteger();
+
+	/**
+	 * Indicates if the cache has been over filled and by how much.
+	 */
+	private volatile int overflow;
+
+	/**
+	 * Indicates how much space should be reclaimed when the cache overflows.
+	 */
+	private final double loadFactor = 0.333;
+
 	private IModelElement spaceLimitParent = null;
 
+	private final LongAdder contentionCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder failedEvictionCount = new LongAdder();
+
 	/**
 	 * Constructs a new element cache of the given size.
 	 */
 	public ElementCache(int size) {
-		super(size);
+		this.spaceLimit = size;
+		for (int i = 0; i < SEGMENTS; ++i) {
+			segments[i] = new Segment();
+		}
+	}
+
+	private Segment lock(Object key) {
+		final int h = key.hashCode();
+		final Segment segment = segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+		if (!segment.tryLock()) {
+			contentionCount.increment();
+			segment.lock();
+		}
+		return segment;
 	}
 
 	/**
-	 * Constructs a new element cache of the given size.
+	 * Returns the value for the given key, or <code>null</code>, and marks it
+	 * as recently used.
+	 */
+	public Object get(Object key) {
+		if (key == null) {
+			return null;
+		}
+		final Entry entry = getEntry(key);
+		if (entry == null) {
+			return null;
+		}
+		if (!entry.used) {
+			entry.used = true;
+		}
+		return entry.value;
+	}
+
+	/**
+	 * Returns the value for the given key, or <code>null</code>, without
+	 * disturbing the cache ordering.
+	 */
+	public Object peek(Object key) {
+		if (key == null) {
+			return null;
+		}
+		final Entry entry = getEntry(key);
+		return entry != null ? entry.value : null;
+	}
+
+	private Entry getEntry(Object key) {
+		final Segment segment = lock(key);
+		try {
+			return segment.entries.get(key);
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	/**
+	 * Sets the value in the cache at the given key, closing the least
+	 * recently used elements if there is not enough space. Returns the value.
+	 */
+	public Object put(Object key, Object value) {
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+		// attempt to rid ourselves of the overflow, if there is any
+		if (overflow > 0) {
+			shrink();
+		}
+		final int space = spaceFor(key, value);
+		int spaceNeeded = space;
+		final Entry existing = getEntry(key);
+		// replace the entry if it would not overflow the cache, otherwise
+		// flush the entry and re-add it so as to keep cache within budget
+		if (existing != null
+				&& (currentSpace.get() - existing.space + space <= spaceLimit
+						|| !evict(existing))) {
+			spaceNeeded -= existing.space;
+		}
+		makeSpace(Math.max(spaceNeeded, 0));
+		final Entry entry = new Entry(key, value, space);
+		final Segment segment = lock(key);
+		try {
+			final Entry previous = segment.entries.remove(key);
+			enqueue(segment, entry);
+			currentSpace.addAndGet(
+					space - (previous != null ? previous.space : 0));
+		} finally {
+			segment.unlock();
+		}
+		if (currentSpace.get() <= spaceLimit) {
+			overflow = 0;
+		}
+		return value;
+	}
+
+	/**
+	 * Removes and returns the value in the cache for the given key. If the key
+	 * is not in the cache, returns null.
+	 */
+	public Object remove(Object key) {
+		if (key == null) {
+			return null;
+		}
+		final Segment segment = lock(key);
+		try {
+			final Entry entry = segment.entries.remove(key);
+			if (entry == null) {
+				return null;
+			}
+			currentSpace.addAndGet(-entry.space);
+			return entry.value;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	private boolean removeEntry(Entry entry) {
+		final Segment segment = lock(entry.key);
+		try {
+			if (segment.entries.remove(entry.key, entry)) {
+				currentSpace.addAndGet(-entry.space);
+				return true;
+			}
+			return false;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	private boolean contains(Entry entry) {
+		final Segment segment = lock(entry.key);
+		try {
+			return segment.entries.get(entry.key) == entry;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	/**
+	 * Adds the entry to the end of the queue of the locked segment.
+	 */
+	private void enqueue(Segment segment, Entry entry) {
+		entry.position = lastPosition.incrementAndGet();
+		segment.entries.put(entry.key, entry);
+	}
+
+	/**
+	 * Returns the first entry of the locked segment which is not marked as
+	 * used, queueing the marked ones again, or <code>null</code> if the
+	 * segment is empty.
+	 */
+	private Entry head(Segment segment) {
+		final LinkedHashMap<Object, Entry> entries = segment.entries;
+		for (int i = entries.size(); i > 0; --i) {
+			final Entry entry = entries.values().iterator().next();
+			if (!entry.used) {
+				return entry;
+			}
+			entry.used = false;
+			entries.remove(entry.key);
+			enqueue(segment, entry);
+		}
+		// all the entries are used again meanwhile
+		return entries.isEmpty() ? null : entries.values().iterator().next();
+	}
+
+	/**
+	 * Returns the oldest head of the segments, or <code>null</code> if the
+	 * cache is empty. The entry is queued again, so if its element can't be
+	 * closed, it is attempted after all the others.
+	 */
+	private Entry nextVictim() {
+		Segment victimSegment = null;
+		Entry victim = null;
+		long victimPosition = Long.MAX_VALUE;
+		for (Segment segment : segments) {
+			segment.lock();
+			try {
+				final Entry head = head(segment);
+				if (head != null && head.position < victimPosition) {
+					victimSegment = segment;
+					victim = head;
+					victimPosition = head.position;
+				}
+			} finally {
+				segment.unlock();
+			}
+		}
+		if (victim != null) {
+			victimSegment.lock();
+			try {
+				if (victimSegment.entries.remove(victim.key, victim)) {
+					enqueue(victimSegment, victim);
+				}
+			} finally {
+				victimSegment.unlock();
+			}
+		}
+		return victim;
+	}
+
+	/**
+	 * Closes the element of the entry and removes it from the cache, returns
+	 * <code>false</code> if the element can't be closed.
+	 */
+	private boolean evict(Entry entry) {
+		if (!contains(entry)) {
+			// already removed as a child of another evicted element
+			return true;
+		}
+		if (!close((Openable) entry.key)) {
+			failedEvictionCount.increment();
+			return false;
+		}
+		// closing removes the element from the cache, unless it was replaced
+		removeEntry(entry);
+		evictionCount.increment();
+		return true;
+	}
+
+	/**
+	 * Ensures there is the specified amount of free space in the receiver, by
+	 * closing the least recently used elements if necessary. Returns true if
+	 * the requested space was made available, false otherwise.
 	 */
-	public ElementCache(int size, int overflow) {
-		super(size, overflow);
+	protected boolean makeSpace(int space) {
+		final int limit = spaceLimit;
+		if (overflow == 0 && currentSpace.get() + space <= limit) {
+			// if space is already available
+			return true;
+		}
+		// free up space by removing oldest entries
+		final int spaceNeeded = Math.max((int) ((1 - loadFactor) * limit),
+				space);
+		if (currentSpace.get() + spaceNeeded > limit) {
+			// the entries which are not closed are queued again, so each one
+			// is attempted once
+			int candidates = size();
+			if (overflow > 0) {
+				candidates = Math.min(candidates, OVERFLOW_CANDIDATES);
+			}
+			for (; candidates > 0
+					&& currentSpace.get() + spaceNeeded > limit; --candidates) {
+				final Entry entry = nextVictim();
+				if (entry == null) {
+					break;
+				}
+				evict(entry);
+			}
+		}
+		// check again, since we may have acquired enough space
+		final int current = currentSpace.get();
+		if (current + space <= limit) {
+			overflow = 0;
+			return true;
+		}
+		overflow = current + space - limit;
+		return false;
+	}
+
+	/**
+	 * Attempts to shrink the cache if it has overflown. Returns true if the
+	 * cache shrinks to less than or equal to the space limit.
+	 */
+	public boolean shrink() {
+		if (overflow > 0) {
+			return makeSpace(0);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the space the value takes in the cache.
+	 */
+	protected int spaceFor(Object key, Object value) {
+		if (value instanceof ILRUCacheable) {
+			return ((ILRUCacheable) value).getCacheFootprint();
+		}
+		if (value instanceof ModelElementInfo && key instanceof IModelElement) {
+			final int type = ((IModelElement) key).getElementType();
+			if (type == IModelElement.SOURCE_MODULE
+					|| type == IModelElement.BINARY_MODULE) {
+				return 1 + ((ModelElementInfo) value).size() / AVERAGE_CHILDREN;
+			}
+		}
+		return 1;
 	}
 
 	/**
 	 * Returns true if the element is successfully closed and removed from the
 	 * cache, otherwise false.
-	 * 
+	 *
 	 * <p>
 	 * NOTE: this triggers an external removal of this element by closing the
 	 * element.
 	 */
-	@Override
-	protected boolean close(LRUCacheEntry entry) {
-		Openable element = (Openable) entry._fKey;
+	protected boolean close(Openable element) {
 		try {
 			if (!element.canBeRemovedFromCache()) {
 				return false;
@@ -75,8 +449,9 @@ public class ElementCache extends OverflowingLRUCache {
 	 */
 	public void ensureSpaceLimit(int childrenSize, IModelElement parent) {
 		// ensure the children can be put without closing other elements
-		int spaceNeeded = 1 + (int) ((1 + fLoadFactor) * (childrenSize + fOverflow));
-		if (fSpaceLimit < spaceNeeded) {
+		int spaceNeeded = 1
+				+ (int) ((1 + loadFactor) * (childrenSize + overflow));
+		if (spaceLimit < spaceNeeded) {
 			// parent is being opened with more children than the space limit
 			shrink(); // remove overflow
 			setSpaceLimit(spaceNeeded);
@@ -84,14 +459,6 @@ public class ElementCache extends OverflowingLRUCache {
 		}
 	}
 
-	/*
-	 * Returns a new instance of the receiver.
-	 */
-	@Override
-	protected LRUCache newInstance(int size, int overflow) {
-		return new ElementCache(size, overflow);
-	}
-
 	/*
 	 * If the given parent was the one that increased the space limit, reset the
 	 * space limit to the given default value.
@@ -103,4 +470,77 @@ public class ElementCache extends OverflowingLRUCache {
 		}
 	}
 
+	/**
+	 * Sets the maximum amount of space that the cache can store.
+	 */
+	public void setSpaceLimit(int limit) {
+		if (limit < spaceLimit) {
+			makeSpace(spaceLimit - limit);
+		}
+		spaceLimit = limit;
+	}
+
+	public int getSpaceLimit() {
+		return spaceLimit;
+	}
+
+	public int getCurrentSpace() {
+		return currentSpace.get();
+	}
+
+	/**
+	 * @return The space by which the cache has overflown.
+	 */
+	public int getOverflow() {
+		return overflow;
+	}
+
+	public double fillingRatio() {
+		return (currentSpace.get() + overflow) * 100.0 / spaceLimit;
+	}
+
+	/**
+	 * Returns the number of elements in the cache.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			segment.lock();
+			try {
+				size += segment.entries.size();
+			} finally {
+				segment.unlock();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns how many times a thread had to wait for the lock of a segment.
+	 */
+	public long getContentionCount() {
+		return contentionCount.sum();
+	}
+
+	/**
+	 * Returns the number of elements closed to make space.
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Returns how many times an element could not be closed to make space.
+	 */
+	public long getFailedEvictionCount() {
+		return failedEvictionCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "ElementCache[" + spaceLimit + "]: " + currentSpace.get() //$NON-NLS-1$ //$NON-NLS-2$
+				+ " used, " + overflow + " overflow, " + getEvictionCount() //$NON-NLS-1$ //$NON-NLS-2$
+				+ " evictions (" + getFailedEvictionCount() + " failed), " //$NON-NLS-1$ //$NON-NLS-2$
+				+ getContentionCount() + " contended"; //$NON-NLS-1$
+	}
 }
@@ -11,14 +11,18 @@
 package org.eclipse.dltk.internal.core;
 
 import java.text.NumberFormat;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.IModelElement;
 
 /**
  * The cache ofscriptelements to their respective info.
+ *
+ * The infos may be read concurrently, updates are serialized by the
+ * {@link ModelManager}. The caches are concurrent maps, so neither the elements
+ * nor their infos may be <code>null</code>.
  */
 public class ModelCache {
 	public static final int DEFAULT_PROJECT_SIZE = 5; // average 25552 bytes
@@ -43,11 +47,11 @@ public class ModelCache {
 	/**
 	 * Active script Model Info
 	 */
-	protected ModelInfo modelInfo;
+	protected volatile ModelInfo modelInfo;
 	/**
 	 * Cache of open projects.
 	 */
-	protected HashMap projectCache;
+	protected Map projectCache;
 	/**
 	 * Cache of open package fragment roots.
 	 */
@@ -80,7 +84,7 @@ public class ModelCache {
 		// for
 		// most
 		// JInterpreter
-		this.projectCache = new HashMap(DEFAULT_PROJECT_SIZE); // NB: Don't use
+		this.projectCache = new ConcurrentHashMap(DEFAULT_PROJECT_SIZE); // NB: Don't use
 		// a LRUCache
 		// for projects
 		// as they are
@@ -92,7 +96,8 @@ public class ModelCache {
 		this.rootCache = new ElementCache((int) (DEFAULT_ROOT_SIZE * ratio));
 		this.pkgCache = new ElementCache((int) (DEFAULT_PKG_SIZE * ratio));
 		this.openableCache = new ElementCache((int) (DEFAULT_OPENABLE_SIZE * ratio));
-		this.childrenCache = new HashMap((int) (DEFAULT_CHILDREN_SIZE * ratio));
+		this.childrenCache = new ConcurrentHashMap(
+				(int) (DEFAULT_CHILDREN_SIZE * ratio));
 	}
 
 	/**
@@ -220,9 +225,25 @@ public class ModelCache {
 		buffer.append("]: "); //$NON-NLS-1$
 		buffer.append(nf.format(this.openableCache.fillingRatio()));
 		buffer.append("%\n"); //$NON-NLS-1$
+		appendStatistics(buffer, prefix, "Root", this.rootCache); //$NON-NLS-1$
+		appendStatistics(buffer, prefix, "Folder", this.pkgCache); //$NON-NLS-1$
+		appendStatistics(buffer, prefix, "Openable", this.openableCache); //$NON-NLS-1$
 		return buffer.toString();
 	}
 
+	private static void appendStatistics(StringBuilder buffer, String prefix,
+			String name, ElementCache cache) {
+		buffer.append(prefix);
+		buffer.append(name);
+		buffer.append(" cache evictions: "); //$NON-NLS-1$
+		buffer.append(cache.getEvictionCount());
+		buffer.append(" ("); //$NON-NLS-1$
+		buffer.append(cache.getFailedEvictionCount());
+		buffer.append(" failed), contended lookups: "); //$NON-NLS-1$
+		buffer.append(cache.getContentionCount());
+		buffer.append('\n');
+	}
+
 	protected void resetZIPTypeCache() {
 		if (DLTKCore.DEBUG) {
 			System.err.println("Add reset ZIP Type cache..."); //$NON-NLS-1$
@@ -20,11 +20,13 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -543,9 +545,10 @@ public class ModelManager implements ISaveParticipant {
 	}
 
 	/**
-	 * Returns the info for the element.
+	 * Returns the info for the element. Not synchronized, the caches allow
+	 * concurrent lookups. The element must not be <code>null</code>.
 	 */
-	public synchronized Object getInfo(IModelElement element) {
+	public Object getInfo(IModelElement element) {
 		HashMap tempCache = (HashMap) this.temporaryCache.get();
 		if (tempCache != null) {
 			Object result = tempCache.get(element);
@@ -558,8 +561,9 @@ public class ModelManager implements ISaveParticipant {
 
 	/**
 	 * Returns the info for this element without disturbing the cache ordering.
+	 * Not synchronized, the element must not be <code>null</code>.
 	 */
-	protected synchronized Object peekAtInfo(IModelElement element) {
+	protected Object peekAtInfo(IModelElement element) {
 		HashMap tempCache = (HashMap) this.temporaryCache.get();
 		if (tempCache != null) {
 			Object result = tempCache.get(element);
@@ -667,12 +671,26 @@ public class ModelManager implements ISaveParticipant {
 				this.cache.putInfo(element, info);
 			}
 		}
-		Iterator iterator = newElements.keySet().iterator();
-		while (iterator.hasNext()) {
-			IModelElement element = (IModelElement) iterator.next();
-			Object info = newElements.get(element);
-			this.cache.putInfo(element, info);
+		// The children go before their parents, as the lookups are not
+		// synchronized: once the info of an element is visible, the infos of
+		// its children are too. So the openable of the opened element, e.g.
+		// the module of a method, goes after all its members.
+		List<Map.Entry> entries = new ArrayList<>(newElements.entrySet());
+		entries.sort(Comparator.comparingInt(
+				entry -> -getDepth((IModelElement) entry.getKey())));
+		for (Map.Entry entry : entries) {
+			this.cache.putInfo((IModelElement) entry.getKey(),
+					entry.getValue());
+		}
+	}
+
+	private static int getDepth(IModelElement element) {
+		int depth = 0;
+		for (IModelElement parent = element.getParent(); parent != null; parent = parent
+				.getParent()) {
+			++depth;
 		}
+		return depth;
 	}
 
 	/**
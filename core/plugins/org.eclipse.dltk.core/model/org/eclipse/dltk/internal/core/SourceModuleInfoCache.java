@@ -11,10 +11,13 @@ package org.eclipse.dltk.internal.core;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -25,6 +28,7 @@ import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.dltk.annotations.Internal;
+import org.eclipse.dltk.ast.ASTNode;
 import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.core.ISourceModuleInfoCache;
@@ -32,40 +36,70 @@ import org.eclipse.dltk.core.ISourceModuleInfoCache;
 /**
  * Used to cache some source module information. All information related to
  * source module are removed, then source module are changed.
+ *
+ * Lookups don't lock the cache. The cache is bounded by the number of modules
+ * and by a memory budget ({@link DLTKCore#SOURCE_MODULE_INFO_CACHE_MEMORY}),
+ * the weight of a module is estimated from the information put into it, e.g.
+ * from the source range of its AST, so no file is read for it. Modules are
+ * evicted in clock order, a module which was used since the clock hand passed
+ * it gets another round (up to {@link #MAX_FREQUENCY} rounds), so frequently
+ * used modules survive a scan over many others.
  */
 public class SourceModuleInfoCache implements ISourceModuleInfoCache,
 		IResourceChangeListener, IResourceDeltaVisitor {
 	@Internal
-	final int capacity = ModelCache.DEFAULT_ROOT_SIZE * 50;
+	final int capacity;
+
+	private static final int MAX_FREQUENCY = 3;
+
+	/**
+	 * Estimated weight of the information of an empty module.
+	 */
+	private static final long ENTRY_WEIGHT = 1024;
+
+	/**
+	 * Estimated weight per character of source, as the AST is several times
+	 * larger than the source.
+	 */
+	private static final long SOURCE_WEIGHT_FACTOR = 8;
+
+	private final long memoryBudget;
 
 	private final ReferenceQueue<ISourceModuleInfo> queue = new ReferenceQueue<>();
 
-	@SuppressWarnings("serial")
-	private final Map<ISourceModule, CacheReference> map = new LinkedHashMap<ISourceModule, CacheReference>(
-			16, 0.9f, true) {
-		@Override
-		protected boolean removeEldestEntry(
-				Map.Entry<ISourceModule, CacheReference> eldest) {
-			return size() > capacity;
-		}
-	};
+	private final Map<ISourceModule, CacheReference> map = new ConcurrentHashMap<>();
 
-	private static class CacheReference
-			extends SoftReference<ISourceModuleInfo> {
+	/**
+	 * Eviction order, guarded by itself. May contain references which were
+	 * already removed from the map.
+	 */
+	private final ArrayDeque<CacheReference> clock = new ArrayDeque<>();
+
+	private final AtomicLong weight = new AtomicLong();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	private class CacheReference extends SoftReference<ISourceModuleInfo> {
 		final long modificationStamp;
 		final ISourceModule module;
+		volatile int frequency;
+		/**
+		 * The weight accounted for the entry, guarded by this reference.
+		 */
+		private long weight = ENTRY_WEIGHT;
+		private boolean removed;
 
-		public CacheReference(ISourceModule module, ISourceModuleInfo referent,
+		public CacheReference(ISourceModule module, SourceModuleInfo referent,
 				ReferenceQueue<? super ISourceModuleInfo> q) {
 			super(referent, q);
 			this.module = module;
-			this.modificationStamp = getModificationStamp(module);
-		}
-
-		private static long getModificationStamp(ISourceModule module) {
 			final IResource resource = module.getResource();
-			return resource != null ? resource.getModificationStamp()
+			this.modificationStamp = resource != null
+					? resource.getModificationStamp()
 					: IResource.NULL_STAMP;
+			referent.owner = this;
 		}
 
 		public boolean isValid(ISourceModule module) {
@@ -74,6 +108,91 @@ public class SourceModuleInfoCache implements ISourceModuleInfoCache,
 					|| resource.getModificationStamp() == modificationStamp;
 		}
 
+		synchronized long getWeight() {
+			return weight;
+		}
+
+		/**
+		 * Marks the entry removed from the cache, returns its weight.
+		 */
+		synchronized long markRemoved() {
+			removed = true;
+			return weight;
+		}
+
+		/**
+		 * Updates the weight of the entry once its information changed, and
+		 * evicts other entries if the budget is exceeded.
+		 */
+		void reweigh(long newWeight) {
+			final long delta;
+			synchronized (this) {
+				delta = newWeight - weight;
+				weight = newWeight;
+				if (removed || delta == 0) {
+					return;
+				}
+			}
+			final long total = SourceModuleInfoCache.this.weight
+					.addAndGet(delta);
+			if (delta > 0 && total > memoryBudget) {
+				synchronized (clock) {
+					evict(0, 0);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Estimates the weight of a value of the module information.
+	 */
+	private static long estimateWeight(Object value) {
+		if (value instanceof ASTNode) {
+			final ASTNode node = (ASTNode) value;
+			return SOURCE_WEIGHT_FACTOR
+					* Math.max(0, node.sourceEnd() - node.sourceStart());
+		} else if (value instanceof char[]) {
+			return 2L * ((char[]) value).length;
+		} else if (value instanceof String) {
+			return 2L * ((String) value).length();
+		}
+		return 0;
+	}
+
+	private static long computeMemoryBudget() {
+		long megabytes = 0;
+		final String value = DLTKCore
+				.getOption(DLTKCore.SOURCE_MODULE_INFO_CACHE_MEMORY);
+		if (value != null) {
+			try {
+				megabytes = Long.parseLong(value);
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		if (megabytes <= 0) {
+			return Runtime.getRuntime().maxMemory() / 8;
+		}
+		return megabytes * 1024 * 1024;
+	}
+
+	public SourceModuleInfoCache() {
+		this(ModelCache.DEFAULT_ROOT_SIZE * 50, computeMemoryBudget());
+	}
+
+	/**
+	 * Creates the cache with the specified bounds.
+	 *
+	 * @param capacity
+	 *            the maximal number of the modules
+	 * @param memoryBudget
+	 *            the maximal estimated weight of the modules in bytes
+	 */
+	@Internal
+	public SourceModuleInfoCache(int capacity, long memoryBudget) {
+		this.capacity = capacity;
+		this.memoryBudget = memoryBudget;
 	}
 
 	public void start() {
@@ -91,27 +210,85 @@ public class SourceModuleInfoCache implements ISourceModuleInfoCache,
 				System.out.println(
 						"[Cache] expunge " + r.module.getElementName());
 			}
-			map.remove(r.module);
+			removeReference(r);
+		}
+	}
+
+	private boolean removeReference(CacheReference ref) {
+		if (map.remove(ref.module, ref)) {
+			weight.addAndGet(-ref.markRemoved());
+			return true;
 		}
+		return false;
 	}
 
 	@Override
-	public synchronized ISourceModuleInfo get(ISourceModule module) {
+	public ISourceModuleInfo get(ISourceModule module) {
 		expungeStaleEntries();
 		final CacheReference ref = map.get(module);
 		if (ref != null) {
 			final ISourceModuleInfo info = ref.get();
 			if (info != null && ref.isValid(module)) {
+				if (ref.frequency < MAX_FREQUENCY) {
+					// races only lose a count
+					ref.frequency++;
+				}
+				hitCount.increment();
 				return info;
 			}
 		}
-		final ISourceModuleInfo info = new SourceModuleInfo();
-		map.put(module, new CacheReference(module, info, queue));
+		missCount.increment();
+		final SourceModuleInfo info = new SourceModuleInfo();
+		final CacheReference newRef = new CacheReference(module, info, queue);
+		synchronized (clock) {
+			final CacheReference current = map.get(module);
+			if (current != ref && current != null) {
+				// added by another thread
+				final ISourceModuleInfo currentInfo = current.get();
+				if (currentInfo != null && current.isValid(module)) {
+					return currentInfo;
+				}
+			}
+			if (current != null) {
+				removeReference(current);
+			}
+			evict(1, ENTRY_WEIGHT);
+			map.put(module, newRef);
+			weight.addAndGet(newRef.getWeight());
+			clock.addLast(newRef);
+			if (clock.size() > 2 * map.size() + 16) {
+				clock.removeIf(r -> map.get(r.module) != r);
+			}
+		}
 		return info;
 	}
 
+	/**
+	 * Makes room for the given number of entries of the given weight, the
+	 * caller should hold the lock of the clock.
+	 */
+	private void evict(int incomingCount, long incomingWeight) {
+		while (!clock.isEmpty() && (map.size() + incomingCount > capacity
+				|| weight.get() + incomingWeight > memoryBudget)) {
+			final CacheReference r = clock.pollFirst();
+			if (map.get(r.module) != r) {
+				continue;
+			}
+			if (r.frequency > 0) {
+				r.frequency--;
+				clock.addLast(r);
+			} else if (removeReference(r)) {
+				if (DEBUG) {
+					System.out.println(
+							"[Cache] evict " + r.module.getElementName()); //$NON-NLS-1$
+				}
+				evictionCount.increment();
+			}
+		}
+	}
+
 	@Override
-	public synchronized void resourceChanged(IResourceChangeEvent event) {
+	public void resourceChanged(IResourceChangeEvent event) {
 		expungeStaleEntries();
 		final IResourceDelta delta = event.getDelta();
 		try {
@@ -167,6 +344,10 @@ public class SourceModuleInfoCache implements ISourceModuleInfoCache,
 	@Internal
 	static class SourceModuleInfo implements ISourceModuleInfo {
 		private Map<Object, Object> map;
+		/**
+		 * The entry of the cache, set before the information is returned.
+		 */
+		CacheReference owner;
 
 		@Override
 		public synchronized Object get(String key) {
@@ -177,37 +358,57 @@ public class SourceModuleInfoCache implements ISourceModuleInfoCache,
 		}
 
 		@Override
-		public synchronized void put(String key, Object value) {
-			if (map == null) {
-				map = new HashMap<>();
+		public void put(String key, Object value) {
+			final long weight;
+			synchronized (this) {
+				if (map == null) {
+					map = new HashMap<>();
+				}
+				map.put(key, value);
+				weight = estimateWeight();
 			}
-			map.put(key, value);
+			reweigh(weight);
 		}
 
 		@Override
-		public synchronized void remove(String key) {
-			if (map != null) {
-				map.remove(key);
+		public void remove(String key) {
+			final long weight;
+			synchronized (this) {
+				if (map == null || map.remove(key) == null) {
+					return;
+				}
+				weight = estimateWeight();
 			}
+			reweigh(weight);
 		}
 
 		@Override
 		public synchronized boolean isEmpty() {
 			return this.map == null || this.map.isEmpty();
 		}
+
+		private long estimateWeight() {
+			long weight = ENTRY_WEIGHT;
+			for (Object value : map.values()) {
+				weight += SourceModuleInfoCache.estimateWeight(value);
+			}
+			return weight;
+		}
+
+		private void reweigh(long weight) {
+			final CacheReference ref = owner;
+			if (ref != null) {
+				ref.reweigh(weight);
+			}
+		}
 	}
 
-	/**
-	 * Not synchronized here, as it's called only from
-	 * {@link #resourceChanged(IResourceChangeEvent)} which is already
-	 * synchronized.
-	 */
 	private void removeByProject(IProject project) {
-		for (Iterator<ISourceModule> i = map.keySet().iterator(); i
+		for (Iterator<CacheReference> i = map.values().iterator(); i
 				.hasNext();) {
-			final ISourceModule module = i.next();
-			if (project.equals(module.getScriptProject().getProject())) {
-				i.remove();
+			final CacheReference ref = i.next();
+			if (project.equals(ref.module.getScriptProject().getProject())) {
+				removeReference(ref);
 			}
 		}
 	}
@@ -217,25 +418,35 @@ public class SourceModuleInfoCache implements ISourceModuleInfoCache,
 	}
 
 	@Override
-	public synchronized void remove(ISourceModule module) {
+	public void remove(ISourceModule module) {
 		if (DEBUG) {
 			System.out.println("[Cache] remove " + module.getElementName()); //$NON-NLS-1$
 		}
-		map.remove(module);
+		final CacheReference ref = map.get(module);
+		if (ref != null) {
+			removeReference(ref);
+		}
 	}
 
 	private static final boolean DEBUG = false;
 
 	@Override
-	public synchronized void clear() {
-		// clear out reference queue.
-		while (queue.poll() != null)
-			;
-		map.clear();
+	public void clear() {
+		synchronized (clock) {
+			// clear out reference queue.
+			while (queue.poll() != null)
+				;
+			for (CacheReference ref : map.values()) {
+				ref.markRemoved();
+			}
+			map.clear();
+			clock.clear();
+			weight.set(0);
+		}
 	}
 
 	@Override
-	public synchronized int size() {
+	public int size() {
 		return map.size();
 	}
 
@@ -244,4 +455,47 @@ public class SourceModuleInfoCache implements ISourceModuleInfoCache,
 		return capacity;
 	}
 
+	/**
+	 * Returns the estimated weight of the cached information in bytes.
+	 */
+	public long getWeight() {
+		return weight.get();
+	}
+
+	/**
+	 * Returns the memory budget of the cache in bytes.
+	 */
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Returns the ratio of the lookups which found valid information, or
+	 * <code>0</code> if there were no lookups.
+	 */
+	public double getHitRate() {
+		final long hits = hitCount.sum();
+		final long total = hits + missCount.sum();
+		return total != 0 ? (double) hits / total : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "SourceModuleInfoCache: " + map.size() + " modules, " //$NON-NLS-1$ //$NON-NLS-2$
+				+ weight.get() / 1024 + "K of " + memoryBudget / 1024 //$NON-NLS-1$
+				+ "K, hit rate " + getHitRate(); //$NON-NLS-1$
+	}
+
 }
@@ -56,4 +56,19 @@ abstract class AbstractBuildState implements IBuildState {
 	public final void recordDependency(IPath path, IPath dependency) {
 		recordDependency(path, dependency, STRUCTURAL);
 	}
+
+	/**
+	 * Records the time (in microseconds) it took to build the module.
+	 */
+	public void recordBuildTime(IPath path, long time) {
+		// not recorded by default
+	}
+
+	/**
+	 * Returns the time (in microseconds) it took to build the module last
+	 * time, or <code>-1</code> if unknown.
+	 */
+	public long getBuildTime(IPath path) {
+		return -1;
+	}
 }
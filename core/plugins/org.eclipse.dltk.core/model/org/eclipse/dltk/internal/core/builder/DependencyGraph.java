@@ -0,0 +1,336 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.builder;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.dltk.core.builder.IBuildState;
+
+/**
+ * The reverse dependencies between the files of the project: for each file
+ * the files depending on it, with the {@link IBuildState} flags of the
+ * dependency.
+ *
+ * The paths are numbered, the dependents of a file are kept as an array of
+ * ints, each one combining the number of the dependent and the flags.
+ */
+class DependencyGraph {
+
+	private static final int FLAG_BITS = 3;
+	private static final int FLAG_MASK = (1 << FLAG_BITS) - 1;
+
+	private final List<IPath> paths = new ArrayList<>();
+	private final Map<IPath, Integer> ids = new HashMap<>();
+
+	/**
+	 * The dependents of each path, indexed by its number, the first
+	 * <code>edgeCounts[id]</code> elements are used.
+	 */
+	private int[][] edges = new int[16][];
+	private int[] edgeCounts = new int[16];
+
+	void copyFrom(DependencyGraph graph) {
+		clear();
+		paths.addAll(graph.paths);
+		ids.putAll(graph.ids);
+		edges = new int[graph.edges.length][];
+		for (int i = 0; i < graph.paths.size(); ++i) {
+			if (graph.edges[i] != null) {
+				edges[i] = Arrays.copyOf(graph.edges[i], graph.edgeCounts[i]);
+			}
+		}
+		edgeCounts = graph.edgeCounts.clone();
+	}
+
+	void clear() {
+		paths.clear();
+		ids.clear();
+		edges = new int[16][];
+		edgeCounts = new int[16];
+	}
+
+	private int getId(IPath path) {
+		final Integer id = ids.get(path);
+		return id != null ? id.intValue() : -1;
+	}
+
+	private int addPath(IPath path) {
+		final Integer id = ids.get(path);
+		if (id != null) {
+			return id.intValue();
+		}
+		final int newId = paths.size();
+		paths.add(path);
+		ids.put(path, Integer.valueOf(newId));
+		if (newId == edges.length) {
+			edges = Arrays.copyOf(edges, newId * 2);
+			edgeCounts = Arrays.copyOf(edgeCounts, newId * 2);
+		}
+		return newId;
+	}
+
+	/**
+	 * Records that the file at the path depends on the dependency.
+	 */
+	void add(IPath path, IPath dependency, int flags) {
+		final int dependentId = addPath(path);
+		final int id = addPath(dependency);
+		int[] list = edges[id];
+		final int count = edgeCounts[id];
+		for (int i = 0; i < count; ++i) {
+			if (list[i] >>> FLAG_BITS == dependentId) {
+				list[i] |= flags & FLAG_MASK;
+				return;
+			}
+		}
+		if (list == null) {
+			list = edges[id] = new int[4];
+		} else if (count == list.length) {
+			list = edges[id] = Arrays.copyOf(list, Math.max(4, count * 2));
+		}
+		list[count] = dependentId << FLAG_BITS | (flags & FLAG_MASK);
+		edgeCounts[id] = count + 1;
+	}
+
+	/**
+	 * Removes the dependencies of the files at the specified paths.
+	 */
+	void removeDependents(Collection<IPath> dependents) {
+		final BitSet removed = new BitSet();
+		for (IPath path : dependents) {
+			final int id = getId(path);
+			if (id >= 0) {
+				removed.set(id);
+			}
+		}
+		if (removed.isEmpty()) {
+			return;
+		}
+		for (int id = 0; id < paths.size(); ++id) {
+			final int[] list = edges[id];
+			final int count = edgeCounts[id];
+			int kept = 0;
+			for (int i = 0; i < count; ++i) {
+				if (!removed.get(list[i] >>> FLAG_BITS)) {
+					list[kept++] = list[i];
+				}
+			}
+			edgeCounts[id] = kept;
+		}
+	}
+
+	/**
+	 * Finds the files affected by the changes, following the dependencies
+	 * transitively as long as the change of a file is known to be structural.
+	 *
+	 * The dependencies are triggered by a structural change of a file, the
+	 * {@link IBuildState#CONTENT} ones by any change. The files which are
+	 * found through an {@link IBuildState#EXPORTED} dependency are considered
+	 * structurally changed, so their dependents are found too.
+	 *
+	 * @param changes
+	 *            the paths of the changed files
+	 * @param structuralChanges
+	 *            the paths of the structurally changed files
+	 * @param affected
+	 *            output parameter - the paths of the affected files
+	 * @param affectedStructural
+	 *            output parameter - the paths of the affected files which
+	 *            should be treated as structurally changed
+	 */
+	void findAffected(Collection<IPath> changes,
+			Collection<IPath> structuralChanges, Collection<IPath> affected,
+			Collection<IPath> affectedStructural) {
+		final BitSet found = new BitSet();
+		final BitSet structural = new BitSet();
+		int[] queue = new int[16];
+		int queueSize = 0;
+		for (IPath path : structuralChanges) {
+			final int id = getId(path);
+			if (id >= 0 && !structural.get(id)) {
+				structural.set(id);
+				if (queueSize == queue.length) {
+					queue = Arrays.copyOf(queue, queueSize * 2);
+				}
+				queue[queueSize++] = id;
+			}
+		}
+		for (IPath path : changes) {
+			final int id = getId(path);
+			if (id < 0 || structural.get(id)) {
+				continue;
+			}
+			final int[] list = edges[id];
+			for (int i = 0, count = edgeCounts[id]; i < count; ++i) {
+				if ((list[i] & IBuildState.CONTENT) == 0) {
+					continue;
+				}
+				final int dependentId = list[i] >>> FLAG_BITS;
+				found.set(dependentId);
+				if ((list[i] & IBuildState.EXPORTED) != 0
+						&& !structural.get(dependentId)) {
+					structural.set(dependentId);
+					affectedStructural.add(paths.get(dependentId));
+					if (queueSize == queue.length) {
+						queue = Arrays.copyOf(queue, queueSize * 2);
+					}
+					queue[queueSize++] = dependentId;
+				}
+			}
+		}
+		for (int head = 0; head < queueSize; ++head) {
+			final int id = queue[head];
+			final int[] list = edges[id];
+			for (int i = 0, count = edgeCounts[id]; i < count; ++i) {
+				final int dependentId = list[i] >>> FLAG_BITS;
+				found.set(dependentId);
+				if ((list[i] & IBuildState.EXPORTED) != 0
+						&& !structural.get(dependentId)) {
+					structural.set(dependentId);
+					affectedStructural.add(paths.get(dependentId));
+					if (queueSize == queue.length) {
+						queue = Arrays.copyOf(queue, queueSize * 2);
+					}
+					queue[queueSize++] = dependentId;
+				}
+			}
+		}
+		for (int id = found.nextSetBit(0); id >= 0; id = found
+				.nextSetBit(id + 1)) {
+			affected.add(paths.get(id));
+		}
+	}
+
+	/**
+	 * Adds to the result the paths depending on the ones in the result
+	 * through dependencies having the specified flag, transitively.
+	 */
+	void addTransitiveDependents(Collection<IPath> result, int flag) {
+		final BitSet found = new BitSet();
+		int[] queue = new int[Math.max(16, result.size())];
+		int queueSize = 0;
+		for (IPath path : result) {
+			final int id = getId(path);
+			if (id >= 0 && !found.get(id)) {
+				found.set(id);
+				queue[queueSize++] = id;
+			}
+		}
+		for (int head = 0; head < queueSize; ++head) {
+			final int id = queue[head];
+			final int[] list = edges[id];
+			for (int i = 0, count = edgeCounts[id]; i < count; ++i) {
+				final int dependentId = list[i] >>> FLAG_BITS;
+				if ((list[i] & flag) != 0 && !found.get(dependentId)) {
+					found.set(dependentId);
+					result.add(paths.get(dependentId));
+					if (queueSize == queue.length) {
+						queue = Arrays.copyOf(queue, queueSize * 2);
+					}
+					queue[queueSize++] = dependentId;
+				}
+			}
+		}
+	}
+
+	void read(DataInputStream in) throws IOException {
+		clear();
+		final int pathCount = in.readInt();
+		for (int i = 0; i < pathCount; ++i) {
+			addPath(Path.fromPortableString(in.readUTF()));
+		}
+		final int nodeCount = in.readInt();
+		for (int i = 0; i < nodeCount; ++i) {
+			final int id = in.readInt();
+			final int count = in.readInt();
+			if (id < 0 || id >= pathCount) {
+				throw new IOException("Invalid dependency " + id); //$NON-NLS-1$
+			}
+			final int[] list = new int[count];
+			for (int j = 0; j < count; ++j) {
+				list[j] = in.readInt();
+				if (list[j] >>> FLAG_BITS >= pathCount) {
+					throw new IOException("Invalid dependent " + list[j]); //$NON-NLS-1$
+				}
+			}
+			edges[id] = list;
+			edgeCounts[id] = count;
+		}
+	}
+
+	/**
+	 * Writes the graph, only the paths which are still referenced are
+	 * written, so they are renumbered in the same order. A graph which is read
+	 * back is written the same way.
+	 */
+	void write(DataOutputStream out) throws IOException {
+		final BitSet referenced = new BitSet();
+		int nodeCount = 0;
+		for (int id = 0; id < paths.size(); ++id) {
+			if (edgeCounts[id] == 0) {
+				continue;
+			}
+			++nodeCount;
+			referenced.set(id);
+			for (int i = 0; i < edgeCounts[id]; ++i) {
+				referenced.set(edges[id][i] >>> FLAG_BITS);
+			}
+		}
+		final int[] newIds = new int[paths.size()];
+		int pathCount = 0;
+		out.writeInt(referenced.cardinality());
+		for (int id = referenced.nextSetBit(0); id >= 0; id = referenced
+				.nextSetBit(id + 1)) {
+			newIds[id] = pathCount++;
+			out.writeUTF(paths.get(id).toPortableString());
+		}
+		out.writeInt(nodeCount);
+		for (int id = 0; id < paths.size(); ++id) {
+			final int count = edgeCounts[id];
+			if (count == 0) {
+				continue;
+			}
+			out.writeInt(newIds[id]);
+			out.writeInt(count);
+			for (int i = 0; i < count; ++i) {
+				final int edge = edges[id][i];
+				out.writeInt(newIds[edge >>> FLAG_BITS] << FLAG_BITS
+						| (edge & FLAG_MASK));
+			}
+		}
+	}
+
+	void dump() {
+		for (int id = 0; id < paths.size(); ++id) {
+			final int count = edgeCounts[id];
+			if (count == 0) {
+				continue;
+			}
+			final StringBuilder sb = new StringBuilder();
+			sb.append("  ").append(paths.get(id)).append(" ->"); //$NON-NLS-1$ //$NON-NLS-2$
+			for (int i = 0; i < count; ++i) {
+				sb.append(' ').append(paths.get(edges[id][i] >>> FLAG_BITS))
+						.append('=').append(edges[id][i] & FLAG_MASK);
+			}
+			System.out.println(sb);
+		}
+	}
+}
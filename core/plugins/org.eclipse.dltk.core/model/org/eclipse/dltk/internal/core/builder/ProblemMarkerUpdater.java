@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.builder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.dltk.compiler.problem.IProblem;
+import org.eclipse.dltk.compiler.problem.IProblemFactory;
+import org.eclipse.dltk.compiler.problem.IProblemFactoryExtension;
+import org.eclipse.dltk.compiler.problem.IProblemSeverityTranslator;
+import org.eclipse.dltk.compiler.problem.ProblemCollector;
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.IScriptModelMarker;
+
+/**
+ * Replaces the markers of the built resources with the problems reported
+ * during the build.
+ *
+ * The new problems are compared with the existing markers of each resource
+ * (the ones {@link IProblemFactoryExtension#findMarkers(IResource)} returns),
+ * the identical markers are kept as they are, only the obsolete ones are
+ * deleted and the new ones created. The markers of the factories which can't
+ * find them are deleted with {@link IProblemFactory#deleteMarkers(IResource)}
+ * and created again. The resources are updated in batches, each one in a
+ * single workspace operation.
+ */
+public class ProblemMarkerUpdater {
+
+	/**
+	 * The number of resources updated in one workspace operation.
+	 */
+	private static final int BATCH_SIZE = 100;
+
+	/**
+	 * The attributes set by
+	 * {@link ProblemCollector#getMarkerAttributes(IProblem, IProblemSeverityTranslator)},
+	 * the markers are compared by these attributes only.
+	 */
+	private static final String[] ATTRIBUTES = { IMarker.LINE_NUMBER,
+			IMarker.MESSAGE, IMarker.CHAR_START, IMarker.CHAR_END,
+			IMarker.SEVERITY, IMarker.USER_EDITABLE, IMarker.PRIORITY,
+			IScriptModelMarker.ID, IScriptModelMarker.ARGUMENTS };
+
+	private static class MarkerKey {
+		final String type;
+		final Map<String, Object> attributes;
+
+		MarkerKey(String type, Map<String, Object> attributes) {
+			this.type = type;
+			this.attributes = attributes;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(type) * 31 + attributes.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof MarkerKey)) {
+				return false;
+			}
+			final MarkerKey other = (MarkerKey) obj;
+			return Objects.equals(type, other.type)
+					&& attributes.equals(other.attributes);
+		}
+	}
+
+	private final IProblemFactory problemFactory;
+	private final IProblemSeverityTranslator severityTranslator;
+	private final boolean findMarkers;
+
+	private final Map<IResource, List<IProblem>> problems = new LinkedHashMap<>();
+
+	private int createdCount;
+	private int deletedCount;
+	private int keptCount;
+
+	public ProblemMarkerUpdater(IProblemFactory problemFactory,
+			IProblemSeverityTranslator severityTranslator) {
+		this.problemFactory = problemFactory;
+		this.severityTranslator = severityTranslator;
+		this.findMarkers = canFindMarkers(problemFactory);
+	}
+
+	/**
+	 * Returns whether the factory finds the markers it deletes: a factory
+	 * which overrides {@link IProblemFactory#deleteMarkers(IResource)} below
+	 * the class implementing
+	 * {@link IProblemFactoryExtension#findMarkers(IResource)} deletes other
+	 * markers than it finds.
+	 */
+	private static boolean canFindMarkers(IProblemFactory factory) {
+		if (!(factory instanceof IProblemFactoryExtension)) {
+			return false;
+		}
+		try {
+			final Class<?> find = factory.getClass()
+					.getMethod("findMarkers", IResource.class) //$NON-NLS-1$
+					.getDeclaringClass();
+			final Class<?> delete = factory.getClass()
+					.getMethod("deleteMarkers", IResource.class) //$NON-NLS-1$
+					.getDeclaringClass();
+			return delete.isAssignableFrom(find);
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	public void add(BuildProblemReporter reporter) {
+		List<IProblem> list = problems.get(reporter.resource);
+		if (list == null) {
+			list = new ArrayList<>();
+			problems.put(reporter.resource, list);
+		}
+		list.addAll(reporter.getProblems());
+		reporter.reset();
+	}
+
+	public void flush() {
+		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final List<IResource> resources = new ArrayList<>(problems.keySet());
+		for (int start = 0; start < resources.size(); start += BATCH_SIZE) {
+			final List<IResource> batch = resources.subList(start,
+					Math.min(start + BATCH_SIZE, resources.size()));
+			final IWorkspaceRunnable runnable = monitor -> {
+				final List<IMarker> obsolete = new ArrayList<>();
+				for (IResource resource : batch) {
+					update(resource, problems.get(resource), obsolete);
+				}
+				if (!obsolete.isEmpty()) {
+					workspace.deleteMarkers(
+							obsolete.toArray(new IMarker[obsolete.size()]));
+					deletedCount += obsolete.size();
+				}
+			};
+			try {
+				workspace.run(runnable, null, IWorkspace.AVOID_UPDATE, null);
+			} catch (CoreException e) {
+				DLTKCore.error(
+						Messages.BuildProblemReporter_errorUpdatingMarkers, e);
+			}
+		}
+		if (DLTKCore.VERBOSE) {
+			System.out.println("Updated markers of " + resources.size() //$NON-NLS-1$
+					+ " resources: " + createdCount + " created, " //$NON-NLS-1$ //$NON-NLS-2$
+					+ deletedCount + " deleted, " + keptCount + " kept"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		problems.clear();
+	}
+
+	private void update(IResource resource, List<IProblem> newProblems,
+			List<IMarker> obsolete) {
+		if (!resource.exists()) {
+			return;
+		}
+		try {
+			if (!findMarkers) {
+				problemFactory.deleteMarkers(resource);
+				for (IProblem problem : newProblems) {
+					final Map<String, Object> attributes = ProblemCollector
+							.getMarkerAttributes(problem, severityTranslator);
+					if (attributes != null) {
+						createMarker(resource, problem, attributes);
+					}
+				}
+				return;
+			}
+			final Map<MarkerKey, List<IMarker>> existing = new HashMap<>();
+			for (IMarker marker : ((IProblemFactoryExtension) problemFactory)
+					.findMarkers(resource)) {
+				final MarkerKey key = new MarkerKey(marker.getType(),
+						select(marker.getAttributes()));
+				List<IMarker> markers = existing.get(key);
+				if (markers == null) {
+					markers = new ArrayList<>(1);
+					existing.put(key, markers);
+				}
+				markers.add(marker);
+			}
+			for (IProblem problem : newProblems) {
+				final Map<String, Object> attributes = ProblemCollector
+						.getMarkerAttributes(problem, severityTranslator);
+				if (attributes == null) {
+					continue;
+				}
+				final List<IMarker> markers = existing.get(new MarkerKey(
+						problemFactory.getMarkerType(problem), attributes));
+				if (markers != null && !markers.isEmpty()) {
+					markers.remove(markers.size() - 1);
+					++keptCount;
+					continue;
+				}
+				createMarker(resource, problem, attributes);
+			}
+			for (List<IMarker> markers : existing.values()) {
+				obsolete.addAll(markers);
+			}
+		} catch (CoreException e) {
+			DLTKCore.error(Messages.BuildProblemReporter_errorUpdatingMarkers,
+					e);
+		}
+	}
+
+	private void createMarker(IResource resource, IProblem problem,
+			Map<String, Object> attributes) throws CoreException {
+		final IMarker marker = problemFactory.createMarker(resource, problem);
+		marker.setAttributes(
+				attributes.keySet().toArray(new String[attributes.size()]),
+				attributes.values().toArray());
+		++createdCount;
+	}
+
+	public int getCreatedCount() {
+		return createdCount;
+	}
+
+	public int getDeletedCount() {
+		return deletedCount;
+	}
+
+	public int getKeptCount() {
+		return keptCount;
+	}
+
+	private static Map<String, Object> select(Map<String, Object> attributes) {
+		final Map<String, Object> result = new HashMap<>();
+		if (attributes != null) {
+			for (String name : ATTRIBUTES) {
+				final Object value = attributes.get(name);
+				if (value != null) {
+					result.put(name, value);
+				}
+			}
+		}
+		return result;
+	}
+}
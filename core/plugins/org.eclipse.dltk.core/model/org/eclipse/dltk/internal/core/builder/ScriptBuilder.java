@@ -14,6 +14,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -291,6 +292,16 @@ public class ScriptBuilder extends IncrementalProjectBuilder {
 			Assert.isTrue(flags != 0);
 			this.state.recordDependency(path, dependency, flags);
 		}
+
+		@Override
+		public void recordBuildTime(IPath path, long time) {
+			this.state.recordBuildTime(path, time);
+		}
+
+		@Override
+		public long getBuildTime(IPath path) {
+			return this.state.getBuildTime(path);
+		}
 	}
 
 	@Override
@@ -404,6 +415,7 @@ public class ScriptBuilder extends IncrementalProjectBuilder {
 		State prevState = (State) ModelManager.getModelManager()
 				.getLastBuiltState(currentProject, null);
 		if (prevState != null) {
+			state.useBuildTimesOf(prevState);
 			if (prevState.noCleanExternalFolders) {
 				state.externalFolderLocations = prevState.externalFolderLocations;
 				return state;
@@ -573,12 +585,13 @@ public class ScriptBuilder extends IncrementalProjectBuilder {
 							.getChangedPaths();
 					final State projectState = getLastState(
 							projectChange.getProject(), monitor);
-					if (projectState != null) {
-						projectChanges.addAll(projectState
-								.getAllStructuralDependencies(projectChanges));
-					}
+					final Collection<IPath> projectStructuralChanges = projectState != null
+							? projectState
+									.getAllStructuralDependencies(projectChanges)
+							: Collections.<IPath> emptyList();
+					projectChanges.addAll(projectStructuralChanges);
 					this.lastState.findDependenciesOf(projectChanges,
-							buildState.getStructuralChanges(), false, queue,
+							projectStructuralChanges, false, queue,
 							newStructuralChanges);
 				}
 				final IWorkspaceRoot root = ResourcesPlugin.getWorkspace()
@@ -589,10 +602,24 @@ public class ScriptBuilder extends IncrementalProjectBuilder {
 				buildState.recordStructuralChanges(
 						((IncrementalProjectChange) buildChange)
 								.getDeletedPaths());
+				/*
+				 * The modules affected by the changes are found transitively
+				 * and rebuilt at once, then again the ones depending on the
+				 * structural changes reported while rebuilding them. Only the
+				 * changed files trigger the CONTENT dependencies, rebuilding a
+				 * module does not change it.
+				 */
+				final Set<IPath> propagated = new HashSet<>();
 				for (int iterationNumber = 0;; ++iterationNumber) {
+					final Set<IPath> structuralChanges = new HashSet<>(
+							buildState.getStructuralChanges());
+					structuralChanges.removeAll(propagated);
 					this.lastState.findDependenciesOf(changes,
-							buildState.getStructuralChanges(),
-							iterationNumber == 0, queue, newStructuralChanges);
+							structuralChanges, iterationNumber == 0, queue,
+							newStructuralChanges);
+					propagated.addAll(structuralChanges);
+					propagated.addAll(newStructuralChanges);
+					changes.clear();
 					queue.removeAll(processed);
 					if (queue.isEmpty()) {
 						break;
@@ -626,8 +653,6 @@ public class ScriptBuilder extends IncrementalProjectBuilder {
 							}
 						}
 					}
-					changes.clear();
-					changes.addAll(queue);
 					processed.addAll(queue);
 					queue.clear();
 				}
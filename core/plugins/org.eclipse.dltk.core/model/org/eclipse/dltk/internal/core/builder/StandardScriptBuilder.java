@@ -10,23 +10,29 @@
 package org.eclipse.dltk.internal.core.builder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.dltk.compiler.problem.DefaultProblemFactory;
 import org.eclipse.dltk.compiler.problem.IProblemFactory;
 import org.eclipse.dltk.compiler.problem.IProblemReporter;
@@ -58,33 +64,6 @@ public class StandardScriptBuilder implements IScriptBuilder {
 	private static final int WORK_BUILD = 100;
 	private static final int PARALLEL_THRESHOLD = 10;
 
-	private class BuildModulesJob extends Job {
-
-		private Queue<ISourceModule> modules;
-		private int buildType;
-		private IBuildState state;
-
-		public BuildModulesJob(Queue<ISourceModule> modules, int buildType,
-				IBuildState state) {
-			super("Build Modules"); //$NON-NLS-1$
-			this.setSystem(true);
-			this.modules = modules;
-			this.buildType = buildType;
-			this.state = state;
-		}
-
-		@Override
-		protected IStatus run(IProgressMonitor monitor) {
-			for (ISourceModule module; (module = modules.poll()) != null;) {
-				if (monitor.isCanceled()) {
-					return Status.CANCEL_STATUS;
-				}
-				processModule(module, buildType, state);
-			}
-			return Status.OK_STATUS;
-		}
-	}
-
 	private List<IProblemReporter> fReporters = null;
 
 	@Override
@@ -201,11 +180,11 @@ public class StandardScriptBuilder implements IScriptBuilder {
 						new ArrayList<IProblemReporter>(modules.size()));
 			}
 
-			int availableProcessors = Runtime.getRuntime()
-					.availableProcessors();
-			if (modules.size() >= PARALLEL_THRESHOLD
-					&& availableProcessors > 2) {
-				processInParallel(modules, buildType, state, project, monitor);
+			final int threads = Math.min(modules.size() / 2,
+					getThreads(project));
+			if (modules.size() >= PARALLEL_THRESHOLD && threads > 1) {
+				processInParallel(modules, buildType, state, project, threads,
+						monitor);
 			} else {
 				processInSingleThread(modules, buildType, state, monitor);
 			}
@@ -237,57 +216,154 @@ public class StandardScriptBuilder implements IScriptBuilder {
 		}
 	}
 
+	/**
+	 * Returns the number of threads building the modules of the project.
+	 */
+	private static int getThreads(IScriptProject project) {
+		int threads = 0;
+		final String value = project.getOption(DLTKCore.BUILDER_THREADS, true);
+		if (value != null) {
+			try {
+				threads = Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		if (threads <= 0) {
+			final int availableProcessors = Runtime.getRuntime()
+					.availableProcessors();
+			threads = availableProcessors > 2 ? availableProcessors : 1;
+		}
+		return threads;
+	}
+
+	/**
+	 * Builds the modules in a work stealing pool, the most expensive ones
+	 * first, so they don't delay the end of the build. The workers report the
+	 * built modules to this thread, which updates the progress.
+	 */
 	private void processInParallel(final List<ISourceModule> modules,
-			int buildType, IBuildState state, final IScriptProject project,
+			final int buildType, final IBuildState state,
+			final IScriptProject project, int threads,
 			final IProgressMonitor monitor) {
-		final Queue<ISourceModule> queue = new ArrayBlockingQueue<>(
-				modules.size(), true, modules);
-
-		int maxThreads = Math.min(modules.size() / 2,
-				Runtime.getRuntime().availableProcessors());
-
-		List<Job> jobs = new ArrayList<>(maxThreads);
+		final Queue<ISourceModule> pending = new ConcurrentLinkedQueue<>(
+				sortByCost(modules, state));
+		final BlockingQueue<ISourceModule> built = new LinkedBlockingQueue<>();
+		final AtomicBoolean canceled = new AtomicBoolean();
+		final ForkJoinPool pool = new ForkJoinPool(threads);
 		try {
-			for (int i = 0; i < maxThreads; i++) {
-				Job job = new BuildModulesJob(queue, buildType, state);
-				job.schedule();
-				jobs.add(job);
-			}
-			int lastNumberOfScannedFiles = 0;
-			for (Job job : jobs) {
-				while (!job.join(100, null)) {
-					if (monitor.isCanceled()) {
-						for (Job tmpJob : jobs) {
-							tmpJob.cancel();
+			// the pool doesn't run the tasks in the order they are submitted,
+			// so each task builds the most expensive module not started yet
+			for (int i = 0; i < modules.size(); ++i) {
+				pool.execute(() -> {
+					final ISourceModule module = pending.poll();
+					try {
+						if (!canceled.get()) {
+							processModule(module, buildType, state);
 						}
-						continue;
+					} catch (RuntimeException | LinkageError
+							| AssertionError e) {
+						// don't let it kill the worker unnoticed
+						DLTKCore.error(
+								Messages.StandardScriptBuilder_errorBuildingModule,
+								e);
+					} finally {
+						built.add(module);
 					}
-					int numberOfScannedFiles = modules.size() - queue.size();
-					monitor.subTask(NLS.bind(
-							Messages.ValidatorBuilder_buildModuleSubTask,
-							(int) ((numberOfScannedFiles * 100f)
-									/ modules.size()),
-							project.getElementName()));
-					int steps = numberOfScannedFiles - lastNumberOfScannedFiles;
-					monitor.worked(steps);
-					lastNumberOfScannedFiles += steps;
+				});
+			}
+			int numberOfScannedFiles = 0;
+			while (numberOfScannedFiles < modules.size()) {
+				if (monitor.isCanceled()) {
+					// wait for the modules being built
+					canceled.set(true);
+				}
+				if (built.poll(100, TimeUnit.MILLISECONDS) == null) {
+					continue;
 				}
+				++numberOfScannedFiles;
+				monitor.subTask(NLS.bind(
+						Messages.ValidatorBuilder_buildModuleSubTask,
+						(int) ((numberOfScannedFiles * 100f) / modules.size()),
+						project.getElementName()));
+				monitor.worked(1);
 			}
-		} catch (OperationCanceledException e) {
-			DLTKCore.error(e);
 		} catch (InterruptedException e) {
+			canceled.set(true);
 			DLTKCore.error(e);
+		} finally {
+			pool.shutdown();
 		}
 	}
 
+	/**
+	 * Returns the modules ordered by their estimated build time, the longest
+	 * first. The time is the one of the previous build if known, otherwise it
+	 * is estimated from the size of the file.
+	 */
+	private static List<ISourceModule> sortByCost(List<ISourceModule> modules,
+			IBuildState state) {
+		final AbstractBuildState buildState = state instanceof AbstractBuildState
+				? (AbstractBuildState) state
+				: null;
+		final int count = modules.size();
+		final long[] times = new long[count];
+		final long[] sizes = new long[count];
+		long knownTime = 0;
+		long knownSize = 0;
+		for (int i = 0; i < count; ++i) {
+			final ISourceModule module = modules.get(i);
+			times[i] = buildState != null
+					? buildState.getBuildTime(module.getPath())
+					: -1;
+			sizes[i] = getSize(module);
+			if (times[i] >= 0 && sizes[i] > 0) {
+				knownTime += times[i];
+				knownSize += sizes[i];
+			}
+		}
+		final double timePerByte = knownSize > 0
+				? (double) knownTime / knownSize
+				: 1;
+		final double[] costs = new double[count];
+		final Integer[] order = new Integer[count];
+		for (int i = 0; i < count; ++i) {
+			costs[i] = times[i] >= 0 ? times[i] : sizes[i] * timePerByte;
+			order[i] = Integer.valueOf(i);
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(costs[b.intValue()],
+				costs[a.intValue()]));
+		final List<ISourceModule> result = new ArrayList<>(count);
+		for (Integer index : order) {
+			result.add(modules.get(index.intValue()));
+		}
+		return result;
+	}
+
+	private static long getSize(ISourceModule module) {
+		final IResource resource = module.getResource();
+		if (resource != null) {
+			final IPath location = resource.getLocation();
+			if (location != null) {
+				return location.toFile().length();
+			}
+		}
+		return 0;
+	}
+
 	private void processModule(ISourceModule module, int buildType,
 			IBuildState state) {
+		final long start = System.nanoTime();
 		final SourceModuleBuildContext context = new SourceModuleBuildContext(
 				problemFactory, module, buildType, state);
 		if (context.reporter != null) {
 			buildModule(context);
 			fReporters.add(context.reporter);
 		}
+		if (state instanceof AbstractBuildState) {
+			((AbstractBuildState) state).recordBuildTime(module.getPath(),
+					(System.nanoTime() - start) / 1000);
+		}
 	}
 
 	/**
@@ -458,14 +534,17 @@ public class StandardScriptBuilder implements IScriptBuilder {
 		if (fReporters != null) {
 			final IProblemSeverityTranslator severityTranslator = problemFactory
 					.createSeverityTranslator(project);
+			final ProblemMarkerUpdater markerUpdater = new ProblemMarkerUpdater(
+					problemFactory, severityTranslator);
 			for (IProblemReporter reporter : fReporters) {
 				final BuildProblemReporter buildReporter = (BuildProblemReporter) reporter;
 				if (buildReporter.hasCategory(ProblemCategory.IMPORT)) {
 					state.recordImportProblem(
 							buildReporter.resource.getFullPath());
 				}
-				buildReporter.flush(severityTranslator);
+				markerUpdater.add(buildReporter);
 			}
+			markerUpdater.flush();
 			fReporters = null;
 		}
 		participants = null;
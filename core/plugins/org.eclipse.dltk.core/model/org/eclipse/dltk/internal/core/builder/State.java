@@ -12,24 +12,23 @@ package org.eclipse.dltk.internal.core.builder;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.dltk.compiler.util.SimpleLookupTable;
 import org.eclipse.dltk.core.builder.IBuildState;
-import org.eclipse.dltk.utils.TextUtils;
 
 public class State {
 	// NOTE: this state cannot contain types that are not defined in this
@@ -47,49 +46,36 @@ public class State {
 	 * <li>0x16 boolean noCleanExternalFolders is always present
 	 * <li>0x17 dependencies
 	 * <li>0x18 dependencies + flags
+	 * <li>0x19 build times
+	 * <li>0x1A numbered dependency paths
 	 * </ul>
 	 **/
-	public static final byte VERSION = 0x0018;
+	public static final byte VERSION = 0x001A;
 
 	Set<IPath> externalFolderLocations = new HashSet<>();
 
 	boolean noCleanExternalFolders = false;
 
-	static class DependencyInfo {
-		int flags;
-
-		public DependencyInfo() {
-		}
-
-		public DependencyInfo(DependencyInfo source) {
-			this.flags = source.flags;
-		}
-
-		@Override
-		public String toString() {
-			final List<String> values = new ArrayList<>();
-			if ((flags & IBuildState.STRUCTURAL) != 0) {
-				values.add("STRUCTURAL");
-			}
-			if ((flags & IBuildState.CONTENT) != 0) {
-				values.add("CONTENT");
-			}
-			if ((flags & IBuildState.EXPORTED) != 0) {
-				values.add("EXPORTED");
-			}
-			return String.valueOf(flags) + (!values.isEmpty() ? ":" : "")
-					+ TextUtils.join(values, '|');
-		}
-	}
-
 	/**
 	 * Full (absolute,including project) path to the set of paths, depending on
 	 * it.
 	 */
-	private final Map<IPath, Map<IPath, DependencyInfo>> dependencies = new HashMap<>();
+	private final DependencyGraph dependencies = new DependencyGraph();
 
 	private final Set<IPath> importProblems = new HashSet<>();
 
+	/**
+	 * Full path of the module to the time (in microseconds) it took to build
+	 * it last time, recorded by the builders running in parallel.
+	 */
+	private final Map<IPath, Long> buildTimes = new ConcurrentHashMap<>();
+
+	/**
+	 * The build times of the previous state when this one is for a full build,
+	 * only used for the estimates and not saved.
+	 */
+	private Map<IPath, Long> previousBuildTimes = Collections.emptyMap();
+
 	static final byte SOURCE_FOLDER = 1;
 	static final byte BINARY_FOLDER = 2;
 	static final byte EXTERNAL_JAR = 3;
@@ -126,10 +112,19 @@ public class State {
 		this.externalFolderLocations.clear();
 		this.externalFolderLocations.addAll(lastState.externalFolderLocations);
 		this.noCleanExternalFolders = false;
-		this.dependencies.clear();
-		this.dependencies.putAll(lastState.dependencies);
+		this.dependencies.copyFrom(lastState.dependencies);
 		this.importProblems.clear();
 		this.importProblems.addAll(lastState.importProblems);
+		this.buildTimes.clear();
+		this.buildTimes.putAll(lastState.buildTimes);
+	}
+
+	/**
+	 * Uses the build times of the given state for the estimates, without
+	 * keeping the ones of the modules which are not built again.
+	 */
+	void useBuildTimesOf(State previousState) {
+		this.previousBuildTimes = previousState.buildTimes;
 	}
 
 	public Set<IPath> getExternalFolders() {
@@ -174,16 +169,14 @@ public class State {
 						.add(Path.fromPortableString(folderName));
 		}
 		newState.noCleanExternalFolders = in.readBoolean();
-		final int dependencyCount = in.readInt();
-		newState.dependencies.clear();
-		for (int i = 0; i < dependencyCount; ++i) {
-			final Map<IPath, DependencyInfo> paths = new HashMap<>();
-			newState.dependencies.put(Path.fromPortableString(in.readUTF()),
-					paths);
-			readDependencyPaths(in, paths);
-		}
+		newState.dependencies.read(in);
 		newState.importProblems.clear();
 		readPaths(in, newState.importProblems);
+		final int buildTimeCount = in.readInt();
+		for (int i = 0; i < buildTimeCount; ++i) {
+			newState.buildTimes.put(Path.fromPortableString(in.readUTF()),
+					Long.valueOf(in.readLong()));
+		}
 		if (ScriptBuilder.DEBUG)
 			System.out.println("Successfully read state for " //$NON-NLS-1$
 					+ newState.scriptProjectName);
@@ -231,13 +224,13 @@ public class State {
 			out.writeUTF(path.toPortableString());
 		}
 		out.writeBoolean(this.noCleanExternalFolders);
-		out.writeInt(dependencies.size());
-		for (Map.Entry<IPath, Map<IPath, DependencyInfo>> entry : dependencies
-				.entrySet()) {
+		dependencies.write(out);
+		writePaths(out, importProblems);
+		out.writeInt(buildTimes.size());
+		for (Map.Entry<IPath, Long> entry : buildTimes.entrySet()) {
 			out.writeUTF(entry.getKey().toPortableString());
-			writeDependencyPaths(out, entry.getValue());
+			out.writeLong(entry.getValue().longValue());
 		}
-		writePaths(out, importProblems);
 	}
 
 	private static void readPaths(DataInputStream in, Collection<IPath> paths)
@@ -256,26 +249,6 @@ public class State {
 		}
 	}
 
-	private static void readDependencyPaths(DataInputStream in,
-			Map<IPath, DependencyInfo> paths) throws IOException {
-		final int pathCount = in.readInt();
-		for (int j = 0; j < pathCount; ++j) {
-			final IPath path = Path.fromPortableString(in.readUTF());
-			final DependencyInfo depInfo = new DependencyInfo();
-			depInfo.flags = in.readInt();
-			paths.put(path, depInfo);
-		}
-	}
-
-	private void writeDependencyPaths(DataOutputStream out,
-			Map<IPath, DependencyInfo> paths) throws IOException {
-		out.writeInt(paths.size());
-		for (Map.Entry<IPath, DependencyInfo> entry : paths.entrySet()) {
-			out.writeUTF(entry.getKey().toPortableString());
-			out.writeInt(entry.getValue().flags);
-		}
-	}
-
 	/**
 	 * Returns a string representation of the receiver.
 	 */
@@ -302,17 +275,23 @@ public class State {
 	protected void recordDependency(IPath path, IPath dependency, int flags) {
 		Assert.isLegal(scriptProjectName.equals(path.segment(0)));
 		Assert.isLegal(!path.equals(dependency));
-		Map<IPath, DependencyInfo> paths = dependencies.get(dependency);
-		if (paths == null) {
-			paths = new HashMap<>();
-			dependencies.put(dependency, paths);
-		}
-		DependencyInfo depInfo = paths.get(path);
-		if (depInfo == null) {
-			depInfo = new DependencyInfo();
-			paths.put(path, depInfo);
+		dependencies.add(path, dependency, flags);
+	}
+
+	protected void recordBuildTime(IPath path, long time) {
+		buildTimes.put(path, Long.valueOf(time));
+	}
+
+	/**
+	 * Returns the time (in microseconds) it took to build the module last
+	 * time, or <code>-1</code> if unknown.
+	 */
+	protected long getBuildTime(IPath path) {
+		Long time = buildTimes.get(path);
+		if (time == null) {
+			time = previousBuildTimes.get(path);
 		}
-		depInfo.flags |= flags;
+		return time != null ? time.longValue() : -1;
 	}
 
 	protected void resetDependencies() {
@@ -321,27 +300,27 @@ public class State {
 	}
 
 	protected void removeDependenciesFor(Set<IPath> paths) {
-		for (Iterator<Map.Entry<IPath, Map<IPath, DependencyInfo>>> i = dependencies
-				.entrySet().iterator(); i.hasNext();) {
-			final Map.Entry<IPath, Map<IPath, DependencyInfo>> entry = i.next();
-			if (entry.getValue().keySet().removeAll(paths)
-					&& entry.getValue().isEmpty()) {
-				i.remove();
+		dependencies.removeDependents(paths);
+		importProblems.removeAll(paths);
+		// the rebuilt modules record a new time, forget the deleted ones
+		final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		for (IPath path : paths) {
+			if (buildTimes.containsKey(path) && !root.getFile(path).exists()) {
+				buildTimes.remove(path);
 			}
 		}
-		importProblems.removeAll(paths);
 	}
 
 	/**
-	 * Finds the files which should be rebuilt for the specified changes and
-	 * adds them to the newDependencies and newStructuralDependencies
-	 * parameters.
+	 * Finds the files which should be rebuilt for the specified changes,
+	 * following the dependencies transitively as long as the changes are known
+	 * to be structural, and adds them to the newDependencies and
+	 * newStructuralDependencies parameters.
 	 *
 	 * @param paths
-	 *            input parameter - paths of all the changed files
+	 *            input parameter - paths of the files whose content changed
 	 * @param structuralChanges
 	 *            input parameter - paths of the structurally changed files
-	 *            (subset of {@code paths})
 	 * @param includeImportProblems
 	 *            if all the files with import problems should be included
 	 * @param newDependencies
@@ -351,28 +330,14 @@ public class State {
 	 *            as structurally changed
 	 */
 	protected void findDependenciesOf(Collection<IPath> paths,
-			Set<IPath> structuralChanges, boolean includeImportProblems,
+			Collection<IPath> structuralChanges, boolean includeImportProblems,
 			Collection<IPath> newDependencies,
 			Collection<IPath> newStructuralDependencies) {
 		if (includeImportProblems && !structuralChanges.isEmpty()) {
 			newDependencies.addAll(importProblems);
 		}
-		for (IPath path : paths) {
-			final boolean structuralChange = structuralChanges.contains(path);
-			final Map<IPath, DependencyInfo> deps = dependencies.get(path);
-			if (deps != null) {
-				for (Map.Entry<IPath, DependencyInfo> entry : deps.entrySet()) {
-					if (structuralChange || ((entry.getValue().flags
-							& IBuildState.CONTENT) != 0)) {
-						newDependencies.add(entry.getKey());
-						if ((entry.getValue().flags
-								& IBuildState.EXPORTED) != 0) {
-							newStructuralDependencies.add(entry.getKey());
-						}
-					}
-				}
-			}
-		}
+		dependencies.findAffected(paths, structuralChanges, newDependencies,
+				newStructuralDependencies);
 	}
 
 	protected Collection<IPath> getAllStructuralDependencies(
@@ -386,36 +351,12 @@ public class State {
 		if (result.isEmpty()) {
 			return Collections.emptyList();
 		}
-		final List<IPath> queue = new ArrayList<>(result);
-		while (!queue.isEmpty()) {
-			final List<IPath> nextQueue = new ArrayList<>();
-			for (IPath path : queue) {
-				final Map<IPath, DependencyInfo> deps = dependencies.get(path);
-				if (deps != null) {
-					for (Map.Entry<IPath, DependencyInfo> entry : deps
-							.entrySet()) {
-						if (!result.contains(entry.getKey())
-								&& ((entry.getValue().flags
-										& IBuildState.STRUCTURAL) != 0)) {
-							nextQueue.add(entry.getKey());
-						}
-					}
-				}
-			}
-			result.addAll(nextQueue);
-			queue.clear();
-			queue.addAll(nextQueue);
-		}
+		dependencies.addTransitiveDependents(result, IBuildState.STRUCTURAL);
 		return result;
 	}
 
 	void dumpDependencies() {
 		System.out.println("Dependencies in " + scriptProjectName + ":");
-		for (Iterator<Map.Entry<IPath, Map<IPath, DependencyInfo>>> i = dependencies
-				.entrySet().iterator(); i.hasNext();) {
-			final Map.Entry<IPath, Map<IPath, DependencyInfo>> entry = i.next();
-			System.out
-					.println("  " + entry.getKey() + " -> " + entry.getValue());
-		}
+		dependencies.dump();
 	}
 }
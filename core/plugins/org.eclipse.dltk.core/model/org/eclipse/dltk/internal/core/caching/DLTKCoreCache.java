@@ -173,6 +173,11 @@ public class DLTKCoreCache extends AbstractContentCache {
 		return metadataCache.getEntryAsFile(handle, attribute);
 	}
 
+	@Override
+	public File findEntryAsFile(IFileHandle handle, String attribute) {
+		return metadataCache.findEntryAsFile(handle, attribute);
+	}
+
 	@Override
 	public void updateFolderTimestamps(IFileHandle parent) {
 		metadataCache.updateFolderTimestamps(parent);
@@ -31,7 +31,7 @@ public class ChangeCollector {
 	/*
 	 * A table from ITypes to TypeDeltas
 	 */
-	HashMap changes = new HashMap();
+	HashMap<IType, SimpleDelta> changes = new HashMap<>();
 
 	TypeHierarchy hierarchy;
 
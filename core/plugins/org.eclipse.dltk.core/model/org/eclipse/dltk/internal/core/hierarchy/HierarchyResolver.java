@@ -8,7 +8,9 @@
  *******************************************************************************/
 package org.eclipse.dltk.internal.core.hierarchy;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -16,13 +18,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.DLTKLanguageManager;
 import org.eclipse.dltk.core.IDLTKLanguageToolkit;
 import org.eclipse.dltk.core.IFileHierarchyInfo;
 import org.eclipse.dltk.core.IFileHierarchyResolver;
+import org.eclipse.dltk.core.IModelElementDelta;
 import org.eclipse.dltk.core.ISearchPatternProcessor;
 import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.core.IType;
@@ -36,6 +41,8 @@ import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.TypeNameRequestor;
 import org.eclipse.dltk.internal.core.ModelElement;
 import org.eclipse.dltk.internal.core.Openable;
+import org.eclipse.dltk.internal.core.SimpleDelta;
+import org.eclipse.dltk.internal.core.TypeVector;
 import org.eclipse.dltk.internal.core.util.HandleFactory;
 
 public class HierarchyResolver {
@@ -57,13 +64,13 @@ public class HierarchyResolver {
 		computeSupertypes(focusType);
 	}
 
-	private IType[] findTypes(String pattern, IDLTKSearchScope scope)
-			throws ModelException {
+	private IType[] findTypes(String pattern, IDLTKSearchScope scope,
+			IProgressMonitor monitor) throws ModelException {
 
 		// First try to use new indexing infrastructure:
 		IType[] types = new ModelAccess().findTypes(pattern,
 				pattern == null ? MatchRule.PREFIX : MatchRule.EXACT, 0, 0,
-				scope, hierarchyBuilder.hierarchy.progressMonitor);
+				scope, monitor);
 		if (types != null) {
 			return types;
 		}
@@ -143,8 +150,7 @@ public class HierarchyResolver {
 		searchEngine.searchAllTypeNames(null, 0, pattern.toCharArray(),
 				matchRule, IDLTKSearchConstants.DECLARATIONS,
 				hierarchyBuilder.hierarchy.scope, typesCollector,
-				IDLTKSearchConstants.WAIT_UNTIL_READY_TO_SEARCH,
-				hierarchyBuilder.hierarchy.progressMonitor);
+				IDLTKSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
 
 		return result.toArray(new IType[result.size()]);
 	}
@@ -157,7 +163,8 @@ public class HierarchyResolver {
 
 		Map<String, Set<IType>> tmpCache = new HashMap<>();
 
-		IType[] types = findTypes(null, hierarchyBuilder.hierarchy.scope);
+		IType[] types = findTypes(null, hierarchyBuilder.hierarchy.scope,
+				hierarchyBuilder.hierarchy.progressMonitor);
 		for (IType type : types) {
 			String[] superTypes = type.getSuperClasses();
 			if (superTypes != null) {
@@ -183,7 +190,7 @@ public class HierarchyResolver {
 		}
 
 		// Rebuild temporary cache in a useful format:
-		HashMap<String, IType[]> cache = new HashMap<>();
+		Map<String, IType[]> cache = new ConcurrentHashMap<>();
 		Iterator<String> i = tmpCache.keySet().iterator();
 		while (i.hasNext()) {
 			String typeName = i.next();
@@ -207,30 +214,41 @@ public class HierarchyResolver {
 	}
 
 	protected void computeSubtypesFor(IType focusType,
-			Map<String, List<String>> superTypeToExtender,
-			Map<String, IType[]> subTypesCache,
-			IFileHierarchyInfo hierarchyInfo, Set<IType> processedTypes,
-			String delimiter) throws CoreException {
-
-		List<String> extenders = superTypeToExtender
-				.get(focusType.getTypeQualifiedName(delimiter));
-		if (extenders != null) {
-			IType[] subTypes = searchTypes(
-					extenders.toArray(new String[extenders.size()]),
-					subTypesCache, hierarchyInfo);
-			for (int i = 0; i < subTypes.length; i++) {
-				IType subType = subTypes[i];
-				hierarchyBuilder.hierarchy.addSubtype(focusType, subType);
-			}
-
-			for (int i = 0; i < subTypes.length; i++) {
-				IType subType = subTypes[i];
-				if (processedTypes.add(subType)) {
-					computeSubtypesFor(subType, superTypeToExtender,
-							subTypesCache, hierarchyInfo, processedTypes,
-							delimiter);
+			final Map<String, List<String>> superTypeToExtender,
+			final Map<String, IType[]> subTypesCache,
+			final IFileHierarchyInfo hierarchyInfo, Set<IType> processedTypes,
+			final String delimiter) throws CoreException {
+		// breadth first, the subtypes of the types of each level are searched
+		// in parallel
+		List<IType> level = Collections.singletonList(focusType);
+		while (!level.isEmpty()) {
+			final List<IType[]> levelSubTypes = ParallelSearch.run(level,
+					(type, monitor) -> {
+						List<String> extenders = superTypeToExtender
+								.get(type.getTypeQualifiedName(delimiter));
+						if (extenders == null) {
+							return null;
+						}
+						return searchTypes(
+								extenders.toArray(new String[extenders.size()]),
+								subTypesCache, hierarchyInfo, monitor);
+					}, hierarchyBuilder.hierarchy.progressMonitor);
+			final List<IType> nextLevel = new ArrayList<>();
+			for (int i = 0; i < level.size(); i++) {
+				IType[] subTypes = levelSubTypes.get(i);
+				if (subTypes == null) {
+					continue;
+				}
+				for (IType subType : subTypes) {
+					hierarchyBuilder.hierarchy.addSubtype(level.get(i), subType);
+				}
+				for (IType subType : subTypes) {
+					if (processedTypes.add(subType)) {
+						nextLevel.add(subType);
+					}
 				}
 			}
+			level = nextLevel;
 		}
 	}
 
@@ -244,51 +262,76 @@ public class HierarchyResolver {
 					hierarchyBuilder.hierarchy.progressMonitor);
 		}
 
-		computeSupertypesFor(focusType, new HashMap<String, IType[]>(),
-				hierarchyInfo, new HashSet<IType>());
+		computeSupertypesFor(focusType,
+				new ConcurrentHashMap<String, IType[]>(), hierarchyInfo,
+				new HashSet<IType>());
 	}
 
 	protected void computeSupertypesFor(IType focusType,
-			Map<String, IType[]> superTypesCache,
-			IFileHierarchyInfo hierarchyInfo, Set<IType> processedTypes)
+			final Map<String, IType[]> superTypesCache,
+			final IFileHierarchyInfo hierarchyInfo, Set<IType> processedTypes)
 			throws CoreException {
 
 		processedTypes.add(focusType);
 
-		// Build superclasses hieararchy:
-		String[] superClasses = focusType.getSuperClasses();
-		if (superClasses != null && superClasses.length > 0) {
-			IType[] searchTypes = searchTypes(superClasses, superTypesCache,
-					hierarchyInfo);
-
-			for (int i = 0; i < searchTypes.length; i++) {
-				IType superclass = searchTypes[i];
-				hierarchyBuilder.hierarchy.cacheSuperclass(focusType,
-						superclass);
-			}
-
-			for (int i = 0; i < searchTypes.length; i++) {
-				IType superclass = searchTypes[i];
-				if (!processedTypes.contains(superclass)) {
-					computeSupertypesFor(superclass, superTypesCache,
-							hierarchyInfo, processedTypes);
+		// Build superclasses hieararchy, breadth first, the superclasses of
+		// the types of each level are searched in parallel:
+		List<IType> level = Collections.singletonList(focusType);
+		while (!level.isEmpty()) {
+			final List<IType[]> levelSuperTypes = ParallelSearch.run(level,
+					(type, monitor) -> {
+						String[] superClasses = type.getSuperClasses();
+						if (superClasses == null || superClasses.length == 0) {
+							return null;
+						}
+						return searchTypes(superClasses, superTypesCache,
+								hierarchyInfo, monitor);
+					}, hierarchyBuilder.hierarchy.progressMonitor);
+			final List<IType> nextLevel = new ArrayList<>();
+			for (int i = 0; i < level.size(); i++) {
+				IType type = level.get(i);
+				IType[] searchTypes = levelSuperTypes.get(i);
+				if (searchTypes == null) {
+					if (!hierarchyBuilder.hierarchy.contains(type)) {
+						hierarchyBuilder.hierarchy.addRootClass(type);
+					}
+					continue;
+				}
+				for (IType superclass : searchTypes) {
+					hierarchyBuilder.hierarchy.cacheSuperclass(type,
+							superclass);
+				}
+				for (IType superclass : searchTypes) {
+					if (processedTypes.add(superclass)) {
+						nextLevel.add(superclass);
+					}
 				}
 			}
-		} else {
-			if (!hierarchyBuilder.hierarchy.contains(focusType)) {
-				hierarchyBuilder.hierarchy.addRootClass(focusType);
-			}
+			level = nextLevel;
 		}
 	}
 
 	protected IType[] searchTypes(String[] typeNames,
 			Map<String, IType[]> cache, IFileHierarchyInfo hierarchyInfo)
 			throws CoreException {
+		return searchTypes(typeNames, cache, hierarchyInfo,
+				hierarchyBuilder.hierarchy.progressMonitor);
+	}
+
+	/**
+	 * Searches the types with the given names, the supertypes and the
+	 * subtypes are searched by this method. The cache must be thread safe
+	 * when the searches run in parallel, then the monitor is the one of the
+	 * search.
+	 */
+	protected IType[] searchTypes(String[] typeNames,
+			Map<String, IType[]> cache, IFileHierarchyInfo hierarchyInfo,
+			IProgressMonitor monitor) throws CoreException {
 		List<IType> result = new LinkedList<>();
 		for (int i = 0; i < typeNames.length; i++) {
 			String typeName = typeNames[i];
-			result.addAll(
-					Arrays.asList(searchTypes(typeName, cache, hierarchyInfo)));
+			result.addAll(Arrays.asList(
+					searchTypes(typeName, cache, hierarchyInfo, monitor)));
 		}
 		return result.toArray(new IType[result.size()]);
 	}
@@ -301,14 +344,30 @@ public class HierarchyResolver {
 	protected IType[] searchTypes(final String typeName,
 			Map<String, IType[]> cache, final IFileHierarchyInfo hierarchyInfo)
 			throws CoreException {
-		if (cache != null && cache.containsKey(typeName)) {
-			return cache.get(typeName);
+		return searchTypes(typeName, cache, hierarchyInfo,
+				hierarchyBuilder.hierarchy.progressMonitor);
+	}
+
+	/**
+	 * Searches the types with the given name, the types of all the names are
+	 * searched by this method. The cache must be thread safe when the
+	 * searches run in parallel, then the monitor is the one of the search.
+	 */
+	protected IType[] searchTypes(final String typeName,
+			Map<String, IType[]> cache, final IFileHierarchyInfo hierarchyInfo,
+			IProgressMonitor monitor) throws CoreException {
+		if (cache != null) {
+			IType[] types = cache.get(typeName);
+			if (types != null) {
+				return types;
+			}
 		}
 
 		final List<IType> result = new LinkedList<>();
 		final List<IType> filteredTypes = new LinkedList<>();
 
-		IType[] types = findTypes(typeName, hierarchyBuilder.hierarchy.scope);
+		IType[] types = findTypes(typeName, hierarchyBuilder.hierarchy.scope,
+				monitor);
 		for (IType type : types) {
 			String delimiter = getDelimiterReplacementString(type);
 			String qualifiedName = type.getTypeQualifiedName(delimiter);
@@ -338,6 +397,155 @@ public class HierarchyResolver {
 		return types;
 	}
 
+	/**
+	 * Applies the changes of the given types to the subtypes of the focus type.
+	 * Only the super classes of the changed types are resolved, the other
+	 * types keep their place. Returns the types whose super types or subtypes
+	 * changed, or <code>null</code> if the changes can't be applied this way.
+	 */
+	public Set<IType> resolveChanges(Map<IType, SimpleDelta> changes)
+			throws CoreException {
+		final TypeHierarchy hierarchy = hierarchyBuilder.hierarchy;
+		final IType focusType = hierarchyBuilder.getType();
+		final String delimiter = getDelimiterReplacementString(focusType);
+
+		final Set<IType> supertypes = new HashSet<>(
+				Arrays.asList(hierarchy.getAllSupertypes(focusType)));
+		supertypes.add(focusType);
+		// the focus type and the subtypes connected so far
+		final Set<IType> members = new HashSet<>(
+				Arrays.asList(hierarchy.getAllSubtypes(focusType)));
+		members.add(focusType);
+
+		final Set<IType> changedTypes = new HashSet<>();
+		final Set<IType> added = new HashSet<>();
+		final Set<IType> removed = new HashSet<>();
+		final List<IType> unresolved = new ArrayList<>();
+		// subtypes of the removed types by the qualified name of the type
+		final Map<String, List<IType>> orphans = new HashMap<>();
+
+		for (Map.Entry<IType, SimpleDelta> entry : changes.entrySet()) {
+			final IType type = entry.getKey();
+			final SimpleDelta delta = entry.getValue();
+			if (supertypes.contains(type)) {
+				// the super types are resolved from the focus type
+				return null;
+			}
+			final boolean contained = members.contains(type);
+			switch (delta.getKind()) {
+			case IModelElementDelta.REMOVED:
+				if (contained) {
+					final String name = type.getTypeQualifiedName(delimiter);
+					List<IType> subtypes = orphans.get(name);
+					if (subtypes == null) {
+						subtypes = new ArrayList<>();
+						orphans.put(name, subtypes);
+					}
+					subtypes.addAll(Arrays.asList(hierarchy.getSubtypes(type)));
+					changedTypes.addAll(
+							Arrays.asList(hierarchy.disconnectSupertypes(type)));
+					members.remove(type);
+					removed.add(type);
+				}
+				break;
+			case IModelElementDelta.ADDED:
+				added.add(type);
+				unresolved.add(type);
+				break;
+			default:
+				if ((delta.getFlags() & IModelElementDelta.F_SUPER_TYPES) != 0) {
+					if (contained) {
+						changedTypes.addAll(Arrays
+								.asList(hierarchy.disconnectSupertypes(type)));
+						changedTypes.add(type);
+					}
+					unresolved.add(type);
+				}
+				if ((delta.getFlags() & IModelElementDelta.F_MODIFIERS) != 0
+						&& contained) {
+					hierarchy.cacheFlags(type, type.getFlags());
+					changedTypes.add(type);
+				}
+			}
+		}
+
+		IFileHierarchyInfo hierarchyInfo = null;
+		if (!unresolved.isEmpty()) {
+			final IFileHierarchyResolver fileHierarchyResolver = createFileHierarchyResolver(
+					focusType);
+			if (fileHierarchyResolver != null) {
+				hierarchyInfo = fileHierarchyResolver.resolveDown(
+						focusType.getSourceModule(),
+						hierarchy.progressMonitor);
+			}
+		}
+		final Map<String, IType[]> cache = new HashMap<>();
+		// repeat as the changed types may extend each other
+		boolean connected = true;
+		while (connected && !unresolved.isEmpty()) {
+			connected = false;
+			for (Iterator<IType> i = unresolved.iterator(); i.hasNext();) {
+				final IType type = i.next();
+				final String[] superClasses = type.getSuperClasses();
+				if (superClasses == null || superClasses.length == 0) {
+					i.remove();
+					continue;
+				}
+				boolean linked = false;
+				for (IType superclass : searchTypes(superClasses, cache,
+						hierarchyInfo, hierarchy.progressMonitor)) {
+					if (!superclass.equals(type)
+							&& members.contains(superclass)) {
+						hierarchy.cacheSuperclass(type, superclass);
+						changedTypes.add(superclass);
+						linked = true;
+					}
+				}
+				if (!linked) {
+					continue;
+				}
+				i.remove();
+				connected = true;
+				changedTypes.add(type);
+				if (members.add(type) && !added.contains(type)) {
+					// an existing type joins the hierarchy with its subtypes,
+					// which are only known from the index
+					return null;
+				}
+				// the subtypes of a removed type with the same name now
+				// extend this one
+				final List<IType> subtypes = orphans
+						.get(type.getTypeQualifiedName(delimiter));
+				if (subtypes != null) {
+					for (IType subtype : subtypes) {
+						if (!removed.contains(subtype)) {
+							hierarchy.cacheSuperclass(subtype, type);
+							changedTypes.add(subtype);
+						}
+					}
+				}
+			}
+		}
+
+		// drop the subtypes which are no longer connected to the focus type
+		final Set<IType> retained = new HashSet<>(supertypes);
+		final LinkedList<IType> queue = new LinkedList<>();
+		queue.add(focusType);
+		while (!queue.isEmpty()) {
+			final TypeVector subtypes = hierarchy.typeToSubtypes
+					.get(queue.removeFirst());
+			if (subtypes != null) {
+				for (IType subtype : subtypes.elements()) {
+					if (retained.add(subtype)) {
+						queue.add(subtype);
+					}
+				}
+			}
+		}
+		changedTypes.addAll(hierarchy.retainTypes(retained));
+		return changedTypes;
+	}
+
 	public void resolve(Openable[] openables, HashSet<String> localTypes) {
 		try {
 			resolve(true);
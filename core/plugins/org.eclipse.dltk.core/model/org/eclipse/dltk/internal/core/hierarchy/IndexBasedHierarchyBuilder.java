@@ -11,17 +11,25 @@ package org.eclipse.dltk.internal.core.hierarchy;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.dltk.compiler.CharOperation;
-import org.eclipse.dltk.compiler.util.HashtableOfObject;
 import org.eclipse.dltk.compiler.util.HashtableOfObjectToInt;
+import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.IModelElement;
 import org.eclipse.dltk.core.IProjectFragment;
 import org.eclipse.dltk.core.IScriptProject;
@@ -43,6 +51,7 @@ import org.eclipse.dltk.internal.core.Member;
 import org.eclipse.dltk.internal.core.ModelManager;
 import org.eclipse.dltk.internal.core.Openable;
 import org.eclipse.dltk.internal.core.ScriptProject;
+import org.eclipse.dltk.internal.core.SimpleDelta;
 import org.eclipse.dltk.internal.core.search.IndexQueryRequestor;
 import org.eclipse.dltk.internal.core.search.SubTypeSearchJob;
 import org.eclipse.dltk.internal.core.search.matching.SuperTypeReferencePattern;
@@ -68,46 +77,6 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder {
 	 */
 	protected Map binariesFromIndexMatches;
 
-	/**
-	 * Collection used to queue subtype index queries
-	 */
-	static class Queue {
-		public char[][] names = new char[10][];
-		public int start = 0;
-		public int end = -1;
-
-		public void add(char[] name) {
-			if (++this.end == this.names.length) {
-				this.end -= this.start;
-				System.arraycopy(this.names, this.start, this.names = new char[this.end * 2][], 0, this.end);
-				this.start = 0;
-			}
-			this.names[this.end] = name;
-		}
-
-		public char[] retrieve() {
-			if (this.start > this.end) {
-				return null; // none
-			}
-
-			char[] name = this.names[this.start++];
-			if (this.start > this.end) {
-				this.start = 0;
-				this.end = -1;
-			}
-			return name;
-		}
-
-		@Override
-		public String toString() {
-			StringBuilder buffer = new StringBuilder("Queue:\n"); //$NON-NLS-1$
-			for (int i = this.start; i <= this.end; i++) {
-				buffer.append(this.names[i]).append('\n');
-			}
-			return buffer.toString();
-		}
-	}
-
 	public IndexBasedHierarchyBuilder(TypeHierarchy hierarchy, IDLTKSearchScope scope) throws ModelException {
 		super();
 		setRequestor(hierarchy);
@@ -164,6 +133,28 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder {
 		}
 	}
 
+	/**
+	 * Applies the given changes of types to the subtypes of the focus type,
+	 * without searching the potential subtypes in the index. Returns the types
+	 * whose super types or subtypes changed, or <code>null</code> if the
+	 * hierarchy has to be built again.
+	 */
+	public Set<IType> buildIncrementally(Map<IType, SimpleDelta> changes) {
+		ModelManager manager = ModelManager.getModelManager();
+		try {
+			// optimize access to zip files while building hierarchy
+			manager.cacheZipFiles();
+			return this.hierarchyResolver.resolveChanges(changes);
+		} catch (CoreException e) {
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
+			}
+			return null;
+		} finally {
+			manager.flushZipFiles();
+		}
+	}
+
 	private void buildForProject(ScriptProject project, ArrayList potentialSubtypes,
 			org.eclipse.dltk.core.ISourceModule[] workingCopies, HashSet localTypes, IProgressMonitor monitor)
 			throws ModelException {
@@ -468,13 +459,12 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder {
 																	// CancelIfNotReadyToSearch
 			IProgressMonitor progressMonitor) {
 
-		/*
-		 * embed constructs inside arrays so as to pass them to (inner) collector
-		 */
-		final Queue queue = new Queue();
-		final HashtableOfObject foundSuperNames = new HashtableOfObject(5);
+		// the names of the subtypes found so far, and the ones found by the
+		// current level, searched as super type names by the next one
+		final Set<String> foundSuperNames = ConcurrentHashMap.newKeySet();
+		final Queue<String> nextLevel = new ConcurrentLinkedQueue<>();
 
-		IndexManager indexManager = ModelManager.getModelManager().getIndexManager();
+		final IndexManager indexManager = ModelManager.getModelManager().getIndexManager();
 
 		/* use a special collector to collect paths and queue new subtype names */
 		IndexQueryRequestor searchRequestor = new IndexQueryRequestor() {
@@ -483,63 +473,81 @@ public class IndexBasedHierarchyBuilder extends HierarchyBuilder {
 					SearchParticipant participant, AccessRuleSet access) {
 				SuperTypeReferencePattern record = (SuperTypeReferencePattern) indexRecord;
 				boolean isLocalOrAnonymous = record.enclosingTypeName == IIndexConstants.ONE_ZERO;
-				pathRequestor.acceptPath(documentPath, isLocalOrAnonymous);
-				char[] typeName = record.simpleName;
-
-				if (!isLocalOrAnonymous // local or anonymous types cannot have
-										// subtypes outside the cu that define
-										// them
-						&& !foundSuperNames.containsKey(typeName)) {
-					foundSuperNames.put(typeName, typeName);
-					queue.add(typeName);
+				synchronized (pathRequestor) {
+					pathRequestor.acceptPath(documentPath, isLocalOrAnonymous);
+				}
+				// local or anonymous types cannot have subtypes outside the cu
+				// that define them
+				if (!isLocalOrAnonymous) {
+					String typeName = new String(record.simpleName);
+					if (foundSuperNames.add(typeName)) {
+						nextLevel.add(typeName);
+					}
 				}
 				return true;
 			}
+
+			@Override
+			public boolean isThreadSafe() {
+				return true;
+			}
 		};
 
-		int superRefKind;
-		superRefKind = SuperTypeReferencePattern.ALL_SUPER_TYPES;
+		final int superRefKind = SuperTypeReferencePattern.ALL_SUPER_TYPES;
 		SuperTypeReferencePattern pattern = new SuperTypeReferencePattern(null, null, superRefKind,
 				SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE, scope.getLanguageToolkit());
 		MatchLocator.setFocus(pattern, type);
-		SubTypeSearchJob job = new SubTypeSearchJob(pattern, new DLTKSearchParticipant(), // java search only
+		// holds the indexes started by the searches of all the levels
+		final SubTypeSearchJob job = new SubTypeSearchJob(pattern, new DLTKSearchParticipant(), // java search only
 				scope, searchRequestor);
 
+		final String objectName = new String(IIndexConstants.OBJECT);
 		int ticks = 0;
-		queue.add(type.getElementName().toCharArray());
+		List<String> currentLevel = new ArrayList<>();
+		currentLevel.add(type.getElementName());
 		try {
-			while (queue.start <= queue.end) {
+			while (!currentLevel.isEmpty()) {
 				if (progressMonitor != null && progressMonitor.isCanceled()) {
 					return;
 				}
 
 				// all subclasses of OBJECT are actually all types
-				char[] currentTypeName = queue.retrieve();
-				if (CharOperation.equals(currentTypeName, IIndexConstants.OBJECT)) {
-					currentTypeName = null;
+				if (currentLevel.contains(objectName)) {
+					currentLevel = Collections.singletonList(objectName);
 				}
 
-				// search all index references to a given supertype
-				pattern.superSimpleName = currentTypeName;
-				indexManager.performConcurrentJob(job, waitingPolicy, null); // no
-																				// sub
-																				// progress
-																				// monitor
-																				// since
-																				// its
-																				// too
-																				// costly
-																				// for
-																				// deep
-																				// hierarchies
-				if (progressMonitor != null && ++ticks <= MAXTICKS) {
-					progressMonitor.worked(1);
+				// search all index references to the supertypes of this level,
+				// no sub progress monitor since its too costly for deep
+				// hierarchies
+				ParallelSearch.run(currentLevel, (superName, monitor) -> {
+					// the pattern is not thread safe, each name is searched
+					// with its own one
+					SuperTypeReferencePattern namePattern = new SuperTypeReferencePattern(null,
+							superName.equals(objectName) ? null : superName.toCharArray(), superRefKind,
+							SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE, scope.getLanguageToolkit());
+					MatchLocator.setFocus(namePattern, type);
+					return Boolean.valueOf(indexManager.performConcurrentJob(job.newJob(namePattern), waitingPolicy,
+							null));
+				}, progressMonitor);
+				int work = Math.min(currentLevel.size(), MAXTICKS - ticks);
+				if (progressMonitor != null && work > 0) {
+					ticks += work;
+					progressMonitor.worked(work);
 				}
 
 				// in case, we search all subtypes, no need to search further
-				if (currentTypeName == null) {
+				if (currentLevel.contains(objectName)) {
 					break;
 				}
+				currentLevel = new ArrayList<>(nextLevel);
+				nextLevel.clear();
+			}
+		} catch (OperationCanceledException e) {
+			// stop searching, like when canceled between the levels
+		} catch (CoreException e) {
+			// not thrown by the index queries
+			if (DLTKCore.DEBUG) {
+				e.printStackTrace();
 			}
 		} finally {
 			job.finished();
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.hierarchy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.dltk.core.DLTKCore;
+
+/**
+ * Runs the searches of one level of a type hierarchy (the names or types found
+ * by the previous level) in parallel.
+ */
+class ParallelSearch {
+
+	/**
+	 * Pool shared by the hierarchies being built, the searches block while
+	 * the indexes are queried.
+	 */
+	private static class SearchPool {
+		static final ForkJoinPool INSTANCE = new ForkJoinPool(
+				Math.max(2, Runtime.getRuntime().availableProcessors()));
+	}
+
+	interface Search<T, R> {
+		R search(T item, IProgressMonitor monitor) throws CoreException;
+	}
+
+	static boolean isEnabled() {
+		return !DLTKCore.DISABLED.equals(DLTKCore
+				.getOption(DLTKCore.TYPE_HIERARCHY_PARALLEL_RESOLUTION));
+	}
+
+	/**
+	 * Searches each of the items, returns the results in the order of the
+	 * items. The search must be thread safe, it is passed a monitor which only
+	 * reports the cancellation of the given one.
+	 */
+	static <T, R> List<R> run(List<T> items, final Search<T, R> search,
+			final IProgressMonitor monitor) throws CoreException {
+		final List<R> results = new ArrayList<>(items.size());
+		if (items.size() < 2 || !isEnabled()) {
+			for (T item : items) {
+				checkCanceled(monitor);
+				results.add(search.search(item, monitor));
+			}
+			return results;
+		}
+		// progress monitors are not thread safe, the workers only check for
+		// cancellation
+		final IProgressMonitor cancelMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return monitor != null && monitor.isCanceled();
+			}
+		};
+		final List<ForkJoinTask<R>> tasks = new ArrayList<>(items.size());
+		for (final T item : items) {
+			tasks.add(SearchPool.INSTANCE
+					.submit(() -> search.search(item, cancelMonitor)));
+		}
+		try {
+			for (ForkJoinTask<R> task : tasks) {
+				results.add(task.get());
+				checkCanceled(monitor);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			for (ForkJoinTask<R> task : tasks) {
+				task.cancel(false);
+			}
+		}
+		return results;
+	}
+
+	private static void checkCanceled(IProgressMonitor monitor) {
+		if (monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+}
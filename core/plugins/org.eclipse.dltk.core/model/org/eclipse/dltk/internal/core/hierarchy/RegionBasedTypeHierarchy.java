@@ -10,6 +10,7 @@
 package org.eclipse.dltk.internal.core.hierarchy;
 
 import java.util.ArrayList;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.dltk.core.IModelElement;
@@ -105,6 +106,11 @@ protected void compute() throws ModelException, CoreException {
 	builder.build(this.computeSubtypes);
 }
 @Override
+protected Set<IType> computeChanges(ChangeCollector collector) {
+	// region based hierarchies are always computed again
+	return null;
+}
+@Override
 protected boolean isAffectedByOpenable(IModelElementDelta delta, IModelElement element) {
 	// change to working copy
 	if (element instanceof SourceModule && ((SourceModule)element).isWorkingCopy()) {
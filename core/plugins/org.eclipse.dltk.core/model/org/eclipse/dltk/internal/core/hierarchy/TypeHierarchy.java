@@ -44,6 +44,7 @@ import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.core.IType;
 import org.eclipse.dltk.core.ITypeHierarchy;
 import org.eclipse.dltk.core.ITypeHierarchyChangedListener;
+import org.eclipse.dltk.core.ITypeHierarchyChangedListenerExtension;
 import org.eclipse.dltk.core.ModelException;
 import org.eclipse.dltk.core.WorkingCopyOwner;
 import org.eclipse.dltk.core.search.IDLTKSearchScope;
@@ -65,6 +66,12 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 
 	public static boolean DEBUG = false;
 
+	/**
+	 * Hierarchies computed faster than this (in milliseconds) are not kept on
+	 * disk.
+	 */
+	public static long SNAPSHOT_THRESHOLD = 100;
+
 	static final byte VERSION = 0x0000;
 	// SEPARATOR
 	static final byte SEPARATOR1 = '\n';
@@ -156,6 +163,12 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	 */
 	protected ChangeCollector changeCollector;
 
+	/*
+	 * Whether changes other than the ones collected by the change collector
+	 * affect this hierarchy, so it has to be computed again
+	 */
+	private boolean hasCoarseChanges;
+
 	/**
 	 * Creates an empty TypeHierarchy
 	 */
@@ -333,11 +346,110 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	 */
 	protected void compute() throws ModelException, CoreException {
 		if (this.focusType != null) {
+			TypeHierarchySnapshots.Key snapshot = TypeHierarchySnapshots.keyFor(this);
+			if (snapshot != null && TypeHierarchySnapshots.restore(this, snapshot)) {
+				return;
+			}
+			long start = System.currentTimeMillis();
 			HierarchyBuilder builder = new IndexBasedHierarchyBuilder(this, this.scope);
 			builder.build(this.computeSubtypes);
+			if (snapshot != null) {
+				TypeHierarchySnapshots.store(this, snapshot, System.currentTimeMillis() - start);
+			}
 		} // else a RegionBasedTypeHierarchy should be used
 	}
 
+	/**
+	 * Updates this type hierarchy for the changes collected since it was
+	 * computed. Returns the types whose super types or subtypes changed, or
+	 * <code>null</code> if the changes can't be applied and the hierarchy has
+	 * to be computed again.
+	 */
+	protected Set<IType> computeChanges(ChangeCollector collector)
+			throws ModelException, CoreException {
+		if (this.focusType == null || !this.computeSubtypes) {
+			// the super types are cheap to compute
+			return null;
+		}
+		IndexBasedHierarchyBuilder builder = new IndexBasedHierarchyBuilder(
+				this, this.scope);
+		return builder.buildIncrementally(collector.changes);
+	}
+
+	/**
+	 * Removes the given type from the subtypes of its super types, returns the
+	 * super types.
+	 */
+	IType[] disconnectSupertypes(IType type) {
+		TypeVector superTypes = this.classToSuperclass.remove(type);
+		if (superTypes == null) {
+			return NO_TYPE;
+		}
+		IType[] superclasses = superTypes.elements();
+		for (int i = 0; i < superclasses.length; i++) {
+			TypeVector subtypes = this.typeToSubtypes.get(superclasses[i]);
+			if (subtypes != null) {
+				removeEqual(subtypes, type);
+			}
+		}
+		resetClassPaths();
+		return superclasses;
+	}
+
+	/**
+	 * Removes the types which are not in the given set from this hierarchy,
+	 * returns the removed types.
+	 */
+	Set<IType> retainTypes(Set<IType> types) {
+		Set<IType> removed = new HashSet<>();
+		for (IType type : this.classToSuperclass.keySet()) {
+			if (!types.contains(type)) {
+				removed.add(type);
+			}
+		}
+		for (IType type : this.typeToSubtypes.keySet()) {
+			if (!types.contains(type)) {
+				removed.add(type);
+			}
+		}
+		if (removed.isEmpty()) {
+			return removed;
+		}
+		for (IType type : removed) {
+			this.classToSuperclass.remove(type);
+			this.typeToSubtypes.remove(type);
+			this.typeFlags.remove(type);
+		}
+		for (TypeVector superTypes : this.classToSuperclass.values()) {
+			removeAll(superTypes, removed);
+		}
+		for (TypeVector subtypes : this.typeToSubtypes.values()) {
+			removeAll(subtypes, removed);
+		}
+		resetClassPaths();
+		return removed;
+	}
+
+	private static void removeEqual(TypeVector vector, IType type) {
+		IType[] elements = vector.elements();
+		for (int i = 0; i < elements.length; i++) {
+			if (type.equals(elements[i])) {
+				// remove() compares identities
+				vector.remove(elements[i]);
+				return;
+			}
+		}
+	}
+
+	private static void removeAll(TypeVector vector, Set<IType> types) {
+		IType[] elements = vector.elements().clone();
+		for (int i = 0; i < elements.length; i++) {
+			if (types.contains(elements[i])) {
+				vector.remove(elements[i]);
+			}
+		}
+	}
+
 	/**
 	 * @see ITypeHierarchy
 	 */
@@ -363,12 +475,14 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	 */
 	@Override
 	public void elementChanged(ElementChangedEvent event) {
-		// type hierarchy change has already been fired
-		if (this.needsRefresh) {
+		// type hierarchy change has already been fired, the changes are still
+		// collected unless the hierarchy will be computed again anyway
+		if (this.needsRefresh
+				&& (this.changeCollector == null || this.hasCoarseChanges)) {
 			return;
 		}
 
-		if (isAffected(event.getDelta())) {
+		if (isAffected(event.getDelta()) && !this.needsRefresh) {
 			this.needsRefresh = true;
 			fireChange();
 		}
@@ -421,6 +535,38 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 		}
 	}
 
+	/**
+	 * Notifies the listeners which are interested that this hierarchy was
+	 * refreshed.
+	 */
+	private void fireRefreshed(Set<IType> changedTypes) {
+		ArrayList<ITypeHierarchyChangedListener> listeners = this.changeListeners;
+		if (listeners == null) {
+			return;
+		}
+		final IType[] types = changedTypes == null ? null
+				: changedTypes.toArray(new IType[changedTypes.size()]);
+		listeners = (ArrayList<ITypeHierarchyChangedListener>) listeners.clone();
+		for (int i = 0; i < listeners.size(); i++) {
+			if (!(listeners.get(i) instanceof ITypeHierarchyChangedListenerExtension)) {
+				continue;
+			}
+			final ITypeHierarchyChangedListenerExtension listener = (ITypeHierarchyChangedListenerExtension) listeners
+					.get(i);
+			SafeRunner.run(new ISafeRunnable() {
+				@Override
+				public void handleException(Throwable exception) {
+					Util.log(exception, "Exception occurred in listener of Type hierarchy refresh notification"); //$NON-NLS-1$
+				}
+
+				@Override
+				public void run() throws Exception {
+					listener.typeHierarchyRefreshed(TypeHierarchy.this, types);
+				}
+			});
+		}
+	}
+
 	private static byte[] flagsToBytes(Integer flags) {
 		if (flags != null) {
 			return flags.toString().getBytes();
@@ -764,15 +910,28 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	 * package fragment have changed in a way that effects this type hierarchy.
 	 */
 	private boolean isAffectedByChildren(IModelElementDelta delta) {
+		boolean affected = false;
 		if ((delta.getFlags() & IModelElementDelta.F_CHILDREN) > 0) {
 			IModelElementDelta[] children = delta.getAffectedChildren();
 			for (int i = 0; i < children.length; i++) {
+				// visit all the children to collect their changes
 				if (isAffected(children[i])) {
-					return true;
+					affected = true;
 				}
 			}
 		}
-		return false;
+		return affected;
+	}
+
+	/**
+	 * Records that the hierarchy is affected by a change which is not collected
+	 * by the change collector, if it is the case.
+	 */
+	private boolean coarseChange(boolean affected) {
+		if (affected) {
+			this.hasCoarseChanges = true;
+		}
+		return affected;
 	}
 
 	/**
@@ -782,7 +941,7 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 		switch (delta.getKind()) {
 		case IModelElementDelta.ADDED:
 		case IModelElementDelta.REMOVED:
-			return element.equals(this.javaProject().getModel());
+			return coarseChange(element.equals(this.javaProject().getModel()));
 		case IModelElementDelta.CHANGED:
 			return isAffectedByChildren(delta);
 		}
@@ -811,7 +970,7 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 					IBuildpathEntry element2 = classpath[j];
 					if (element2.getEntryKind() == IBuildpathEntry.BPE_PROJECT
 							&& element2.getPath().equals(element.getPath())) {
-						return true;
+						return coarseChange(true);
 					}
 				}
 				if (this.focusType != null) {
@@ -823,7 +982,7 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 						IBuildpathEntry element2 = classpath[j];
 						if (element2.getEntryKind() == IBuildpathEntry.BPE_PROJECT
 								&& element2.getPath().equals(hierarchyProject)) {
-							return true;
+							return coarseChange(true);
 						}
 					}
 				}
@@ -839,7 +998,7 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 				IModelElement pkg = pkgs[i];
 				IScriptProject javaProject = pkg.getScriptProject();
 				if (javaProject != null && javaProject.equals(element)) {
-					return true;
+					return coarseChange(true);
 				}
 			}
 			return false;
@@ -859,11 +1018,12 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 			// if the package fragment is in the projects being considered, this
 			// could
 			// introduce new types, changing the hierarchy
-			return this.projectRegion.contains(element);
+			return coarseChange(this.projectRegion.contains(element));
 		case IModelElementDelta.REMOVED:
 			// is a change if the package fragment contains types in this
 			// hierarchy
-			return packageRegionContainsSamePackageFragment(element);
+			return coarseChange(
+					packageRegionContainsSamePackageFragment(element));
 		case IModelElementDelta.CHANGED:
 			// look at the files in the package fragment
 			return isAffectedByChildren(delta);
@@ -878,7 +1038,7 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 	private boolean isAffectedByPackageFragmentRoot(IModelElementDelta delta, IModelElement element) {
 		switch (delta.getKind()) {
 		case IModelElementDelta.ADDED:
-			return this.projectRegion.contains(element);
+			return coarseChange(this.projectRegion.contains(element));
 		case IModelElementDelta.REMOVED:
 		case IModelElementDelta.CHANGED:
 			int flags = delta.getFlags();
@@ -897,7 +1057,7 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 							for (int j = 0; j < classpath.length; j++) {
 								IBuildpathEntry entry = classpath[j];
 								if (entry.getPath().equals(rootPath)) {
-									return true;
+									return coarseChange(true);
 								}
 							}
 						} catch (ModelException e) {
@@ -917,7 +1077,7 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 				IModelElement[] pkgs = this.packageRegion.getElements();
 				for (int i = 0; i < pkgs.length; i++) {
 					if (pkgs[i].getParent().equals(element)) {
-						return true;
+						return coarseChange(true);
 					}
 				}
 				return false;
@@ -944,13 +1104,10 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 					e.printStackTrace();
 				}
 			}
-			if (cu.isWorkingCopy()) {
-				// changes to working copies are batched
-				this.changeCollector = collector;
-				return false;
-			} else {
-				return collector.needsRefresh();
-			}
+			// the changes are kept to update the hierarchy incrementally,
+			// changes to working copies are batched
+			this.changeCollector = collector;
+			return !cu.isWorkingCopy() && collector.needsRefresh();
 		}
 		return false;
 	}
@@ -1170,10 +1327,23 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 				}
 			}
 
-			compute();
+			Set<IType> changedTypes = null;
+			ChangeCollector collector = this.changeCollector;
+			if (collector != null && !this.hasCoarseChanges
+					&& this.classToSuperclass != null) {
+				changedTypes = computeChanges(collector);
+			}
+			if (changedTypes == null) {
+				compute();
+			} else {
+				this.files = new HashMap<>(5);
+				this.packageRegion = new Region();
+				this.projectRegion = new Region();
+			}
 			initializeRegions();
 			this.needsRefresh = false;
 			this.changeCollector = null;
+			this.hasCoarseChanges = false;
 
 			if (DEBUG) {
 				if (this.computeSubtypes) {
@@ -1185,6 +1355,7 @@ public class TypeHierarchy implements ITypeHierarchy, IElementChangedListener {
 				}
 				System.out.println(this.toString());
 			}
+			fireRefreshed(changedTypes);
 		} catch (ModelException e) {
 			throw e;
 		} catch (CoreException e) {
@@ -0,0 +1,412 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.internal.core.hierarchy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.IBuildpathEntry;
+import org.eclipse.dltk.core.IModelElement;
+import org.eclipse.dltk.core.IScriptProject;
+import org.eclipse.dltk.core.ISourceModule;
+import org.eclipse.dltk.core.IType;
+import org.eclipse.dltk.core.ModelException;
+import org.eclipse.dltk.core.caching.ASTDataReader;
+import org.eclipse.dltk.core.caching.ASTDataWriter;
+import org.eclipse.dltk.core.index2.search.ModelAccess;
+import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.indexing.IndexManager;
+import org.eclipse.dltk.internal.core.ModelManager;
+import org.eclipse.dltk.internal.core.TypeVector;
+import org.eclipse.dltk.internal.core.search.IndexSelector;
+
+/**
+ * Keeps the computed type hierarchies on disk, so they are not computed again
+ * in the next sessions.
+ *
+ * A snapshot is stored under a hash of the focus type and the build path of
+ * the projects in the scope of the hierarchy, so the hierarchies with the same
+ * scope are shared by the projects. It records the modification stamps of the
+ * indexes of the scope taken before the hierarchy was built, and is ignored as
+ * soon as one of them changes. No snapshot is used while indexing jobs are
+ * waiting, as the indexes are about to change. The types are restored as
+ * handles, their modules are only opened when used.
+ *
+ * Snapshots are not used with unsaved working copies or with the
+ * <code>index2</code> search engines, whose changes are not tracked.
+ */
+class TypeHierarchySnapshots {
+
+	private static final int MAGIC = 0x44544859; // DTHY
+	private static final int VERSION = 1;
+
+	/**
+	 * Maximum number of snapshots, the least recently stored are removed.
+	 */
+	private static final int MAX_SNAPSHOTS = 256;
+
+	private static final String DIRECTORY = "typeHierarchies"; //$NON-NLS-1$
+	private static final String EXTENSION = ".dat"; //$NON-NLS-1$
+
+	/**
+	 * Identifies the snapshot of a hierarchy and the state of the indexes it
+	 * was computed from.
+	 */
+	static class Key {
+		final String fingerprint;
+		final File file;
+		final String[] indexes;
+		final long[] stamps;
+
+		Key(String fingerprint, File file, String[] indexes, long[] stamps) {
+			this.fingerprint = fingerprint;
+			this.file = file;
+			this.indexes = indexes;
+			this.stamps = stamps;
+		}
+	}
+
+	/**
+	 * Returns the key of the snapshot of the given hierarchy, or
+	 * <code>null</code> if it can't be stored.
+	 */
+	static Key keyFor(TypeHierarchy hierarchy) {
+		if (DLTKCore.DISABLED.equals(
+				DLTKCore.getOption(DLTKCore.TYPE_HIERARCHY_SNAPSHOTS))) {
+			return null;
+		}
+		final IType focusType = hierarchy.focusType;
+		if (focusType == null || hierarchy.scope == null
+				|| hierarchy.scope.getLanguageToolkit() == null
+				|| ModelAccess.getSearchEngine(
+						hierarchy.scope.getLanguageToolkit()) != null) {
+			return null;
+		}
+		try {
+			if (hierarchy.workingCopies != null) {
+				for (ISourceModule workingCopy : hierarchy.workingCopies) {
+					if (workingCopy.hasUnsavedChanges()) {
+						return null;
+					}
+				}
+			}
+			final StringBuilder fingerprint = new StringBuilder();
+			fingerprint.append(focusType.getHandleIdentifier()).append('\n');
+			fingerprint.append(hierarchy.computeSubtypes).append('\n');
+			final IPath[] enclosing = hierarchy.scope
+					.enclosingProjectsAndZips().clone();
+			Arrays.sort(enclosing,
+					Comparator.comparing(IPath::toString));
+			final IWorkspaceRoot root = ResourcesPlugin.getWorkspace()
+					.getRoot();
+			for (IPath path : enclosing) {
+				fingerprint.append(path).append('\n');
+				final IResource resource = root.findMember(path);
+				if (resource instanceof IProject) {
+					final IScriptProject project = DLTKCore
+							.create((IProject) resource);
+					if (project.exists()) {
+						for (IBuildpathEntry entry : project
+								.getResolvedBuildpath(true)) {
+							fingerprint.append(' ')
+									.append(entry.getEntryKind())
+									.append(entry.getPath()).append('\n');
+						}
+					}
+				}
+			}
+
+			final IndexManager indexManager = ModelManager.getModelManager()
+					.getIndexManager();
+			if (indexManager.awaitingJobsCount() > 0) {
+				// the indexes are about to change
+				return null;
+			}
+			final IPath[] locations = new IndexSelector(hierarchy.scope, null)
+					.getIndexLocations();
+			final String[] indexes = new String[locations.length];
+			final long[] stamps = new long[locations.length];
+			for (int i = 0; i < locations.length; ++i) {
+				indexes[i] = locations[i].toOSString();
+				if (hasUnsavedChanges(indexManager, indexes[i])) {
+					return null;
+				}
+				stamps[i] = stampOf(indexes[i]);
+			}
+
+			final String value = fingerprint.toString();
+			final File file = getDirectory().append(hash(value) + EXTENSION)
+					.toFile();
+			return new Key(value, file, indexes, stamps);
+		} catch (ModelException e) {
+			if (TypeHierarchy.DEBUG) {
+				e.printStackTrace();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Initializes the hierarchy from its snapshot, returns <code>false</code>
+	 * if there is no valid snapshot.
+	 */
+	static boolean restore(TypeHierarchy hierarchy, Key key) {
+		if (!key.file.isFile()) {
+			return false;
+		}
+		try {
+			final ASTDataReader in = new ASTDataReader(
+					ByteBuffer.wrap(Files.readAllBytes(key.file.toPath())));
+			if (in.readInt() != MAGIC || in.readInt() != VERSION
+					|| !key.fingerprint.equals(in.readString())) {
+				return false;
+			}
+			final String[] indexes = in.readStrings();
+			if (!Arrays.equals(indexes, key.indexes)) {
+				return false;
+			}
+			for (int i = 0; i < indexes.length; ++i) {
+				if (in.readLong() != key.stamps[i]) {
+					return false;
+				}
+			}
+			final String[] missingTypes = in.readStrings();
+			final int typeCount = in.readInt();
+			if (typeCount < 0) {
+				return false;
+			}
+			final IType[] types = new IType[typeCount];
+			hierarchy.initialize(typeCount);
+			boolean restored = false;
+			try {
+				for (int i = 0; i < typeCount; ++i) {
+					final IModelElement element = DLTKCore
+							.create(in.readString());
+					if (!(element instanceof IType)) {
+						return false;
+					}
+					types[i] = (IType) element;
+					if (in.readBoolean()) {
+						hierarchy.cacheFlags(types[i], in.readInt());
+					}
+					if (in.readBoolean()) {
+						hierarchy.addRootClass(types[i]);
+					}
+				}
+				int count = in.readInt();
+				while (count-- > 0) {
+					final IType type = typeAt(types, in.readInt());
+					int superCount = in.readInt();
+					while (superCount-- > 0) {
+						hierarchy.cacheSuperclass(type,
+								typeAt(types, in.readInt()));
+					}
+				}
+				hierarchy.missingTypes.addAll(Arrays.asList(missingTypes));
+				restored = true;
+			} finally {
+				if (!restored) {
+					// discard the partially restored hierarchy
+					hierarchy.initialize(1);
+				}
+			}
+			if (TypeHierarchy.DEBUG) {
+				System.out.println("RESTORED TYPE HIERARCHY from " //$NON-NLS-1$
+						+ key.file);
+			}
+			return true;
+		} catch (IOException e) {
+			if (TypeHierarchy.DEBUG) {
+				e.printStackTrace();
+			}
+			return false;
+		}
+	}
+
+	private static boolean hasUnsavedChanges(IndexManager indexManager,
+			String location) {
+		final Index index = indexManager.getIndex(location);
+		return index != null && index.hasChanged();
+	}
+
+	private static long stampOf(String location) {
+		final File file = new File(location);
+		return file.exists() ? file.lastModified() ^ file.length() : -1;
+	}
+
+	/**
+	 * Returns whether the indexes are still in the state recorded by the key,
+	 * so the hierarchy built since then matches them.
+	 */
+	private static boolean isCurrent(Key key) {
+		final IndexManager indexManager = ModelManager.getModelManager()
+				.getIndexManager();
+		if (indexManager.awaitingJobsCount() > 0) {
+			return false;
+		}
+		for (int i = 0; i < key.indexes.length; ++i) {
+			if (hasUnsavedChanges(indexManager, key.indexes[i])
+					|| stampOf(key.indexes[i]) != key.stamps[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static IType typeAt(IType[] types, int index) throws IOException {
+		if (index < 0 || index >= types.length) {
+			throw new IOException("Invalid type index " + index); //$NON-NLS-1$
+		}
+		return types[index];
+	}
+
+	/**
+	 * Stores the hierarchy computed in the given time (in milliseconds) with
+	 * the index stamps taken before it was computed. Nothing is stored if the
+	 * indexes changed in the meantime.
+	 */
+	static void store(TypeHierarchy hierarchy, Key key, long time) {
+		if (time < TypeHierarchy.SNAPSHOT_THRESHOLD || !isCurrent(key)) {
+			return;
+		}
+		final Map<IType, Integer> indexes = new HashMap<>();
+		final List<IType> types = new ArrayList<>();
+		final List<IType> all = new ArrayList<>();
+		all.add(hierarchy.focusType);
+		all.addAll(Arrays.asList(hierarchy.rootClasses.elements()));
+		for (Map.Entry<IType, TypeVector> entry : hierarchy.classToSuperclass
+				.entrySet()) {
+			all.add(entry.getKey());
+			all.addAll(Arrays.asList(entry.getValue().elements()));
+		}
+		all.addAll(hierarchy.typeFlags.keySet());
+		for (IType type : all) {
+			if (type instanceof FakeType) {
+				// can't be restored from its handle
+				return;
+			}
+			if (!indexes.containsKey(type)) {
+				indexes.put(type, Integer.valueOf(types.size()));
+				types.add(type);
+			}
+		}
+		try {
+			final ASTDataWriter out = new ASTDataWriter();
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeString(key.fingerprint);
+			out.writeStrings(key.indexes);
+			for (long stamp : key.stamps) {
+				out.writeLong(stamp);
+			}
+			out.writeStrings(hierarchy.missingTypes
+					.toArray(new String[hierarchy.missingTypes.size()]));
+			out.writeInt(types.size());
+			for (IType type : types) {
+				out.writeString(type.getHandleIdentifier());
+				final Integer flags = hierarchy.typeFlags.get(type);
+				out.writeBoolean(flags != null);
+				if (flags != null) {
+					out.writeInt(flags.intValue());
+				}
+				out.writeBoolean(hierarchy.rootClasses.contains(type));
+			}
+			out.writeInt(hierarchy.classToSuperclass.size());
+			for (Map.Entry<IType, TypeVector> entry : hierarchy.classToSuperclass
+					.entrySet()) {
+				out.writeInt(indexOf(indexes, entry.getKey()));
+				final IType[] superclasses = entry.getValue().elements();
+				out.writeInt(superclasses.length);
+				for (IType superclass : superclasses) {
+					out.writeInt(indexOf(indexes, superclass));
+				}
+			}
+			write(key.file, out.toByteArray());
+			prune(key.file.getParentFile());
+		} catch (IOException e) {
+			if (TypeHierarchy.DEBUG) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static int indexOf(Map<IType, Integer> indexes, IType type)
+			throws IOException {
+		final Integer index = indexes.get(type);
+		if (index == null) {
+			throw new IOException("Unknown type " + type); //$NON-NLS-1$
+		}
+		return index.intValue();
+	}
+
+	private static void write(File file, byte[] data) throws IOException {
+		file.getParentFile().mkdirs();
+		final File temp = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		Files.write(temp.toPath(), data);
+		try {
+			Files.move(temp.toPath(), file.toPath(),
+					StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void prune(File directory) {
+		final File[] files = directory
+				.listFiles((dir, name) -> name.endsWith(EXTENSION));
+		if (files == null || files.length <= MAX_SNAPSHOTS) {
+			return;
+		}
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < files.length - MAX_SNAPSHOTS; ++i) {
+			files[i].delete();
+		}
+	}
+
+	private static IPath getDirectory() {
+		return DLTKCore.getPlugin().getStateLocation().append(DIRECTORY);
+	}
+
+	private static String hash(String value) {
+		try {
+			final byte[] digest = MessageDigest.getInstance("SHA-1") //$NON-NLS-1$
+					.digest(value.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder sb = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+				sb.append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return Integer.toHexString(value.hashCode());
+		}
+	}
+}
@@ -13,13 +13,18 @@ package org.eclipse.dltk.core.search.index;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Pattern;
 
 import org.eclipse.dltk.compiler.CharOperation;
@@ -27,6 +32,7 @@ import org.eclipse.dltk.compiler.util.HashtableOfIntValues;
 import org.eclipse.dltk.compiler.util.HashtableOfObject;
 import org.eclipse.dltk.compiler.util.SimpleLookupTable;
 import org.eclipse.dltk.compiler.util.SimpleSet;
+import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
 import org.eclipse.dltk.internal.core.util.Messages;
@@ -45,9 +51,6 @@ public class DiskIndex {
 
 	private int[] chunkOffsets;
 
-	private int documentReferenceSize; // 1, 2 or more bytes... depends on # of
-	// document names
-
 	private int startOfCategoryTables;
 
 	private HashtableOfIntValues categoryOffsets;
@@ -58,13 +61,33 @@ public class DiskIndex {
 
 	private HashtableOfObject categoryTables; // category name ->
 	// HashtableOfObject(words ->
-	// int[] of document #'s) or
+	// int[] of 1 document #, encoded
+	// byte[] of document #'s, see
+	// PostingList) or
 	// offset if not read yet
 
 	private char[] cachedCategoryName;
 	char separator = Index.DEFAULT_SEPARATOR;
 
-	public static final String SIGNATURE = "DLTK INDEX VERSION 1.014"; //$NON-NLS-1$
+	private final boolean mappedReads;
+
+	private volatile MappedIndexFile mappedFile; // lazily mapped, see
+	// mappedFile()
+
+	private boolean mappingClosed; // no new mapping until reopened, see
+	// closeMappedReads()
+
+	private MappedIndexFile closingFile; // still read after
+	// closeMappedReads() timed out, not mapped again until they are done
+
+	private volatile AtomicReferenceArray<String[]> mappedChunks; // decoded
+	// chunks of document names when reading from the mapped file
+
+	private final ConcurrentHashMap<String, TermIndex> termIndexes = new ConcurrentHashMap<String, TermIndex>();
+
+	private static final char[] NON_ASCII = { '\u0080' };
+
+	public static final String SIGNATURE = "DLTK INDEX VERSION 1.016"; //$NON-NLS-1$
 
 	public final static boolean DEBUG = false;
 
@@ -74,6 +97,9 @@ public class DiskIndex {
 
 	private static final int CHUNK_SIZE = 100;
 
+	// how long a merge waits for the readers of the mapped file, in ms
+	private static final long MAPPING_CLOSE_TIMEOUT = 5000;
+
 	static class IntList {
 
 		int size;
@@ -111,12 +137,114 @@ public class DiskIndex {
 		this.numberOfChunks = -1;
 		this.sizeOfLastChunk = -1;
 		this.chunkOffsets = null;
-		this.documentReferenceSize = -1;
 		this.cacheUserCount = -1;
 		this.cachedChunks = null;
 		this.categoryTables = null;
 		this.cachedCategoryName = null;
 		this.categoryOffsets = null;
+		this.mappedReads = isMappedReadsEnabled();
+	}
+
+	private static volatile Boolean mappedReadsEnabled; // read once, see
+	// isMappedReadsEnabled()
+
+	private static boolean isMappedReadsEnabled() {
+		Boolean enabled = mappedReadsEnabled;
+		if (enabled == null) {
+			try {
+				enabled = Boolean.valueOf(DLTKCore.ENABLED.equals(DLTKCore
+						.getOption(DLTKCore.INDEX_MAPPED_READS)));
+			} catch (RuntimeException e) {
+				// model manager is not available yet, try again later
+				return false;
+			}
+			mappedReadsEnabled = enabled;
+		}
+		return enabled.booleanValue();
+	}
+
+	/**
+	 * Returns the memory mapped view of the index file or <code>null</code>
+	 * if mapped reads are disabled or the index has no header yet.
+	 */
+	private MappedIndexFile mappedFile() throws IOException {
+		if (!this.mappedReads || this.headerInfoOffset <= 0)
+			return null;
+		MappedIndexFile file = this.mappedFile;
+		if (file == null) {
+			synchronized (this) {
+				file = this.mappedFile;
+				if (file == null) {
+					if (this.mappingClosed)
+						return null;
+					if (this.closingFile != null) {
+						// the remaining readers must not read a new mapping
+						if (this.closingFile.isRead())
+							return null;
+						this.closingFile = null;
+					}
+					file = MappedIndexFile.map(getIndexFile());
+					this.mappedChunks = new AtomicReferenceArray<String[]>(
+							this.numberOfChunks);
+					this.mappedFile = file;
+				}
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * Maps the index file if mapped reads are enabled, so this disk index
+	 * keeps reading the same content even after a merge replaced the file.
+	 * Returns <code>false</code> if mapped reads are disabled.
+	 */
+	MappedIndexFile prepareMappedReads() throws IOException {
+		if (!this.mappedReads)
+			return null;
+		return mappedFile();
+	}
+
+	/**
+	 * Registers a reader of the mapped file, which must be released once the
+	 * reader is done. Returns <code>null</code> if the index is not mapped,
+	 * the reader then reads the file.
+	 */
+	MappedIndexFile acquireMappedReads() throws IOException {
+		MappedIndexFile file = mappedFile();
+		return file != null && file.acquire() ? file : null;
+	}
+
+	/**
+	 * Unmaps the index file once its current readers are done, so it can be
+	 * replaced or deleted, which Windows refuses while the file is mapped. The
+	 * file is not mapped again until {@link #reopenMappedReads()}.
+	 * 
+	 * Returns <code>false</code> if readers are still active after the
+	 * timeout, they read the file itself from now on so it must not be
+	 * rewritten.
+	 */
+	boolean closeMappedReads() {
+		MappedIndexFile file;
+		synchronized (this) {
+			this.mappingClosed = true;
+			file = this.mappedFile;
+			this.mappedFile = null;
+			if (file == null) {
+				// a previous close may still wait for its readers
+				file = this.closingFile;
+				this.closingFile = null;
+			}
+		}
+		if (file == null || file.close(MAPPING_CLOSE_TIMEOUT))
+			return true;
+		synchronized (this) {
+			this.closingFile = file;
+		}
+		return false;
+	}
+
+	synchronized void reopenMappedReads() {
+		this.mappingClosed = false;
 	}
 
 	SimpleSet addDocumentNames(String substring, MemoryIndex memoryIndex)
@@ -208,14 +336,19 @@ public class DiskIndex {
 									wordsToDocNumbers, memoryIndex);
 				}
 			}
-			if (results != null && this.cachedChunks == null)
+			if (results != null && this.cachedChunks == null
+					&& mappedFile() == null)
 				cacheDocumentNames();
 		} else {
 			switch (matchRule) {
 			case SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE:
+				// without the mapped file, the cached table answers the next
+				// lookups without reading the file again
+				boolean mapped = mappedFile() != null;
 				for (int i = 0, l = categories.length; i < l; i++) {
-					HashtableOfObject wordsToDocNumbers = readCategoryTable(
-							categories[i], false);
+					HashtableOfObject wordsToDocNumbers = mapped
+							? readCategoryRange(categories[i], key, key)
+							: readCategoryTable(categories[i], false);
 					if (wordsToDocNumbers != null
 							&& wordsToDocNumbers.containsKey(key))
 						results = addQueryResult(results, key,
@@ -224,8 +357,8 @@ public class DiskIndex {
 				break;
 			case SearchPattern.R_PREFIX_MATCH | SearchPattern.R_CASE_SENSITIVE:
 				for (int i = 0, l = categories.length; i < l; i++) {
-					HashtableOfObject wordsToDocNumbers = readCategoryTable(
-							categories[i], false);
+					HashtableOfObject wordsToDocNumbers = readCategoryRange(
+							categories[i], key, key);
 					if (wordsToDocNumbers != null) {
 						char[][] words = wordsToDocNumbers.keyTable;
 						for (int j = 0, m = words.length; j < m; j++) {
@@ -273,19 +406,20 @@ public class DiskIndex {
 				}
 				break;
 			default:
+				char[][] prefixes = matchingPrefixes(key, matchRule);
 				for (int i = 0, l = categories.length; i < l; i++) {
-					HashtableOfObject wordsToDocNumbers = readCategoryTable(
-							categories[i], false);
-					if (wordsToDocNumbers != null) {
-						char[][] words = wordsToDocNumbers.keyTable;
-						for (int j = 0, m = words.length; j < m; j++) {
-							char[] word = words[j];
-							if (word != null
-									&& Index.isMatch(key, word, matchRule)) {
-								results = addQueryResult(results, word,
-										wordsToDocNumbers, memoryIndex);
-							}
-						}
+					if (prefixes == null) {
+						results = addMatchingResults(results,
+								readCategoryTable(categories[i], false), key,
+								matchRule, memoryIndex);
+						continue;
+					}
+					for (int j = 0; j < prefixes.length; j++) {
+						char[] prefix = prefixes[j];
+						results = addMatchingResults(results,
+								readCategoryRange(categories[i], prefix,
+										prefix == NON_ASCII ? null : prefix),
+								key, matchRule, memoryIndex);
 					}
 				}
 			}
@@ -296,6 +430,67 @@ public class DiskIndex {
 		return results;
 	}
 
+	private HashtableOfObject addMatchingResults(HashtableOfObject results,
+			HashtableOfObject wordsToDocNumbers, char[] key, int matchRule,
+			MemoryIndex memoryIndex) throws IOException {
+		if (wordsToDocNumbers != null) {
+			char[][] words = wordsToDocNumbers.keyTable;
+			for (int j = 0, m = words.length; j < m; j++) {
+				char[] word = words[j];
+				if (word != null && Index.isMatch(key, word, matchRule)) {
+					results = addQueryResult(results, word, wordsToDocNumbers,
+							memoryIndex);
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Answers the prefixes of the words which can match the given key, the
+	 * matching words themselves are found by {@link Index#isMatch}. Answers
+	 * <code>null</code> if the whole category table must be scanned.
+	 */
+	private static char[][] matchingPrefixes(char[] key, int matchRule) {
+		if (key.length == 0)
+			return null;
+		boolean isCamelCase = (matchRule & SearchPattern.R_CAMELCASE_MATCH) != 0;
+		int rule = matchRule & Index.MATCH_RULE_INDEX_MASK
+				& ~SearchPattern.R_CAMELCASE_MATCH;
+		boolean isCaseSensitive = (rule & SearchPattern.R_CASE_SENSITIVE) != 0;
+		int literalLength = key.length;
+		switch (rule & ~SearchPattern.R_CASE_SENSITIVE) {
+		case SearchPattern.R_EXACT_MATCH:
+		case SearchPattern.R_PREFIX_MATCH:
+			break;
+		case SearchPattern.R_PATTERN_MATCH:
+			literalLength = 0;
+			while (literalLength < key.length && key[literalLength] != '*'
+					&& key[literalLength] != '?')
+				literalLength++;
+			if (literalLength == 0)
+				return null;
+			break;
+		default:
+			return null;
+		}
+		if (isCaseSensitive) {
+			// camel case matches only require the same first character
+			return new char[][] { CharOperation.subarray(key, 0,
+					isCamelCase ? 1 : literalLength) };
+		}
+		char first = key[0];
+		if (first >= NON_ASCII[0])
+			return null;
+		// non ASCII characters can be equal to an ASCII one ignoring case, so
+		// they are always checked
+		char lower = Character.toLowerCase(first);
+		char upper = Character.toUpperCase(first);
+		if (lower == upper)
+			return new char[][] { { first }, NON_ASCII };
+		return new char[][] { { upper }, { lower }, NON_ASCII };
+	}
+
 	private void cacheDocumentNames() throws IOException {
 		// will need all document names so get them now
 		this.cachedChunks = new String[this.numberOfChunks][];
@@ -544,6 +739,7 @@ public class DiskIndex {
 				: diskIndex.categoryOffsets.elementSize;
 		this.categoryOffsets = new HashtableOfIntValues(size);
 		this.categoryTables = new HashtableOfObject(size);
+		this.termIndexes.clear();
 		this.separator = diskIndex.separator;
 	}
 
@@ -580,7 +776,8 @@ public class DiskIndex {
 			nextWord: for (int i = 0, l = oldWords.length; i < l; i++) {
 				char[] oldWord = oldWords[i];
 				if (oldWord != null) {
-					int[] oldDocNumbers = (int[]) oldArrayOffsets[i];
+					int[] oldDocNumbers = onDisk
+							.readDocumentNumbers(oldArrayOffsets[i]);
 					int length = oldDocNumbers.length;
 					int[] mappedNumbers = new int[length];
 					int count = 0;
@@ -719,10 +916,26 @@ public class DiskIndex {
 		return newDiskIndex;
 	}
 
-	private synchronized String[] readAllDocumentNames() throws IOException {
+	private String[] readAllDocumentNames() throws IOException {
 		if (this.numberOfChunks <= 0)
 			return new String[0];
 
+		MappedIndexFile mapped = mappedFile();
+		if (mapped == null)
+			return readAllDocumentNamesFromFile();
+
+		DataInput input = mapped.openAt(this.chunkOffsets[0]);
+		int lastIndex = this.numberOfChunks - 1;
+		String[] docNames = new String[lastIndex * CHUNK_SIZE
+				+ sizeOfLastChunk];
+		for (int i = 0; i < this.numberOfChunks; i++)
+			readChunk(docNames, input, i * CHUNK_SIZE,
+					i < lastIndex ? CHUNK_SIZE : sizeOfLastChunk);
+		return docNames;
+	}
+
+	private synchronized String[] readAllDocumentNamesFromFile()
+			throws IOException {
 		DataInputStream stream = new DataInputStream(new BufferedInputStream(
 				new FileInputStream(getIndexFile()),
 				this.numberOfChunks > 5 ? 4096 : 2048));
@@ -740,7 +953,156 @@ public class DiskIndex {
 		}
 	}
 
-	private synchronized HashtableOfObject readCategoryTable(
+	private HashtableOfObject readCategoryTable(char[] categoryName,
+			boolean readDocNumbers) throws IOException {
+		MappedIndexFile mapped = mappedFile();
+		if (mapped == null)
+			return readCategoryTableFromFile(categoryName, readDocNumbers);
+
+		// result will be null if categoryName is unknown
+		int offset = this.categoryOffsets.get(categoryName);
+		if (offset == HashtableOfIntValues.NO_VALUE)
+			return null;
+
+		// tables decoded from the mapped file are never shared between
+		// queries, so no locking is required
+		DataInput input = mapped.openAt(offset);
+		int size = input.readInt();
+		skipFully(input, input.readInt()); // the TermIndex
+		HashtableOfObject categoryTable = new HashtableOfObject(size);
+		int largeArraySize = 256;
+		for (int i = 0; i < size; i++) {
+			char[] word = Util.readUTF(input);
+			int arrayOffset = input.readInt();
+			// same layout as in readCategoryTableFromFile()
+			if (arrayOffset <= 0) {
+				categoryTable.put(word, new int[] { -arrayOffset });
+			} else if (arrayOffset < largeArraySize) {
+				categoryTable.put(word, readDocumentArray(input, arrayOffset));
+			} else {
+				arrayOffset = input.readInt();
+				categoryTable.put(word, readDocNumbers ? readDocumentNumbers(
+						mapped, arrayOffset) : Integer.valueOf(arrayOffset));
+			}
+		}
+		return categoryTable;
+	}
+
+	/**
+	 * Answers the words of the given category which are not less than
+	 * <code>from</code> and start with the given prefix, or all the following
+	 * words if the prefix is <code>null</code>.
+	 */
+	private HashtableOfObject readCategoryRange(char[] categoryName,
+			char[] from, char[] prefix) throws IOException {
+		MappedIndexFile mapped = mappedFile();
+		if (mapped == null)
+			return readCategoryRangeFromFile(categoryName, from, prefix);
+
+		int offset = this.categoryOffsets.get(categoryName);
+		if (offset == HashtableOfIntValues.NO_VALUE)
+			return null;
+		String key = new String(categoryName);
+		TermIndex terms = this.termIndexes.get(key);
+		if (terms == null) {
+			terms = TermIndex.read(mapped.openAt(offset), offset);
+			this.termIndexes.put(key, terms);
+		}
+		if (terms.size() == 0)
+			return null;
+		int block = terms.blockOf(from);
+		return readWords(mapped.openAt(terms.blockOffset(block)),
+				terms.remainingFrom(block), from, prefix);
+	}
+
+	private synchronized HashtableOfObject readCategoryRangeFromFile(
+			char[] categoryName, char[] from, char[] prefix)
+			throws IOException {
+		int offset = this.categoryOffsets.get(categoryName);
+		if (offset == HashtableOfIntValues.NO_VALUE)
+			return null;
+		if (this.categoryTables != null) {
+			// a cached table is cheaper to scan than reading the file
+			HashtableOfObject cachedTable = (HashtableOfObject) this.categoryTables
+					.get(categoryName);
+			if (cachedTable != null) {
+				HashtableOfObject words = new HashtableOfObject(3);
+				char[][] keys = cachedTable.keyTable;
+				for (int i = 0, l = keys.length; i < l; i++) {
+					char[] word = keys[i];
+					if (word != null && isInRange(word, from, prefix))
+						words.put(word, cachedTable.valueTable[i]);
+				}
+				return words;
+			}
+		}
+
+		String key = new String(categoryName);
+		TermIndex terms = this.termIndexes.get(key);
+		DataInputStream stream;
+		if (terms == null) {
+			stream = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(getIndexFile()), 2048));
+			try {
+				skipFully(stream, offset);
+				terms = TermIndex.read(stream, offset);
+			} finally {
+				stream.close();
+			}
+			this.termIndexes.put(key, terms);
+		}
+		if (terms.size() == 0)
+			return null;
+		int block = terms.blockOf(from);
+		stream = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(getIndexFile()), 2048));
+		try {
+			skipFully(stream, terms.blockOffset(block));
+			return readWords(stream, terms.remainingFrom(block), from, prefix);
+		} finally {
+			stream.close();
+		}
+	}
+
+	private HashtableOfObject readWords(DataInput input, int count,
+			char[] from, char[] prefix) throws IOException {
+		HashtableOfObject words = new HashtableOfObject(3);
+		int largeArraySize = 256;
+		for (int i = 0; i < count; i++) {
+			char[] word = Util.readUTF(input);
+			int arrayOffset = input.readInt();
+			// same layout as in readCategoryTableFromFile()
+			Object documentNumbers;
+			if (arrayOffset <= 0)
+				documentNumbers = new int[] { -arrayOffset };
+			else if (arrayOffset < largeArraySize)
+				documentNumbers = readDocumentArray(input, arrayOffset);
+			else
+				documentNumbers = Integer.valueOf(input.readInt());
+			if (isInRange(word, from, prefix))
+				words.put(word, documentNumbers);
+			else if (Util.compare(word, from) > 0)
+				break; // past the range, words are sorted
+		}
+		return words;
+	}
+
+	private static boolean isInRange(char[] word, char[] from, char[] prefix) {
+		return Util.compare(word, from) >= 0 && (prefix == null
+				|| CharOperation.compareWith(word, prefix) == 0);
+	}
+
+	private static void skipFully(DataInput input, int length)
+			throws IOException {
+		while (length > 0) {
+			int skipped = input.skipBytes(length);
+			if (skipped <= 0)
+				throw new EOFException();
+			length -= skipped;
+		}
+	}
+
+	private synchronized HashtableOfObject readCategoryTableFromFile(
 			char[] categoryName, boolean readDocNumbers) throws IOException {
 		// result will be null if categoryName is unknown
 		int offset = this.categoryOffsets.get(categoryName);
@@ -758,7 +1120,8 @@ public class DiskIndex {
 					Object[] arrayOffsets = cachedTable.valueTable;
 					for (int i = 0, l = arrayOffsets.length; i < l; i++)
 						if (arrayOffsets[i] instanceof Integer)
-							arrayOffsets[i] = readDocumentNumbers(arrayOffsets[i]);
+							arrayOffsets[i] = readEncodedDocumentNumbers(
+									arrayOffsets[i]);
 				}
 				return cachedTable;
 			}
@@ -773,6 +1136,7 @@ public class DiskIndex {
 		try {
 			stream.skip(offset);
 			int size = stream.readInt();
+			skipFully(stream, stream.readInt()); // the TermIndex
 			try {
 				if (size < 0) { // DEBUG
 					System.err
@@ -861,7 +1225,7 @@ public class DiskIndex {
 		return categoryTable;
 	}
 
-	private void readChunk(String[] docNames, DataInputStream stream,
+	private void readChunk(String[] docNames, DataInput stream,
 			int index, int size) throws IOException {
 		String current = stream.readUTF();
 		docNames[index++] = current;
@@ -889,27 +1253,34 @@ public class DiskIndex {
 		}
 	}
 
-	private int[] readDocumentArray(DataInputStream stream, int arraySize)
+	private byte[] readDocumentArray(DataInput stream, int arraySize)
 			throws IOException {
-		int[] result = new int[arraySize];
-		switch (this.documentReferenceSize) {
-		case 1:
-			for (int i = 0; i < arraySize; i++)
-				result[i] = stream.readUnsignedByte();
-			break;
-		case 2:
-			for (int i = 0; i < arraySize; i++)
-				result[i] = stream.readUnsignedShort();
-			break;
-		default:
-			for (int i = 0; i < arraySize; i++)
-				result[i] = stream.readInt();
-			break;
+		return PostingList.read(stream, arraySize);
+	}
+
+	String readDocumentName(int docNumber) throws IOException {
+		MappedIndexFile mapped = mappedFile();
+		if (mapped == null)
+			return readDocumentNameFromFile(docNumber);
+
+		AtomicReferenceArray<String[]> chunks = this.mappedChunks;
+		int chunkNumber = docNumber / CHUNK_SIZE;
+		String[] chunk = chunks.get(chunkNumber);
+		if (chunk == null) {
+			// concurrent readers may decode the same chunk, the result is
+			// identical so the last one wins
+			int numberOfNames = chunkNumber == this.numberOfChunks - 1 ? this.sizeOfLastChunk
+					: CHUNK_SIZE;
+			chunk = new String[numberOfNames];
+			readChunk(chunk, mapped.openAt(this.chunkOffsets[chunkNumber]), 0,
+					numberOfNames);
+			chunks.set(chunkNumber, chunk);
 		}
-		return result;
+		return chunk[docNumber - (chunkNumber * CHUNK_SIZE)];
 	}
 
-	synchronized String readDocumentName(int docNumber) throws IOException {
+	private synchronized String readDocumentNameFromFile(int docNumber)
+			throws IOException {
 		if (this.cachedChunks == null)
 			this.cachedChunks = new String[this.numberOfChunks][];
 
@@ -940,13 +1311,33 @@ public class DiskIndex {
 		return chunk[docNumber - (chunkNumber * CHUNK_SIZE)];
 	}
 
-	synchronized int[] readDocumentNumbers(Object arrayOffset)
-			throws IOException {
-		// arrayOffset is either a cached array of docNumbers or an Integer
-		// offset in the file
+	int[] readDocumentNumbers(Object arrayOffset) throws IOException {
+		// arrayOffset is either a cached array of 1 docNumber, the encoded
+		// docNumbers or an Integer offset in the file
 		if (arrayOffset instanceof int[])
 			return (int[]) arrayOffset;
+		return PostingList.decode(readEncodedDocumentNumbers(arrayOffset));
+	}
 
+	private byte[] readEncodedDocumentNumbers(Object arrayOffset)
+			throws IOException {
+		if (arrayOffset instanceof byte[])
+			return (byte[]) arrayOffset;
+
+		MappedIndexFile mapped = mappedFile();
+		if (mapped == null)
+			return readDocumentNumbersFromFile(arrayOffset);
+		return readDocumentNumbers(mapped, ((Integer) arrayOffset).intValue());
+	}
+
+	private byte[] readDocumentNumbers(MappedIndexFile mapped, int offset)
+			throws IOException {
+		DataInput input = mapped.openAt(offset);
+		return readDocumentArray(input, input.readInt());
+	}
+
+	private synchronized byte[] readDocumentNumbersFromFile(Object arrayOffset)
+			throws IOException {
 		DataInputStream stream = new DataInputStream(new BufferedInputStream(
 				new FileInputStream(getIndexFile()), 2048));
 		try {
@@ -963,7 +1354,6 @@ public class DiskIndex {
 		// must be same order as writeHeaderInfo()
 		this.numberOfChunks = file.readInt();
 		this.sizeOfLastChunk = file.readUnsignedByte();
-		this.documentReferenceSize = file.readUnsignedByte();
 		this.separator = (char) file.readUnsignedByte();
 
 		this.chunkOffsets = new int[this.numberOfChunks];
@@ -981,6 +1371,7 @@ public class DiskIndex {
 		// category
 		// table
 		this.categoryTables = new HashtableOfObject(3);
+		this.termIndexes.clear();
 	}
 
 	synchronized void startQuery() {
@@ -992,6 +1383,9 @@ public class DiskIndex {
 			// clear cached items
 			this.cacheUserCount = -1;
 			this.cachedChunks = null;
+			if (this.mappedChunks != null)
+				this.mappedChunks = new AtomicReferenceArray<String[]>(
+						this.numberOfChunks);
 			if (this.categoryTables != null) {
 				if (this.cachedCategoryName == null) {
 					this.categoryTables = null;
@@ -1024,10 +1418,6 @@ public class DiskIndex {
 			this.numberOfChunks--;
 			this.sizeOfLastChunk = CHUNK_SIZE;
 		}
-		this.documentReferenceSize = size <= 0x7F ? 1
-				: (size <= 0x7FFF ? 2 : 4); // number of bytes used to encode a
-		// reference
-
 		this.chunkOffsets = new int[this.numberOfChunks];
 		int lastIndex = this.numberOfChunks - 1;
 		for (int i = 0; i < this.numberOfChunks; i++) {
@@ -1097,6 +1487,8 @@ public class DiskIndex {
 		// document array follows immediately
 		// 256 if the array size >= 256 followed by another int which is the
 		// offset to the array (written prior to the table)
+		// the pairs are sorted by word and preceded by a TermIndex, so ranges
+		// of words can be read without decoding the whole table
 
 		int largeArraySize = 256;
 		Object[] values = wordsToDocs.valueTable;
@@ -1118,34 +1510,55 @@ public class DiskIndex {
 		// start of the
 		// table
 		this.categoryTables.put(categoryName, null); // flush cached table
-		stream.writeInt(wordsToDocs.elementSize);
-		char[][] words = wordsToDocs.keyTable;
-		for (int i = 0, l = words.length; i < l; i++) {
-			Object o = values[i];
-			if (o != null) {
-				Util.writeUTF(stream, words[i]);
-				if (o instanceof int[]) {
-					int[] documentNumbers = (int[]) o;
-					if (documentNumbers.length == 1)
-						stream.writeInt(-documentNumbers[0]); // store an
-					// array of 1
-					// element by
-					// negating the
-					// documentNumber
-					// (can be zero)
-					else
-						writeDocumentNumbers(documentNumbers, stream);
-				} else {
-					stream.writeInt(largeArraySize); // mark to identify that
-					// an offset follows
-					stream.writeInt(((Integer) o).intValue()); // offset in the
-					// file of the
-					// array of
-					// document
-					// numbers
-				}
+		char[][] words = new char[wordsToDocs.elementSize][];
+		char[][] keys = wordsToDocs.keyTable;
+		int size = 0;
+		for (int i = 0, l = keys.length; i < l; i++)
+			if (values[i] != null)
+				words[size++] = keys[i];
+		Util.sort(words);
+
+		int blockCount = TermIndex.blockCount(size);
+		char[][] firstWords = new char[blockCount][];
+		int[] blockOffsets = new int[blockCount];
+		ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+		DataOutputStream entries = new DataOutputStream(entryBytes);
+		for (int i = 0; i < size; i++) {
+			if (i % TermIndex.BLOCK_SIZE == 0) {
+				firstWords[i / TermIndex.BLOCK_SIZE] = words[i];
+				blockOffsets[i / TermIndex.BLOCK_SIZE] = entries.size();
+			}
+			Object o = wordsToDocs.get(words[i]);
+			Util.writeUTF(entries, words[i]);
+			if (o instanceof int[]) {
+				int[] documentNumbers = (int[]) o;
+				if (documentNumbers.length == 1)
+					entries.writeInt(-documentNumbers[0]); // store an
+				// array of 1
+				// element by
+				// negating the
+				// documentNumber
+				// (can be zero)
+				else
+					writeDocumentNumbers(documentNumbers, entries);
+			} else {
+				entries.writeInt(largeArraySize); // mark to identify that
+				// an offset follows
+				entries.writeInt(((Integer) o).intValue()); // offset in the
+				// file of the
+				// array of
+				// document
+				// numbers
 			}
 		}
+		ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+		TermIndex.write(new DataOutputStream(indexBytes), firstWords,
+				blockOffsets);
+
+		stream.writeInt(size);
+		stream.writeInt(indexBytes.size());
+		indexBytes.writeTo(stream);
+		entryBytes.writeTo(stream);
 	}
 
 	private void writeDocumentNumbers(int[] documentNumbers,
@@ -1155,26 +1568,13 @@ public class DiskIndex {
 		int length = documentNumbers.length;
 		stream.writeInt(length);
 		Util.sort(documentNumbers);
-		switch (this.documentReferenceSize) {
-		case 1:
-			for (int i = 0; i < length; i++)
-				stream.writeByte(documentNumbers[i]);
-			break;
-		case 2:
-			for (int i = 0; i < length; i++)
-				stream.writeShort(documentNumbers[i]);
-			break;
-		default:
-			for (int i = 0; i < length; i++)
-				stream.writeInt(documentNumbers[i]);
-			break;
-		}
+		// delta encoded, see PostingList
+		PostingList.write(stream, documentNumbers, length);
 	}
 
 	private void writeHeaderInfo(DataOutputStream stream) throws IOException {
 		stream.writeInt(this.numberOfChunks);
 		stream.writeByte(this.sizeOfLastChunk);
-		stream.writeByte(this.documentReferenceSize);
 		stream.writeByte(this.separator);
 
 		// apend the file with chunk offsets
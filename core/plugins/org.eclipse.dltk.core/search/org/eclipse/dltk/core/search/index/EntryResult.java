@@ -49,26 +49,49 @@ public class EntryResult {
 		return this.word;
 	}
 
-	public String[] getDocumentNames(Index index) throws java.io.IOException {
+	public String[] getDocumentNames(SearchableIndex index)
+			throws java.io.IOException {
+		DiskIndex diskIndex = index.getDiskIndex();
+		MappedIndexFile mapping = this.documentTables != null ? diskIndex
+				.acquireMappedReads() : null;
+		try {
+			return getDocumentNames(diskIndex);
+		} finally {
+			if (mapping != null)
+				mapping.release();
+		}
+	}
+
+	private String[] getDocumentNames(DiskIndex diskIndex)
+			throws java.io.IOException {
 		if (this.documentTables != null) {
 			int length = this.documentTables.length;
 			if (length == 1 && this.documentNames == null) { // have a single
 				// table
 				Object offset = this.documentTables[0].get(word);
-				int[] numbers = index.diskIndex.readDocumentNumbers(offset);
+				int[] numbers = diskIndex.readDocumentNumbers(offset);
 				String[] names = new String[numbers.length];
 				for (int i = 0, l = numbers.length; i < l; i++)
-					names[i] = index.diskIndex.readDocumentName(numbers[i]);
+					names[i] = diskIndex.readDocumentName(numbers[i]);
 				return names;
 			}
 
+			// merge the sorted document numbers first, so every document name
+			// is decoded once
+			int[] numbers = PostingList.EMPTY;
 			for (int i = 0; i < length; i++) {
 				Object offset = this.documentTables[i].get(word);
-				int[] numbers = index.diskIndex.readDocumentNumbers(offset);
-				for (int j = 0, k = numbers.length; j < k; j++)
-					addDocumentName(index.diskIndex
-							.readDocumentName(numbers[j]));
+				numbers = PostingList.union(numbers,
+						diskIndex.readDocumentNumbers(offset));
+			}
+			if (this.documentNames == null) {
+				String[] names = new String[numbers.length];
+				for (int i = 0, l = numbers.length; i < l; i++)
+					names[i] = diskIndex.readDocumentName(numbers[i]);
+				return names;
 			}
+			for (int i = 0, l = numbers.length; i < l; i++)
+				addDocumentName(diskIndex.readDocumentName(numbers[i]));
 		}
 
 		if (this.documentNames == null)
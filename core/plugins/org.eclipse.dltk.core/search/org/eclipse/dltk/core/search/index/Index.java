@@ -28,18 +28,16 @@ import org.eclipse.dltk.core.search.indexing.ReadWriteMonitor;
  * Queries can search a single category or several at the same time.
  * 
  * Indexes are not synchronized structures and should only be queried/updated
- * one at a time.
+ * one at a time. When mapped reads are enabled {@link #getSnapshot()} returns
+ * a read-only view which can be queried concurrently without entering the
+ * monitor.
  */
 
-public class Index {
-
-	public String containerPath;
+public class Index extends SearchableIndex {
 
 	public ReadWriteMonitor monitor;
 
-	// Separator to use after the container path
 	static final char DEFAULT_SEPARATOR = '/';
-	public char separator = DEFAULT_SEPARATOR;
 	public static final char JAR_SEPARATOR = IDLTKSearchScope.FILE_ENTRY_SEPARATOR
 			.charAt(0);
 
@@ -47,6 +45,8 @@ public class Index {
 
 	protected MemoryIndex memoryIndex;
 
+	private volatile IndexSnapshot snapshot;
+
 	/**
 	 * Mask used on match rule for indexing.
 	 */
@@ -124,6 +124,7 @@ public class Index {
 		if (DLTKCore.DEBUG_INDEX) {
 			System.out.println("DEBUG INDEX: Add Index Entry:" + new String( category ) + " " + new String( key ) + " path:" + containerRelativePath ); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		}
+		this.snapshot = null;
 		this.memoryIndex.addIndexEntry(category, key, containerRelativePath);
 	}
 
@@ -138,12 +139,7 @@ public class Index {
 		return this.memoryIndex.hasChanged();
 	}
 
-	/**
-	 * Returns the entries containing the given key in a group of categories, or
-	 * null if no matches are found. The matchRule dictates whether its an
-	 * exact, prefix or pattern match, as well as case sensitive or insensitive.
-	 * If the key is null then all entries in specified categories are returned.
-	 */
+	@Override
 	public EntryResult[] query(char[][] categories, char[] key, int matchRule)
 			throws IOException {
 		if (this.memoryIndex.shouldMerge() && monitor.exitReadEnterWrite()) {
@@ -154,16 +150,28 @@ public class Index {
 			}
 		}
 
+		return query(this.diskIndex, this.memoryIndex, categories, key,
+				matchRule);
+	}
+
+	static EntryResult[] query(DiskIndex diskIndex, MemoryIndex memoryIndex,
+			char[][] categories, char[] key, int matchRule) throws IOException {
 		HashtableOfObject results;
 		int rule = matchRule & MATCH_RULE_INDEX_MASK;
-		if (this.memoryIndex.hasChanged()) {
-			results = this.diskIndex.addQueryResults(categories, key, rule,
-					this.memoryIndex);
-			results = this.memoryIndex.addQueryResults(categories, key, rule,
-					results);
-		} else {
-			results = this.diskIndex.addQueryResults(categories, key, rule,
-					null);
+		MappedIndexFile mapping = diskIndex.acquireMappedReads();
+		try {
+			if (memoryIndex.hasChanged()) {
+				results = diskIndex.addQueryResults(categories, key, rule,
+						memoryIndex);
+				results = memoryIndex.addQueryResults(categories, key, rule,
+						results);
+			} else {
+				results = diskIndex.addQueryResults(categories, key, rule,
+						null);
+			}
+		} finally {
+			if (mapping != null)
+				mapping.release();
 		}
 		if (results == null)
 			return null;
@@ -185,12 +193,18 @@ public class Index {
 	 */
 	public String[] queryDocumentNames(String substring) throws IOException {
 		SimpleSet results;
-		if (this.memoryIndex.hasChanged()) {
-			results = this.diskIndex.addDocumentNames(substring,
-					this.memoryIndex);
-			this.memoryIndex.addDocumentNames(substring, results);
-		} else {
-			results = this.diskIndex.addDocumentNames(substring, null);
+		MappedIndexFile mapping = this.diskIndex.acquireMappedReads();
+		try {
+			if (this.memoryIndex.hasChanged()) {
+				results = this.diskIndex.addDocumentNames(substring,
+						this.memoryIndex);
+				this.memoryIndex.addDocumentNames(substring, results);
+			} else {
+				results = this.diskIndex.addDocumentNames(substring, null);
+			}
+		} finally {
+			if (mapping != null)
+				mapping.release();
 		}
 		if (results.elementSize == 0)
 			return null;
@@ -205,6 +219,7 @@ public class Index {
 	}
 
 	public void remove(String containerRelativePath) {
+		this.snapshot = null;
 		this.memoryIndex.remove(containerRelativePath);
 	}
 
@@ -218,20 +233,83 @@ public class Index {
 		}
 		// int numberOfChanges = this.memoryIndex.docsToReferences.elementSize;
 		this.diskIndex.separator = this.separator;
-		this.diskIndex = this.diskIndex.mergeWith(this.memoryIndex);
+		// the file can't be replaced while it is mapped, new searches wait on
+		// the monitor until the merged index is published
+		this.snapshot = null;
+		DiskIndex previous = this.diskIndex;
+		if (!previous.closeMappedReads()) {
+			// searches still read the file, the changes are kept in memory
+			// and merged by the next save
+			previous.reopenMappedReads();
+			throw new IOException("Index file still read " + previous.fileName); //$NON-NLS-1$
+		}
+		try {
+			this.diskIndex = previous.mergeWith(this.memoryIndex);
+		} finally {
+			if (this.diskIndex == previous)
+				previous.reopenMappedReads();
+		}
 		this.memoryIndex = new MemoryIndex();
+		MappedIndexFile mapping = this.diskIndex.prepareMappedReads();
+		if (mapping != null)
+			this.snapshot = new IndexSnapshot(this, this.diskIndex, mapping,
+					new MemoryIndex());
 		// if (numberOfChanges > 1000)
 		// System.gc(); // reclaim space if the MemoryIndex was very BIG
 	}
 
-	public void startQuery() {
-		if (this.diskIndex != null)
-			this.diskIndex.startQuery();
+	/**
+	 * Returns a read-only view of this index which could be queried without
+	 * entering the {@link #monitor}, or <code>null</code> if snapshots are not
+	 * supported or a writer currently owns the monitor, the monitor must be
+	 * used then.
+	 * 
+	 * The snapshot is discarded by any change of the index, so it never
+	 * returns stale results.
+	 */
+	public IndexSnapshot getSnapshot() throws IOException {
+		if (this.diskIndex == null)
+			return null;
+		IndexSnapshot current = this.snapshot;
+		if (current != null)
+			return current;
+		ReadWriteMonitor readWriteMonitor = this.monitor;
+		if (readWriteMonitor == null || !readWriteMonitor.tryEnterRead())
+			return null;
+		try {
+			return createSnapshot();
+		} finally {
+			readWriteMonitor.exitRead();
+		}
+	}
+
+	private synchronized IndexSnapshot createSnapshot() throws IOException {
+		// must own the read lock of the monitor, writers discard the snapshot
+		// only under the write lock
+		if (this.snapshot != null)
+			return this.snapshot;
+		MappedIndexFile mapping = this.diskIndex.prepareMappedReads();
+		if (mapping == null)
+			return null;
+		MemoryIndex frozen = this.memoryIndex.hasChanged() ? this.memoryIndex
+				.snapshot() : new MemoryIndex();
+		return this.snapshot = new IndexSnapshot(this, this.diskIndex,
+				mapping, frozen);
 	}
 
-	public void stopQuery() {
+	/**
+	 * Discards the snapshot and unmaps the index file once its readers are
+	 * done, so the file can be deleted.
+	 */
+	public void releaseMappedReads() {
+		this.snapshot = null;
 		if (this.diskIndex != null)
-			this.diskIndex.stopQuery();
+			this.diskIndex.closeMappedReads();
+	}
+
+	@Override
+	DiskIndex getDiskIndex() {
+		return this.diskIndex;
 	}
 
 	@Override
@@ -242,13 +320,4 @@ public class Index {
 	public boolean isRebuildable() {
 		return true;
 	}
-
-	/**
-	 * Returns the containerPath of this index without any additional prefixes.
-	 * 
-	 * @return
-	 */
-	public String getContainerPath() {
-		return containerPath;
-	}
 }
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.search.index;
+
+import java.io.IOException;
+
+/**
+ * Read-only view of an {@link Index}: a memory mapped {@link DiskIndex} plus a
+ * frozen copy of the {@link MemoryIndex} taken when the snapshot was created.
+ * 
+ * Snapshots are queried without entering the monitor of the original index,
+ * any number of threads can query the same snapshot at the same time. The
+ * queries must be made between {@link #acquire()} and {@link #release()}, so
+ * the index file is not unmapped while it is read.
+ */
+public final class IndexSnapshot extends SearchableIndex {
+
+	private final DiskIndex diskIndex;
+
+	private final MemoryIndex memoryIndex;
+
+	private final MappedIndexFile mapping;
+
+	IndexSnapshot(Index index, DiskIndex diskIndex, MappedIndexFile mapping,
+			MemoryIndex memoryIndex) {
+		this.containerPath = index.containerPath;
+		this.separator = index.separator;
+		this.diskIndex = diskIndex;
+		this.mapping = mapping;
+		this.memoryIndex = memoryIndex;
+	}
+
+	/**
+	 * Returns <code>false</code> if the snapshot can't be queried anymore, as
+	 * its index file has been merged or deleted since, the index must be
+	 * queried instead.
+	 */
+	public boolean acquire() {
+		return this.mapping.acquire();
+	}
+
+	public void release() {
+		this.mapping.release();
+	}
+
+	@Override
+	public EntryResult[] query(char[][] categories, char[] key, int matchRule)
+			throws IOException {
+		// never merges, the memory index of a snapshot is frozen
+		return Index.query(this.diskIndex, this.memoryIndex, categories, key,
+				matchRule);
+	}
+
+	@Override
+	DiskIndex getDiskIndex() {
+		return this.diskIndex;
+	}
+
+	@Override
+	public String toString() {
+		return "Snapshot of index for " + this.containerPath; //$NON-NLS-1$
+	}
+}
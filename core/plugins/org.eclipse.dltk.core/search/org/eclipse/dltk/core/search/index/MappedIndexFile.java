@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.search.index;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only view of a {@link DiskIndex} file mapped into memory.
+ *
+ * The mapped buffer is never repositioned, every reader gets its own
+ * {@link Input} cursor, so any number of threads can decode the index at the
+ * same time without locking.
+ *
+ * Readers register with {@link #acquire()} so the mapping is only released
+ * once nobody reads it anymore, reading an unmapped buffer would crash the VM.
+ */
+class MappedIndexFile {
+
+	private final ByteBuffer buffer;
+
+	private int readers;
+
+	private boolean closed;
+
+	private boolean abandoned; // unmapped by the last reader, see close(long)
+
+	private MappedIndexFile(ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	static MappedIndexFile map(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+		try {
+			FileChannel channel = raf.getChannel();
+			// the mapping stays valid after the channel is closed
+			return new MappedIndexFile(channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Registers a reader, returns <code>false</code> if the mapping is closed.
+	 */
+	synchronized boolean acquire() {
+		if (this.closed)
+			return false;
+		this.readers++;
+		return true;
+	}
+
+	synchronized void release() {
+		if (--this.readers == 0 && this.closed) {
+			notifyAll();
+			if (this.abandoned)
+				unmap(this.buffer);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> while readers registered before
+	 * {@link #close(long)} still read the file.
+	 */
+	synchronized boolean isRead() {
+		return this.readers > 0;
+	}
+
+	/**
+	 * Refuses new readers, waits for the current ones and unmaps the file.
+	 * Returns <code>false</code> if the readers are not done in time, the last
+	 * of them unmaps the file then, it must not be changed until they are done.
+	 */
+	boolean close(long timeout) {
+		synchronized (this) {
+			this.closed = true;
+			long deadline = System.currentTimeMillis() + timeout;
+			while (this.readers > 0) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					this.abandoned = true;
+					return false;
+				}
+				try {
+					wait(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					this.abandoned = true;
+					return false;
+				}
+			}
+			if (this.abandoned)
+				return true; // already unmapped by the last reader
+		}
+		unmap(this.buffer);
+		return true;
+	}
+
+	private static void unmap(ByteBuffer buffer) {
+		try {
+			try {
+				// Java 9 and later
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+				Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+				theUnsafe.setAccessible(true);
+				unsafeClass.getMethod("invokeCleaner", ByteBuffer.class) //$NON-NLS-1$
+						.invoke(theUnsafe.get(null), buffer);
+			} catch (NoSuchMethodException e) {
+				// Java 8
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner"); //$NON-NLS-1$
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null)
+					cleaner.getClass().getMethod("clean").invoke(cleaner); //$NON-NLS-1$
+			}
+		} catch (Exception e) {
+			// not supported by this VM, the garbage collector unmaps it
+		}
+	}
+
+	/**
+	 * Returns a new cursor positioned at the given offset of the file.
+	 */
+	Input openAt(int offset) throws IOException {
+		if (offset < 0 || offset > this.buffer.capacity())
+			throw new EOFException();
+		ByteBuffer view = this.buffer.duplicate();
+		view.position(offset);
+		return new Input(view);
+	}
+
+	/**
+	 * {@link DataInput} over a private duplicate of the mapped buffer, so the
+	 * existing stream based decoders can be reused as is.
+	 */
+	static class Input implements DataInput {
+
+		private final ByteBuffer view;
+
+		Input(ByteBuffer view) {
+			this.view = view;
+		}
+
+		@Override
+		public void readFully(byte[] b) throws IOException {
+			readFully(b, 0, b.length);
+		}
+
+		@Override
+		public void readFully(byte[] b, int off, int len) throws IOException {
+			try {
+				this.view.get(b, off, len);
+			} catch (BufferUnderflowException e) {
+				throw new EOFException();
+			}
+		}
+
+		@Override
+		public int skipBytes(int n) {
+			int skipped = Math.min(n, this.view.remaining());
+			this.view.position(this.view.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public boolean readBoolean() throws IOException {
+			return readByte() != 0;
+		}
+
+		@Override
+		public byte readByte() throws IOException {
+			try {
+				return this.view.get();
+			} catch (BufferUnderflowException e) {
+				throw new EOFException();
+			}
+		}
+
+		@Override
+		public int readUnsignedByte() throws IOException {
+			return readByte() & 0xFF;
+		}
+
+		@Override
+		public short readShort() throws IOException {
+			try {
+				return this.view.getShort();
+			} catch (BufferUnderflowException e) {
+				throw new EOFException();
+			}
+		}
+
+		@Override
+		public int readUnsignedShort() throws IOException {
+			return readShort() & 0xFFFF;
+		}
+
+		@Override
+		public char readChar() throws IOException {
+			return (char) readUnsignedShort();
+		}
+
+		@Override
+		public int readInt() throws IOException {
+			try {
+				return this.view.getInt();
+			} catch (BufferUnderflowException e) {
+				throw new EOFException();
+			}
+		}
+
+		@Override
+		public long readLong() throws IOException {
+			try {
+				return this.view.getLong();
+			} catch (BufferUnderflowException e) {
+				throw new EOFException();
+			}
+		}
+
+		@Override
+		public float readFloat() throws IOException {
+			return Float.intBitsToFloat(readInt());
+		}
+
+		@Override
+		public double readDouble() throws IOException {
+			return Double.longBitsToDouble(readLong());
+		}
+
+		/**
+		 * Reads the bytes up to the end of the line as ISO-8859-1 characters,
+		 * like {@link java.io.DataInputStream#readLine()}.
+		 */
+		@Override
+		public String readLine() throws IOException {
+			if (!this.view.hasRemaining())
+				return null;
+			StringBuilder line = new StringBuilder();
+			while (this.view.hasRemaining()) {
+				int c = this.view.get() & 0xFF;
+				if (c == '\n')
+					break;
+				if (c == '\r') {
+					if (this.view.hasRemaining()
+							&& this.view.get(this.view.position()) == '\n')
+						this.view.get();
+					break;
+				}
+				line.append((char) c);
+			}
+			return line.toString();
+		}
+
+		@Override
+		public String readUTF() throws IOException {
+			return DataInputStream.readUTF(this);
+		}
+	}
+}
@@ -37,6 +37,9 @@ public class MemoryIndex {
 
 	HashtableOfObject lastReferenceTable;
 
+	SimpleLookupTable frozenReferences; // document paths -> reference tables
+	// shared with the last snapshot, must be copied before being modified
+
 	MemoryIndex() {
 		this.docsToReferences = new SimpleLookupTable(7);
 		this.allWords = new SimpleWordSet(7);
@@ -70,6 +73,10 @@ public class MemoryIndex {
 			if (referenceTable == null)
 				this.docsToReferences.put(documentName,
 						referenceTable = new HashtableOfObject(3));
+			else if (this.frozenReferences != null
+					&& this.frozenReferences.get(documentName) == referenceTable)
+				this.docsToReferences.put(documentName,
+						referenceTable = copyReferenceTable(referenceTable));
 			this.lastDocumentName = documentName;
 			this.lastReferenceTable = referenceTable;
 		}
@@ -187,6 +194,46 @@ public class MemoryIndex {
 		return results;
 	}
 
+	private static HashtableOfObject copyReferenceTable(
+			HashtableOfObject referenceTable) {
+		HashtableOfObject copy = new HashtableOfObject(
+				referenceTable.elementSize);
+		char[][] categories = referenceTable.keyTable;
+		Object[] wordSets = referenceTable.valueTable;
+		for (int i = 0, l = categories.length; i < l; i++) {
+			if (categories[i] != null) {
+				SimpleWordSet wordSet = (SimpleWordSet) wordSets[i];
+				SimpleWordSet wordSetCopy = new SimpleWordSet(
+						wordSet.elementSize);
+				char[][] words = wordSet.words;
+				for (int j = 0, m = words.length; j < m; j++)
+					if (words[j] != null)
+						wordSetCopy.add(words[j]);
+				copy.put(categories[i], wordSetCopy);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of this index which is not affected by further changes,
+	 * the reference tables are shared until the document is indexed again.
+	 * Must be called while no other thread is modifying this index.
+	 */
+	MemoryIndex snapshot() {
+		MemoryIndex snapshot = new MemoryIndex();
+		try {
+			snapshot.docsToReferences = (SimpleLookupTable) this.docsToReferences
+					.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+		this.frozenReferences = snapshot.docsToReferences;
+		this.lastDocumentName = null;
+		this.lastReferenceTable = null;
+		return snapshot;
+	}
+
 	boolean hasChanged() {
 		return this.docsToReferences.elementSize > 0;
 	}
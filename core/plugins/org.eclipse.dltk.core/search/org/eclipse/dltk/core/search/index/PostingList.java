@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.search.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.eclipse.dltk.internal.core.util.Messages;
+
+/**
+ * Encoding and set operations for the sorted arrays of document numbers
+ * stored in the category tables of a {@link DiskIndex}.
+ *
+ * On disk, the first document number is followed by the differences between
+ * consecutive numbers, each of them written as a variable length integer (7
+ * bits per byte, the high bit set on all but the last byte). The category
+ * tables read into memory keep the arrays of several numbers in this form
+ * too, as a <code>byte[]</code> which is decoded when the documents of the
+ * word are requested.
+ */
+final class PostingList {
+
+	static final int[] EMPTY = new int[0];
+
+	private PostingList() {
+	}
+
+	/**
+	 * Writes the given sorted document numbers, the number of elements is not
+	 * written.
+	 */
+	static void write(DataOutput out, int[] sortedNumbers, int length)
+			throws IOException {
+		int previous = 0;
+		for (int i = 0; i < length; i++) {
+			int number = sortedNumbers[i];
+			writeVarInt(out, number - previous);
+			previous = number;
+		}
+	}
+
+	/**
+	 * Reads the given number of document numbers written by
+	 * {@link #write(DataOutput, int[], int)}, without decoding them.
+	 */
+	static byte[] read(DataInput in, int length) throws IOException {
+		byte[] bytes = new byte[length + (length >> 1)];
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			for (int shift = 0;; shift += 7) {
+				if (shift >= 32)
+					throw new IOException(Messages.exception_wrongFormat);
+				int b = in.readUnsignedByte();
+				if (count == bytes.length)
+					System.arraycopy(bytes, 0,
+							bytes = new byte[count * 2 + 1], 0, count);
+				bytes[count++] = (byte) b;
+				if ((b & 0x80) == 0)
+					break;
+			}
+		}
+		if (count < bytes.length)
+			System.arraycopy(bytes, 0, bytes = new byte[count], 0, count);
+		return bytes;
+	}
+
+	/**
+	 * Decodes the document numbers read by {@link #read(DataInput, int)}.
+	 */
+	static int[] decode(byte[] bytes) {
+		int length = 0;
+		for (byte b : bytes)
+			if ((b & 0x80) == 0)
+				length++;
+		int[] result = new int[length];
+		int previous = 0;
+		int position = 0;
+		for (int i = 0; i < length; i++) {
+			int value = 0;
+			for (int shift = 0;; shift += 7) {
+				int b = bytes[position++];
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0)
+					break;
+			}
+			result[i] = previous += value;
+		}
+		return result;
+	}
+
+	private static void writeVarInt(DataOutput out, int value)
+			throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Returns the sorted union of two sorted arrays of document numbers,
+	 * without duplicates. One of the arguments is returned if the other one
+	 * adds nothing.
+	 */
+	static int[] union(int[] a, int[] b) {
+		if (b.length == 0)
+			return a;
+		if (a.length == 0)
+			return b;
+		int[] result = new int[a.length + b.length];
+		int i = 0, j = 0, count = 0;
+		while (i < a.length && j < b.length) {
+			int x = a[i], y = b[j];
+			if (x < y) {
+				result[count++] = x;
+				i++;
+			} else if (x > y) {
+				result[count++] = y;
+				j++;
+			} else {
+				result[count++] = x;
+				i++;
+				j++;
+			}
+		}
+		while (i < a.length)
+			result[count++] = a[i++];
+		while (j < b.length)
+			result[count++] = b[j++];
+		if (count == a.length)
+			return a;
+		if (count == b.length)
+			return b;
+		if (count < result.length)
+			System.arraycopy(result, 0, result = new int[count], 0, count);
+		return result;
+	}
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.search.index;
+
+import java.io.IOException;
+
+/**
+ * The query side of an index, shared by the {@link Index} itself and its
+ * read-only {@link IndexSnapshot}s.
+ */
+public abstract class SearchableIndex {
+
+	public String containerPath;
+
+	// Separator to use after the container path
+	public char separator = Index.DEFAULT_SEPARATOR;
+
+	SearchableIndex() {
+		// only implemented in this package
+	}
+
+	/**
+	 * Returns the entries containing the given key in a group of categories, or
+	 * null if no matches are found. The matchRule dictates whether its an
+	 * exact, prefix or pattern match, as well as case sensitive or insensitive.
+	 * If the key is null then all entries in specified categories are returned.
+	 */
+	public abstract EntryResult[] query(char[][] categories, char[] key,
+			int matchRule) throws IOException;
+
+	abstract DiskIndex getDiskIndex();
+
+	public void startQuery() {
+		DiskIndex diskIndex = getDiskIndex();
+		if (diskIndex != null)
+			diskIndex.startQuery();
+	}
+
+	public void stopQuery() {
+		DiskIndex diskIndex = getDiskIndex();
+		if (diskIndex != null)
+			diskIndex.stopQuery();
+	}
+
+	/**
+	 * Returns the containerPath of this index without any additional prefixes.
+	 * 
+	 * @return
+	 */
+	public String getContainerPath() {
+		return containerPath;
+	}
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.search.index;
+
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.eclipse.dltk.internal.core.util.Util;
+
+/**
+ * Sparse dictionary over the sorted words of a {@link DiskIndex} category
+ * table.
+ *
+ * The words of a table are written in {@link Util#compare(char[], char[])}
+ * order and split into blocks of {@link #BLOCK_SIZE} entries. The dictionary
+ * keeps the first word and the offset of every block, so a range of words
+ * (e.g. all the words with a given prefix) is found by a binary search and
+ * decoded from the start of a single block instead of scanning the table.
+ */
+final class TermIndex {
+
+	static final int BLOCK_SIZE = 32;
+
+	private final int size;
+
+	private final int entriesOffset;
+
+	private final char[][] firstWords;
+
+	private final int[] blockOffsets;
+
+	private TermIndex(int size, int entriesOffset, char[][] firstWords,
+			int[] blockOffsets) {
+		this.size = size;
+		this.entriesOffset = entriesOffset;
+		this.firstWords = firstWords;
+		this.blockOffsets = blockOffsets;
+	}
+
+	static int blockCount(int size) {
+		return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+	}
+
+	/**
+	 * Reads the dictionary of the category table which starts at the given
+	 * offset, the input must be positioned at the start of the table.
+	 */
+	static TermIndex read(DataInput input, int tableOffset)
+			throws IOException {
+		int size = input.readInt();
+		int length = input.readInt();
+		int blockCount = blockCount(size);
+		char[][] firstWords = new char[blockCount][];
+		int[] blockOffsets = new int[blockCount];
+		for (int i = 0; i < blockCount; i++) {
+			firstWords[i] = Util.readUTF(input);
+			blockOffsets[i] = input.readInt();
+		}
+		return new TermIndex(size, tableOffset + 8 + length, firstWords,
+				blockOffsets);
+	}
+
+	/**
+	 * Writes the first word of each block followed by the offset of the block
+	 * relative to the first entry of the table.
+	 */
+	static void write(DataOutputStream stream, char[][] firstWords,
+			int[] blockOffsets) throws IOException {
+		for (int i = 0, l = firstWords.length; i < l; i++) {
+			Util.writeUTF(stream, firstWords[i]);
+			stream.writeInt(blockOffsets[i]);
+		}
+	}
+
+	/**
+	 * Answers the number of words in the table.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Answers the last block which could contain the given word.
+	 */
+	int blockOf(char[] word) {
+		int low = 0;
+		int high = this.firstWords.length - 1;
+		int result = 0;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (Util.compare(this.firstWords[mid], word) <= 0) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Answers the file offset of the first entry of the given block.
+	 */
+	int blockOffset(int block) {
+		return this.entriesOffset + this.blockOffsets[block];
+	}
+
+	/**
+	 * Answers the number of entries from the start of the given block to the
+	 * end of the table.
+	 */
+	int remainingFrom(int block) {
+		return this.size - block * BLOCK_SIZE;
+	}
+}
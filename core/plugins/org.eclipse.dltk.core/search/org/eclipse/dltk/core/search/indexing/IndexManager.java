@@ -510,6 +510,24 @@ public class IndexManager extends JobManager implements IIndexConstants {
 		}
 	}
 
+	@Override
+	protected int getMaxParallelJobs() {
+		int threads = 0;
+		final String value = DLTKCore.getOption(DLTKCore.INDEXER_THREADS);
+		if (value != null) {
+			try {
+				threads = Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				// use default
+			}
+		}
+		if (threads <= 0) {
+			threads = Math.min(4,
+					Runtime.getRuntime().availableProcessors() / 2);
+		}
+		return threads;
+	}
+
 	/**
 	 * Name of the background process
 	 */
@@ -601,6 +619,8 @@ public class IndexManager extends JobManager implements IIndexConstants {
 				Util.verbose("-> recreating index: " + indexLocation //$NON-NLS-1$
 						+ " for path: " + containerPathString); //$NON-NLS-1$
 			}
+			if (index != null)
+				index.releaseMappedReads(); // the file is overwritten
 			if (mixin) {
 				index = new MixinIndex(indexLocation, containerPathString, false);
 				/* reuse index file */
@@ -640,11 +660,14 @@ public class IndexManager extends JobManager implements IIndexConstants {
 			Util.verbose("removing index " + containerPath); //$NON-NLS-1$
 		}
 		String indexLocation = this.computeIndexLocation(containerPath);
+		final Object o = this.indexes.remove(indexLocation);
+		if (o instanceof Index) {
+			((Index) o).releaseMappedReads();
+		}
 		File indexFile = new File(indexLocation);
 		if (indexFile.exists()) {
 			indexFile.delete();
 		}
-		final Object o = this.indexes.remove(indexLocation);
 		if (o instanceof Index) {
 			final Index index = (Index) o;
 			index.monitor = null;
@@ -670,6 +693,7 @@ public class IndexManager extends JobManager implements IIndexConstants {
 				Index index = (Index) this.indexes.get(indexLocation);
 				if (index != null) {
 					index.monitor = null;
+					index.releaseMappedReads();
 				}
 				if (locations == null) {
 					locations = new String[max];
@@ -955,6 +979,11 @@ public class IndexManager extends JobManager implements IIndexConstants {
 
 	public synchronized void rebuild() {
 		this.disable();
+		for (Object index : this.indexes.values()) {
+			if (index instanceof Index) {
+				((Index) index).releaseMappedReads();
+			}
+		}
 		File indexesDirectory = this.getScriptPluginWorkingLocation().toFile();
 		// this.
 		if (indexesDirectory.isDirectory()) {
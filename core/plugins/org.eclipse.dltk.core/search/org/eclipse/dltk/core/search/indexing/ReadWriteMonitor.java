@@ -35,6 +35,17 @@ public class ReadWriteMonitor {
 		status++;
 	}
 
+	/**
+	 * Non blocking variant of {@link #enterRead()}: returns false if the monitor
+	 * is currently owned by a writer.
+	 */
+	public synchronized boolean tryEnterRead() {
+		if (status < 0)
+			return false;
+		status++;
+		return true;
+	}
+
 	/**
 	 * Only one writer at a time is allowed to perform Blocking only when already
 	 * writing or reading.
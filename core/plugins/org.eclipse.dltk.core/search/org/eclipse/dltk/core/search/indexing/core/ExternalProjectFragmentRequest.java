@@ -13,6 +13,7 @@
 package org.eclipse.dltk.core.search.indexing.core;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -31,6 +32,7 @@ import org.eclipse.dltk.core.ModelException;
 import org.eclipse.dltk.core.environment.EnvironmentManager;
 import org.eclipse.dltk.core.environment.EnvironmentPathUtils;
 import org.eclipse.dltk.core.environment.IEnvironment;
+import org.eclipse.dltk.core.environment.IEnvironmentMirror;
 import org.eclipse.dltk.core.environment.IFileHandle;
 import org.eclipse.dltk.core.search.index.Index;
 import org.eclipse.dltk.core.search.indexing.IProjectIndexer;
@@ -55,6 +57,11 @@ public class ExternalProjectFragmentRequest extends IndexRequest {
 		return fragment.getElementName();
 	}
 
+	@Override
+	public Object getSchedulingKey() {
+		return fragment.getPath();
+	}
+
 	@Override
 	protected void run() throws CoreException, IOException {
 		IEnvironment environment = EnvironmentManager
@@ -77,6 +84,7 @@ public class ExternalProjectFragmentRequest extends IndexRequest {
 		if (changes.isEmpty()) {
 			return;
 		}
+		prefetch(environment, containerPath, changes);
 		final ReadWriteMonitor imon = index.monitor;
 		imon.enterWrite();
 		try {
@@ -119,6 +127,36 @@ public class ExternalProjectFragmentRequest extends IndexRequest {
 		return EnvironmentManager.getEnvironment(fragment);
 	}
 
+	/**
+	 * Transfers the changed files of the remote environment at once if the
+	 * environment supports it.
+	 */
+	private void prefetch(IEnvironment environment, IPath containerPath,
+			List<Object> changes) {
+		if (environment.isLocal()) {
+			return;
+		}
+		final IEnvironmentMirror mirror = environment
+				.getAdapter(IEnvironmentMirror.class);
+		if (mirror == null) {
+			return;
+		}
+		final List<IFileHandle> files = new ArrayList<>();
+		for (Object change : changes) {
+			if (change instanceof ISourceModule) {
+				final IFileHandle file = EnvironmentPathUtils
+						.getFile((ISourceModule) change, false);
+				if (file != null) {
+					files.add(file);
+				}
+			}
+		}
+		if (!files.isEmpty()) {
+			mirror.prefetch(EnvironmentPathUtils.getLocalPath(containerPath),
+					files, null);
+		}
+	}
+
 	static class ExternalModuleVisitor implements IModelElementVisitor {
 		final Set<ISourceModule> modules = new HashSet<>();
 
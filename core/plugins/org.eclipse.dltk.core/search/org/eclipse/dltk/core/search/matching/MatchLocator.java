@@ -61,6 +61,7 @@ import org.eclipse.dltk.core.search.SearchRequestor;
 import org.eclipse.dltk.core.search.TypeDeclarationMatch;
 import org.eclipse.dltk.core.search.TypeReferenceMatch;
 import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.internal.compiler.env.AccessRestriction;
 import org.eclipse.dltk.internal.compiler.impl.ITypeRequestor;
 import org.eclipse.dltk.internal.compiler.lookup.LookupEnvironment;
@@ -214,12 +215,29 @@ public class MatchLocator implements IMatchLocator, ITypeRequestor {
 	/**
 	 * Query a given index for matching entries. Assumes the sender has opened
 	 * the index and will close when finished.
+	 *
+	 * @deprecated Use
+	 *             {@link #findIndexMatches(InternalSearchPattern, SearchableIndex, IndexQueryRequestor, SearchParticipant, IDLTKSearchScope, IProgressMonitor)}
 	 */
+	@Deprecated
 	public static void findIndexMatches(InternalSearchPattern pattern,
 			Index index, IndexQueryRequestor requestor,
 			SearchParticipant participant, IDLTKSearchScope scope,
 			IProgressMonitor monitor) throws IOException {
-		pattern.findIndexMatches(index, requestor, participant, scope, monitor);
+		findIndexMatches(pattern, (SearchableIndex) index, requestor,
+				participant, scope, monitor);
+	}
+
+	/**
+	 * Query a given index for matching entries. Assumes the sender has opened
+	 * the index and will close when finished.
+	 */
+	public static void findIndexMatches(InternalSearchPattern pattern,
+			SearchableIndex index, IndexQueryRequestor requestor,
+			SearchParticipant participant, IDLTKSearchScope scope,
+			IProgressMonitor monitor) throws IOException {
+		InternalSearchPattern.findIndexMatches(pattern, index, requestor,
+				participant, scope, monitor);
 	}
 
 	public static IModelElement getProjectOrArchive(IModelElement element) {
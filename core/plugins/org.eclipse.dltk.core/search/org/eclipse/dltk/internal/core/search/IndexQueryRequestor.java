@@ -21,5 +21,15 @@ public abstract class IndexQueryRequestor {
 	
 	// answer false if requesting cancel
 	public abstract boolean acceptIndexMatch(String documentPath, SearchPattern indexRecord, SearchParticipant participant, AccessRuleSet access);
-	
+
+	/**
+	 * Answers whether {@link #acceptIndexMatch} could be called from several
+	 * threads at the same time, so the indexes could be queried in parallel.
+	 * The <code>indexRecord</code> passed to a thread safe requestor must not
+	 * be retained, it is reused by the reporting thread.
+	 */
+	public boolean isThreadSafe() {
+		return false;
+	}
+
 }
@@ -25,18 +25,23 @@ public class PathCollector extends IndexQueryRequestor {
 	private final Set<String> paths = new HashSet<>(5);
 
 	@Override
-	public boolean acceptIndexMatch(String documentPath,
+	public synchronized boolean acceptIndexMatch(String documentPath,
 			SearchPattern indexRecord, SearchParticipant participant,
 			AccessRuleSet access) {
 		paths.add(documentPath);
 		return true;
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	/**
 	 * Returns the paths that have been collected or <code>null</code> if there
 	 * are no paths
 	 */
-	public String[] getPaths() {
+	public synchronized String[] getPaths() {
 		if (paths.isEmpty())
 			return null;
 		else
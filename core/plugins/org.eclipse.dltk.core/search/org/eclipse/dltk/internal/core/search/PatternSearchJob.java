@@ -10,14 +10,20 @@
 package org.eclipse.dltk.internal.core.search;
 
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.search.IDLTKSearchScope;
 import org.eclipse.dltk.core.search.SearchParticipant;
 import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.IndexSnapshot;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.core.search.indexing.IndexManager;
 import org.eclipse.dltk.core.search.indexing.ReadWriteMonitor;
 import org.eclipse.dltk.core.search.matching.MatchLocator;
@@ -28,6 +34,14 @@ import org.eclipse.dltk.internal.core.search.processing.JobManager;
 
 public class PatternSearchJob implements IJob {
 
+	/**
+	 * Bounded pool shared by all the searches querying indexes in parallel.
+	 */
+	private static class QueryPool {
+		static final ForkJoinPool INSTANCE = new ForkJoinPool(
+				Math.max(2, Runtime.getRuntime().availableProcessors()));
+	}
+
 	protected SearchPattern pattern;
 
 	protected IDLTKSearchScope scope;
@@ -38,7 +52,7 @@ public class PatternSearchJob implements IJob {
 
 	protected boolean areIndexesReady;
 
-	protected long executionTime = 0;
+	protected volatile long executionTime = 0;
 
 	public PatternSearchJob(SearchPattern pattern,
 			SearchParticipant participant, IDLTKSearchScope scope,
@@ -77,12 +91,16 @@ public class PatternSearchJob implements IJob {
 			int max = indexes.length;
 			if (progressMonitor != null)
 				progressMonitor.beginTask("", max); //$NON-NLS-1$
-			for (int i = 0; i < max; i++) {
-				isComplete &= search(indexes[i], progressMonitor);
-				if (progressMonitor != null) {
-					if (progressMonitor.isCanceled())
-						throw new OperationCanceledException();
-					progressMonitor.worked(1);
+			if (max > 1 && canSearchInParallel()) {
+				isComplete = searchInParallel(indexes, progressMonitor);
+			} else {
+				for (int i = 0; i < max; i++) {
+					isComplete &= search(indexes[i], progressMonitor);
+					if (progressMonitor != null) {
+						if (progressMonitor.isCanceled())
+							throw new OperationCanceledException();
+						progressMonitor.worked(1);
+					}
 				}
 			}
 			if (JobManager.VERBOSE)
@@ -94,6 +112,50 @@ public class PatternSearchJob implements IJob {
 		}
 	}
 
+	/**
+	 * Answers whether the indexes could be queried in parallel, which requires
+	 * a thread safe requestor.
+	 */
+	protected boolean canSearchInParallel() {
+		return this.requestor != null && this.requestor.isThreadSafe()
+				&& !DLTKCore.DISABLED.equals(DLTKCore
+						.getOption(DLTKCore.SEARCH_PARALLEL_INDEX_QUERIES));
+	}
+
+	private boolean searchInParallel(Index[] indexes,
+			final IProgressMonitor progressMonitor) {
+		// progress monitors are not thread safe, workers only check for
+		// cancellation and the progress is reported by this thread
+		final IProgressMonitor cancelMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return progressMonitor != null && progressMonitor.isCanceled();
+			}
+		};
+		@SuppressWarnings("unchecked")
+		ForkJoinTask<Boolean>[] tasks = new ForkJoinTask[indexes.length];
+		for (int i = 0; i < indexes.length; i++) {
+			final Index index = indexes[i];
+			tasks[i] = QueryPool.INSTANCE.submit(() -> Boolean
+					.valueOf(search(index, cancelMonitor)));
+		}
+		boolean isComplete = COMPLETE;
+		try {
+			for (int i = 0; i < tasks.length; i++) {
+				isComplete &= tasks[i].join().booleanValue();
+				if (progressMonitor != null) {
+					if (progressMonitor.isCanceled())
+						throw new OperationCanceledException();
+					progressMonitor.worked(1);
+				}
+			}
+		} finally {
+			for (int i = 0; i < tasks.length; i++)
+				tasks[i].cancel(false);
+		}
+		return isComplete;
+	}
+
 	public Index[] getIndexes(IProgressMonitor progressMonitor) {
 		// acquire the in-memory indexes on the fly
 		IPath[] indexLocations = this.participant.selectIndexes(this.pattern,
@@ -147,21 +209,43 @@ public class PatternSearchJob implements IJob {
 		if (monitor == null)
 			return COMPLETE; // index got deleted since acquired
 		try {
+			IndexSnapshot snapshot = index.getSnapshot();
+			if (snapshot != null && !this.participant.isSkipped(index)
+					&& this.pattern.canQuerySnapshots()
+					&& snapshot.acquire()) {
+				// read-only view, no need to wait for the indexer
+				try {
+					return search(snapshot, progressMonitor);
+				} finally {
+					snapshot.release();
+				}
+			}
 			monitor.enterRead(); // ask permission to read
-			long start = System.currentTimeMillis();
-			MatchLocator.findIndexMatches(this.pattern, index, requestor,
-					this.participant, this.scope, progressMonitor);
-			executionTime += System.currentTimeMillis() - start;
-			return COMPLETE;
+			try {
+				return search((SearchableIndex) index, progressMonitor);
+			} finally {
+				monitor.exitRead(); // finished reading
+			}
 		} catch (IOException e) {
 			if (e instanceof java.io.EOFException)
 				e.printStackTrace();
 			return FAILED;
-		} finally {
-			monitor.exitRead(); // finished reading
 		}
 	}
 
+	private boolean search(SearchableIndex index,
+			IProgressMonitor progressMonitor) throws IOException {
+		long start = System.currentTimeMillis();
+		MatchLocator.findIndexMatches(this.pattern, index, requestor,
+				this.participant, this.scope, progressMonitor);
+		addExecutionTime(System.currentTimeMillis() - start);
+		return COMPLETE;
+	}
+
+	private synchronized void addExecutionTime(long time) {
+		executionTime += time;
+	}
+
 	@Override
 	public String toString() {
 		return "searching " + pattern.toString(); //$NON-NLS-1$
@@ -18,27 +18,51 @@ import org.eclipse.dltk.core.search.index.Index;
 
 public class SubTypeSearchJob extends PatternSearchJob {
 
-	SimpleSet indexes = new SimpleSet(5);
+	/**
+	 * The indexes started by this job and the jobs created from it, guarded by
+	 * itself.
+	 */
+	final SimpleSet indexes;
 
 	public SubTypeSearchJob(SearchPattern pattern,
 			SearchParticipant participant, IDLTKSearchScope scope,
 			IndexQueryRequestor requestor) {
+		this(pattern, participant, scope, requestor, new SimpleSet(5));
+	}
+
+	private SubTypeSearchJob(SearchPattern pattern,
+			SearchParticipant participant, IDLTKSearchScope scope,
+			IndexQueryRequestor requestor, SimpleSet indexes) {
 		super(pattern, participant, scope, requestor);
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Returns a job searching the given pattern, which shares the started
+	 * indexes with this one, so they are stopped by {@link #finished()}.
+	 */
+	public SubTypeSearchJob newJob(SearchPattern pattern) {
+		return new SubTypeSearchJob(pattern, this.participant, this.scope,
+				this.requestor, this.indexes);
 	}
 
 	public void finished() {
-		Object[] values = this.indexes.values;
-		for (int i = 0, l = values.length; i < l; i++)
-			if (values[i] != null)
-				((Index) values[i]).stopQuery();
+		synchronized (this.indexes) {
+			Object[] values = this.indexes.values;
+			for (int i = 0, l = values.length; i < l; i++)
+				if (values[i] != null)
+					((Index) values[i]).stopQuery();
+		}
 	}
 
 	@Override
 	public boolean search(Index index, IProgressMonitor progressMonitor) {
 		if (index == null)
 			return COMPLETE;
-		if (indexes.addIfNotIncluded(index) == index)
-			index.startQuery();
+		synchronized (this.indexes) {
+			if (indexes.addIfNotIncluded(index) == index)
+				index.startQuery();
+		}
 		return super.search(index, progressMonitor);
 	}
 }
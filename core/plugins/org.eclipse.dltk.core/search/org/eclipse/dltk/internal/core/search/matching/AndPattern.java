@@ -19,7 +19,7 @@ import org.eclipse.dltk.core.search.IDLTKSearchScope;
 import org.eclipse.dltk.core.search.SearchParticipant;
 import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.index.EntryResult;
-import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.internal.core.search.IndexQueryRequestor;
 
 /**
@@ -33,7 +33,7 @@ public abstract class AndPattern extends DLTKSearchPattern {
 	}
 
 	@Override
-	public void findIndexMatches(Index index, IndexQueryRequestor requestor,
+	public void findIndexMatches(SearchableIndex index, IndexQueryRequestor requestor,
 			SearchParticipant participant, IDLTKSearchScope scope,
 			IProgressMonitor progressMonitor) throws IOException {
 		if (progressMonitor != null && progressMonitor.isCanceled())
@@ -46,8 +46,8 @@ public abstract class AndPattern extends DLTKSearchPattern {
 			do {
 				SearchPattern pattern = ((InternalSearchPattern) this)
 						.currentPattern();
-				EntryResult[] entries = ((InternalSearchPattern) pattern)
-						.queryIn(index);
+				EntryResult[] entries = queryIn(
+						(InternalSearchPattern) pattern, index);
 				if (entries == null)
 					return;
 
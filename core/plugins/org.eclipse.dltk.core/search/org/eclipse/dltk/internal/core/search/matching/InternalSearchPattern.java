@@ -20,6 +20,7 @@ import org.eclipse.dltk.core.search.SearchParticipant;
 import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.index.EntryResult;
 import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.internal.compiler.env.AccessRuleSet;
 import org.eclipse.dltk.internal.core.search.DLTKSearchScope;
 import org.eclipse.dltk.internal.core.search.IndexQueryRequestor;
@@ -36,6 +37,12 @@ public abstract class InternalSearchPattern {
 
 	public int kind;
 
+	/**
+	 * Whether the deprecated methods taking an {@link Index} are overridden,
+	 * computed on first use.
+	 */
+	private Boolean overridesIndexMethods;
+
 	public void acceptMatch(String relativePath, String containerPath, char separator, SearchPattern pattern,
 			IndexQueryRequestor requestor, SearchParticipant participant, IDLTKSearchScope scope) {
 
@@ -75,10 +82,24 @@ public abstract class InternalSearchPattern {
 	/**
 	 * Query a given index for matching entries. Assumes the sender has opened the
 	 * index and will close when finished.
+	 *
+	 * @deprecated Use
+	 *             {@link #findIndexMatches(SearchableIndex, IndexQueryRequestor, SearchParticipant, IDLTKSearchScope, IProgressMonitor)}
+	 *             which is also given the read-only snapshots of the indexes.
 	 */
+	@Deprecated
 	public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchParticipant participant,
 			IDLTKSearchScope scope, IProgressMonitor monitor) throws IOException {
-		if (participant.isSkipped(index)) {
+		findIndexMatches((SearchableIndex) index, requestor, participant, scope, monitor);
+	}
+
+	/**
+	 * Query a given index for matching entries. Assumes the sender has opened the
+	 * index and will close when finished.
+	 */
+	public void findIndexMatches(SearchableIndex index, IndexQueryRequestor requestor, SearchParticipant participant,
+			IDLTKSearchScope scope, IProgressMonitor monitor) throws IOException {
+		if (index instanceof Index && participant.isSkipped((Index) index)) {
 			return;
 		}
 		if (monitor != null && monitor.isCanceled())
@@ -86,7 +107,7 @@ public abstract class InternalSearchPattern {
 		try {
 			index.startQuery();
 			SearchPattern pattern = currentPattern();
-			EntryResult[] entries = ((InternalSearchPattern) pattern).queryIn(index);
+			EntryResult[] entries = queryIn((InternalSearchPattern) pattern, index);
 			if (entries == null)
 				return;
 
@@ -115,8 +136,66 @@ public abstract class InternalSearchPattern {
 		return false;
 	}
 
+	/**
+	 * @deprecated Use {@link #queryIn(SearchableIndex)} which is also given the
+	 *             read-only snapshots of the indexes.
+	 */
+	@Deprecated
 	public EntryResult[] queryIn(Index index) throws IOException {
+		return queryIn((SearchableIndex) index);
+	}
+
+	public EntryResult[] queryIn(SearchableIndex index) throws IOException {
 		SearchPattern pattern = (SearchPattern) this;
 		return index.query(pattern.getIndexCategories(), pattern.getIndexKey(), pattern.getMatchRule());
 	}
+
+	/**
+	 * Queries the index through the deprecated method when it is an
+	 * {@link Index}, so the patterns which still override it are used.
+	 */
+	@SuppressWarnings("deprecation")
+	public static EntryResult[] queryIn(InternalSearchPattern pattern, SearchableIndex index) throws IOException {
+		return index instanceof Index ? pattern.queryIn((Index) index) : pattern.queryIn(index);
+	}
+
+	/**
+	 * Finds the matches through the deprecated method when the index is an
+	 * {@link Index}, so the patterns which still override it are used.
+	 */
+	@SuppressWarnings("deprecation")
+	public static void findIndexMatches(InternalSearchPattern pattern, SearchableIndex index,
+			IndexQueryRequestor requestor, SearchParticipant participant, IDLTKSearchScope scope,
+			IProgressMonitor monitor) throws IOException {
+		if (index instanceof Index) {
+			pattern.findIndexMatches((Index) index, requestor, participant, scope, monitor);
+		} else {
+			pattern.findIndexMatches(index, requestor, participant, scope, monitor);
+		}
+	}
+
+	/**
+	 * Returns whether the pattern can be given the read-only snapshots of the
+	 * indexes, which are not {@link Index} instances: the patterns overriding
+	 * the deprecated methods taking an {@link Index} are only given the
+	 * indexes.
+	 */
+	public boolean canQuerySnapshots() {
+		if (overridesIndexMethods == null) {
+			overridesIndexMethods = Boolean.valueOf(
+					overrides("queryIn", Index.class) //$NON-NLS-1$
+							|| overrides("findIndexMatches", Index.class, //$NON-NLS-1$
+									IndexQueryRequestor.class, SearchParticipant.class, IDLTKSearchScope.class,
+									IProgressMonitor.class));
+		}
+		return !overridesIndexMethods.booleanValue();
+	}
+
+	private boolean overrides(String name, Class<?>... parameterTypes) {
+		try {
+			return getClass().getMethod(name, parameterTypes).getDeclaringClass() != InternalSearchPattern.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
 }
@@ -22,7 +22,7 @@ import org.eclipse.dltk.core.model.LocalVariable;
 import org.eclipse.dltk.core.search.IDLTKSearchConstants;
 import org.eclipse.dltk.core.search.IDLTKSearchScope;
 import org.eclipse.dltk.core.search.SearchParticipant;
-import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
 import org.eclipse.dltk.internal.compiler.env.AccessRuleSet;
 import org.eclipse.dltk.internal.core.search.DLTKSearchScope;
@@ -54,7 +54,7 @@ public class LocalVariablePattern extends VariablePattern implements IIndexConst
 	}
 
 	@Override
-	public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchParticipant participant,
+	public void findIndexMatches(SearchableIndex index, IndexQueryRequestor requestor, SearchParticipant participant,
 			IDLTKSearchScope scope, IProgressMonitor progressMonitor) {
 		IProjectFragment root = (IProjectFragment) this.localVariable.getAncestor(IModelElement.PROJECT_FRAGMENT);
 		String documentPath;
@@ -17,7 +17,7 @@ import org.eclipse.dltk.core.IMethod;
 import org.eclipse.dltk.core.IType;
 import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.index.EntryResult;
-import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
 
 public class MethodPattern extends DLTKSearchPattern implements IIndexConstants {
@@ -172,7 +172,7 @@ public class MethodPattern extends DLTKSearchPattern implements IIndexConstants
 	}
 
 	@Override
-	public EntryResult[] queryIn(Index index) throws IOException {
+	public EntryResult[] queryIn(SearchableIndex index) throws IOException {
 		char[] key = this.selector; // can be null
 		int matchRule = getMatchRule();
 		switch (getMatchMode()) {
@@ -16,7 +16,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.dltk.core.search.IDLTKSearchScope;
 import org.eclipse.dltk.core.search.SearchParticipant;
 import org.eclipse.dltk.core.search.SearchPattern;
-import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
 import org.eclipse.dltk.internal.core.search.IndexQueryRequestor;
 
@@ -65,20 +65,28 @@ public class OrPattern extends SearchPattern implements IIndexConstants {
 	}
 
 	@Override
-	public void findIndexMatches(Index index, IndexQueryRequestor requestor, SearchParticipant participant,
+	public void findIndexMatches(SearchableIndex index, IndexQueryRequestor requestor, SearchParticipant participant,
 			IDLTKSearchScope scope, IProgressMonitor progressMonitor) throws IOException {
 		// per construction, OR pattern can only be used with a PathCollector
 		// (which already gather results using a set)
 		try {
 			index.startQuery();
 			for (int i = 0, length = this.patterns.length; i < length; i++)
-				((InternalSearchPattern) this.patterns[i]).findIndexMatches(index, requestor, participant, scope,
+				findIndexMatches((InternalSearchPattern) this.patterns[i], index, requestor, participant, scope,
 						progressMonitor);
 		} finally {
 			index.stopQuery();
 		}
 	}
 
+	@Override
+	public boolean canQuerySnapshots() {
+		for (int i = 0, length = this.patterns.length; i < length; i++)
+			if (!((InternalSearchPattern) this.patterns[i]).canQuerySnapshots())
+				return false;
+		return super.canQuerySnapshots();
+	}
+
 	@Override
 	public SearchPattern getBlankPattern() {
 		return null;
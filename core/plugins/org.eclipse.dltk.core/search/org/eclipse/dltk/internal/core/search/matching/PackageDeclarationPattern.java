@@ -13,7 +13,7 @@ package org.eclipse.dltk.internal.core.search.matching;
 
 import org.eclipse.dltk.core.IDLTKLanguageToolkit;
 import org.eclipse.dltk.core.search.index.EntryResult;
-import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
 
 public class PackageDeclarationPattern extends DLTKSearchPattern implements IIndexConstants {
@@ -26,7 +26,7 @@ public class PackageDeclarationPattern extends DLTKSearchPattern implements IInd
 	}
 
 	@Override
-	public EntryResult[] queryIn(Index index) {
+	public EntryResult[] queryIn(SearchableIndex index) {
 		// package declarations are not indexed
 		return null;
 	}
@@ -15,7 +15,7 @@ import org.eclipse.dltk.compiler.CharOperation;
 import org.eclipse.dltk.core.IDLTKLanguageToolkit;
 import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.index.EntryResult;
-import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
 
 public class SuperTypeReferencePattern extends DLTKSearchPattern {
@@ -257,7 +257,7 @@ public class SuperTypeReferencePattern extends DLTKSearchPattern {
 	}
 
 	@Override
-	public EntryResult[] queryIn(Index index) throws IOException {
+	public EntryResult[] queryIn(SearchableIndex index) throws IOException {
 		char[] key = this.superSimpleName; // can be null
 		int matchRule = getMatchRule();
 
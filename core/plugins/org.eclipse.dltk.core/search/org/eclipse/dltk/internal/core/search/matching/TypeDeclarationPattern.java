@@ -15,7 +15,7 @@ import org.eclipse.dltk.compiler.CharOperation;
 import org.eclipse.dltk.core.IDLTKLanguageToolkit;
 import org.eclipse.dltk.core.search.SearchPattern;
 import org.eclipse.dltk.core.search.index.EntryResult;
-import org.eclipse.dltk.core.search.index.Index;
+import org.eclipse.dltk.core.search.index.SearchableIndex;
 import org.eclipse.dltk.core.search.indexing.IIndexConstants;
 
 public class TypeDeclarationPattern extends DLTKSearchPattern implements IIndexConstants {
@@ -209,7 +209,7 @@ public class TypeDeclarationPattern extends DLTKSearchPattern implements IIndexC
 	}
 
 	@Override
-	public EntryResult[] queryIn(Index index) throws IOException {
+	public EntryResult[] queryIn(SearchableIndex index) throws IOException {
 		char[] key = this.simpleName; // can be null
 		int matchRule = getMatchRule();
 		switch (getMatchMode()) {
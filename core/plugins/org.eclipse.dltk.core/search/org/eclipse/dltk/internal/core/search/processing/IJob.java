@@ -40,4 +40,15 @@ public interface IJob {
 	 * Execute the current job, answer whether it was successful.
 	 */
 	public boolean execute(IProgressMonitor progress);
+
+	/**
+	 * Answer the key of the resource (typically the index container) modified
+	 * by this job. Jobs with different keys could be executed concurrently,
+	 * jobs with the same key are executed in the order they were requested.
+	 * The default <code>null</code> key means the job is executed alone, after
+	 * all the previously requested jobs have completed.
+	 */
+	public default Object getSchedulingKey() {
+		return null;
+	}
 }
@@ -9,6 +9,12 @@
  *******************************************************************************/
 package org.eclipse.dltk.internal.core.search.processing;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -33,6 +39,11 @@ public abstract class JobManager implements Runnable {
 	/* background processing */
 	protected Thread processingThread;
 
+	/* jobs executed by the worker threads -> their scheduling keys */
+	private final Map<IJob, Object> runningJobs = new IdentityHashMap<>();
+	private ExecutorService workers;
+	private int maxParallelJobs = 1;
+
 	/*
 	 * counter indicating whether job execution is enabled or not, disabled if <= 0
 	 * it cannot go beyond 1
@@ -58,7 +69,21 @@ public abstract class JobManager implements Runnable {
 	public synchronized int awaitingJobsCount() {
 		// pretend busy in case concurrent job attempts performing before
 		// activated
-		return this.activated ? this.jobEnd - this.jobStart + 1 : 1;
+		return this.activated ? this.jobEnd - this.jobStart + 1 + this.runningJobs.size() : 1;
+	}
+
+	/**
+	 * Answer the maximum number of jobs executed at the same time. If greater than
+	 * 1, jobs having a {@link IJob#getSchedulingKey() scheduling key} are executed
+	 * by worker threads, otherwise all the jobs are executed one by one on the
+	 * processing thread.
+	 */
+	protected int getMaxParallelJobs() {
+		return 1;
+	}
+
+	private synchronized boolean isExecuting() {
+		return this.executing || !this.runningJobs.isEmpty();
 	}
 
 	/**
@@ -89,16 +114,27 @@ public abstract class JobManager implements Runnable {
 
 		try {
 			IJob currentJob;
+			List<IJob> running;
 			// cancel current job if it belongs to the given family
 			synchronized (this) {
 				currentJob = this.currentJob();
+				running = new ArrayList<>(this.runningJobs.keySet());
 				disable();
 			}
+			boolean cancelled = false;
+			for (IJob job : running) {
+				if (jobFamily == null || job.belongsTo(jobFamily)) {
+					job.cancel();
+					cancelled = true;
+				}
+			}
 			if (currentJob != null && (jobFamily == null || currentJob.belongsTo(jobFamily))) {
 				currentJob.cancel();
-
-				// wait until current active job has finished
-				while (this.processingThread != null && this.executing) {
+				cancelled = true;
+			}
+			if (cancelled) {
+				// wait until current active jobs have finished
+				while (this.processingThread != null && isExecuting()) {
 					try {
 						if (VERBOSE)
 							Util.verbose("-> waiting end of current background job - " + currentJob); //$NON-NLS-1$
@@ -354,6 +390,16 @@ public abstract class JobManager implements Runnable {
 		if (this.processingThread != null) {
 			discardJobs(null); // discard all jobs
 		} else {
+			this.maxParallelJobs = Math.max(1, getMaxParallelJobs());
+			if (this.maxParallelJobs > 1 && this.workers == null) {
+				final String workerName = this.processName() + " Worker"; //$NON-NLS-1$
+				this.workers = Executors.newFixedThreadPool(this.maxParallelJobs, runnable -> {
+					Thread worker = new Thread(runnable, workerName);
+					worker.setDaemon(true);
+					worker.setPriority(Thread.NORM_PRIORITY - 1);
+					return worker;
+				});
+			}
 			/* initiate background processing */
 			this.processingThread = new Thread(this, this.processName());
 			this.processingThread.setDaemon(true);
@@ -370,6 +416,33 @@ public abstract class JobManager implements Runnable {
 	 */
 	private final Object delaySignal = new Object();
 
+	/**
+	 * Answers whether the given job could be started now by a worker thread,
+	 * otherwise it waits for the running jobs it depends on.
+	 */
+	private boolean canStartInParallel(IJob job) {
+		Object key = job.getSchedulingKey();
+		return key != null && this.runningJobs.size() < this.maxParallelJobs && !this.runningJobs.containsValue(key);
+	}
+
+	private void executeInWorker(IJob job) {
+		try {
+			if (VERBOSE)
+				Util.verbose("STARTING parallel background job - " + job); //$NON-NLS-1$
+			job.execute(null);
+		} catch (RuntimeException e) {
+			Util.log(e, "Background Indexer Job Failure - " + job); //$NON-NLS-1$
+		} finally {
+			if (VERBOSE)
+				Util.verbose("FINISHED parallel background job - " + job); //$NON-NLS-1$
+			synchronized (this) {
+				this.runningJobs.remove(job);
+				this.notifyAll(); // wake up the processing thread waiting for
+				// this job
+			}
+		}
+	}
+
 	/**
 	 * Infinite loop performing resource indexing
 	 */
@@ -381,6 +454,7 @@ public abstract class JobManager implements Runnable {
 			while (this.processingThread != null) {
 				try {
 					IJob job;
+					boolean parallel = false;
 					synchronized (this) {
 						// handle shutdown case when notifyAll came before the
 						// wait but after the while loop was entered
@@ -389,7 +463,16 @@ public abstract class JobManager implements Runnable {
 
 						// must check for new job inside this sync block to
 						// avoid timing hole
-						if ((job = currentJob()) == null) {
+						job = currentJob();
+						if (!this.runningJobs.isEmpty()) {
+							if (job == null || !canStartInParallel(job)) {
+								// wait until a worker completes or a new job is
+								// posted, not idle while workers are busy
+								this.wait();
+								continue;
+							}
+						}
+						if (job == null) {
 							if (idlingStart < 0) {
 								idlingStart = System.currentTimeMillis();
 								notifyIdle();
@@ -399,8 +482,18 @@ public abstract class JobManager implements Runnable {
 							// reenabled:38901)
 						} else {
 							idlingStart = -1;
+							if (this.workers != null && this.maxParallelJobs > 1 && canStartInParallel(job)) {
+								this.runningJobs.put(job, job.getSchedulingKey());
+								moveToNextJob();
+								parallel = true;
+							}
 						}
 					}
+					if (parallel) {
+						final IJob parallelJob = job;
+						this.workers.execute(() -> executeInWorker(parallelJob));
+						continue;
+					}
 					if (job == null) {
 						notifyIdle(System.currentTimeMillis() - idlingStart);
 						// just woke up, delay before processing any new jobs,
@@ -488,6 +581,11 @@ public abstract class JobManager implements Runnable {
 		} catch (InterruptedException e) {
 			// ignore
 		}
+		ExecutorService executor = this.workers;
+		if (executor != null) {
+			this.workers = null;
+			executor.shutdown();
+		}
 	}
 
 	@Override
@@ -496,6 +594,7 @@ public abstract class JobManager implements Runnable {
 		buffer.append("Enable count:").append(this.enableCount).append('\n'); //$NON-NLS-1$
 		int numJobs = this.jobEnd - this.jobStart + 1;
 		buffer.append("Jobs in queue:").append(numJobs).append('\n'); //$NON-NLS-1$
+		buffer.append("Running jobs:").append(this.runningJobs.size()).append('\n'); //$NON-NLS-1$
 		for (int i = 0; i < numJobs && i < 15; i++) {
 			buffer.append(i).append(" - job[" + i + "]: ").append(this.awaitingJobs[this.jobStart + i]).append('\n'); //$NON-NLS-1$ //$NON-NLS-2$
 		}
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ti;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.dltk.ti.goals.GoalEvaluator;
+import org.eclipse.dltk.ti.goals.IGoal;
+import org.eclipse.dltk.ti.statistics.IEvaluationStatisticsRequestor;
+
+/**
+ * {@link GoalEngine} which evaluates the independent subgoals of an evaluator
+ * on a fork/join pool.
+ *
+ * Goals are deduplicated: a goal which is already evaluated or being evaluated
+ * is not evaluated again, its creator receives the current state of the goal
+ * ({@link GoalState#RECURSIVE} while it is waiting for its own subgoals), as
+ * with {@link GoalEngine}. Calls to a single {@link GoalEvaluator}, to the
+ * {@link IPruner} and to the {@link IEvaluationStatisticsRequestor} are
+ * serialized, so they don't need to be thread safe, but evaluators of
+ * different goals run at the same time.
+ *
+ * Evaluations started from a thread of the pool itself are evaluated
+ * sequentially by the {@link GoalEngine}.
+ */
+public class ConcurrentGoalEngine extends GoalEngine {
+
+	private static class Workers {
+		static final ForkJoinPool POOL = new ForkJoinPool(
+				Math.max(2, Runtime.getRuntime().availableProcessors()));
+	}
+
+	private final IGoalEvaluatorFactory evaluatorFactory;
+
+	private final GoalResultCache resultCache;
+
+	private static class EvaluatorState {
+		public final long timeCreated;
+		public int totalSubgoals;
+		public int successfulSubgoals;
+		public int subgoalsLeft;
+		public boolean incomplete;
+		public List<IGoal> subgoals = new ArrayList<>();
+
+		public EvaluatorState(int subgoalsLeft) {
+			this.subgoalsLeft = subgoalsLeft;
+			this.timeCreated = System.currentTimeMillis();
+			totalSubgoals = subgoalsLeft;
+		}
+
+	}
+
+	private static class GoalEvaluationState {
+		public final GoalEvaluator creator;
+		public volatile GoalState state;
+		public volatile Object result;
+		public volatile boolean incomplete;
+
+		public GoalEvaluationState(GoalEvaluator creator, GoalState state,
+				Object result) {
+			this.creator = creator;
+			this.result = result;
+			this.state = state;
+		}
+	}
+
+	private class Evaluation {
+		private final ConcurrentHashMap<IGoal, GoalEvaluationState> goalStates = new ConcurrentHashMap<>();
+		private final ConcurrentHashMap<GoalEvaluator, EvaluatorState> evaluatorStates = new ConcurrentHashMap<>();
+		private final IPruner pruner;
+		private final IEvaluationStatisticsRequestor statisticsRequestor;
+		private final AtomicInteger pendingGoals = new AtomicInteger();
+		private final CountDownLatch finished = new CountDownLatch(1);
+		private volatile Throwable failure;
+
+		Evaluation(IPruner pruner,
+				IEvaluationStatisticsRequestor statisticsRequestor) {
+			this.pruner = pruner;
+			this.statisticsRequestor = statisticsRequestor;
+		}
+
+		void post(final IGoal goal, final GoalEvaluator creator) {
+			pendingGoals.incrementAndGet();
+			Workers.POOL.execute(() -> {
+				try {
+					if (failure == null) {
+						evaluate(goal, creator);
+					}
+				} catch (Throwable e) {
+					failure = e;
+				} finally {
+					if (pendingGoals.decrementAndGet() == 0) {
+						finished.countDown();
+					}
+				}
+			});
+		}
+
+		void await() {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					finished.await();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void evaluate(IGoal goal, GoalEvaluator creator) {
+			if (creator != null) {
+				if (goalStates.containsKey(goal)) {
+					notifyEvaluator(creator, goal);
+					return;
+				}
+				if (pruner != null && prune(goal, creator)) {
+					if (goalStates.putIfAbsent(goal, new GoalEvaluationState(
+							creator, GoalState.PRUNED, null)) == null) {
+						goalStateChanged(goal, GoalState.PRUNED);
+					}
+					notifyEvaluator(creator, goal);
+					return;
+				}
+			}
+			// claim the goal, so it is evaluated only once
+			GoalEvaluationState state = new GoalEvaluationState(creator,
+					GoalState.WAITING, null);
+			if (goalStates.putIfAbsent(goal, state) != null) {
+				if (creator != null) {
+					notifyEvaluator(creator, goal);
+				}
+				return;
+			}
+			Object cached = resultCache != null ? resultCache.get(goal)
+					: GoalResultCache.NOT_FOUND;
+			if (cached != GoalResultCache.NOT_FOUND) {
+				done(goal, state, cached, false);
+				return;
+			}
+			GoalEvaluator evaluator = evaluatorFactory.createEvaluator(goal);
+			Assert.isNotNull(evaluator);
+			IGoal[] newGoals;
+			synchronized (statisticsRequestor) {
+				statisticsRequestor.goalEvaluatorAssigned(goal, evaluator);
+			}
+			long time = System.currentTimeMillis();
+			newGoals = evaluator.init();
+			if (newGoals == null) {
+				newGoals = IGoal.NO_GOALS;
+			}
+			synchronized (statisticsRequestor) {
+				statisticsRequestor.evaluatorInitialized(evaluator, newGoals,
+						System.currentTimeMillis() - time);
+			}
+			if (newGoals.length > 0) {
+				EvaluatorState evaluatorState = new EvaluatorState(
+						newGoals.length);
+				evaluatorState.subgoals.addAll(Arrays.asList(newGoals));
+				evaluatorStates.put(evaluator, evaluatorState);
+				goalStateChanged(goal, GoalState.WAITING);
+				for (int i = 0; i < newGoals.length; i++) {
+					post(newGoals[i], evaluator);
+				}
+			} else {
+				time = System.currentTimeMillis();
+				Object result = evaluator.produceResult();
+				synchronized (statisticsRequestor) {
+					statisticsRequestor.evaluatorProducedResult(evaluator,
+							result, System.currentTimeMillis() - time);
+				}
+				done(goal, state, result, false);
+			}
+		}
+
+		private boolean prune(IGoal goal, GoalEvaluator creator) {
+			EvaluatorStatistics statistics = getEvaluatorStatistics(creator);
+			synchronized (pruner) {
+				return pruner.prune(goal, statistics);
+			}
+		}
+
+		private EvaluatorStatistics getEvaluatorStatistics(
+				GoalEvaluator evaluator) {
+			EvaluatorState ev = evaluatorStates.get(evaluator);
+			if (ev == null) {
+				return null;
+			}
+			synchronized (ev) {
+				long currentTime = System.currentTimeMillis();
+				return new EvaluatorStatistics(ev.totalSubgoals,
+						currentTime - ev.timeCreated,
+						ev.totalSubgoals - ev.subgoalsLeft,
+						ev.successfulSubgoals);
+			}
+		}
+
+		private void done(IGoal goal, GoalEvaluationState state,
+				Object result, boolean incomplete) {
+			if (resultCache != null && !incomplete) {
+				resultCache.put(goal, result);
+			}
+			state.result = result;
+			state.incomplete = incomplete;
+			state.state = GoalState.DONE;
+			goalStateChanged(goal, GoalState.DONE);
+			if (state.creator != null) {
+				notifyEvaluator(state.creator, goal);
+			}
+		}
+
+		private void notifyEvaluator(GoalEvaluator evaluator, IGoal subGoal) {
+			GoalEvaluationState subGoalState = goalStates.get(subGoal);
+			GoalState state = subGoalState.state;
+			Object result = subGoalState.result;
+			boolean incomplete = subGoalState.incomplete;
+			if (state == GoalState.WAITING) {
+				state = GoalState.RECURSIVE;
+			}
+
+			EvaluatorState ev = evaluatorStates.get(evaluator);
+			IGoal[] newGoals;
+			boolean produced;
+			Object newResult = null;
+			synchronized (ev) {
+				long t = System.currentTimeMillis();
+				newGoals = evaluator.subGoalDone(subGoal, result, state);
+				synchronized (statisticsRequestor) {
+					statisticsRequestor.evaluatorReceivedResult(evaluator,
+							subGoal, newGoals, System.currentTimeMillis() - t);
+				}
+				if (newGoals == null) {
+					newGoals = IGoal.NO_GOALS;
+				}
+				// new goals are counted before they are posted
+				ev.subgoalsLeft--;
+				ev.subgoalsLeft += newGoals.length;
+				ev.totalSubgoals += newGoals.length;
+				ev.subgoals.addAll(Arrays.asList(newGoals));
+				if (state == GoalState.DONE && result != null) {
+					ev.successfulSubgoals++;
+				}
+				if (state != GoalState.DONE || incomplete) {
+					ev.incomplete = true;
+				}
+				incomplete = ev.incomplete;
+				produced = ev.subgoalsLeft == 0;
+				if (produced) {
+					t = System.currentTimeMillis();
+					newResult = evaluator.produceResult();
+					synchronized (statisticsRequestor) {
+						statisticsRequestor.evaluatorProducedResult(evaluator,
+								newResult, System.currentTimeMillis() - t);
+					}
+				}
+			}
+			for (int i = 0; i < newGoals.length; i++) {
+				post(newGoals[i], evaluator);
+			}
+			if (produced) {
+				GoalEvaluationState st = goalStates.get(evaluator.getGoal());
+				Assert.isNotNull(st);
+				done(evaluator.getGoal(), st, newResult, incomplete);
+			}
+		}
+
+		private void goalStateChanged(IGoal goal, GoalState state) {
+			synchronized (statisticsRequestor) {
+				statisticsRequestor.goalStateChanged(goal, state, null);
+			}
+		}
+	}
+
+	public ConcurrentGoalEngine(IGoalEvaluatorFactory evaluatorFactory) {
+		this(evaluatorFactory, null);
+	}
+
+	public ConcurrentGoalEngine(IGoalEvaluatorFactory evaluatorFactory,
+			GoalResultCache resultCache) {
+		super(evaluatorFactory, resultCache);
+		this.evaluatorFactory = evaluatorFactory;
+		this.resultCache = resultCache;
+	}
+
+	@Override
+	public Object evaluateGoal(IGoal rootGoal, IPruner pruner,
+			IEvaluationStatisticsRequestor statisticsRequestor) {
+		if (ForkJoinTask.getPool() == Workers.POOL) {
+			// waiting here could starve the pool
+			return super.evaluateGoal(rootGoal, pruner, statisticsRequestor);
+		}
+		if (statisticsRequestor == null) {
+			statisticsRequestor = new IEvaluationStatisticsRequestor() {
+				@Override
+				public void evaluationStarted(IGoal rootGoal) {
+				}
+
+				@Override
+				public void evaluatorInitialized(GoalEvaluator evaluator,
+						IGoal[] subgoals, long time) {
+				}
+
+				@Override
+				public void evaluatorProducedResult(GoalEvaluator evaluator,
+						Object result, long time) {
+				}
+
+				@Override
+				public void evaluatorReceivedResult(GoalEvaluator evaluator,
+						IGoal finishedGoal, IGoal[] newSubgoals, long time) {
+				}
+
+				@Override
+				public void goalEvaluatorAssigned(IGoal goal,
+						GoalEvaluator evaluator) {
+				}
+
+				@Override
+				public void goalStateChanged(IGoal goal, GoalState state,
+						GoalState oldState) {
+				}
+			};
+		}
+		if (pruner != null) {
+			pruner.init();
+		}
+		Evaluation evaluation = new Evaluation(pruner, statisticsRequestor);
+		statisticsRequestor.evaluationStarted(rootGoal);
+		evaluation.post(rootGoal, null);
+		evaluation.await();
+		Throwable failure = evaluation.failure;
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		GoalEvaluationState s = evaluation.goalStates.get(rootGoal);
+
+		Assert.isTrue(s.state == GoalState.DONE);
+		return s.result;
+	}
+
+}
@@ -199,11 +199,24 @@ public class DefaultTypeInferencer implements ITypeInferencer {
 	}
 
 	public DefaultTypeInferencer(IGoalEvaluatorFactory userFactory) {
-		engine = new GoalEngine(new MapBasedEvaluatorFactory());
+		engine = createEngine(new MapBasedEvaluatorFactory());
 		this.userFactory = userFactory;
 		initStdGoals();
 	}
 
+	private GoalEngine createEngine(IGoalEvaluatorFactory factory) {
+		// results are shared by the inferencers of the same class
+		GoalResultCache cache = DLTKCore.ENABLED.equals(DLTKCore
+				.getOption(DLTKCore.TYPE_INFERENCE_RESULT_CACHE))
+						? GoalResultCache.getCache(getClass())
+						: null;
+		if (DLTKCore.ENABLED.equals(DLTKCore
+				.getOption(DLTKCore.TYPE_INFERENCE_PARALLEL_GOALS))) {
+			return new ConcurrentGoalEngine(factory, cache);
+		}
+		return new GoalEngine(factory, cache);
+	}
+
 	public void registerEvaluator(Class goalClass, Class evaluatorClass) {
 		Assert.isLegal((IGoal.class.isAssignableFrom(goalClass)));
 		Assert.isLegal(GoalEvaluator.class.isAssignableFrom(evaluatorClass));
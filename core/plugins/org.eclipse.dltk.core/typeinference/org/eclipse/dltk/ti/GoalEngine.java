@@ -32,6 +32,8 @@ public class GoalEngine {
 
 	private final IGoalEvaluatorFactory evaluatorFactory;
 
+	private final GoalResultCache resultCache;
+
 	private final LinkedList<WorkingPair> workingQueue = new LinkedList<>();
 	private final HashMap<IGoal, GoalEvaluationState> goalStates = new HashMap<>();
 	private final HashMap<GoalEvaluator, EvaluatorState> evaluatorStates = new HashMap<>();
@@ -43,6 +45,7 @@ public class GoalEngine {
 		public int totalSubgoals;
 		public int successfulSubgoals;
 		public int subgoalsLeft;
+		public boolean incomplete;
 		public List<IGoal> subgoals = new ArrayList<>();
 
 		public EvaluatorState(int subgoalsLeft) {
@@ -68,10 +71,25 @@ public class GoalEngine {
 		public GoalEvaluator creator;
 		public GoalState state;
 		public Object result;
+		public boolean incomplete;
 	}
 
 	public GoalEngine(IGoalEvaluatorFactory evaluatorFactory) {
+		this(evaluatorFactory, null);
+	}
+
+	/**
+	 * Creates an engine which answers the goals found in the given cache
+	 * without evaluating them and stores the results it computes there.
+	 *
+	 * @param evaluatorFactory
+	 * @param resultCache
+	 *            the cache, or <code>null</code> to evaluate every goal
+	 */
+	public GoalEngine(IGoalEvaluatorFactory evaluatorFactory,
+			GoalResultCache resultCache) {
 		this.evaluatorFactory = evaluatorFactory;
+		this.resultCache = resultCache;
 	}
 
 	private void storeGoal(IGoal goal, GoalState state, Object result,
@@ -123,6 +141,9 @@ public class GoalEngine {
 		if (state == GoalState.DONE && result != null) {
 			ev.successfulSubgoals++;
 		}
+		if (state != GoalState.DONE || subGoalState.incomplete) {
+			ev.incomplete = true;
+		}
 		if (ev.subgoalsLeft == 0) {
 			t = System.currentTimeMillis();
 			Object newRes = evaluator.produceResult();
@@ -132,6 +153,10 @@ public class GoalEngine {
 			Assert.isNotNull(st);
 			st.state = GoalState.DONE;
 			st.result = newRes;
+			st.incomplete = ev.incomplete;
+			if (resultCache != null && !ev.incomplete) {
+				resultCache.put(evaluator.getGoal(), newRes);
+			}
 			if (st.creator != null) {
 				notifyEvaluator(st.creator, evaluator.getGoal());
 			}
@@ -212,9 +237,17 @@ public class GoalEngine {
 					prune = pruner.prune(pair.goal,
 							getEvaluatorStatistics(pair.creator));
 				}
+				Object cached = prune || resultCache == null
+						? GoalResultCache.NOT_FOUND
+						: resultCache.get(pair.goal);
 				if (prune) {
 					storeGoal(pair.goal, GoalState.PRUNED, null, pair.creator);
 					notifyEvaluator(pair.creator, pair.goal);
+				} else if (cached != GoalResultCache.NOT_FOUND) {
+					storeGoal(pair.goal, GoalState.DONE, cached, pair.creator);
+					if (pair.creator != null) {
+						notifyEvaluator(pair.creator, pair.goal);
+					}
 				} else {
 					GoalEvaluator evaluator = evaluatorFactory
 							.createEvaluator(pair.goal);
@@ -254,6 +287,9 @@ public class GoalEngine {
 								result, System.currentTimeMillis() - time);
 						storeGoal(pair.goal, GoalState.DONE, result,
 								pair.creator);
+						if (resultCache != null) {
+							resultCache.put(pair.goal, result);
+						}
 						if (pair.creator != null) {
 							notifyEvaluator(pair.creator, pair.goal);
 						}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ti;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.ElementChangedEvent;
+import org.eclipse.dltk.core.IElementChangedListener;
+import org.eclipse.dltk.core.IModelElementDelta;
+import org.eclipse.dltk.core.ISourceModule;
+import org.eclipse.dltk.ti.goals.IGoal;
+
+/**
+ * Results of goals evaluated by a {@link GoalEngine}, kept between
+ * evaluations.
+ *
+ * Results are partitioned by the source module of the goal context, only the
+ * most recently used modules and goals are kept. Only the results which were
+ * computed without pruned or recursive subgoals are stored. As a result can
+ * depend on any module, all the caches are cleared when the model changes.
+ */
+public final class GoalResultCache {
+
+	static final Object NOT_FOUND = new Object();
+
+	private static final Object NULL_RESULT = new Object();
+
+	private static final int MODULE_LIMIT = 32;
+
+	private static final int GOAL_LIMIT = 1024;
+
+	private static final int IGNORED_FLAGS = IModelElementDelta.F_CHILDREN
+			| IModelElementDelta.F_OPENED | IModelElementDelta.F_CLOSED
+			| IModelElementDelta.F_PRIMARY_WORKING_COPY;
+
+	private static final Map<Object, GoalResultCache> caches = new HashMap<>();
+
+	private static IElementChangedListener listener;
+
+	private final Map<ISourceModule, Map<IGoal, Object>> modules = new LinkedHashMap<ISourceModule, Map<IGoal, Object>>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<ISourceModule, Map<IGoal, Object>> eldest) {
+			return size() > MODULE_LIMIT;
+		}
+	};
+
+	private long hitCount;
+
+	private long missCount;
+
+	private GoalResultCache() {
+	}
+
+	/**
+	 * Returns the cache of the given owner, the owner identifies the goal
+	 * evaluators which computed the results, e.g. the class of the type
+	 * inferencer.
+	 */
+	public static GoalResultCache getCache(Object owner) {
+		synchronized (caches) {
+			if (listener == null) {
+				listener = event -> {
+					if (affectsResults(event.getDelta())) {
+						clearAll();
+					}
+				};
+				DLTKCore.addElementChangedListener(listener,
+						ElementChangedEvent.POST_CHANGE
+								| ElementChangedEvent.POST_RECONCILE);
+			}
+			GoalResultCache cache = caches.get(owner);
+			if (cache == null) {
+				cache = new GoalResultCache();
+				caches.put(owner, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Clears the caches of all the owners.
+	 */
+	public static void clearAll() {
+		GoalResultCache[] all;
+		synchronized (caches) {
+			all = caches.values().toArray(new GoalResultCache[caches.size()]);
+		}
+		for (GoalResultCache cache : all) {
+			cache.clear();
+		}
+	}
+
+	private static boolean affectsResults(IModelElementDelta delta) {
+		if (delta.getKind() != IModelElementDelta.CHANGED
+				|| (delta.getFlags() & ~IGNORED_FLAGS) != 0) {
+			return true;
+		}
+		for (IModelElementDelta child : delta.getAffectedChildren()) {
+			if (affectsResults(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static ISourceModule getSourceModule(IGoal goal) {
+		IContext context = goal.getContext();
+		if (context instanceof ISourceModuleContext) {
+			return ((ISourceModuleContext) context).getSourceModule();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the cached result of the goal (possibly <code>null</code>), or
+	 * {@link #NOT_FOUND}.
+	 */
+	synchronized Object get(IGoal goal) {
+		ISourceModule module = getSourceModule(goal);
+		if (module == null) {
+			return NOT_FOUND;
+		}
+		Map<IGoal, Object> results = modules.get(module);
+		Object result = results != null ? results.get(goal) : null;
+		if (result == null) {
+			missCount++;
+			return NOT_FOUND;
+		}
+		hitCount++;
+		return result == NULL_RESULT ? null : result;
+	}
+
+	synchronized void put(IGoal goal, Object result) {
+		ISourceModule module = getSourceModule(goal);
+		if (module == null) {
+			return;
+		}
+		Map<IGoal, Object> results = modules.get(module);
+		if (results == null) {
+			results = new LinkedHashMap<IGoal, Object>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<IGoal, Object> eldest) {
+					return size() > GOAL_LIMIT;
+				}
+			};
+			modules.put(module, results);
+		}
+		results.put(goal, result != null ? result : NULL_RESULT);
+	}
+
+	public synchronized void clear() {
+		modules.clear();
+	}
+
+	/**
+	 * Returns the number of goals answered from this cache.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Returns the number of goals which were not found in this cache.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "GoalResultCache: " + modules.size() + " modules, " //$NON-NLS-1$ //$NON-NLS-2$
+				+ hitCount + " hits, " + missCount + " misses"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+}
@@ -9,7 +9,6 @@
  *******************************************************************************/
 package org.eclipse.dltk.dbgp.internal;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.net.Socket;
@@ -49,8 +48,8 @@ public class DbgpDebugingEngine extends DbgpTermination
 			id = ++lastId;
 		}
 
-		receiver = new DbgpPacketReceiver(
-				new BufferedInputStream(socket.getInputStream()));
+		// the receiver buffers the input itself
+		receiver = new DbgpPacketReceiver(socket.getInputStream());
 
 		receiver.setLogger(output -> firePacketReceived(output));
 
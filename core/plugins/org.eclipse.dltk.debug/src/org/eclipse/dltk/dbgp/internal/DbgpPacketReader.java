@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.dbgp.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.dltk.debug.core.DLTKDebugPlugin;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Reads the DBGP packets of a single connection.
+ *
+ * The length prefix and the termination byte are parsed from a buffer which is
+ * reused for the whole connection, the body of a packet is copied from that
+ * buffer and the rest of it is read directly into the array of the packet, so
+ * the input should not be buffered.
+ */
+public class DbgpPacketReader {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final InputStream input;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private int position;
+
+	private int limit;
+
+	public DbgpPacketReader(InputStream input) {
+		if (input == null) {
+			throw new IllegalArgumentException();
+		}
+		this.input = input;
+	}
+
+	public DbgpRawPacket readPacket() throws IOException {
+		final int size = readPacketSize();
+		final byte[] xml = new byte[size];
+		int offset = Math.min(limit - position, size);
+		System.arraycopy(buffer, position, xml, 0, offset);
+		position += offset;
+		while (offset < size) {
+			final int n = input.read(xml, offset, size - offset);
+			if (n == -1) {
+				throw new IOException(Messages.DbgpRawPacket_cantReadPacketBody);
+			}
+			offset += n;
+		}
+		if (read() != 0) {
+			throw new IOException(Messages.DbgpRawPacket_noTerminationByte);
+		}
+		return new DbgpRawPacket(size, xml);
+	}
+
+	private int readPacketSize() throws IOException {
+		int size = 0;
+		for (;;) {
+			int b = read();
+			if (b == -1) {
+				throw new IOException();
+			}
+			if (b == 0) {
+				break;
+			}
+			if (b >= '0' && b <= '9') {
+				size = size * 10 + (b - '0');
+			} else {
+				final String msg = NLS.bind(
+						Messages.DbgpRawPacket_invalidCharInPacketSize,
+						Integer.toString(b));
+				DLTKDebugPlugin.logWarning(msg);
+				throw new IOException(msg);
+			}
+		}
+		if (size == 0) {
+			throw new IOException(Messages.DbgpRawPacket_zeroPacketSize);
+		}
+		return size;
+	}
+
+	private int read() throws IOException {
+		if (position == limit) {
+			final int n = input.read(buffer, 0, buffer.length);
+			if (n <= 0) {
+				return -1;
+			}
+			position = 0;
+			limit = n;
+		}
+		return buffer[position++] & 0xFF;
+	}
+}
@@ -10,10 +10,14 @@
  *******************************************************************************/
 package org.eclipse.dltk.dbgp.internal.packets;
 
+import org.eclipse.dltk.dbgp.exceptions.DbgpProtocolException;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlParser;
 import org.w3c.dom.Element;
 
 public class DbgpPacket {
-	private final Element content;
+	private Element content;
+
+	private byte[] xml;
 
 	protected DbgpPacket(Element content) {
 		if (content == null) {
@@ -23,7 +27,28 @@ public class DbgpPacket {
 		this.content = content;
 	}
 
-	public Element getContent() {
+	/**
+	 * Creates a packet from its well-formed XML, the content element is only
+	 * built when requested.
+	 */
+	protected DbgpPacket(byte[] xml) {
+		if (xml == null) {
+			throw new IllegalArgumentException();
+		}
+
+		this.xml = xml;
+	}
+
+	public synchronized Element getContent() {
+		if (this.content == null) {
+			try {
+				this.content = DbgpXmlParser.parseXml(xml).getDocumentElement();
+			} catch (DbgpProtocolException e) {
+				// the packet has been checked when it was received
+				throw new IllegalStateException(e);
+			}
+			this.xml = null;
+		}
 		return this.content;
 	}
 }
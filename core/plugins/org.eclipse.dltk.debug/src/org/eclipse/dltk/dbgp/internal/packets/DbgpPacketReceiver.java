@@ -11,8 +11,10 @@ package org.eclipse.dltk.dbgp.internal.packets;
 
 import java.io.InputStream;
 
+import org.eclipse.dltk.dbgp.internal.DbgpPacketReader;
 import org.eclipse.dltk.dbgp.internal.DbgpRawPacket;
 import org.eclipse.dltk.dbgp.internal.DbgpWorkingThread;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlPacketParser;
 import org.w3c.dom.Document;
 
 public class DbgpPacketReceiver extends DbgpWorkingThread {
@@ -21,20 +23,20 @@ public class DbgpPacketReceiver extends DbgpWorkingThread {
 	private final DbgpPacketWaiter streamWaiter;
 	private final DbgpPackageProcessor packatProcessor;
 
-	private final InputStream input;
+	private final DbgpPacketReader reader;
 	private IDbgpRawLogger logger;
 
 	@Override
 	protected void workingCycle() throws Exception {
 		try {
 			while (!Thread.interrupted()) {
-				DbgpRawPacket packet = DbgpRawPacket.readPacket(input);
+				DbgpRawPacket packet = reader.readPacket();
 
 				if (logger != null) {
 					logger.log(packet);
 				}
 
-				addDocument(packet.getParsedXml());
+				addPacket(DbgpXmlPacketParser.parsePacket(packet.getXml()));
 			}
 		} finally {
 			responseWaiter.terminate();
@@ -49,6 +51,11 @@ public class DbgpPacketReceiver extends DbgpWorkingThread {
 				streamWaiter);
 	}
 
+	protected void addPacket(DbgpPacket packet) {
+		packatProcessor.processPacket(packet, notifyWaiter, responseWaiter,
+				streamWaiter);
+	}
+
 	public DbgpNotifyPacket getNotifyPacket() throws InterruptedException {
 		return (DbgpNotifyPacket) notifyWaiter.waitPacket();
 	}
@@ -65,11 +72,7 @@ public class DbgpPacketReceiver extends DbgpWorkingThread {
 	public DbgpPacketReceiver(InputStream input) {
 		super("DBGP - Packet receiver"); //$NON-NLS-1$
 
-		if (input == null) {
-			throw new IllegalArgumentException();
-		}
-
-		this.input = input;
+		this.reader = new DbgpPacketReader(input);
 		this.notifyWaiter = new DbgpPacketWaiter();
 		this.streamWaiter = new DbgpPacketWaiter();
 		this.responseWaiter = new DbgpResponcePacketWaiter();
@@ -12,6 +12,7 @@ package org.eclipse.dltk.dbgp.internal.packets;
 
 import org.eclipse.dltk.dbgp.exceptions.DbgpException;
 import org.eclipse.dltk.dbgp.internal.DbgpRawPacket;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlPacketParser;
 import org.eclipse.dltk.debug.core.DLTKDebugPlugin;
 import org.w3c.dom.Document;
 
@@ -41,6 +42,11 @@ public class DbgpSimplePacketReceiver {
 				.processPacket(doc, notifyWaiter, responseWaiter, streamWaiter);
 	}
 
+	protected void addPacket(DbgpPacket packet) {
+		processor.processPacket(packet, notifyWaiter, responseWaiter,
+				streamWaiter);
+	}
+
 	public DbgpNotifyPacket getNotifyPacket() throws InterruptedException {
 		return (DbgpNotifyPacket) notifyWaiter.waitPacket();
 	}
@@ -64,7 +70,7 @@ public class DbgpSimplePacketReceiver {
 		}
 
 		try {
-			addDocument(packet.getParsedXml());
+			addPacket(DbgpXmlPacketParser.parsePacket(packet.getXml()));
 		} catch (DbgpException e) {
 			DLTKDebugPlugin.logError(e.getMessage(), e);
 		}
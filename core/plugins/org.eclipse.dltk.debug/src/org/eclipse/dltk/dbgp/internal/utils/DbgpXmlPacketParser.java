@@ -10,33 +10,186 @@
  *******************************************************************************/
 package org.eclipse.dltk.dbgp.internal.utils;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.dltk.compiler.util.Util;
+import org.eclipse.dltk.dbgp.exceptions.DbgpProtocolException;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpNotifyPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpPacket;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
 import org.eclipse.dltk.dbgp.internal.packets.DbgpStreamPacket;
+import org.w3c.dom.DOMException;
 import org.w3c.dom.Element;
 
 public class DbgpXmlPacketParser extends DbgpXmlParser {
+	private static final String INIT_TAG = "init"; //$NON-NLS-1$
+	private static final String RESPONSE_TAG = "response"; //$NON-NLS-1$
+	private static final String STREAM_TAG = "stream"; //$NON-NLS-1$
+	private static final String NOTIFY_TAG = "notify"; //$NON-NLS-1$
+
+	private static final String ATTR_TRANSACTION_ID = "transaction_id"; //$NON-NLS-1$
+	private static final String ATTR_NAME = "name"; //$NON-NLS-1$
+	private static final String ATTR_TYPE = "type"; //$NON-NLS-1$
+
 	protected DbgpXmlPacketParser() {
 
 	}
 
-	public static DbgpResponsePacket parseResponsePacket(Element element) {
-		final String ATTR_TRANSACTION_ID = "transaction_id"; //$NON-NLS-1$
+	/**
+	 * Reads a packet in one pass of a streaming parser: the kind of the packet
+	 * is decided from its root element, then the content of response, init
+	 * and notify packets is built from the same parser, while stream packets
+	 * are decoded without building it. The whole packet is checked to be
+	 * well-formed. Returns <code>null</code> if the packet is of an unknown
+	 * kind.
+	 */
+	public static DbgpPacket parsePacket(byte[] xml)
+			throws DbgpProtocolException {
+		try {
+			final XMLStreamReader reader = createStreamReader(xml);
+			if (reader != null) {
+				try {
+					int event = reader.getEventType();
+					while (event != XMLStreamConstants.START_ELEMENT
+							&& reader.hasNext()) {
+						event = reader.next(); // skip the prolog
+					}
+					if (event == XMLStreamConstants.START_ELEMENT) {
+						final DbgpPacket packet = readPacket(xml, reader);
+						while (reader.hasNext()) {
+							reader.next();
+						}
+						return packet;
+					}
+				} finally {
+					reader.close();
+				}
+			}
+		} catch (XMLStreamException | DOMException e) {
+			// the DOM parser reports the error
+		}
+		return parsePacket((Element) parseXml(xml).getFirstChild());
+	}
+
+	private static DbgpPacket readPacket(byte[] xml, XMLStreamReader reader)
+			throws XMLStreamException, DbgpProtocolException {
+		final String prefix = reader.getPrefix();
+		if (prefix != null && prefix.length() != 0) {
+			return null;
+		}
+		final String tag = reader.getLocalName();
+		if (tag.equals(STREAM_TAG)) {
+			final String type = getAttribute(reader, ATTR_TYPE);
+			return new DbgpStreamPacket(type,
+					Base64Helper.decodeString(readContent(reader)), xml);
+		} else if (tag.equals(INIT_TAG) || tag.equals(RESPONSE_TAG)
+				|| tag.equals(NOTIFY_TAG)) {
+			return parsePacket(buildElement(reader));
+		}
+		return null;
+	}
+
+	/**
+	 * Same as {@link Element#getAttribute(String)} of a parser which is not
+	 * namespace aware.
+	 */
+	private static String getAttribute(XMLStreamReader reader, String name) {
+		for (int i = 0, n = reader.getAttributeCount(); i < n; ++i) {
+			final String prefix = reader.getAttributePrefix(i);
+			if ((prefix == null || prefix.length() == 0)
+					&& name.equals(reader.getAttributeLocalName(i))) {
+				return reader.getAttributeValue(i);
+			}
+		}
+		return Util.EMPTY_STRING;
+	}
 
+	/**
+	 * Same as {@link DbgpXmlParser#parseContent(Element)}: returns the first
+	 * text or CDATA child of the current element.
+	 */
+	private static String readContent(XMLStreamReader reader)
+			throws XMLStreamException {
+		int depth = 0;
+		while (reader.hasNext()) {
+			final int event = reader.next();
+			switch (event) {
+			case XMLStreamConstants.START_ELEMENT:
+				++depth;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				if (depth-- == 0) {
+					return Util.EMPTY_STRING;
+				}
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.SPACE:
+			case XMLStreamConstants.CDATA:
+				if (depth == 0) {
+					return readText(reader, event);
+				}
+				break;
+			}
+		}
+		return Util.EMPTY_STRING;
+	}
+
+	/**
+	 * Joins the events of a text which the parser reports in parts.
+	 */
+	private static String readText(XMLStreamReader reader, int event)
+			throws XMLStreamException {
+		final boolean cdata = event == XMLStreamConstants.CDATA;
+		final String first = reader.getText();
+		StringBuilder sb = null;
+		while (reader.hasNext()) {
+			final int next = reader.next();
+			if ((next == XMLStreamConstants.CDATA) != cdata
+					|| next != XMLStreamConstants.CDATA
+							&& next != XMLStreamConstants.CHARACTERS
+							&& next != XMLStreamConstants.SPACE) {
+				break;
+			}
+			if (sb == null) {
+				sb = new StringBuilder(first);
+			}
+			sb.append(reader.getText());
+		}
+		return sb != null ? sb.toString() : first;
+	}
+
+	/**
+	 * Returns the packet of the given root element, or <code>null</code> if it
+	 * is of an unknown kind.
+	 */
+	public static DbgpPacket parsePacket(Element element) {
+		final String tag = element.getTagName();
+		// TODO: correct init tag handling without this hack
+		if (tag.equals(INIT_TAG)) {
+			return new DbgpResponsePacket(element, -1);
+		} else if (tag.equals(RESPONSE_TAG)) {
+			return parseResponsePacket(element);
+		} else if (tag.equals(STREAM_TAG)) {
+			return parseStreamPacket(element);
+		} else if (tag.equals(NOTIFY_TAG)) {
+			return parseNotifyPacket(element);
+		}
+		return null;
+	}
+
+	public static DbgpResponsePacket parseResponsePacket(Element element) {
 		int id = Integer.parseInt(element.getAttribute(ATTR_TRANSACTION_ID));
 		return new DbgpResponsePacket(element, id);
 	}
 
 	public static DbgpNotifyPacket parseNotifyPacket(Element element) {
-		final String ATTR_NAME = "name"; //$NON-NLS-1$
-
 		String name = element.getAttribute(ATTR_NAME);
 		return new DbgpNotifyPacket(element, name);
 	}
 
 	public static DbgpStreamPacket parseStreamPacket(Element element) {
-		final String ATTR_TYPE = "type"; //$NON-NLS-1$
-
 		String type = element.getAttribute(ATTR_TYPE);
 		String textContent = DbgpXmlParser.parseBase64Content(element);
 		return new DbgpStreamPacket(type, textContent, element);
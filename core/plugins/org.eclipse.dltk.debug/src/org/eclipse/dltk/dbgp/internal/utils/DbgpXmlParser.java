@@ -18,14 +18,21 @@ import java.io.IOException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.FactoryConfigurationError;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.eclipse.dltk.compiler.util.Util;
 import org.eclipse.dltk.dbgp.exceptions.DbgpDebuggingEngineException;
 import org.eclipse.dltk.dbgp.exceptions.DbgpProtocolException;
+import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
@@ -53,36 +60,187 @@ public class DbgpXmlParser {
 		return Integer.parseInt(s) == 0 ? false : true;
 	}
 
+	private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event"; //$NON-NLS-1$
+
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+	private static final DocumentBuilderFactory BUILDER_FACTORY = DocumentBuilderFactory
+			.newInstance();
+
+	/**
+	 * Document builders are not thread safe, each packet receiver thread
+	 * reuses its own one.
+	 */
+	private static final ThreadLocal<DocumentBuilder> BUILDERS = new ThreadLocal<>();
+
+	private static XMLInputFactory createInputFactory() {
+		try {
+			final XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+			factory.setProperty(
+					XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+					Boolean.FALSE);
+			if (factory.isPropertySupported(REPORT_CDATA)) {
+				// keep CDATA sections as the DOM parser does
+				factory.setProperty(REPORT_CDATA, Boolean.TRUE);
+			}
+			return factory;
+		} catch (FactoryConfigurationError | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static DocumentBuilder getDocumentBuilder()
+			throws DbgpProtocolException {
+		DocumentBuilder builder = BUILDERS.get();
+		if (builder == null) {
+			try {
+				synchronized (BUILDER_FACTORY) {
+					builder = BUILDER_FACTORY.newDocumentBuilder();
+				}
+			} catch (ParserConfigurationException e) {
+				throw new DbgpProtocolException(e);
+			}
+			BUILDERS.set(builder);
+		}
+		return builder;
+	}
+
+	/**
+	 * Returns a streaming parser of the given XML, or <code>null</code> if
+	 * none is available.
+	 */
+	protected static XMLStreamReader createStreamReader(byte[] xml)
+			throws XMLStreamException {
+		if (INPUT_FACTORY == null) {
+			return null;
+		}
+		return INPUT_FACTORY
+				.createXMLStreamReader(new ByteArrayInputStream(xml));
+	}
+
 	public static Document parseXml(byte[] xml) throws DbgpProtocolException {
+		return parseXml(xml, 0, xml.length);
+	}
+
+	/**
+	 * Parses the given part of the array.
+	 *
+	 * The document is built from a streaming (StAX) parser, the DOM parser is
+	 * used only if the streaming one is not available or fails, to report the
+	 * error.
+	 */
+	public static Document parseXml(byte[] xml, int offset, int length)
+			throws DbgpProtocolException {
+		final DocumentBuilder builder = getDocumentBuilder();
+		if (INPUT_FACTORY != null) {
+			try {
+				final XMLStreamReader reader = INPUT_FACTORY
+						.createXMLStreamReader(
+								new ByteArrayInputStream(xml, offset, length));
+				try {
+					return buildDocument(builder.newDocument(), reader);
+				} finally {
+					reader.close();
+				}
+			} catch (XMLStreamException | DOMException e) {
+				// fall through
+			}
+		}
 		try {
-			DocumentBuilderFactory factory = DocumentBuilderFactory
-					.newInstance();
-
-			DocumentBuilder builder = factory.newDocumentBuilder();
-
-			// builder.setErrorHandler(new ErrorHandler() {
-			// public void error(SAXParseException exception)
-			// throws SAXException {
-			// }
-			//
-			// public void fatalError(SAXParseException exception)
-			// throws SAXException {
-			// }
-			//
-			// public void warning(SAXParseException exception)
-			// throws SAXException {
-			// }
-			// });
-
-			InputSource source = new InputSource(new ByteArrayInputStream(xml));
+			InputSource source = new InputSource(
+					new ByteArrayInputStream(xml, offset, length));
 			return builder.parse(source);
-		} catch (ParserConfigurationException e) {
-			throw new DbgpProtocolException(e);
 		} catch (SAXException e) {
 			throw new DbgpProtocolException(e);
 		} catch (IOException e) {
 			throw new DbgpProtocolException(e);
+		} finally {
+			builder.reset();
+		}
+	}
+
+	/**
+	 * Builds the element the streaming parser is positioned at, reading the
+	 * rest of the document, the same way as {@link #parseXml(byte[])}.
+	 */
+	protected static Element buildElement(XMLStreamReader reader)
+			throws DbgpProtocolException, XMLStreamException {
+		return buildDocument(getDocumentBuilder().newDocument(), reader)
+				.getDocumentElement();
+	}
+
+	/**
+	 * Builds the same tree as a DOM parser which is not namespace aware:
+	 * elements and attributes are named by their qualified names and the
+	 * namespace declarations are kept as attributes. The tree is built from
+	 * the current event of the reader.
+	 */
+	private static Document buildDocument(Document document,
+			XMLStreamReader reader) throws XMLStreamException {
+		Node current = document;
+		int event = reader.getEventType();
+		while (true) {
+			switch (event) {
+			case XMLStreamConstants.START_ELEMENT:
+				final Element element = document.createElement(
+						qualifiedName(reader.getPrefix(), reader.getLocalName()));
+				for (int i = 0, n = reader.getNamespaceCount(); i < n; ++i) {
+					final String prefix = reader.getNamespacePrefix(i);
+					final String uri = reader.getNamespaceURI(i);
+					element.setAttribute(
+							prefix == null || prefix.length() == 0 ? "xmlns" //$NON-NLS-1$
+									: "xmlns:" + prefix, //$NON-NLS-1$
+							uri != null ? uri : Util.EMPTY_STRING);
+				}
+				for (int i = 0, n = reader.getAttributeCount(); i < n; ++i) {
+					element.setAttribute(
+							qualifiedName(reader.getAttributePrefix(i),
+									reader.getAttributeLocalName(i)),
+							reader.getAttributeValue(i));
+				}
+				current.appendChild(element);
+				current = element;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				current = current.getParentNode();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.SPACE:
+				if (current != document) {
+					final Node last = current.getLastChild();
+					if (last != null && last.getNodeType() == Node.TEXT_NODE) {
+						((Text) last).appendData(reader.getText());
+					} else {
+						current.appendChild(
+								document.createTextNode(reader.getText()));
+					}
+				}
+				break;
+			case XMLStreamConstants.CDATA:
+				current.appendChild(
+						document.createCDATASection(reader.getText()));
+				break;
+			case XMLStreamConstants.COMMENT:
+				current.appendChild(document.createComment(reader.getText()));
+				break;
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+				current.appendChild(document.createProcessingInstruction(
+						reader.getPITarget(), reader.getPIData()));
+				break;
+			}
+			if (!reader.hasNext()) {
+				return document;
+			}
+			event = reader.next();
+		}
+	}
+
+	private static String qualifiedName(String prefix, String localName) {
+		if (prefix == null || prefix.length() == 0) {
+			return localName;
 		}
+		return prefix + ':' + localName;
 	}
 
 	protected static String parseContent(Element element) {
@@ -10,9 +10,13 @@
 package org.eclipse.dltk.core.tests;
 
 import org.eclipse.dltk.core.tests.builder.BuildParticipantManagerTests;
+import org.eclipse.dltk.core.tests.builder.BuildStateTests;
+import org.eclipse.dltk.core.tests.builder.ProblemMarkerUpdaterTests;
 import org.eclipse.dltk.core.tests.buildpath.BuildpathTests;
 import org.eclipse.dltk.core.tests.buildpath.SetContainerEventsTest;
 import org.eclipse.dltk.core.tests.cache.CacheTests;
+import org.eclipse.dltk.core.tests.cache.DeclarationASTCacheTest;
+import org.eclipse.dltk.core.tests.cache.ElementCacheTest;
 import org.eclipse.dltk.core.tests.cache.SourceModuleInfoCacheTest;
 import org.eclipse.dltk.core.tests.compiler.CompilerCharOperationTests;
 import org.eclipse.dltk.core.tests.compiler.CompilerUtilTests;
@@ -47,6 +51,8 @@ import org.junit.runners.Suite;
 		ExternalFragmentTests.class, SourceParserTests.class,
 		CharacterStackTests.class, CharOperationTests.class,
 		InternalCoreUtilTest.class, TextUtilsTest.class, Bug387751Test.class,
-		SourceModuleInfoCacheTest.class, SetContainerEventsTest.class })
+		SourceModuleInfoCacheTest.class, SetContainerEventsTest.class,
+		DeclarationASTCacheTest.class, ElementCacheTest.class,
+		BuildStateTests.class, ProblemMarkerUpdaterTests.class })
 public class AllTests {
 }
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.builder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.dltk.core.builder.IBuildState;
+import org.eclipse.dltk.internal.core.builder.ScriptBuilder;
+import org.eclipse.dltk.internal.core.builder.State;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BuildStateTests extends Assert {
+
+	private static final int FILES = 40;
+
+	private final IProject project = ResourcesPlugin.getWorkspace().getRoot()
+			.getProject("P");
+
+	private class TestState extends State {
+		/**
+		 * The dependencies as they were kept before, the dependents of each
+		 * file with the flags.
+		 */
+		final Map<IPath, Map<IPath, Integer>> dependents = new HashMap<>();
+
+		TestState() {
+			super(project);
+		}
+
+		void depend(IPath path, IPath dependency, int flags) {
+			recordDependency(path, dependency, flags);
+			Map<IPath, Integer> paths = dependents.get(dependency);
+			if (paths == null) {
+				paths = new HashMap<>();
+				dependents.put(dependency, paths);
+			}
+			final Integer existing = paths.get(path);
+			paths.put(path, Integer.valueOf(
+					flags | (existing != null ? existing.intValue() : 0)));
+		}
+
+		void remove(Set<IPath> paths) {
+			removeDependenciesFor(paths);
+			for (Map<IPath, Integer> value : dependents.values()) {
+				value.keySet().removeAll(paths);
+			}
+		}
+
+		void find(Set<IPath> changes, Set<IPath> structuralChanges,
+				Set<IPath> affected, Set<IPath> affectedStructural) {
+			findDependenciesOf(changes, structuralChanges, false, affected,
+					affectedStructural);
+		}
+
+		/**
+		 * The previous algorithm: the dependents of the changed files, then
+		 * level by level the dependents of the files found to be structurally
+		 * changed, until no new one is found.
+		 */
+		void findFixpoint(Set<IPath> changes, Set<IPath> structuralChanges,
+				Set<IPath> affected, Set<IPath> affectedStructural) {
+			final Set<IPath> structural = new HashSet<>(structuralChanges);
+			Set<IPath> paths = new HashSet<>(changes);
+			paths.addAll(structuralChanges);
+			while (!paths.isEmpty()) {
+				final Set<IPath> next = new HashSet<>();
+				for (IPath path : paths) {
+					final Map<IPath, Integer> deps = dependents.get(path);
+					if (deps == null) {
+						continue;
+					}
+					for (Map.Entry<IPath, Integer> entry : deps.entrySet()) {
+						final int flags = entry.getValue().intValue();
+						if (structural.contains(path)
+								|| (flags & IBuildState.CONTENT) != 0) {
+							affected.add(entry.getKey());
+							if ((flags & IBuildState.EXPORTED) != 0) {
+								next.add(entry.getKey());
+							}
+						}
+					}
+				}
+				next.removeAll(structural);
+				structural.addAll(next);
+				affectedStructural.addAll(next);
+				paths = next;
+			}
+		}
+	}
+
+	private static IPath file(int index) {
+		return new Path("/P/src/f" + index + ".txt");
+	}
+
+	private static Set<IPath> randomFiles(Random random, int count) {
+		final Set<IPath> result = new HashSet<>();
+		for (int i = 0; i < count; ++i) {
+			result.add(file(random.nextInt(FILES)));
+		}
+		return result;
+	}
+
+	private TestState randomState(Random random) {
+		final TestState state = new TestState();
+		final int edges = random.nextInt(FILES * 3);
+		for (int i = 0; i < edges; ++i) {
+			final int path = random.nextInt(FILES);
+			final int dependency = random.nextInt(FILES);
+			if (path != dependency) {
+				state.depend(file(path), file(dependency),
+						1 + random.nextInt(7));
+			}
+		}
+		return state;
+	}
+
+	private static void assertSameAffected(TestState state,
+			Set<IPath> changes, Set<IPath> structuralChanges) {
+		final Set<IPath> affected = new HashSet<>();
+		final Set<IPath> affectedStructural = new HashSet<>();
+		state.find(changes, structuralChanges, affected, affectedStructural);
+		final Set<IPath> expected = new HashSet<>();
+		final Set<IPath> expectedStructural = new HashSet<>();
+		state.findFixpoint(changes, structuralChanges, expected,
+				expectedStructural);
+		assertEquals(expected, affected);
+		assertEquals(expectedStructural, affectedStructural);
+	}
+
+	@Test
+	public void singlePassEqualsFixpoint() {
+		for (int seed = 0; seed < 200; ++seed) {
+			final Random random = new Random(seed);
+			final TestState state = randomState(random);
+			final Set<IPath> changes = randomFiles(random, 3);
+			final Set<IPath> structuralChanges = randomFiles(random,
+					random.nextInt(3));
+			assertSameAffected(state, changes, structuralChanges);
+			// the dependencies of rebuilt files are recorded again
+			state.remove(randomFiles(random, 5));
+			assertSameAffected(state, changes, structuralChanges);
+		}
+	}
+
+	@Test
+	public void exportedFollowedTransitively() {
+		final TestState state = new TestState();
+		state.depend(file(1), file(0),
+				IBuildState.CONTENT | IBuildState.EXPORTED);
+		state.depend(file(2), file(1), IBuildState.EXPORTED);
+		state.depend(file(3), file(2), IBuildState.CONTENT);
+		state.depend(file(4), file(3), IBuildState.STRUCTURAL);
+		final Set<IPath> affected = new HashSet<>();
+		final Set<IPath> affectedStructural = new HashSet<>();
+		final Set<IPath> changes = new HashSet<>();
+		changes.add(file(0));
+		state.find(changes, new HashSet<IPath>(), affected,
+				affectedStructural);
+		final Set<IPath> expected = new HashSet<>();
+		expected.add(file(1));
+		expected.add(file(2));
+		expected.add(file(3));
+		assertEquals(expected, affected);
+		expected.remove(file(3));
+		assertEquals(expected, affectedStructural);
+	}
+
+	private static byte[] write(State state) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			ScriptBuilder.writeState(state, out);
+		}
+		return bytes.toByteArray();
+	}
+
+	private State read(byte[] bytes) throws IOException {
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(bytes))) {
+			return ScriptBuilder.readState(project, in);
+		}
+	}
+
+	@Test
+	public void serialization() throws IOException {
+		assertEquals(0x1A, State.VERSION);
+		final TestState state = randomState(new Random(1));
+		state.remove(randomFiles(new Random(2), 5));
+		final byte[] bytes = write(state);
+		assertEquals(State.VERSION, bytes[0]);
+		final State restored = read(bytes);
+		assertNotNull(restored);
+		assertArrayEquals(bytes, write(restored));
+	}
+
+	@Test
+	public void previousVersionIgnored() throws IOException {
+		final byte[] bytes = write(new TestState());
+		bytes[0] = 0x19;
+		assertNull(read(bytes));
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.builder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.dltk.compiler.problem.DefaultProblem;
+import org.eclipse.dltk.compiler.problem.DefaultProblemFactory;
+import org.eclipse.dltk.compiler.problem.IProblem;
+import org.eclipse.dltk.compiler.problem.IProblemFactory;
+import org.eclipse.dltk.compiler.problem.IProblemSeverityTranslator;
+import org.eclipse.dltk.compiler.problem.ProblemSeverity;
+import org.eclipse.dltk.core.tests.ProjectSetup;
+import org.eclipse.dltk.core.tests.model.ModelTestsPlugin;
+import org.eclipse.dltk.internal.core.builder.BuildProblemReporter;
+import org.eclipse.dltk.internal.core.builder.ProblemMarkerUpdater;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ProblemMarkerUpdaterTests extends Assert {
+
+	@Rule
+	public final ProjectSetup project = new ProjectSetup(
+			ModelTestsPlugin.WORKSPACE, "cache");
+
+	/**
+	 * Deletes the bookmarks with the problems, as factories which own other
+	 * marker types do.
+	 */
+	private static class BookmarkProblemFactory extends DefaultProblemFactory {
+		@Override
+		public void deleteMarkers(IResource resource) throws CoreException {
+			super.deleteMarkers(resource);
+			resource.deleteMarkers(IMarker.BOOKMARK, true,
+					IResource.DEPTH_INFINITE);
+		}
+	}
+
+	private static IProblem problem(String message, int line) {
+		return new DefaultProblem(message, 0, null, ProblemSeverity.ERROR,
+				line * 10, line * 10 + 5, line);
+	}
+
+	private static ProblemMarkerUpdater update(IProblemFactory factory,
+			IFile file, IProblem... problems) {
+		final BuildProblemReporter reporter = new BuildProblemReporter(factory,
+				file);
+		for (IProblem problem : problems) {
+			reporter.reportProblem(problem);
+		}
+		final ProblemMarkerUpdater updater = new ProblemMarkerUpdater(factory,
+				IProblemSeverityTranslator.IDENTITY);
+		updater.add(reporter);
+		updater.flush();
+		return updater;
+	}
+
+	/**
+	 * Returns the ids of the problem markers by their messages.
+	 */
+	private static Map<String, Long> markers(IFile file)
+			throws CoreException {
+		final Map<String, Long> result = new HashMap<>();
+		for (IMarker marker : file.findMarkers(
+				DefaultProblem.MARKER_TYPE_PROBLEM, true,
+				IResource.DEPTH_ZERO)) {
+			assertNull(result.put(marker.getAttribute(IMarker.MESSAGE, null),
+					Long.valueOf(marker.getId())));
+		}
+		return result;
+	}
+
+	@Test
+	public void unchangedMarkersKept() throws CoreException {
+		final IFile file = project.getFile("src/folder1/a.txt");
+		final IProblemFactory factory = new DefaultProblemFactory();
+		final IMarker bookmark = file.createMarker(IMarker.BOOKMARK);
+		ProblemMarkerUpdater updater = update(factory, file, problem("a", 1),
+				problem("b", 2));
+		assertEquals(2, updater.getCreatedCount());
+		assertEquals(0, updater.getKeptCount());
+		final Map<String, Long> before = markers(file);
+		assertEquals(2, before.size());
+
+		updater = update(factory, file, problem("b", 2), problem("c", 3));
+		assertEquals(1, updater.getKeptCount());
+		assertEquals(1, updater.getCreatedCount());
+		assertEquals(1, updater.getDeletedCount());
+		final Map<String, Long> after = markers(file);
+		assertEquals(2, after.size());
+		assertEquals(before.get("b"), after.get("b"));
+		assertFalse(after.containsKey("a"));
+		assertTrue(after.containsKey("c"));
+		// only the markers of the factory are updated
+		assertTrue(bookmark.exists());
+
+		updater = update(factory, file);
+		assertEquals(2, updater.getDeletedCount());
+		assertTrue(markers(file).isEmpty());
+		bookmark.delete();
+	}
+
+	@Test
+	public void overriddenDeleteMarkersUsed() throws CoreException {
+		final IFile file = project.getFile("src/folder1/a.txt");
+		final IProblemFactory factory = new BookmarkProblemFactory();
+		final IMarker bookmark = file.createMarker(IMarker.BOOKMARK);
+		update(factory, file, problem("a", 1));
+		assertFalse(bookmark.exists());
+		final Map<String, Long> before = markers(file);
+
+		final ProblemMarkerUpdater updater = update(factory, file,
+				problem("a", 1));
+		// the factory may delete other markers than it finds
+		assertEquals(0, updater.getKeptCount());
+		assertEquals(1, updater.getCreatedCount());
+		final Map<String, Long> after = markers(file);
+		assertEquals(1, after.size());
+		assertFalse(before.get("a").equals(after.get("a")));
+		update(factory, file);
+	}
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.eclipse.dltk.ast.ASTNode;
+import org.eclipse.dltk.ast.declarations.Argument;
+import org.eclipse.dltk.ast.declarations.FieldDeclaration;
+import org.eclipse.dltk.ast.declarations.MethodDeclaration;
+import org.eclipse.dltk.ast.declarations.ModuleDeclaration;
+import org.eclipse.dltk.ast.declarations.TypeDeclaration;
+import org.eclipse.dltk.ast.parser.IModuleDeclaration;
+import org.eclipse.dltk.ast.references.SimpleReference;
+import org.eclipse.dltk.ast.statements.Block;
+import org.eclipse.dltk.core.ISourceModule;
+import org.eclipse.dltk.core.caching.ASTDataReader;
+import org.eclipse.dltk.core.caching.ASTDataWriter;
+import org.eclipse.dltk.core.caching.DeclarationASTCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DeclarationASTCacheTest extends Assert {
+
+	private static class TestCache extends DeclarationASTCache {
+		int discarded;
+
+		byte[] write(IModuleDeclaration module) throws IOException {
+			final ASTDataWriter out = new ASTDataWriter();
+			return writeModule(out, module) ? out.toByteArray() : null;
+		}
+
+		ModuleDeclaration read(byte[] data) throws IOException {
+			return (ModuleDeclaration) readModule(null,
+					new ASTDataReader(ByteBuffer.wrap(data)));
+		}
+
+		@Override
+		protected void discard(ISourceModule module) {
+			++discarded;
+		}
+	}
+
+	private static ModuleDeclaration createModule() {
+		final ModuleDeclaration module = new ModuleDeclaration(200);
+		final TypeDeclaration type = new TypeDeclaration("Foo", 6, 9, 0, 150);
+		type.setModifiers(1);
+		type.setComments("/** Foo */");
+		type.addSuperClass(new SimpleReference(18, 21, "Bar"));
+		final Block typeBody = new Block(22, 150);
+		final FieldDeclaration field = new FieldDeclaration("count", 30, 35,
+				26, 40);
+		typeBody.addStatement(field);
+		final MethodDeclaration method = new MethodDeclaration("run", 50, 53,
+				46, 140);
+		method.setDeclaringTypeName("Foo");
+		final Argument argument = new Argument();
+		argument.setName("arg");
+		argument.setNameStart(54);
+		argument.setNameEnd(57);
+		argument.setStart(54);
+		argument.setEnd(57);
+		argument.setInitializationExpression(
+				new SimpleReference(60, 64, "none"));
+		method.addArgument(argument);
+		final Block methodBody = new Block(66, 140);
+		methodBody.addStatement(new SimpleReference(70, 75, "count"));
+		method.acceptBody(methodBody, false);
+		typeBody.addStatement(method);
+		type.setBody(typeBody);
+		module.addStatement(type);
+		module.addStatement(new MethodDeclaration("main", 160, 164, 155, 190));
+		return module;
+	}
+
+	private static void assertBounds(ASTNode expected, ASTNode actual) {
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected.sourceStart(), actual.sourceStart());
+		assertEquals(expected.sourceEnd(), actual.sourceEnd());
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final TestCache cache = new TestCache();
+		final ModuleDeclaration module = cache.read(cache.write(createModule()));
+		assertEquals(0, module.sourceStart());
+		assertEquals(200, module.sourceEnd());
+		final List<ASTNode> statements = module.getStatements();
+		assertEquals(2, statements.size());
+
+		final TypeDeclaration type = (TypeDeclaration) statements.get(0);
+		assertEquals("Foo", type.getName());
+		assertEquals(6, type.getNameStart());
+		assertEquals(9, type.getNameEnd());
+		assertEquals(0, type.sourceStart());
+		assertEquals(150, type.sourceEnd());
+		assertEquals(1, type.getModifiers());
+		assertEquals("/** Foo */", type.getComments());
+		assertEquals("", type.getEnclosingTypeName());
+		assertEquals(1, type.getSuperClassNames().size());
+		assertEquals("Bar", type.getSuperClassNames().get(0));
+		assertEquals(22, type.getBodyStart());
+		assertEquals(150, type.getBodyEnd());
+
+		final List<ASTNode> members = type.getBody().getStatements();
+		assertEquals(2, members.size());
+		final FieldDeclaration field = (FieldDeclaration) members.get(0);
+		assertEquals("count", field.getName());
+		assertBounds(new FieldDeclaration("count", 30, 35, 26, 40), field);
+
+		final MethodDeclaration method = (MethodDeclaration) members.get(1);
+		assertEquals("run", method.getName());
+		assertEquals(46, method.sourceStart());
+		assertEquals(140, method.sourceEnd());
+		assertEquals("Foo", method.getDeclaringTypeName());
+		assertEquals(1, method.getArguments().size());
+		final Argument argument = (Argument) method.getArguments().get(0);
+		assertEquals("arg", argument.getName());
+		assertEquals(54, argument.getNameStart());
+		assertEquals("none", ((SimpleReference) argument.getInitialization())
+				.getName());
+		assertEquals(66, method.getBody().sourceStart());
+		final List<ASTNode> body = method.getBody().getStatements();
+		assertEquals(1, body.size());
+		assertEquals("count", ((SimpleReference) body.get(0)).getName());
+
+		final MethodDeclaration main = (MethodDeclaration) statements.get(1);
+		assertEquals("main", main.getName());
+		assertNull(main.getDeclaringTypeName());
+		assertTrue(main.getBody().getStatements().isEmpty());
+		assertEquals(0, cache.discarded);
+	}
+
+	@Test
+	public void testRewrite() throws IOException {
+		final TestCache cache = new TestCache();
+		final byte[] data = cache.write(createModule());
+		assertArrayEquals(data, cache.write(cache.read(data)));
+	}
+
+	@Test
+	public void testUnsupportedNodes() throws IOException {
+		final TestCache cache = new TestCache();
+		final ModuleDeclaration module = createModule();
+		module.addStatement(new TypeDeclaration("Sub", 0, 0, 0, 0) {
+		});
+		assertNull(cache.write(module));
+		assertNull(cache.write(new ModuleDeclaration(0) {
+		}));
+	}
+
+	@Test
+	public void testMalformedBody() throws IOException {
+		final TestCache cache = new TestCache();
+		final ModuleDeclaration source = new ModuleDeclaration(20);
+		final MethodDeclaration method = new MethodDeclaration("run", 4, 7, 0,
+				20);
+		source.addStatement(method);
+		final byte[] data = cache.write(source);
+		// the last byte is the statement count of the body, make it negative
+		data[data.length - 1] = 0x7F;
+		final ModuleDeclaration module = cache.read(data);
+		final MethodDeclaration restored = (MethodDeclaration) module
+				.getStatements().get(0);
+		// the body is only decoded now
+		assertEquals(0, cache.discarded);
+		assertTrue(restored.getBody().getStatements().isEmpty());
+		assertEquals(1, cache.discarded);
+	}
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.tests.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.dltk.core.ModelException;
+import org.eclipse.dltk.core.tests.ProjectSetup;
+import org.eclipse.dltk.core.tests.model.ModelTestsPlugin;
+import org.eclipse.dltk.internal.core.ElementCache;
+import org.eclipse.dltk.internal.core.Openable;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ElementCacheTest extends Assert {
+
+	@Rule
+	public final ProjectSetup project = new ProjectSetup(
+			ModelTestsPlugin.WORKSPACE, "cache");
+
+	/**
+	 * Closing an element removes it from the cache, like the model manager
+	 * does, unless it is pinned.
+	 */
+	private static class TestCache extends ElementCache {
+		final Set<Object> pinned = ConcurrentHashMap.newKeySet();
+
+		TestCache(int size) {
+			super(size);
+		}
+
+		@Override
+		protected boolean close(Openable element) {
+			if (pinned.contains(element)) {
+				return false;
+			}
+			remove(element);
+			return true;
+		}
+	}
+
+	private final List<Openable> handles = new ArrayList<>();
+
+	@Before
+	public void createHandles() throws ModelException {
+		for (int i = 0; i < 200; ++i) {
+			handles.add((Openable) project.getSourceModule("src",
+					"folder1/e" + i + ".txt"));
+		}
+	}
+
+	@Test
+	public void leastRecentlyUsedEvicted() {
+		final TestCache cache = new TestCache(10);
+		for (int i = 0; i < 10; ++i) {
+			cache.put(handles.get(i), new Object());
+		}
+		assertEquals(10, cache.getCurrentSpace());
+		assertNotNull(cache.get(handles.get(0)));
+		cache.put(handles.get(10), new Object());
+		// the oldest entries are closed until a third of the space is free
+		assertEquals(6, cache.getEvictionCount());
+		assertEquals(5, cache.size());
+		assertEquals(5, cache.getCurrentSpace());
+		assertEquals(0, cache.getOverflow());
+		assertNotNull(cache.peek(handles.get(0)));
+		assertNotNull(cache.peek(handles.get(10)));
+	}
+
+	@Test
+	public void overflowShrinks() {
+		final TestCache cache = new TestCache(4);
+		for (int i = 0; i < 4; ++i) {
+			cache.pinned.add(handles.get(i));
+			cache.put(handles.get(i), new Object());
+		}
+		cache.put(handles.get(4), new Object());
+		assertEquals(4, cache.getFailedEvictionCount());
+		assertEquals(0, cache.getEvictionCount());
+		assertEquals(5, cache.getCurrentSpace());
+		assertEquals(1, cache.getOverflow());
+		cache.pinned.clear();
+		assertTrue(cache.shrink());
+		assertEquals(0, cache.getOverflow());
+		assertEquals(2, cache.getCurrentSpace());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void overflowAttemptsBounded() {
+		final TestCache cache = new TestCache(100);
+		for (int i = 0; i < 100; ++i) {
+			cache.pinned.add(handles.get(i));
+			cache.put(handles.get(i), new Object());
+		}
+		cache.put(handles.get(100), new Object());
+		// each element is attempted once
+		assertEquals(100, cache.getFailedEvictionCount());
+		assertEquals(1, cache.getOverflow());
+		// not all of them again on each put while overflowing
+		cache.put(handles.get(101), new Object());
+		assertTrue(cache.getFailedEvictionCount() < 200);
+		assertEquals(2, cache.getOverflow());
+		cache.pinned.clear();
+		assertTrue(cache.shrink());
+		assertEquals(0, cache.getOverflow());
+	}
+
+	@Test
+	public void nullKeys() {
+		final TestCache cache = new TestCache(4);
+		assertNull(cache.get(null));
+		assertNull(cache.peek(null));
+		assertNull(cache.remove(null));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullKeyRejected() {
+		new TestCache(4).put(null, new Object());
+	}
+
+	@Test
+	public void concurrentLookups() throws Exception {
+		final TestCache cache = new TestCache(50);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<?>> readers = new ArrayList<>();
+			for (int t = 0; t < 4; ++t) {
+				final Random random = new Random(t);
+				readers.add(executor.submit(() -> {
+					for (int i = 0; i < 100000; ++i) {
+						final Openable handle = handles
+								.get(random.nextInt(handles.size()));
+						final Object value = random.nextBoolean()
+								? cache.get(handle)
+								: cache.peek(handle);
+						assertTrue(value == null || value instanceof Object[]);
+					}
+				}));
+			}
+			// the updates are serialized, as in the model manager
+			final Random random = new Random();
+			for (int i = 0; i < 20000; ++i) {
+				final Openable handle = handles
+						.get(random.nextInt(handles.size()));
+				if (random.nextInt(4) == 0) {
+					cache.remove(handle);
+				} else {
+					cache.put(handle, new Object[0]);
+				}
+			}
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+			assertEquals(cache.size(), cache.getCurrentSpace());
+			assertTrue(cache.getCurrentSpace() <= cache.getSpaceLimit());
+			assertTrue(cache.getEvictionCount() > 0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void concurrentRemovals() throws Exception {
+		final TestCache cache = new TestCache(handles.size());
+		for (Openable handle : handles) {
+			cache.put(handle, new Object());
+		}
+		assertEquals(handles.size(), cache.getCurrentSpace());
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<?>> removers = new ArrayList<>();
+			for (int t = 0; t < 4; ++t) {
+				final int first = t;
+				removers.add(executor.submit(() -> {
+					for (int i = first; i < handles.size(); i += 4) {
+						assertNotNull(cache.remove(handles.get(i)));
+					}
+				}));
+			}
+			for (Future<?> remover : removers) {
+				remover.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getCurrentSpace());
+	}
+}
@@ -22,13 +22,16 @@ import java.util.List;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.dltk.ast.declarations.ModuleDeclaration;
 import org.eclipse.dltk.core.IModelElement;
 import org.eclipse.dltk.core.IScriptFolder;
 import org.eclipse.dltk.core.ISourceModule;
+import org.eclipse.dltk.core.ISourceModuleInfoCache.ISourceModuleInfo;
 import org.eclipse.dltk.core.ModelException;
 import org.eclipse.dltk.core.SourceParserUtil;
 import org.eclipse.dltk.core.tests.ProjectSetup;
 import org.eclipse.dltk.core.tests.model.ModelTestsPlugin;
+import org.eclipse.dltk.internal.core.SourceModuleInfoCache;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
@@ -198,4 +201,91 @@ public class SourceModuleInfoCacheTest extends Assert {
 		assertThat(modules.get(0), not(IS_CACHED));
 	}
 
+	private ISourceModule moduleHandle(int index) throws ModelException {
+		return project.getSourceModule("src", "folder1/h" + index + ".txt");
+	}
+
+	@Test
+	public void statistics() throws ModelException {
+		final SourceModuleInfoCache cache = new SourceModuleInfoCache(10,
+				Long.MAX_VALUE);
+		final ISourceModule module = moduleHandle(0);
+		final ISourceModuleInfo info = cache.get(module);
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertSame(info, cache.get(module));
+		assertSame(info, cache.get(module));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(2.0 / 3, cache.getHitRate(), 0.001);
+		assertEquals(0, cache.getEvictionCount());
+	}
+
+	@Test
+	public void weightFromInfo() throws ModelException {
+		final SourceModuleInfoCache cache = new SourceModuleInfoCache(10,
+				Long.MAX_VALUE);
+		final ISourceModuleInfo info = cache.get(moduleHandle(0));
+		final long empty = cache.getWeight();
+		assertTrue(empty > 0);
+		info.put("ast", new ModuleDeclaration(10000));
+		assertTrue(cache.getWeight() >= empty + 10000);
+		info.remove("ast");
+		assertEquals(empty, cache.getWeight());
+		cache.get(moduleHandle(1));
+		assertEquals(2 * empty, cache.getWeight());
+		cache.remove(moduleHandle(0));
+		assertEquals(empty, cache.getWeight());
+		cache.clear();
+		assertEquals(0, cache.getWeight());
+		// the removed information is not accounted any more
+		info.put("ast", new ModuleDeclaration(10000));
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void capacityEviction() throws ModelException {
+		final SourceModuleInfoCache cache = new SourceModuleInfoCache(4,
+				Long.MAX_VALUE);
+		for (int i = 0; i < 10; ++i) {
+			cache.get(moduleHandle(i));
+		}
+		assertEquals(4, cache.size());
+		assertEquals(6, cache.getEvictionCount());
+	}
+
+	@Test
+	public void frequentSurvivesScan() throws ModelException {
+		final SourceModuleInfoCache cache = new SourceModuleInfoCache(4,
+				Long.MAX_VALUE);
+		final ISourceModule hot = moduleHandle(0);
+		final ISourceModuleInfo info = cache.get(hot);
+		for (int i = 0; i < 3; ++i) {
+			assertSame(info, cache.get(hot));
+		}
+		for (int i = 1; i <= 8; ++i) {
+			cache.get(moduleHandle(i));
+		}
+		assertEquals(4, cache.size());
+		assertSame(info, cache.get(hot));
+		assertEquals(4, cache.getHitCount());
+		// a module used once is evicted by the scan
+		cache.get(moduleHandle(1));
+		assertEquals(4, cache.getHitCount());
+	}
+
+	@Test
+	public void memoryBudget() throws ModelException {
+		final long budget = 100 * 1024;
+		final SourceModuleInfoCache cache = new SourceModuleInfoCache(1000,
+				budget);
+		assertEquals(budget, cache.getMemoryBudget());
+		for (int i = 0; i < 10; ++i) {
+			cache.get(moduleHandle(i)).put("ast", new ModuleDeclaration(4000));
+			assertTrue(cache.getWeight() <= budget);
+		}
+		assertTrue(cache.size() < 10);
+		assertTrue(cache.getEvictionCount() > 0);
+		assertEquals(10, cache.size() + cache.getEvictionCount());
+	}
 }
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.dltk.core.tests.model;
 
+import java.util.Arrays;
+
 import org.eclipse.dltk.compiler.ISourceElementRequestor;
 import org.eclipse.dltk.compiler.env.IModuleSource;
 import org.eclipse.dltk.compiler.problem.IProblemReporter;
@@ -63,6 +65,11 @@ public class TestSourceElementParser implements ISourceElementParser {
 				if (cmd.equals("enterType")) {
 					ISourceElementRequestor.TypeInfo ti = new ISourceElementRequestor.TypeInfo();
 					ti.name = arg;
+					if (split.length > 2) {
+						// the super classes follow the name
+						ti.superclasses = Arrays.copyOfRange(split, 2,
+								split.length);
+					}
 					ti.declarationStart = currentLineOffset;
 					ti.nameSourceStart = currentLineOffset;
 					ti.nameSourceEnd = currentLineOffset + line.length();
@@ -9,6 +9,7 @@
  *******************************************************************************/
 package org.eclipse.dltk.core.tests.model;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -18,11 +19,17 @@ import java.util.TreeSet;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.dltk.core.IBuffer;
 import org.eclipse.dltk.core.IModelElement;
+import org.eclipse.dltk.core.IModelElementDelta;
 import org.eclipse.dltk.core.ISourceModule;
 import org.eclipse.dltk.core.IType;
+import org.eclipse.dltk.core.ITypeHierarchy;
+import org.eclipse.dltk.core.ModelException;
 import org.eclipse.dltk.core.WorkingCopyOwner;
 import org.eclipse.dltk.internal.core.ModelElement;
+import org.eclipse.dltk.internal.core.ModelElementDelta;
+import org.eclipse.dltk.internal.core.ModelManager;
 import org.eclipse.dltk.internal.core.SourceType;
+import org.eclipse.dltk.internal.core.hierarchy.ChangeCollector;
 import org.eclipse.dltk.internal.core.hierarchy.TypeHierarchy;
 
 public class TypeHierarchyTests extends ModifyingResourceTests {
@@ -106,6 +113,87 @@ public class TypeHierarchyTests extends ModifyingResourceTests {
 		}
 	}
 
+	/**
+	 * Counts the full computations and remembers the types changed by the
+	 * last incremental refresh.
+	 */
+	static class IncrementalTypeHierarchy extends TypeHierarchy {
+		int computeCount;
+		Set<IType> changedTypes;
+
+		IncrementalTypeHierarchy(IType type) {
+			super(type, null, type.getScriptProject(), true);
+		}
+
+		@Override
+		protected void compute() throws ModelException, CoreException {
+			++computeCount;
+			super.compute();
+		}
+
+		@Override
+		protected Set<IType> computeChanges(ChangeCollector collector)
+				throws ModelException, CoreException {
+			changedTypes = super.computeChanges(collector);
+			return changedTypes;
+		}
+
+		void collect(ISourceModule module, IModelElementDelta delta)
+				throws ModelException {
+			if (changeCollector == null) {
+				changeCollector = new ChangeCollector(this);
+			}
+			changeCollector.addChange(module, delta);
+		}
+	}
+
+	private static String typeSource(String name, String... superclasses) {
+		StringBuilder source = new StringBuilder("# parseme!\nenterType ");
+		source.append(name);
+		for (String superclass : superclasses) {
+			source.append(' ').append(superclass);
+		}
+		return source.append("\nexitType\n").toString();
+	}
+
+	private IType createType(String name, String... superclasses)
+			throws CoreException {
+		String path = "P/src/x/y/" + name + ".txt";
+		createFile(path, typeSource(name, superclasses));
+		return getSourceModule(path).getType(name);
+	}
+
+	private static Set<IType> asSet(IType... types) {
+		return new HashSet<>(Arrays.asList(types));
+	}
+
+	private static IncrementalTypeHierarchy createHierarchy(IType focusType)
+			throws ModelException {
+		waitUntilIndexesReady();
+		IncrementalTypeHierarchy hierarchy = new IncrementalTypeHierarchy(
+				focusType);
+		hierarchy.refresh(null);
+		return hierarchy;
+	}
+
+	/**
+	 * Compares the given hierarchy with the one computed from scratch.
+	 */
+	private static void assertComputedHierarchy(ITypeHierarchy actual)
+			throws ModelException {
+		IType focusType = actual.getType();
+		ITypeHierarchy expected = createHierarchy(focusType);
+		Set<IType> types = asSet(expected.getAllSubtypes(focusType));
+		assertEquals(types, asSet(actual.getAllSubtypes(focusType)));
+		types.add(focusType);
+		for (IType type : types) {
+			assertEquals(asSet(expected.getSuperclass(type)),
+					asSet(actual.getSuperclass(type)));
+			assertEquals(asSet(expected.getSubtypes(type)),
+					asSet(actual.getSubtypes(type)));
+		}
+	}
+
 	private Map<String, SourceType> createFakeTypes(char begin, char end, ModelElement modelElement) {
 		Map<String, SourceType> types = new HashMap<>();
 		for (char i = begin; i <= end; i++) {
@@ -483,4 +571,93 @@ public class TypeHierarchyTests extends ModifyingResourceTests {
 		useCacheSuperclass = false;
 		testFullyCyclicHierarchy009();
 	}
+
+	public void testIncrementalTypeAdded011() throws Exception {
+		IType a = createType("A");
+		IType b = createType("B", "A");
+		IncrementalTypeHierarchy hierarchy = createHierarchy(a);
+		assertEquals(asSet(b), asSet(hierarchy.getAllSubtypes(a)));
+
+		IType c = createType("C", "B");
+		ModelElementDelta delta = new ModelElementDelta(c.getSourceModule());
+		delta.added(c);
+		hierarchy.collect(c.getSourceModule(), delta);
+		waitUntilIndexesReady();
+		hierarchy.refresh(null);
+
+		assertEquals(1, hierarchy.computeCount);
+		assertTrue(hierarchy.changedTypes.containsAll(asSet(b, c)));
+		assertEquals(asSet(b, c), asSet(hierarchy.getAllSubtypes(a)));
+		assertEquals(asSet(b), asSet(hierarchy.getSuperclass(c)));
+		assertComputedHierarchy(hierarchy);
+	}
+
+	public void testIncrementalTypeRemoved012() throws Exception {
+		IType a = createType("A");
+		IType b = createType("B", "A");
+		IType d = createType("D", "B");
+		IncrementalTypeHierarchy hierarchy = createHierarchy(a);
+		assertEquals(asSet(b, d), asSet(hierarchy.getAllSubtypes(a)));
+
+		editFile("P/src/x/y/B.txt", "# parseme!\n");
+		ModelElementDelta delta = new ModelElementDelta(b.getSourceModule());
+		delta.removed(b);
+		hierarchy.collect(b.getSourceModule(), delta);
+		waitUntilIndexesReady();
+		hierarchy.refresh(null);
+
+		assertEquals(1, hierarchy.computeCount);
+		// the subtypes of the removed type are dropped with it
+		assertTrue(hierarchy.changedTypes.containsAll(asSet(a, d)));
+		assertEquals(0, hierarchy.getAllSubtypes(a).length);
+		assertFalse(hierarchy.contains(b));
+		assertFalse(hierarchy.contains(d));
+		assertComputedHierarchy(hierarchy);
+	}
+
+	public void testIncrementalSupertypeChanged013() throws Exception {
+		IType a = createType("A");
+		IType b = createType("B", "A");
+		IType d = createType("D", "B");
+		IncrementalTypeHierarchy hierarchy = createHierarchy(a);
+		assertEquals(asSet(b), asSet(hierarchy.getSuperclass(d)));
+
+		editFile("P/src/x/y/D.txt", typeSource("D", "A"));
+		ModelElementDelta delta = new ModelElementDelta(d.getSourceModule());
+		delta.changed(d, IModelElementDelta.F_SUPER_TYPES);
+		hierarchy.collect(d.getSourceModule(), delta);
+		waitUntilIndexesReady();
+		hierarchy.refresh(null);
+
+		assertEquals(1, hierarchy.computeCount);
+		assertTrue(hierarchy.changedTypes.containsAll(asSet(a, b, d)));
+		assertEquals(asSet(a), asSet(hierarchy.getSuperclass(d)));
+		assertEquals(asSet(b, d), asSet(hierarchy.getSubtypes(a)));
+		assertEquals(0, hierarchy.getSubtypes(b).length);
+		assertComputedHierarchy(hierarchy);
+	}
+
+	public void testSnapshotIgnoredAfterEdit014() throws Exception {
+		final long threshold = TypeHierarchy.SNAPSHOT_THRESHOLD;
+		TypeHierarchy.SNAPSHOT_THRESHOLD = 0;
+		try {
+			IType a = createType("A");
+			IType b = createType("B", "A");
+			IType d = createType("D");
+			waitUntilIndexesReady();
+			ModelManager.getModelManager().getIndexManager().saveIndexes();
+			assertEquals(asSet(b), asSet(createHierarchy(a).getAllSubtypes(a)));
+			// restored from the snapshot
+			assertEquals(asSet(b), asSet(createHierarchy(a).getAllSubtypes(a)));
+
+			editFile("P/src/x/y/D.txt", typeSource("D", "A"));
+			// the indexing of the change may not be done yet
+			IncrementalTypeHierarchy hierarchy = new IncrementalTypeHierarchy(a);
+			hierarchy.refresh(null);
+			assertEquals(asSet(b, d), asSet(hierarchy.getAllSubtypes(a)));
+			assertEquals(asSet(a), asSet(hierarchy.getSuperclass(d)));
+		} finally {
+			TypeHierarchy.SNAPSHOT_THRESHOLD = threshold;
+		}
+	}
 }
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.debug.dbgp.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.eclipse.dltk.dbgp.exceptions.DbgpProtocolException;
+import org.eclipse.dltk.dbgp.internal.DbgpPacketReader;
+import org.eclipse.dltk.dbgp.internal.DbgpRawPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpNotifyPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpPacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpResponsePacket;
+import org.eclipse.dltk.dbgp.internal.packets.DbgpStreamPacket;
+import org.eclipse.dltk.dbgp.internal.utils.Base64Helper;
+import org.eclipse.dltk.dbgp.internal.utils.DbgpXmlPacketParser;
+import org.eclipse.osgi.util.NLS;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+public class DbgpPacketReaderTests extends DbgpProtocolTests {
+
+	/**
+	 * Returns at most the given number of bytes per read, as a socket may.
+	 */
+	private static class ChunkedInputStream extends ByteArrayInputStream {
+		private final int chunk;
+
+		public ChunkedInputStream(byte[] buf, int chunk) {
+			super(buf);
+			this.chunk = chunk;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, chunk));
+		}
+	}
+
+	private static byte[] frame(String... packets) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (String packet : packets) {
+			byte[] xml = packet.getBytes(StandardCharsets.ISO_8859_1);
+			out.write(Integer.toString(xml.length)
+					.getBytes(StandardCharsets.US_ASCII));
+			out.write(0);
+			out.write(xml);
+			out.write(0);
+		}
+		return out.toByteArray();
+	}
+
+	private static String largePacket() {
+		char[] text = new char[20000];
+		Arrays.fill(text, 'x');
+		return "<stream type=\"stdout\">" + new String(text) + "</stream>";
+	}
+
+	private static DbgpPacket parsePacket(String xml)
+			throws DbgpProtocolException {
+		return DbgpXmlPacketParser
+				.parsePacket(xml.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	private static void assertReadFails(byte[] bytes) {
+		try {
+			new DbgpPacketReader(new ByteArrayInputStream(bytes)).readPacket();
+			fail("IOException expected");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testReadPackets() throws IOException {
+		final String first = "<init appid=\"1\"/>";
+		final String second = largePacket();
+		final String third = "<response transaction_id=\"2\"/>";
+		for (int chunk : new int[] { 1, 7, 8192, 65536 }) {
+			DbgpPacketReader reader = new DbgpPacketReader(
+					new ChunkedInputStream(frame(first, second, third), chunk));
+			for (String expected : new String[] { first, second, third }) {
+				DbgpRawPacket packet = reader.readPacket();
+				byte[] xml = expected.getBytes(StandardCharsets.ISO_8859_1);
+				assertEquals(xml.length, packet.getSize());
+				assertArrayEquals(xml, packet.getXml());
+			}
+			assertReadFails(new byte[0]);
+		}
+	}
+
+	@Test
+	public void testReadInvalidPackets() throws IOException {
+		assertReadFails("0\0\0".getBytes(StandardCharsets.US_ASCII));
+		assertReadFails("1x\0<\0".getBytes(StandardCharsets.US_ASCII));
+		// no termination byte
+		assertReadFails("4\0<a/>".getBytes(StandardCharsets.US_ASCII));
+		// truncated body
+		assertReadFails("10\0<a/>".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void testParseStreamPacket() throws DbgpProtocolException {
+		DbgpPacket packet = parsePacket(
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+						+ "<stream type=\"stderr\" encoding=\"base64\">"
+						+ Base64Helper.encodeString("Hello, world")
+						+ "</stream>");
+		assertTrue(packet instanceof DbgpStreamPacket);
+		DbgpStreamPacket stream = (DbgpStreamPacket) packet;
+		assertTrue(stream.isStderr());
+		assertEquals("Hello, world", stream.getTextContent());
+		assertEquals("stream", stream.getContent().getTagName());
+	}
+
+	@Test
+	public void testParseStreamPacketCData() throws DbgpProtocolException {
+		DbgpStreamPacket stream = (DbgpStreamPacket) parsePacket(
+				"<stream type=\"stdout\"><![CDATA["
+						+ Base64Helper.encodeString("a < b") + "]]></stream>");
+		assertTrue(stream.isStdout());
+		assertEquals("a < b", stream.getTextContent());
+	}
+
+	@Test
+	public void testParseResponsePacket() throws Exception {
+		String xml = NLS.bind(getResourceAsString("stack_get.xml"),
+				new Object[] { "42" });
+		DbgpPacket packet = parsePacket(xml);
+		assertTrue(packet instanceof DbgpResponsePacket);
+		assertEquals(42, ((DbgpResponsePacket) packet).getTransactionId());
+		// the content built while reading is the tree of the DOM parser
+		Element expected = parseResponse(xml);
+		assertTrue(expected.isEqualNode(packet.getContent()));
+	}
+
+	@Test
+	public void testParseInitPacket() throws DbgpProtocolException {
+		DbgpPacket packet = parsePacket(
+				"<init appid=\"test\" idekey=\"key\" session=\"1\"/>");
+		assertTrue(packet instanceof DbgpResponsePacket);
+		assertEquals(-1, ((DbgpResponsePacket) packet).getTransactionId());
+		assertEquals("test", packet.getContent().getAttribute("appid"));
+	}
+
+	@Test
+	public void testParseNotifyPacket() throws DbgpProtocolException {
+		DbgpPacket packet = parsePacket("<notify name=\"breakpoint\"/>");
+		assertTrue(packet instanceof DbgpNotifyPacket);
+		assertEquals("breakpoint", ((DbgpNotifyPacket) packet).getName());
+	}
+
+	@Test
+	public void testParseUnknownPacket() throws DbgpProtocolException {
+		assertNull(parsePacket("<unknown/>"));
+	}
+
+	@Test(expected = DbgpProtocolException.class)
+	public void testParseMalformedPacket() throws DbgpProtocolException {
+		parsePacket("<response transaction_id=\"1\"><stack></response>");
+	}
+
+	@Test
+	public void testReadAndParse() throws IOException, DbgpProtocolException {
+		InputStream input = new ByteArrayInputStream(frame(largePacket()));
+		DbgpRawPacket raw = new DbgpPacketReader(input).readPacket();
+		DbgpStreamPacket stream = (DbgpStreamPacket) DbgpXmlPacketParser
+				.parsePacket(raw.getXml());
+		assertTrue(stream.isStdout());
+	}
+}
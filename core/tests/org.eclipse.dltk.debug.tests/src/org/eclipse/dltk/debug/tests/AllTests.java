@@ -10,6 +10,7 @@
 package org.eclipse.dltk.debug.tests;
 
 import org.eclipse.dltk.debug.dbgp.tests.DbgpBase64Tests;
+import org.eclipse.dltk.debug.dbgp.tests.DbgpPacketReaderTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpPropertyCommandsTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpRequestTests;
 import org.eclipse.dltk.debug.dbgp.tests.DbgpStackCommandsTests;
@@ -25,7 +26,8 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ DbgpRequestTests.class, DbgpStackLevelTests.class, DbgpPropertyCommandsTests.class,
 		DbgpStackCommandsTests.class, DbgpBase64Tests.class, DbgpStatusTests.class, DbgpServiceTests.class,
-		BreakpointTests.class, VariableNameComparatorTest.class, ScriptBreakpointManagerTest.class })
+		BreakpointTests.class, VariableNameComparatorTest.class, ScriptBreakpointManagerTest.class,
+		DbgpPacketReaderTests.class })
 public class AllTests {
 
 }
@@ -3,6 +3,7 @@ package org.eclipse.dltk.core.internal.rse;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.dltk.core.internal.rse.perfomance.RSEMetrics;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -32,6 +33,10 @@ public class DLTKRSEPlugin extends Plugin {
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		if (RSEMetrics.PERFOMANCE_TRACING) {
+			System.out.println(RSEMetrics.dump());
+		}
+		RSEEnvironmentMirror.disposeAll();
 		plugin = null;
 		super.stop(context);
 	}
@@ -25,6 +25,8 @@ import java.io.PipedOutputStream;
 
 import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.environment.IExecutionLogger;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics.Operation;
 import org.eclipse.rse.services.shells.HostShellOutputStream;
 import org.eclipse.rse.services.shells.IHostOutput;
 import org.eclipse.rse.services.shells.IHostShell;
@@ -51,6 +53,9 @@ public class MyHostShellProcessAdapter extends Process implements
 	private PipedOutputStream hostShellError = null;
 	private String pattern1;
 	private boolean done = false;
+	private final EnvironmentMetrics metrics;
+	private final long start;
+	private boolean completed = false;
 
 	/**
 	 * Constructor.
@@ -63,6 +68,23 @@ public class MyHostShellProcessAdapter extends Process implements
 	 */
 	public MyHostShellProcessAdapter(IHostShell hostShell, String pattern1,
 			IExecutionLogger logger) throws java.io.IOException {
+		this(hostShell, pattern1, logger, null, 0);
+	}
+
+	/**
+	 * Constructor, the duration of the execution is recorded when the command
+	 * completes or the process is destroyed.
+	 *
+	 * @param metrics
+	 *            the metrics to record the {@link Operation#EXECUTION} to
+	 * @param start
+	 *            the {@link System#nanoTime()} the execution started at
+	 */
+	public MyHostShellProcessAdapter(IHostShell hostShell, String pattern1,
+			IExecutionLogger logger, EnvironmentMetrics metrics, long start)
+			throws java.io.IOException {
+		this.metrics = metrics;
+		this.start = start;
 		this.logger = logger;
 		this.hostShell = hostShell;
 		this.pattern1 = pattern1;
@@ -91,6 +113,7 @@ public class MyHostShellProcessAdapter extends Process implements
 	 */
 	@Override
 	public synchronized void destroy() {
+		complete();
 		if (!done && hostShell.isActive()) {
 			hostShell.writeToShell(CTRL_C);
 			// let the shell time to terminate in standard way
@@ -200,6 +223,7 @@ public class MyHostShellProcessAdapter extends Process implements
 				// ignore because we're polling to see if shell is still active.
 			}
 		}
+		complete();
 
 		try {
 			// Wait a second to try to get some more output from the target
@@ -219,9 +243,17 @@ public class MyHostShellProcessAdapter extends Process implements
 
 	private synchronized void endOfOutput() {
 		done = true;
+		complete();
 		notifyAll();
 	}
 
+	private void complete() {
+		if (!completed && metrics != null) {
+			completed = true;
+			metrics.recordSince(Operation.EXECUTION, start);
+		}
+	}
+
 	/**
 	 * Process an RSE Shell event, by writing the lines of text contained in the
 	 * event into the adapter's streams.
@@ -0,0 +1,636 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.dltk.core.DLTKCore;
+import org.eclipse.dltk.core.environment.IEnvironmentMirror;
+import org.eclipse.dltk.core.environment.IExecutionEnvironment;
+import org.eclipse.dltk.core.environment.IFileHandle;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics.Operation;
+import org.eclipse.dltk.core.internal.rse.perfomance.RSEMetrics;
+import org.eclipse.dltk.ssh.core.ISshConnectionExtension;
+
+/**
+ * Mirror of the remote folders in the state location of the plug-in.
+ *
+ * The folder is archived on the remote host by <code>tar</code> and the
+ * archive is transferred through the remote shell, encoded by
+ * <code>base64</code> as the shell output is text only. The files are unpacked
+ * with the timestamps from the archive, a file is read from the mirror as long
+ * as the remote file has the same timestamp. When the direct ssh connection
+ * is available, the timestamps are fetched at once and a few changed files are
+ * downloaded concurrently instead of the whole folder.
+ *
+ * The least recently prefetched folders are removed over
+ * {@link #MAX_FOLDERS}, as well as the mirrors not used for
+ * {@link #MAX_UNUSED_TIME}, e.g. of the removed environments.
+ */
+public class RSEEnvironmentMirror implements IEnvironmentMirror {
+
+	/**
+	 * The minimal number of the missing or changed files to transfer the whole
+	 * folder instead of the files.
+	 */
+	private static final int MIN_CHANGED_FILES = 10;
+
+	/**
+	 * The maximal number of the mirrored folders of an environment.
+	 */
+	private static final int MAX_FOLDERS = 64;
+
+	/**
+	 * The time after which the unused mirrors are removed.
+	 */
+	private static final long MAX_UNUSED_TIME = TimeUnit.DAYS.toMillis(30);
+
+	/**
+	 * The time the files checked during the prefetch are read from the mirror
+	 * without checking the remote timestamp again.
+	 */
+	private static final long VERIFIED_TIMEOUT = TimeUnit.MINUTES.toNanos(1);
+
+	private static final String MIRRORS_FOLDER = "mirrors"; //$NON-NLS-1$
+	private static final String FILES_FOLDER = "files"; //$NON-NLS-1$
+	private static final String FOLDER_FILE = "folder"; //$NON-NLS-1$
+
+	/**
+	 * Marks the line with the exit status of <code>tar</code>, printed after
+	 * the <code>base64</code> output. It is not in the base64 alphabet.
+	 */
+	private static final char STATUS_MARKER = '#';
+
+	/**
+	 * Returns the command archiving the remote folder. The folder is passed to
+	 * <code>tar</code> rather than being the working folder, so the missing
+	 * one fails the archiving instead of archiving the home folder. The exit
+	 * status of <code>tar</code> is passed out of the pipe by the file
+	 * descriptor 3 as the status of a pipe is the status of its last command.
+	 */
+	protected static String[] getArchiveCommand(String folder) {
+		return new String[] { "{ status=$( { { tar -czf - -C " //$NON-NLS-1$
+				+ quote(folder)
+				+ " . 2>/dev/null; echo $? >&3; } | base64 >&4; } 3>&1 ); } 4>&1;", //$NON-NLS-1$
+				"echo", "\"" + STATUS_MARKER + "$status\"" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Quotes the value for the shell.
+	 */
+	private static String quote(String value) {
+		return '\'' + value.replace("'", "'\\''") + '\''; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static final Map<String, RSEEnvironmentMirror> mirrors = new ConcurrentHashMap<>();
+
+	private static final AtomicBoolean unusedDeleted = new AtomicBoolean();
+
+	/**
+	 * Returns the mirror of the environment, or <code>null</code> if the
+	 * plug-in is not running.
+	 */
+	public static RSEEnvironmentMirror getMirror(RSEEnvironment environment) {
+		final DLTKRSEPlugin plugin = DLTKRSEPlugin.getDefault();
+		if (plugin == null) {
+			return null;
+		}
+		final File root = plugin.getStateLocation().append(MIRRORS_FOLDER)
+				.toFile();
+		return mirrors.computeIfAbsent(environment.getId(), id -> {
+			if (unusedDeleted.compareAndSet(false, true)) {
+				deleteUnused(root);
+			}
+			return new RSEEnvironmentMirror(environment,
+					new File(root, digest(id)));
+		});
+	}
+
+	/**
+	 * Forgets the mirrors when the plug-in stops.
+	 */
+	static void disposeAll() {
+		mirrors.clear();
+		unusedDeleted.set(false);
+	}
+
+	private static void deleteUnused(File root) {
+		final File[] locations = root.listFiles();
+		if (locations == null) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		for (File location : locations) {
+			if (now - location.lastModified() > MAX_UNUSED_TIME) {
+				delete(location);
+			}
+		}
+	}
+
+	private final RSEEnvironment environment;
+	private final String environmentId;
+	private final File location;
+	private final int maxFolders;
+
+	/**
+	 * The mirrored folders, to the local folder of their files.
+	 */
+	private final Map<IPath, File> folders = new ConcurrentHashMap<>();
+
+	/**
+	 * The files found up to date by the recent prefetches, to the time they
+	 * were checked.
+	 */
+	private final Map<IPath, Long> verified = new ConcurrentHashMap<>();
+
+	private RSEEnvironmentMirror(RSEEnvironment environment, File location) {
+		this(environment, environment.getId(), location, MAX_FOLDERS);
+	}
+
+	/**
+	 * Creates the mirror without the remote environment, the subclasses
+	 * provide the connection by {@link #getSshConnection()} and
+	 * {@link #archive(IPath)}.
+	 */
+	protected RSEEnvironmentMirror(String environmentId, File location,
+			int maxFolders) {
+		this(null, environmentId, location, maxFolders);
+	}
+
+	private RSEEnvironmentMirror(RSEEnvironment environment,
+			String environmentId, File location, int maxFolders) {
+		this.environment = environment;
+		this.environmentId = environmentId;
+		this.location = location;
+		this.maxFolders = maxFolders;
+		touch(location);
+		load();
+	}
+
+	/**
+	 * Returns the current time in nanoseconds, for the recent checks of the
+	 * files.
+	 */
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Returns the current time in milliseconds, for the use of the folders.
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	private void load() {
+		final File[] entries = location.listFiles();
+		if (entries == null) {
+			return;
+		}
+		final long now = currentTimeMillis();
+		for (File entry : entries) {
+			final File folderFile = new File(entry, FOLDER_FILE);
+			final File files = new File(entry, FILES_FOLDER);
+			if (!folderFile.isFile() || !files.isDirectory()
+					|| now - entry.lastModified() > MAX_UNUSED_TIME) {
+				delete(entry);
+				continue;
+			}
+			try {
+				final String folder = new String(
+						Files.readAllBytes(folderFile.toPath()),
+						StandardCharsets.UTF_8);
+				folders.put(Path.fromPortableString(folder), files);
+			} catch (IOException e) {
+				delete(entry);
+			}
+		}
+		evict();
+	}
+
+	/**
+	 * Returns the mirrored folder containing the path, or <code>null</code>.
+	 */
+	private IPath findRoot(IPath path) {
+		for (int i = path.segmentCount(); i >= 0; --i) {
+			final IPath root = path.uptoSegment(i);
+			if (folders.containsKey(root)) {
+				return root;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the local file of the path, which may not exist, or
+	 * <code>null</code> if the path is not in a mirrored folder.
+	 */
+	private File findLocal(IPath path) {
+		final IPath root = findRoot(path);
+		final File files = root != null ? folders.get(root) : null;
+		if (files == null) {
+			return null;
+		}
+		return new File(files,
+				path.removeFirstSegments(root.segmentCount()).toOSString());
+	}
+
+	@Override
+	public File getFile(IFileHandle file) {
+		final IPath path = file.getPath();
+		final File local = findLocal(path);
+		if (local == null || !local.isFile()) {
+			return null;
+		}
+		final Long since = verified.get(path);
+		if (since != null
+				&& nanoTime() - since.longValue() < VERIFIED_TIMEOUT) {
+			return local;
+		}
+		return isSameTimestamp(local, file) ? local : null;
+	}
+
+	private static boolean isSameTimestamp(File local, IFileHandle file) {
+		// the archive keeps the timestamps in seconds
+		return local.lastModified() / 1000 == file.lastModified() / 1000;
+	}
+
+	@Override
+	public boolean prefetch(IPath folder, Collection<IFileHandle> files,
+			IProgressMonitor monitor) {
+		folder = folder.removeTrailingSeparator();
+		final long now = nanoTime();
+		verified.values()
+				.removeIf(since -> now - since.longValue() >= VERIFIED_TIMEOUT);
+		final ISshConnectionExtension ssh = getSshConnection();
+		if (ssh != null) {
+			RSEFileHandle.fetchSshFiles(ssh, files);
+		}
+		final List<IFileHandle> changed = new ArrayList<>();
+		for (IFileHandle file : files) {
+			final File local = findLocal(file.getPath());
+			if (local != null && local.isFile()
+					&& isSameTimestamp(local, file)) {
+				verified.put(file.getPath(), Long.valueOf(now));
+			} else {
+				changed.add(file);
+				if (ssh == null && changed.size() >= MIN_CHANGED_FILES) {
+					break;
+				}
+			}
+		}
+		final IPath root = findRoot(folder);
+		final File rootFiles = root != null ? folders.get(root) : null;
+		if (rootFiles != null) {
+			touch(rootFiles.getParentFile());
+		}
+		if (changed.isEmpty()
+				|| ssh == null && changed.size() < MIN_CHANGED_FILES) {
+			return true;
+		}
+		if (monitor != null && monitor.isCanceled()) {
+			return false;
+		}
+		synchronized (this) {
+			final long start = nanoTime();
+			try {
+				final int count;
+				if (changed.size() >= MIN_CHANGED_FILES) {
+					count = transfer(folder, monitor);
+					// the archive has just been taken
+					for (IFileHandle file : changed) {
+						final File local = findLocal(file.getPath());
+						if (local != null && local.isFile()) {
+							verified.put(file.getPath(), Long.valueOf(start));
+						}
+					}
+				} else {
+					count = download(folder, ssh, changed);
+				}
+				if (DLTKCore.VERBOSE) {
+					System.out.println("Mirrored " + count + " files of " //$NON-NLS-1$ //$NON-NLS-2$
+							+ folder + " in " //$NON-NLS-1$
+							+ (nanoTime() - start) / 1000000 + " ms"); //$NON-NLS-1$
+				}
+				return true;
+			} catch (CoreException | IOException e) {
+				DLTKRSEPlugin.logWarning("Failed to mirror " + folder, e); //$NON-NLS-1$
+				return false;
+			} finally {
+				RSEMetrics.get(environmentId)
+						.recordSince(Operation.MIRROR_TRANSFER, start);
+			}
+		}
+	}
+
+	/**
+	 * Downloads the files over the direct ssh connection into the mirror of
+	 * the folder, or of its nearest mirrored parent.
+	 */
+	private int download(IPath folder, ISshConnectionExtension ssh,
+			List<IFileHandle> changed) throws IOException {
+		IPath root = findRoot(folder);
+		File files = root != null ? folders.get(root) : null;
+		if (files == null) {
+			root = folder;
+			files = createFolder(folder);
+		}
+		final IPath[] paths = new IPath[changed.size()];
+		for (int i = 0; i < paths.length; ++i) {
+			final IFileHandle file = changed.get(i);
+			paths[i] = file instanceof RSEFileHandle
+					? ((RSEFileHandle) file).getSshPath()
+					: file.getPath();
+		}
+		final Map<IPath, byte[]> contents = ssh.getContents(paths);
+		int count = 0;
+		for (int i = 0; i < paths.length; ++i) {
+			final byte[] data = contents.get(paths[i]);
+			final IFileHandle file = changed.get(i);
+			final IPath path = file.getPath();
+			if (data == null || !root.isPrefixOf(path)) {
+				continue;
+			}
+			final File local = new File(files,
+					path.removeFirstSegments(root.segmentCount()).toOSString());
+			local.getParentFile().mkdirs();
+			Files.write(local.toPath(), data);
+			local.setLastModified(file.lastModified());
+			verified.put(path, Long.valueOf(nanoTime()));
+			++count;
+		}
+		return count;
+	}
+
+	/**
+	 * Creates the empty mirror of the folder.
+	 */
+	private File createFolder(IPath folder) throws IOException {
+		final File target = new File(location,
+				digest(folder.toPortableString()));
+		delete(target);
+		final File files = new File(target, FILES_FOLDER);
+		if (!files.mkdirs()) {
+			throw new IOException("Failed to create " + files); //$NON-NLS-1$
+		}
+		Files.write(new File(target, FOLDER_FILE).toPath(),
+				folder.toPortableString().getBytes(StandardCharsets.UTF_8));
+		folders.put(folder, files);
+		touch(target);
+		evict();
+		return files;
+	}
+
+	/**
+	 * Returns the direct ssh connection to the environment, or
+	 * <code>null</code> if it is not available.
+	 */
+	protected ISshConnectionExtension getSshConnection() {
+		return environment != null
+				? RSEFileHandle.getSshConnection(environment)
+				: null;
+	}
+
+	/**
+	 * Starts archiving the remote folder, the output of the process is the
+	 * archive encoded by <code>base64</code> followed by the line with the
+	 * exit status of <code>tar</code>.
+	 */
+	protected Process archive(IPath folder) throws CoreException, IOException {
+		final IExecutionEnvironment execEnvironment = environment != null
+				? environment.getAdapter(IExecutionEnvironment.class)
+				: null;
+		if (execEnvironment == null) {
+			throw new IOException("No execution environment"); //$NON-NLS-1$
+		}
+		return execEnvironment.exec(
+				getArchiveCommand(environment.convertPathToString(folder)),
+				null, null);
+	}
+
+	private int transfer(IPath folder, IProgressMonitor monitor)
+			throws CoreException, IOException {
+		final File target = new File(location,
+				digest(folder.toPortableString()));
+		final File temp = new File(location, target.getName() + ".tmp"); //$NON-NLS-1$
+		delete(temp);
+		final File files = new File(temp, FILES_FOLDER);
+		if (!files.mkdirs()) {
+			throw new IOException("Failed to create " + files); //$NON-NLS-1$
+		}
+		final Process process = archive(folder);
+		final StatusInputStream output = new StatusInputStream(
+				process.getInputStream());
+		final int count;
+		try (InputStream input = new GZIPInputStream(
+				Base64.getMimeDecoder().wrap(output))) {
+			count = new TarReader(input, files, monitor).unpack();
+			// the end of the archive, to check its trailer
+			final byte[] buffer = new byte[1024];
+			while (input.read(buffer) >= 0) {
+				// skip
+			}
+			// the rest of the output up to the exit status
+			while (output.read() >= 0) {
+				// skip
+			}
+			if (output.getStatus() != 0) {
+				throw new IOException(
+						"Archiving failed with status " + output.getStatus()); //$NON-NLS-1$
+			}
+		} catch (IOException e) {
+			delete(temp);
+			throw e;
+		} finally {
+			process.destroy();
+		}
+		Files.write(new File(temp, FOLDER_FILE).toPath(),
+				folder.toPortableString().getBytes(StandardCharsets.UTF_8));
+		folders.remove(folder);
+		delete(target);
+		if (!temp.renameTo(target)) {
+			delete(temp);
+			throw new IOException("Failed to rename " + temp); //$NON-NLS-1$
+		}
+		folders.put(folder, new File(target, FILES_FOLDER));
+		touch(target);
+		evict();
+		return count;
+	}
+
+	/**
+	 * Removes the least recently prefetched folders over the limit.
+	 */
+	private void evict() {
+		while (folders.size() > maxFolders) {
+			IPath oldest = null;
+			long oldestTime = Long.MAX_VALUE;
+			for (Map.Entry<IPath, File> entry : folders.entrySet()) {
+				final long time = entry.getValue().getParentFile()
+						.lastModified();
+				if (oldest == null || time < oldestTime) {
+					oldest = entry.getKey();
+					oldestTime = time;
+				}
+			}
+			final File files = folders.remove(oldest);
+			if (files != null) {
+				delete(files.getParentFile());
+			}
+			final IPath removed = oldest;
+			verified.keySet().removeIf(removed::isPrefixOf);
+		}
+	}
+
+	/**
+	 * Removes the mirrored folders of the environment.
+	 */
+	public synchronized void clear() {
+		folders.clear();
+		verified.clear();
+		delete(location);
+	}
+
+	/**
+	 * Records the use of the mirror folder, for the removal of the unused
+	 * ones.
+	 */
+	private void touch(File folder) {
+		folder.setLastModified(currentTimeMillis());
+	}
+
+	private static void delete(File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private static String digest(String value) {
+		try {
+			final byte[] hash = MessageDigest.getInstance("SHA-1") //$NON-NLS-1$
+					.digest(value.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder sb = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+				sb.append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return Integer.toHexString(value.hashCode());
+		}
+	}
+
+	/**
+	 * The output of the archive command up to the line with the exit status.
+	 */
+	private static class StatusInputStream extends FilterInputStream {
+		private boolean lineStart = true;
+		private boolean end;
+		private int status = -1;
+
+		StatusInputStream(InputStream in) {
+			super(new BufferedInputStream(in));
+		}
+
+		/**
+		 * Returns the exit status of <code>tar</code>, or -1 if it is not
+		 * read yet or missing.
+		 */
+		int getStatus() {
+			return status;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (end) {
+				return -1;
+			}
+			final int b = in.read();
+			if (b == STATUS_MARKER && lineStart) {
+				end = true;
+				status = readStatus();
+				return -1;
+			} else if (b < 0) {
+				end = true;
+				return -1;
+			}
+			lineStart = b == '\n' || b == '\r';
+			return b;
+		}
+
+		private int readStatus() throws IOException {
+			int value = -1;
+			for (int b = in.read(); b >= '0' && b <= '9'; b = in.read()) {
+				value = Math.max(value, 0) * 10 + (b - '0');
+			}
+			return value;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			int count = 0;
+			do {
+				final int c = read();
+				if (c < 0) {
+					break;
+				}
+				b[off + count++] = (byte) c;
+			} while (count < len && in.available() > 0);
+			return count == 0 ? -1 : count;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long count = 0;
+			while (count < n && read() >= 0) {
+				++count;
+			}
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return end ? 0 : in.available();
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+}
@@ -16,7 +16,8 @@ import org.eclipse.dltk.core.DLTKCore;
 import org.eclipse.dltk.core.environment.EnvironmentManager;
 import org.eclipse.dltk.core.environment.IEnvironment;
 import org.eclipse.dltk.core.environment.IEnvironmentProvider;
-import org.eclipse.dltk.core.internal.rse.perfomance.RSEPerfomanceStatistics;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics.Operation;
+import org.eclipse.dltk.core.internal.rse.perfomance.RSEMetrics;
 import org.eclipse.rse.core.IRSESystemType;
 import org.eclipse.rse.core.RSECorePlugin;
 import org.eclipse.rse.core.model.IHost;
@@ -272,11 +273,7 @@ public class RSEEnvironmentProvider implements IEnvironmentProvider {
 
 	@Override
 	public IEnvironment getProjectEnvironment(IProject project) {
-		if (RSEPerfomanceStatistics.PERFOMANCE_TRACING) {
-			RSEPerfomanceStatistics
-					.inc(RSEPerfomanceStatistics.HAS_PROJECT_EXECUTIONS);
-		}
-		final long start = System.currentTimeMillis();
+		final long start = System.nanoTime();
 		try {
 			if (project.isAccessible()) {
 				try {
@@ -310,12 +307,8 @@ public class RSEEnvironmentProvider implements IEnvironmentProvider {
 			}
 			return null;
 		} finally {
-			if (RSEPerfomanceStatistics.PERFOMANCE_TRACING) {
-				final long end = System.currentTimeMillis();
-				RSEPerfomanceStatistics.inc(
-						RSEPerfomanceStatistics.HAS_POJECT_EXECUTIONS_TIME,
-						(end - start));
-			}
+			RSEMetrics.get(RSEMetrics.PROVIDER)
+					.recordSince(Operation.PROJECT_ENVIRONMENT, start);
 		}
 	}
 
@@ -28,7 +28,11 @@ import org.eclipse.dltk.core.environment.IDeployment;
 import org.eclipse.dltk.core.environment.IEnvironment;
 import org.eclipse.dltk.core.environment.IExecutionEnvironment;
 import org.eclipse.dltk.core.environment.IExecutionLogger;
-import org.eclipse.dltk.core.internal.rse.perfomance.RSEPerfomanceStatistics;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics.Counter;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics.Operation;
+import org.eclipse.dltk.core.internal.rse.perfomance.MeasuredDeployment;
+import org.eclipse.dltk.core.internal.rse.perfomance.RSEMetrics;
 import org.eclipse.dltk.internal.launching.execution.EFSDeployment;
 import org.eclipse.dltk.utils.TextUtils;
 import org.eclipse.osgi.util.NLS;
@@ -57,10 +61,6 @@ public class RSEExecEnvironment implements IExecutionEnvironment {
 
 	@Override
 	public IDeployment createDeployment() {
-		if (RSEPerfomanceStatistics.PERFOMANCE_TRACING) {
-			RSEPerfomanceStatistics
-					.inc(RSEPerfomanceStatistics.DEPLOYMENTS_CREATED);
-		}
 		if (!getEnvironment().connect()) {
 			return null;
 		}
@@ -70,7 +70,10 @@ public class RSEExecEnvironment implements IExecutionEnvironment {
 					+ getTempName("dltk", ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
 			URI rootUri = createRemoteURI(environment.getHost(), rootPath);
 			try {
-				return new EFSDeployment(environment, rootUri);
+				final EnvironmentMetrics metrics = RSEMetrics.get(environment);
+				metrics.inc(Counter.DEPLOYMENTS_CREATED);
+				return new MeasuredDeployment(
+						new EFSDeployment(environment, rootUri), metrics);
 			} catch (CoreException e) {
 				if (DLTKCore.DEBUG) {
 					e.printStackTrace();
@@ -137,12 +140,7 @@ public class RSEExecEnvironment implements IExecutionEnvironment {
 	@Override
 	public Process exec(String[] cmdLine, IPath workingDir,
 			String[] environment, IExecutionLogger logger) throws CoreException {
-		if (RSEPerfomanceStatistics.PERFOMANCE_TRACING) {
-			RSEPerfomanceStatistics
-					.inc(RSEPerfomanceStatistics.EXECUTION_COUNT);
-		}
-		final long start = RSEPerfomanceStatistics.PERFOMANCE_TRACING ? System
-				.currentTimeMillis() : 0;
+		final long start = System.nanoTime();
 		final IHost host = this.environment.getHost();
 
 		// obtain IFileService
@@ -261,8 +259,10 @@ public class RSEExecEnvironment implements IExecutionEnvironment {
 		}
 
 		// wrap shell as java.lang.Process and return
+		final EnvironmentMetrics metrics = RSEMetrics.get(this.environment);
 		try {
-			return new MyHostShellProcessAdapter(hostShell, token, logger);
+			return new MyHostShellProcessAdapter(hostShell, token, logger,
+					metrics, start);
 		} catch (Exception e) {
 			hostShell.writeToShell(MyHostShellProcessAdapter.CTRL_C);
 			hostShell.exit();
@@ -271,12 +271,7 @@ public class RSEExecEnvironment implements IExecutionEnvironment {
 							Messages.RSEExecEnvironment_ProcessCreateError, e
 									.getMessage()), e));
 		} finally {
-			if (RSEPerfomanceStatistics.PERFOMANCE_TRACING) {
-				RSEPerfomanceStatistics.inc(
-						RSEPerfomanceStatistics.EXECUTION_TIME, System
-								.currentTimeMillis()
-								- start);
-			}
+			metrics.recordSince(Operation.EXECUTION_START, start);
 		}
 	}
 
@@ -389,7 +384,7 @@ public class RSEExecEnvironment implements IExecutionEnvironment {
 		if (!realyNeed) {
 			return new HashMap<>();
 		}
-		final long start = System.currentTimeMillis();
+		final long start = System.nanoTime();
 		synchronized (hostToEnvironment) {
 			final Map<String, String> result = hostToEnvironment
 					.get(environment.getHost());
@@ -451,14 +446,8 @@ public class RSEExecEnvironment implements IExecutionEnvironment {
 						.unmodifiableMap(result));
 			}
 		}
-		if (RSEPerfomanceStatistics.PERFOMANCE_TRACING) {
-			final long end = System.currentTimeMillis();
-			RSEPerfomanceStatistics
-					.inc(RSEPerfomanceStatistics.ENVIRONMENT_RECEIVE_COUNT);
-			RSEPerfomanceStatistics.inc(
-					RSEPerfomanceStatistics.ENVIRONMENT_RECEIVE_TIME,
-					(end - start));
-		}
+		RSEMetrics.get(environment).recordSince(
+				Operation.ENVIRONMENT_VARIABLES, start);
 		return result;
 	}
 
@@ -1,10 +1,12 @@
 package org.eclipse.dltk.core.internal.rse;
 
 import org.eclipse.core.runtime.IAdapterFactory;
+import org.eclipse.dltk.core.environment.IEnvironmentMirror;
 import org.eclipse.dltk.core.environment.IExecutionEnvironment;
 
 public class RSEExecEnvironmentAdapter implements IAdapterFactory {
-	public static final Class<?>[] ADAPTER_LIST = { IExecutionEnvironment.class };
+	public static final Class<?>[] ADAPTER_LIST = { IExecutionEnvironment.class,
+			IEnvironmentMirror.class };
 	
 	@Override
 	@SuppressWarnings("unchecked")
@@ -14,6 +16,11 @@ public class RSEExecEnvironmentAdapter implements IAdapterFactory {
 			RSEEnvironment env = (RSEEnvironment) adaptableObject;
 			return (T) new RSEExecEnvironment(env);
 		}
+		if (adapterType == IEnvironmentMirror.class
+				&& adaptableObject instanceof RSEEnvironment) {
+			return (T) RSEEnvironmentMirror
+					.getMirror((RSEEnvironment) adaptableObject);
+		}
 		return null;
 	}
 	@Override
@@ -12,14 +12,20 @@
  *******************************************************************************/
 package org.eclipse.dltk.core.internal.rse;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.filesystem.EFS;
@@ -38,9 +44,13 @@ import org.eclipse.dltk.core.environment.FileHandles;
 import org.eclipse.dltk.core.environment.IEnvironment;
 import org.eclipse.dltk.core.environment.IFileHandle;
 import org.eclipse.dltk.core.environment.IFileStoreProvider;
-import org.eclipse.dltk.core.internal.rse.perfomance.RSEPerfomanceStatistics;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics.Counter;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics.Operation;
+import org.eclipse.dltk.core.internal.rse.perfomance.RSEMetrics;
 import org.eclipse.dltk.core.internal.rse.ssh.RSESshManager;
 import org.eclipse.dltk.ssh.core.ISshConnection;
+import org.eclipse.dltk.ssh.core.ISshConnectionExtension;
 import org.eclipse.dltk.ssh.core.ISshFileHandle;
 import org.eclipse.rse.core.model.IHost;
 
@@ -85,7 +95,7 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 			ISshConnection connection = RSESshManager.getConnection(host);
 			if (connection != null) { // This is ssh connection, and it's alive.
 				try {
-					sshFile = connection.getHandle(new Path(getPathString()));
+					sshFile = connection.getHandle(getSshPath());
 				} catch (Exception e) {
 					DLTKRSEPlugin.log("Failed to locate direct ssh connection", //$NON-NLS-1$
 							e);
@@ -94,6 +104,54 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 		}
 	}
 
+	/**
+	 * Returns the path of the file for the direct ssh connection.
+	 */
+	IPath getSshPath() {
+		return new Path(getPathString());
+	}
+
+	/**
+	 * Returns the direct ssh connection of the environment if it supports the
+	 * batch operations, or <code>null</code>.
+	 */
+	static ISshConnectionExtension getSshConnection(RSEEnvironment environment) {
+		final ISshConnection connection = RSESshManager
+				.getConnection(environment.getHost());
+		return connection instanceof ISshConnectionExtension
+				? (ISshConnectionExtension) connection
+				: null;
+	}
+
+	/**
+	 * Fetches the attributes of the files at once over the direct ssh
+	 * connection, instead of a round trip for each file when they are checked.
+	 */
+	static void fetchSshFiles(ISshConnectionExtension connection,
+			Collection<? extends IFileHandle> files) {
+		final List<RSEFileHandle> handles = new ArrayList<>(files.size());
+		for (IFileHandle file : files) {
+			if (file instanceof RSEFileHandle
+					&& ((RSEFileHandle) file).sshFile == null) {
+				handles.add((RSEFileHandle) file);
+			}
+		}
+		if (handles.isEmpty()) {
+			return;
+		}
+		final IPath[] paths = new IPath[handles.size()];
+		for (int i = 0; i < paths.length; ++i) {
+			paths[i] = handles.get(i).getSshPath();
+		}
+		final ISshFileHandle[] sshFiles = connection.getHandles(paths);
+		if (sshFiles == null) {
+			return;
+		}
+		for (int i = 0; i < sshFiles.length; ++i) {
+			handles.get(i).sshFile = sshFiles[i];
+		}
+	}
+
 	/**
 	 * @since 2.0
 	 */
@@ -330,11 +388,25 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 		}
 	}
 
-	private InputStream internalOpenInputStream(IProgressMonitor monitor)
-			throws IOException {
+	private InputStream internalOpenInputStream(EnvironmentMetrics metrics,
+			IProgressMonitor monitor) throws IOException {
 		if (!environment.connect()) {
 			return null;
 		}
+		if (environment instanceof RSEEnvironment) {
+			final RSEEnvironmentMirror mirror = RSEEnvironmentMirror
+					.getMirror((RSEEnvironment) environment);
+			final File local = mirror != null ? mirror.getFile(this) : null;
+			if (local != null) {
+				try {
+					final InputStream input = new FileInputStream(local);
+					metrics.inc(Counter.MIRRORED_FILES_OPENED);
+					return input;
+				} catch (FileNotFoundException e) {
+					// removed from the mirror meanwhile
+				}
+			}
+		}
 		fetchSshFile();
 		if (sshFile != null) {
 			try {
@@ -358,10 +430,19 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 		if (!environment.connect()) {
 			return null;
 		}
-		if (RSEPerfomanceStatistics.PERFOMANCE_TRACING) {
-			return new CountStream(this.internalOpenInputStream(monitor));
+		final EnvironmentMetrics metrics = RSEMetrics.get(environment);
+		final long start = System.nanoTime();
+		final InputStream stream;
+		try {
+			stream = this.internalOpenInputStream(metrics, monitor);
+		} finally {
+			metrics.recordSince(Operation.FILE_OPEN, start);
+		}
+		if (stream == null) {
+			return null;
 		}
-		return this.internalOpenInputStream(monitor);
+		metrics.inc(Counter.FILES_OPENED);
+		return new CountStream(stream, metrics);
 	}
 
 	@Override
@@ -456,39 +537,28 @@ public class RSEFileHandle implements IFileHandle, IFileStoreProvider {
 		return environment.getId();
 	}
 
-	private static final class CountStream extends BufferedInputStream {
-		private InputStream stream;
+	private static final class CountStream extends FilterInputStream {
+		private final EnvironmentMetrics metrics;
 
-		public CountStream(InputStream stream) {
+		public CountStream(InputStream stream, EnvironmentMetrics metrics) {
 			super(stream);
+			this.metrics = metrics;
 		}
 
 		@Override
 		public int read() throws IOException {
-			int read = stream.read();
+			int read = in.read();
 			if (read != -1) {
-				RSEPerfomanceStatistics
-						.inc(RSEPerfomanceStatistics.TOTAL_BYTES_RECEIVED);
+				metrics.inc(Counter.BYTES_RECEIVED);
 			}
 			return read;
 		}
 
 		@Override
 		public int read(byte[] b, int off, int len) throws IOException {
-			int read = this.stream.read(b, off, len);
-			if (read != -1) {
-				RSEPerfomanceStatistics.inc(
-						RSEPerfomanceStatistics.TOTAL_BYTES_RECEIVED, read);
-			}
-			return read;
-		}
-
-		@Override
-		public int read(byte[] b) throws IOException {
-			int read = this.stream.read(b);
-			if (read != -1) {
-				RSEPerfomanceStatistics.inc(
-						RSEPerfomanceStatistics.TOTAL_BYTES_RECEIVED, read);
+			int read = in.read(b, off, len);
+			if (read > 0) {
+				metrics.add(Counter.BYTES_RECEIVED, read);
 			}
 			return read;
 		}
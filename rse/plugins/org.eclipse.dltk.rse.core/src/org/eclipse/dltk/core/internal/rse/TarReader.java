@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * Reads the regular files and the directories of the tar archive, the
+ * ustar, GNU long name and pax path extensions are supported, the other
+ * entries are skipped.
+ */
+public class TarReader {
+	private static final int BLOCK_SIZE = 512;
+
+	private final InputStream input;
+	private final File target;
+	private final IProgressMonitor monitor;
+	private final byte[] header = new byte[BLOCK_SIZE];
+	private final byte[] buffer = new byte[8192];
+
+	public TarReader(InputStream input, File target,
+			IProgressMonitor monitor) {
+		this.input = input;
+		this.target = target;
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Unpacks the archive into the target folder, returns the number of the
+	 * files.
+	 */
+	public int unpack() throws IOException {
+		int count = 0;
+		String longName = null;
+		while (readFully(header, BLOCK_SIZE)) {
+			if (isZeroBlock(header)) {
+				return count;
+			}
+			if (monitor != null && monitor.isCanceled()) {
+				throw new IOException("Cancelled"); //$NON-NLS-1$
+			}
+			final long size = parseNumber(124, 12);
+			final long mtime = parseNumber(136, 12);
+			final byte type = header[156];
+			String name = longName != null ? longName : parseName();
+			longName = null;
+			if (type == 'L') {
+				longName = trimName(new String(readData(size),
+						StandardCharsets.UTF_8));
+				continue;
+			} else if (type == 'x') {
+				longName = parsePaxPath(readData(size));
+				continue;
+			}
+			final File file = resolve(name);
+			if (type == '5') {
+				if (file != null) {
+					file.mkdirs();
+				}
+				skip(size);
+			} else if ((type == '0' || type == 0) && file != null) {
+				file.getParentFile().mkdirs();
+				try (OutputStream output = new FileOutputStream(file)) {
+					copy(output, size);
+				}
+				file.setLastModified(mtime * 1000);
+				++count;
+			} else {
+				skip(size);
+			}
+		}
+		throw new EOFException("Unexpected end of archive"); //$NON-NLS-1$
+	}
+
+	private File resolve(String name) throws IOException {
+		if (name.startsWith("./")) { //$NON-NLS-1$
+			name = name.substring(2);
+		}
+		final IPath path = new Path(name);
+		if (path.isAbsolute() || path.segmentCount() == 0) {
+			return null;
+		}
+		for (String segment : path.segments()) {
+			if ("..".equals(segment)) { //$NON-NLS-1$
+				throw new IOException("Invalid archive entry " + name); //$NON-NLS-1$
+			}
+		}
+		return new File(target, path.toOSString());
+	}
+
+	private String parseName() {
+		final String name = parseString(0, 100);
+		if (header[257] == 'u' && header[258] == 's'
+				&& header[259] == 't' && header[260] == 'a'
+				&& header[261] == 'r') {
+			final String prefix = parseString(345, 155);
+			if (!prefix.isEmpty()) {
+				return prefix + '/' + name;
+			}
+		}
+		return name;
+	}
+
+	private String parseString(int offset, int length) {
+		int end = offset;
+		while (end < offset + length && header[end] != 0) {
+			++end;
+		}
+		return new String(header, offset, end - offset,
+				StandardCharsets.UTF_8);
+	}
+
+	private long parseNumber(int offset, int length) {
+		if ((header[offset] & 0x80) != 0) {
+			// base-256 encoding of the large values
+			long value = header[offset] & 0x7F;
+			for (int i = 1; i < length; ++i) {
+				value = value << 8 | (header[offset + i] & 0xFF);
+			}
+			return value;
+		}
+		long value = 0;
+		for (int i = offset; i < offset + length; ++i) {
+			final byte b = header[i];
+			if (b >= '0' && b <= '7') {
+				value = value * 8 + (b - '0');
+			} else if (b == 0 || (b == ' ' && value != 0)) {
+				break;
+			}
+		}
+		return value;
+	}
+
+	private static String trimName(String name) {
+		final int end = name.indexOf(0);
+		return end >= 0 ? name.substring(0, end) : name;
+	}
+
+	/**
+	 * Returns the path of the pax extended header, the records are
+	 * <code>"length key=value\n"</code>.
+	 */
+	private static String parsePaxPath(byte[] data) {
+		final String records = new String(data, StandardCharsets.UTF_8);
+		int pos = 0;
+		while (pos < records.length()) {
+			final int space = records.indexOf(' ', pos);
+			final int end = records.indexOf('\n', pos);
+			if (space < 0 || end < 0) {
+				break;
+			}
+			final String record = records.substring(space + 1, end);
+			if (record.startsWith("path=")) { //$NON-NLS-1$
+				return record.substring(5);
+			}
+			pos = end + 1;
+		}
+		return null;
+	}
+
+	private static boolean isZeroBlock(byte[] block) {
+		for (byte b : block) {
+			if (b != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private byte[] readData(long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Invalid archive entry size " + size); //$NON-NLS-1$
+		}
+		final byte[] data = new byte[(int) size];
+		if (!readFully(data, data.length)) {
+			throw new EOFException();
+		}
+		skipPadding(size);
+		return data;
+	}
+
+	private void copy(OutputStream output, long size) throws IOException {
+		long remaining = size;
+		while (remaining > 0) {
+			final int read = input.read(buffer, 0,
+					(int) Math.min(buffer.length, remaining));
+			if (read < 0) {
+				throw new EOFException();
+			}
+			output.write(buffer, 0, read);
+			remaining -= read;
+		}
+		skipPadding(size);
+	}
+
+	private void skip(long size) throws IOException {
+		long remaining = size + padding(size);
+		while (remaining > 0) {
+			final int read = input.read(buffer, 0,
+					(int) Math.min(buffer.length, remaining));
+			if (read < 0) {
+				throw new EOFException();
+			}
+			remaining -= read;
+		}
+	}
+
+	private void skipPadding(long size) throws IOException {
+		final int padding = padding(size);
+		if (padding != 0 && !readFully(buffer, padding)) {
+			throw new EOFException();
+		}
+	}
+
+	private static int padding(long size) {
+		return (int) ((BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE);
+	}
+
+	/**
+	 * Reads the specified number of bytes, returns <code>false</code> if
+	 * the stream ends before the first byte.
+	 */
+	private boolean readFully(byte[] b, int length) throws IOException {
+		int pos = 0;
+		while (pos < length) {
+			final int read = input.read(b, pos, length - pos);
+			if (read < 0) {
+				if (pos == 0) {
+					return false;
+				}
+				throw new EOFException();
+			}
+			pos += read;
+		}
+		return true;
+	}
+}
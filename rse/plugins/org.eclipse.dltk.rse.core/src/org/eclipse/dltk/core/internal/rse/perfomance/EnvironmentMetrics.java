@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse.perfomance;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters and the durations of the operations of an environment.
+ */
+public final class EnvironmentMetrics {
+
+	public enum Counter {
+		BYTES_RECEIVED("Bytes received"), //$NON-NLS-1$
+		FILES_OPENED("Files opened"), //$NON-NLS-1$
+		MIRRORED_FILES_OPENED("Mirrored files opened"), //$NON-NLS-1$
+		DEPLOYMENTS_CREATED("Deployments created"); //$NON-NLS-1$
+
+		private final String title;
+
+		Counter(String title) {
+			this.title = title;
+		}
+
+		public String getTitle() {
+			return title;
+		}
+	}
+
+	public enum Operation {
+		/**
+		 * From the upload of the launcher to the start of the remote shell.
+		 */
+		EXECUTION_START("Execution start"), //$NON-NLS-1$
+		/**
+		 * From the upload of the launcher to the completion of the command.
+		 */
+		EXECUTION("Execution"), //$NON-NLS-1$
+		FILE_OPEN("File open"), //$NON-NLS-1$
+		DEPLOYMENT("Deployment"), //$NON-NLS-1$
+		ENVIRONMENT_VARIABLES("Environment variables"), //$NON-NLS-1$
+		MIRROR_TRANSFER("Mirror transfer"), //$NON-NLS-1$
+		PROJECT_ENVIRONMENT("Project environment"); //$NON-NLS-1$
+
+		private final String title;
+
+		Operation(String title) {
+			this.title = title;
+		}
+
+		public String getTitle() {
+			return title;
+		}
+	}
+
+	private final String id;
+	private final LongAdder[] counters = new LongAdder[Counter.values().length];
+	private final LatencyHistogram[] histograms = new LatencyHistogram[Operation
+			.values().length];
+
+	EnvironmentMetrics(String id) {
+		this.id = id;
+		for (int i = 0; i < counters.length; ++i) {
+			counters[i] = new LongAdder();
+		}
+		for (int i = 0; i < histograms.length; ++i) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void inc(Counter counter) {
+		counters[counter.ordinal()].increment();
+	}
+
+	public void add(Counter counter, long value) {
+		counters[counter.ordinal()].add(value);
+	}
+
+	public long get(Counter counter) {
+		return counters[counter.ordinal()].sum();
+	}
+
+	public LatencyHistogram getHistogram(Operation operation) {
+		return histograms[operation.ordinal()];
+	}
+
+	/**
+	 * Records the duration of the operation started at the specified
+	 * {@link System#nanoTime()}.
+	 */
+	public void recordSince(Operation operation, long start) {
+		histograms[operation.ordinal()].recordSince(start);
+	}
+
+	public void reset() {
+		for (LongAdder counter : counters) {
+			counter.reset();
+		}
+		for (LatencyHistogram histogram : histograms) {
+			histogram.reset();
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(id).append(':');
+		for (Counter counter : Counter.values()) {
+			final long value = get(counter);
+			if (value != 0) {
+				sb.append("\n  ").append(counter.getTitle()).append(": ") //$NON-NLS-1$ //$NON-NLS-2$
+						.append(value);
+			}
+		}
+		for (Operation operation : Operation.values()) {
+			final LatencyHistogram histogram = getHistogram(operation);
+			if (histogram.getCount() != 0) {
+				sb.append("\n  ").append(operation.getTitle()).append(": ") //$NON-NLS-1$ //$NON-NLS-2$
+						.append(histogram);
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse.perfomance;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of the durations of an operation.
+ *
+ * The durations are counted in buckets of the powers of two microseconds, so
+ * the percentiles are known within a factor of two, which is enough to tell
+ * the slow operations.
+ */
+public final class LatencyHistogram {
+
+	private static final int BUCKET_COUNT = 40;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalTime = new LongAdder();
+	private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKET_COUNT; ++i) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records the duration of an operation, in nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		final long micros = nanos / 1000;
+		final int bucket = Math.min(BUCKET_COUNT - 1,
+				64 - Long.numberOfLeadingZeros(micros));
+		buckets[bucket].increment();
+		count.increment();
+		totalTime.add(nanos);
+		maxTime.accumulate(nanos);
+	}
+
+	/**
+	 * Records the duration of an operation started at the specified
+	 * {@link System#nanoTime()}.
+	 */
+	public void recordSince(long start) {
+		record(System.nanoTime() - start);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the total duration of the operations, in nanoseconds.
+	 */
+	public long getTotalTime() {
+		return totalTime.sum();
+	}
+
+	/**
+	 * Returns the longest duration, in nanoseconds.
+	 */
+	public long getMaxTime() {
+		return maxTime.get();
+	}
+
+	/**
+	 * Returns the mean duration, in nanoseconds.
+	 */
+	public long getMeanTime() {
+		final long n = getCount();
+		return n != 0 ? getTotalTime() / n : 0;
+	}
+
+	/**
+	 * Returns the upper bound of the duration of the specified part of the
+	 * operations, in nanoseconds.
+	 *
+	 * @param percentile
+	 *            from 0 to 100
+	 */
+	public long getPercentile(double percentile) {
+		final long[] counts = new long[BUCKET_COUNT];
+		long n = 0;
+		for (int i = 0; i < BUCKET_COUNT; ++i) {
+			counts[i] = buckets[i].sum();
+			n += counts[i];
+		}
+		if (n == 0) {
+			return 0;
+		}
+		final long rank = (long) Math.ceil(n * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; ++i) {
+			seen += counts[i];
+			if (seen >= rank && counts[i] != 0) {
+				return Math.min(getMaxTime(), (1L << i) * 1000);
+			}
+		}
+		return getMaxTime();
+	}
+
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		count.reset();
+		totalTime.reset();
+		maxTime.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + " mean=" + format(getMeanTime()) //$NON-NLS-1$ //$NON-NLS-2$
+				+ " p50=" + format(getPercentile(50)) + " p90=" //$NON-NLS-1$ //$NON-NLS-2$
+				+ format(getPercentile(90)) + " p99=" //$NON-NLS-1$
+				+ format(getPercentile(99)) + " max=" + format(getMaxTime()); //$NON-NLS-1$
+	}
+
+	private static String format(long nanos) {
+		if (nanos < 10000000L) {
+			return nanos / 1000 + "us"; //$NON-NLS-1$
+		}
+		return nanos / 1000000 + "ms"; //$NON-NLS-1$
+	}
+}
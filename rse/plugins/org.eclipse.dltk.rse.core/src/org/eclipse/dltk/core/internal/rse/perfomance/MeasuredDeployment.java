@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse.perfomance;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.dltk.core.environment.IDeployment;
+import org.eclipse.dltk.core.environment.IFileHandle;
+import org.eclipse.dltk.core.internal.rse.perfomance.EnvironmentMetrics.Operation;
+import org.osgi.framework.Bundle;
+
+/**
+ * Deployment recording the durations of its operations.
+ */
+public class MeasuredDeployment implements IDeployment {
+
+	private final IDeployment deployment;
+	private final EnvironmentMetrics metrics;
+
+	public MeasuredDeployment(IDeployment deployment,
+			EnvironmentMetrics metrics) {
+		this.deployment = deployment;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public IPath add(Bundle bundle, String bundlePath) throws IOException {
+		final long start = System.nanoTime();
+		try {
+			return deployment.add(bundle, bundlePath);
+		} finally {
+			metrics.recordSince(Operation.DEPLOYMENT, start);
+		}
+	}
+
+	@Override
+	public IPath add(InputStream stream, String filename) throws IOException {
+		final long start = System.nanoTime();
+		try {
+			return deployment.add(stream, filename);
+		} finally {
+			metrics.recordSince(Operation.DEPLOYMENT, start);
+		}
+	}
+
+	@Override
+	public void mkdirs(IPath path) {
+		final long start = System.nanoTime();
+		try {
+			deployment.mkdirs(path);
+		} finally {
+			metrics.recordSince(Operation.DEPLOYMENT, start);
+		}
+	}
+
+	@Override
+	public void dispose() {
+		final long start = System.nanoTime();
+		try {
+			deployment.dispose();
+		} finally {
+			metrics.recordSince(Operation.DEPLOYMENT, start);
+		}
+	}
+
+	@Override
+	public IFileHandle getFile(IPath deploymentPath) {
+		return deployment.getFile(deploymentPath);
+	}
+
+	@Override
+	public IPath getAbsolutePath() {
+		return deployment.getAbsolutePath();
+	}
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.core.internal.rse.perfomance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.dltk.core.environment.IEnvironment;
+
+/**
+ * The metrics of the remote environments, one {@link EnvironmentMetrics} per
+ * environment id.
+ *
+ * The metrics are always collected, they are cheap to update, so the
+ * environments can be profiled without restarting. If the
+ * <code>org.eclipse.dltk.rse.core/perfomance</code> debug option is set the
+ * metrics are printed when the plug-in is stopped.
+ */
+public final class RSEMetrics {
+
+	public static final boolean PERFOMANCE_TRACING = Boolean
+			.valueOf(Platform
+					.getDebugOption("org.eclipse.dltk.rse.core/perfomance")) //$NON-NLS-1$
+			.booleanValue();
+
+	/**
+	 * The id of the metrics of the operations not related to a particular
+	 * environment.
+	 */
+	public static final String PROVIDER = "provider"; //$NON-NLS-1$
+
+	private static final Map<String, EnvironmentMetrics> metrics = new ConcurrentHashMap<>();
+
+	private RSEMetrics() {
+	}
+
+	public static EnvironmentMetrics get(IEnvironment environment) {
+		return get(environment.getId());
+	}
+
+	public static EnvironmentMetrics get(String id) {
+		final EnvironmentMetrics result = metrics.get(id);
+		if (result != null) {
+			return result;
+		}
+		return metrics.computeIfAbsent(id, EnvironmentMetrics::new);
+	}
+
+	/**
+	 * Returns the metrics of all the environments, sorted by id.
+	 */
+	public static List<EnvironmentMetrics> getAll() {
+		final List<EnvironmentMetrics> result = new ArrayList<>(
+				metrics.values());
+		result.sort((m1, m2) -> m1.getId().compareTo(m2.getId()));
+		return Collections.unmodifiableList(result);
+	}
+
+	public static void reset() {
+		for (EnvironmentMetrics m : metrics.values()) {
+			m.reset();
+		}
+	}
+
+	/**
+	 * Returns the metrics of all the environments as text.
+	 */
+	public static String dump() {
+		final StringBuilder sb = new StringBuilder();
+		for (EnvironmentMetrics m : getAll()) {
+			if (sb.length() != 0) {
+				sb.append('\n');
+			}
+			sb.append(m);
+		}
+		return sb.toString();
+	}
+}
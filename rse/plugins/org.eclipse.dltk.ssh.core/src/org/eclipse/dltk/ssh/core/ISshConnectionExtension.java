@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ssh.core;
+
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Batch operations of an {@link ISshConnection}, performed concurrently over
+ * several channels. The connections returned by the
+ * {@link SshConnectionManager} implement it.
+ *
+ * @since 6.3
+ */
+public interface ISshConnectionExtension extends ISshConnection {
+
+	/**
+	 * Returns the handles of the files, their attributes are fetched
+	 * concurrently over several channels. Returns <code>null</code> if the
+	 * connection is disabled.
+	 */
+	public ISshFileHandle[] getHandles(IPath[] paths);
+
+	/**
+	 * Reads the files concurrently over several channels, the files which
+	 * can't be read are not in the result.
+	 */
+	public Map<IPath, byte[]> getContents(IPath[] paths);
+}
@@ -0,0 +1,439 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ssh.internal.core;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
+
+import com.jcraft.jsch.JSchException;
+
+/**
+ * Pool of the channels of a connection, independent of the kind of the
+ * channels so it can run against a local stand-in of the server.
+ *
+ * The pool opens up to {@link #getMaxChannels()} channels, at the limit the
+ * callers wait for a channel to be released. When the server refuses a new
+ * channel the limit drops to the number of channels in use. The free channels
+ * unused for some time are closed, except the last one.
+ */
+public abstract class AbstractChannelPool<C> {
+
+	private static final int DEFAULT_MAX_CHANNELS = 8;
+	private static final long IDLE_CHANNEL_TIMEOUT = 30 * 1000;
+
+	/**
+	 * The message of the exception thrown when the server refuses to open a
+	 * channel.
+	 */
+	protected static final String CHANNEL_IS_NOT_OPENED = "channel is not opened."; //$NON-NLS-1$
+
+	private final long inactivityTimeout;
+
+	private final List<C> freeChannels = new ArrayList<>();
+	/**
+	 * The time each free channel was released, the channels unused for
+	 * {@link #IDLE_CHANNEL_TIMEOUT} are closed.
+	 */
+	private final Map<C, Long> freeSince = new IdentityHashMap<>();
+	private final Map<C, ChannelUsageInfo> usedChannels = new IdentityHashMap<>();
+
+	/**
+	 * The number of channels opened at most, lowered when the server refuses
+	 * to open more.
+	 */
+	private int maxChannels = DEFAULT_MAX_CHANNELS;
+	private int openingChannels = 0;
+
+	private static class ChannelUsageInfo {
+		final Object context;
+		final long timestamp;
+
+		public ChannelUsageInfo(Object context) {
+			this.context = context;
+			this.timestamp = System.currentTimeMillis();
+		}
+
+	}
+
+	private static boolean DEBUG = false;
+
+	private final Object channelNotifier = new Object();
+	protected final Object lock = new Object();
+
+	protected AbstractChannelPool(long inactivityTimeout) {
+		this.inactivityTimeout = inactivityTimeout;
+	}
+
+	/**
+	 * Connects the session the channels are opened in, if not connected yet.
+	 */
+	protected abstract void connectSession() throws JSchException;
+
+	/**
+	 * Opens a new channel of the session.
+	 */
+	protected abstract C openChannel() throws JSchException;
+
+	protected abstract boolean isOpen(C channel);
+
+	protected abstract void close(C channel);
+
+	/**
+	 * Closes the session, called with the {@link #lock} held once the
+	 * channels are closed.
+	 */
+	protected void disconnectSession() {
+	}
+
+	/**
+	 * Acquires a free channel or opens a new one, waits for a channel to be
+	 * released if the limit is reached.
+	 */
+	protected C acquireChannel(final Object context, long timeout) {
+		final long start = System.currentTimeMillis();
+		for (;;) {
+			if (!isLimitReached() || tryCloseOldChannels()) {
+				try {
+					return acquireChannel(context);
+				} catch (JSchException e) {
+					if (isOutOfChannels(e)) {
+						if (tryCloseOldChannels()) {
+							continue;
+						}
+						// the server allows no more channels
+						synchronized (lock) {
+							maxChannels = Math.max(1, usedChannels.size());
+						}
+					}
+					if (System.currentTimeMillis() - start > timeout) {
+						Activator.error("Failed to create direct connection", e); //$NON-NLS-1$
+						return null;
+					}
+				}
+			} else if (System.currentTimeMillis() - start > timeout) {
+				Activator.log("No channel released in " + timeout + "ms for " //$NON-NLS-1$ //$NON-NLS-2$
+						+ context);
+				return null;
+			}
+			if (DEBUG) {
+				log(" <sleep>"); //$NON-NLS-1$
+			}
+			try {
+				synchronized (channelNotifier) {
+					channelNotifier.wait(1000);
+				}
+			} catch (InterruptedException e1) {
+				return null;
+			}
+		}
+	}
+
+	private boolean isLimitReached() {
+		synchronized (lock) {
+			return freeChannels.isEmpty()
+					&& usedChannels.size() + openingChannels >= maxChannels;
+		}
+	}
+
+	public int getMaxChannels() {
+		synchronized (lock) {
+			return maxChannels;
+		}
+	}
+
+	public void setMaxChannels(int maxChannels) {
+		synchronized (lock) {
+			this.maxChannels = Math.max(1, maxChannels);
+		}
+	}
+
+	private boolean isOutOfChannels(JSchException e) {
+		return CHANNEL_IS_NOT_OPENED.equals(e.getMessage());
+	}
+
+	protected C acquireChannel(Object context) throws JSchException {
+		connectSession();
+		if (DEBUG) {
+			log("<acquireChannel> " + context); //$NON-NLS-1$
+		}
+		synchronized (lock) {
+			while (!freeChannels.isEmpty()) {
+				final C channel = freeChannels.remove(freeChannels.size() - 1);
+				freeSince.remove(channel);
+				if (isOpen(channel)) {
+					usedChannels.put(channel, createUsageInfo(context));
+					return channel;
+				}
+			}
+			++openingChannels;
+		}
+		try {
+			final C channel = openChannel();
+			synchronized (lock) {
+				usedChannels.put(channel, createUsageInfo(context));
+			}
+			return channel;
+		} finally {
+			synchronized (lock) {
+				--openingChannels;
+			}
+		}
+	}
+
+	/**
+	 * @return
+	 */
+	private ChannelUsageInfo createUsageInfo(Object context) {
+		return new ChannelUsageInfo(context);
+	}
+
+	protected void releaseChannel(C channel) {
+		if (DEBUG) {
+			log("<releaseChannel>"); //$NON-NLS-1$
+		}
+		synchronized (lock) {
+			if (usedChannels.remove(channel) != null) {
+				freeChannels.add(channel);
+				freeSince.put(channel,
+						Long.valueOf(System.currentTimeMillis()));
+			} else {
+				close(channel);
+			}
+			closeIdleChannels();
+		}
+		synchronized (channelNotifier) {
+			channelNotifier.notifyAll();
+		}
+	}
+
+	protected void destroyChannel(C channel) {
+		if (DEBUG) {
+			log("<destroyChannel>"); //$NON-NLS-1$
+		}
+		synchronized (lock) {
+			usedChannels.remove(channel);
+		}
+		close(channel);
+		synchronized (channelNotifier) {
+			channelNotifier.notifyAll();
+		}
+	}
+
+	/**
+	 * Closes the free channels unused for some time, but the last one.
+	 */
+	private void closeIdleChannels() {
+		final long idleSince = System.currentTimeMillis()
+				- IDLE_CHANNEL_TIMEOUT;
+		// the least recently released channels are at the beginning
+		while (freeChannels.size() > 1) {
+			final C channel = freeChannels.get(0);
+			final Long since = freeSince.get(channel);
+			if (since != null && since.longValue() > idleSince) {
+				break;
+			}
+			if (DEBUG) {
+				log("close idle channel"); //$NON-NLS-1$
+			}
+			freeChannels.remove(0);
+			freeSince.remove(channel);
+			close(channel);
+		}
+	}
+
+	private boolean tryCloseOldChannels() {
+		synchronized (lock) {
+			if (!usedChannels.isEmpty()) {
+				C selectedChannel = null;
+				ChannelUsageInfo selectedUsageInfo = null;
+				long selectedLastActivity = 0;
+				for (Map.Entry<C, ChannelUsageInfo> entry : usedChannels
+						.entrySet()) {
+					final ChannelUsageInfo usageInfo = entry.getValue();
+					if (canClose(usageInfo.context)) {
+						final long lastActivity = getLastActivity(usageInfo.context);
+						if (lastActivity != Long.MIN_VALUE) {
+							if (selectedChannel == null
+									|| lastActivity < selectedLastActivity) {
+								selectedChannel = entry.getKey();
+								selectedUsageInfo = usageInfo;
+								selectedLastActivity = lastActivity;
+							}
+						}
+					}
+				}
+				if (selectedChannel != null) {
+					final long currentTime = System.currentTimeMillis();
+					if (currentTime - selectedLastActivity > inactivityTimeout) {
+						Activator
+								.warn("Close active channel \"" + selectedUsageInfo.context + "\" created " + (currentTime - selectedUsageInfo.timestamp) + "ms ago, lastActivity=" + (currentTime - selectedLastActivity) + "ms ago"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+						if (DEBUG) {
+							log(" channel.disconnect() " + selectedUsageInfo.context); //$NON-NLS-1$
+						}
+						close(selectedChannel);
+						usedChannels.remove(selectedChannel);
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tests if channel allocated for this context could be closed.
+	 *
+	 * @param context
+	 * @return
+	 */
+	protected boolean canClose(Object context) {
+		return false;
+	}
+
+	/**
+	 * Returns the time of last activity in the channel allocated for this
+	 * context.
+	 *
+	 * @param context
+	 * @return
+	 */
+	protected long getLastActivity(Object context) {
+		return Long.MIN_VALUE;
+	}
+
+	public void disconnect() {
+		synchronized (lock) {
+			for (C channel : freeChannels) {
+				if (DEBUG) {
+					log("channel.disconnect()"); //$NON-NLS-1$
+				}
+				close(channel);
+			}
+			freeChannels.clear();
+			freeSince.clear();
+			maxChannels = DEFAULT_MAX_CHANNELS;
+			for (Map.Entry<C, ChannelUsageInfo> entry : usedChannels
+					.entrySet()) {
+				final ChannelUsageInfo usageInfo = entry.getValue();
+				Activator
+						.warn("Close active channel \"" + usageInfo.context + "\" created " + (System.currentTimeMillis() - usageInfo.timestamp) + "ms ago"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				if (DEBUG) {
+					log(" channel.disconnect() " + usageInfo.context); //$NON-NLS-1$
+				}
+				close(entry.getKey());
+			}
+			usedChannels.clear();
+			disconnectSession();
+		}
+	}
+
+	/**
+	 * Threads performing the tasks of the batches, they block while waiting
+	 * for the server.
+	 */
+	private static class Workers {
+		static final ExecutorService INSTANCE = Executors
+				.newCachedThreadPool(runnable -> {
+					final Thread thread = new Thread(runnable,
+							"SFTP operations"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Performs the tasks concurrently, each worker takes a channel of the pool
+	 * and performs the tasks one after the other on it, so the number of
+	 * requests in flight grows with the pool.
+	 *
+	 * @param perform
+	 *            performs a task on a channel, returns <code>false</code> if
+	 *            the channel failed
+	 * @return the tasks not performed because their channel failed or no
+	 *         channel could be acquired, to be retried one by one
+	 */
+	protected <T> List<T> performConcurrently(List<T> tasks,
+			BiPredicate<C, T> perform, long timeout) {
+		final Queue<T> queue = new ConcurrentLinkedQueue<>(tasks);
+		final Queue<T> failed = new ConcurrentLinkedQueue<>();
+		final int workerCount = Math.min(tasks.size(), getMaxChannels());
+		final List<Future<?>> workers = new ArrayList<>(workerCount);
+		for (int i = 1; i < workerCount; ++i) {
+			workers.add(Workers.INSTANCE.submit(
+					() -> performQueued(queue, failed, perform, timeout)));
+		}
+		performQueued(queue, failed, perform, timeout);
+		for (Future<?> worker : workers) {
+			try {
+				worker.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				Activator.log(e.getCause());
+			}
+		}
+		// the ones not taken by the workers which could not get a channel
+		final List<T> result = new ArrayList<>(failed);
+		result.addAll(queue);
+		return result;
+	}
+
+	private <T> void performQueued(Queue<T> queue, Queue<T> failed,
+			BiPredicate<C, T> perform, long timeout) {
+		T task = queue.poll();
+		if (task == null) {
+			return;
+		}
+		final C channel = acquireChannel(task, timeout);
+		if (channel == null) {
+			queue.add(task);
+			return;
+		}
+		boolean channelFailed = false;
+		try {
+			for (; task != null; task = queue.poll()) {
+				if (!perform.test(channel, task)) {
+					channelFailed = true;
+					failed.add(task);
+					// the session is probably lost, leave the rest to the
+					// sequential retry
+					T rest;
+					while ((rest = queue.poll()) != null) {
+						failed.add(rest);
+					}
+					return;
+				}
+			}
+		} finally {
+			if (channelFailed) {
+				destroyChannel(channel);
+			} else {
+				releaseChannel(channel);
+			}
+		}
+	}
+
+	private static final long loadedAt = System.currentTimeMillis();
+
+	protected void log(Object message) {
+		System.out
+				.println("[" + (System.currentTimeMillis() - loadedAt) + "] " + message); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
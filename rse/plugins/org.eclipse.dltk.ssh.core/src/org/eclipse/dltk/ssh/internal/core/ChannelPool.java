@@ -12,11 +12,6 @@
  *******************************************************************************/
 package org.eclipse.dltk.ssh.internal.core;
 
-import java.util.ArrayList;
-import java.util.IdentityHashMap;
-import java.util.List;
-import java.util.Map;
-
 import org.eclipse.jsch.core.IJSchService;
 
 import com.jcraft.jsch.ChannelSftp;
@@ -25,9 +20,8 @@ import com.jcraft.jsch.Session;
 import com.jcraft.jsch.UIKeyboardInteractive;
 import com.jcraft.jsch.UserInfo;
 
-public class ChannelPool {
+public class ChannelPool extends AbstractChannelPool<ChannelSftp> {
 
-	private final long inactivityTimeout;
 	private final String userName;
 	private final int port;
 	private final String hostName;
@@ -35,19 +29,6 @@ public class ChannelPool {
 	private String password;
 
 	private Session session;
-	private final List<ChannelSftp> freeChannels = new ArrayList<>();
-	private final Map<ChannelSftp, ChannelUsageInfo> usedChannels = new IdentityHashMap<>();
-
-	private static class ChannelUsageInfo {
-		final Object context;
-		final long timestamp;
-
-		public ChannelUsageInfo(Object context) {
-			this.context = context;
-			this.timestamp = System.currentTimeMillis();
-		}
-
-	}
 
 	/**
 	 * @param userName
@@ -56,10 +37,10 @@ public class ChannelPool {
 	 */
 	public ChannelPool(String userName, String hostName, int port,
 			long inactivityTimeout) {
+		super(inactivityTimeout);
 		this.userName = userName;
 		this.hostName = hostName;
 		this.port = port;
-		this.inactivityTimeout = inactivityTimeout;
 	}
 
 	public void setPassword(String password) {
@@ -111,6 +92,7 @@ public class ChannelPool {
 
 	private static boolean DEBUG = false;
 
+	@Override
 	protected void connectSession() throws JSchException {
 		synchronized (lock) {
 			if (session == null) {
@@ -138,216 +120,46 @@ public class ChannelPool {
 		}
 	}
 
-	private final Object channelNotifier = new Object();
-	private final Object lock = new Object();
-
-	protected ChannelSftp acquireChannel(final Object context, long timeout) {
-		final long start = System.currentTimeMillis();
-		for (;;) {
-			try {
-				return acquireChannel(context);
-			} catch (JSchException e) {
-				if (isOutOfChannels(e)) {
-					if (tryCloseOldChannels()) {
-						continue;
-					}
-				}
-				if (System.currentTimeMillis() - start > timeout) {
-					Activator.error("Failed to create direct connection", e); //$NON-NLS-1$					
-					return null;
-				}
-				if (DEBUG) {
-					log(" <sleep>"); //$NON-NLS-1$
-				}
-				try {
-					synchronized (channelNotifier) {
-						channelNotifier.wait(1000);
-					}
-				} catch (InterruptedException e1) {
-					return null;
-				}
-			}
-		}
-	}
-
-	private boolean isOutOfChannels(JSchException e) {
-		return CHANNEL_IS_NOT_OPENED.equals(e.getMessage());
+	@Override
+	protected ChannelSftp openChannel() throws JSchException {
+		return openChannel(session);
 	}
 
-	private static final String CHANNEL_IS_NOT_OPENED = "channel is not opened."; //$NON-NLS-1$
-
-	protected ChannelSftp acquireChannel(Object context) throws JSchException {
-		connectSession();
-		if (DEBUG) {
-			log("<acquireChannel> " + context); //$NON-NLS-1$
-		}
-		synchronized (lock) {
-			while (!freeChannels.isEmpty()) {
-				final ChannelSftp channel = freeChannels.remove(freeChannels
-						.size() - 1);
-				if (channel.isConnected()) {
-					usedChannels.put(channel, createUsageInfo(context));
-					return channel;
-				}
-			}
-		}
-		final ChannelSftp channel = (ChannelSftp) session.openChannel("sftp"); //$NON-NLS-1$			
+	/**
+	 * Opens a new channel of the session.
+	 */
+	protected ChannelSftp openChannel(Session session) throws JSchException {
+		final ChannelSftp channel = (ChannelSftp) session.openChannel("sftp"); //$NON-NLS-1$
 		if (!channel.isConnected()) {
 			if (DEBUG) {
 				log("channel.connect()"); //$NON-NLS-1$
 			}
 			channel.connect(10000);
 		}
-		synchronized (lock) {
-			usedChannels.put(channel, createUsageInfo(context));
-		}
 		return channel;
-		// String eToStr = e.toString();
-		// if (eToStr.indexOf("Auth cancel") >= 0 || eToStr.indexOf("Auth fail") >= 0 || eToStr.indexOf("session is down") >= 0) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-		// if (session.isConnected()) {
-		// session.disconnect();
-		// session = null;
-		// }
-		// }
-		// if (needLog) {
-		// Activator.error("Failed to create direct connection", e); //$NON-NLS-1$
-		// }
-		// if (session != null) {
-		// session.disconnect();
-		// session = null;
-		// }
-	}
-
-	/**
-	 * @return
-	 */
-	private ChannelUsageInfo createUsageInfo(Object context) {
-		return new ChannelUsageInfo(context);
 	}
 
-	protected void releaseChannel(ChannelSftp channel) {
-		if (DEBUG) {
-			log("<releaseChannel>"); //$NON-NLS-1$
-		}
-		synchronized (lock) {
-			if (usedChannels.remove(channel) != null) {
-				freeChannels.add(channel);
-			} else {
-				channel.disconnect();
-			}
-		}
-		synchronized (channelNotifier) {
-			channelNotifier.notifyAll();
-		}
+	@Override
+	protected boolean isOpen(ChannelSftp channel) {
+		return channel.isConnected();
 	}
 
-	protected void destroyChannel(ChannelSftp channel) {
-		if (DEBUG) {
-			log("<destroyChannel>"); //$NON-NLS-1$
-		}
-		synchronized (lock) {
-			usedChannels.remove(channel);
-		}
+	@Override
+	protected void close(ChannelSftp channel) {
 		channel.disconnect();
 	}
 
-	private boolean tryCloseOldChannels() {
-		synchronized (lock) {
-			if (!usedChannels.isEmpty()) {
-				ChannelSftp selectedChannel = null;
-				ChannelUsageInfo selectedUsageInfo = null;
-				long selectedLastActivity = 0;
-				for (Map.Entry<ChannelSftp, ChannelUsageInfo> entry : usedChannels
-						.entrySet()) {
-					final ChannelUsageInfo usageInfo = entry.getValue();
-					if (canClose(usageInfo.context)) {
-						final long lastActivity = getLastActivity(usageInfo.context);
-						if (lastActivity != Long.MIN_VALUE) {
-							if (selectedChannel == null
-									|| lastActivity < selectedLastActivity) {
-								selectedChannel = entry.getKey();
-								selectedUsageInfo = usageInfo;
-								selectedLastActivity = lastActivity;
-							}
-						}
-					}
-				}
-				if (selectedChannel != null) {
-					final long currentTime = System.currentTimeMillis();
-					if (currentTime - selectedLastActivity > inactivityTimeout) {
-						Activator
-								.warn("Close active channel \"" + selectedUsageInfo.context + "\" created " + (currentTime - selectedUsageInfo.timestamp) + "ms ago, lastActivity=" + (currentTime - selectedLastActivity) + "ms ago"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-						if (DEBUG) {
-							log(" channel.disconnect() " + selectedUsageInfo.context); //$NON-NLS-1$
-						}
-						selectedChannel.disconnect();
-						usedChannels.remove(selectedChannel);
-						return true;
-					}
-				}
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * Tests if channel allocated for this context could be closed.
-	 * 
-	 * @param context
-	 * @return
-	 */
-	protected boolean canClose(Object context) {
-		return false;
-	}
-
-	/**
-	 * Returns the time of last activity in the channel allocated for this
-	 * context.
-	 * 
-	 * @param context
-	 * @return
-	 */
-	protected long getLastActivity(Object context) {
-		return Long.MIN_VALUE;
-	}
-
-	public void disconnect() {
-		synchronized (lock) {
-			for (ChannelSftp channel : freeChannels) {
-				if (DEBUG) {
-					log("channel.disconnect()"); //$NON-NLS-1$
-				}
-				channel.disconnect();
-			}
-			freeChannels.clear();
-			for (Map.Entry<ChannelSftp, ChannelUsageInfo> entry : usedChannels
-					.entrySet()) {
-				final ChannelUsageInfo usageInfo = entry.getValue();
-				Activator
-						.warn("Close active channel \"" + usageInfo.context + "\" created " + (System.currentTimeMillis() - usageInfo.timestamp) + "ms ago"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				if (DEBUG) {
-					log(" channel.disconnect() " + usageInfo.context); //$NON-NLS-1$
-				}
-				entry.getKey().disconnect();
-			}
-			usedChannels.clear();
-			if (session != null) {
-				if (DEBUG) {
-					log("session.disconnect()"); //$NON-NLS-1$
-				}
-				session.disconnect();
-				session = null;
+	@Override
+	protected void disconnectSession() {
+		if (session != null) {
+			if (DEBUG) {
+				log("session.disconnect()"); //$NON-NLS-1$
 			}
+			session.disconnect();
+			session = null;
 		}
 	}
 
-	private static final long loadedAt = System.currentTimeMillis();
-
-	protected void log(Object message) {
-		System.out
-				.println("[" + (System.currentTimeMillis() - loadedAt) + "] " + message); //$NON-NLS-1$ //$NON-NLS-2$
-	}
-
 	public boolean isConnected() {
 		return session != null && session.isConnected();
 	}
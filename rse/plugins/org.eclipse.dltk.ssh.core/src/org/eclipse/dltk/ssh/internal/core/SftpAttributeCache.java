@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.ssh.internal.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.core.runtime.IPath;
+
+import com.jcraft.jsch.SftpATTRS;
+
+/**
+ * Cache of the attributes of the remote files, shared by the connections.
+ *
+ * The entries expire after some time and the least recently used ones are
+ * removed when the cache is full. The files known not to exist are cached too,
+ * with a shorter expiration. When a directory is listed, the attributes of all
+ * its children are cached and the directory is remembered as listed, so the
+ * files missing from it are known not to exist without asking the server. The
+ * listing is forgotten when one of its children is removed from the cache.
+ */
+public class SftpAttributeCache {
+
+	private static final int DEFAULT_MAX_ENTRIES = 20000;
+
+	/**
+	 * The part of the entries removed when the cache is full.
+	 */
+	private static final double EVICTION_RATIO = 0.25;
+
+	protected static final long TTL = 10 * 1000000000L;
+	protected static final long NEGATIVE_TTL = 5 * 1000000000L;
+
+	private static final SftpAttributeCache instance = new SftpAttributeCache(
+			DEFAULT_MAX_ENTRIES);
+
+	public static SftpAttributeCache getInstance() {
+		return instance;
+	}
+
+	private static class Key {
+		final SshConnection connection;
+		final IPath path;
+
+		Key(SshConnection connection, IPath path) {
+			this.connection = connection;
+			this.path = path;
+		}
+
+		@Override
+		public int hashCode() {
+			return connection.hashCode() * 31 + path.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return connection.equals(other.connection)
+					&& path.equals(other.path);
+		}
+	}
+
+	/**
+	 * The cached attributes of a file, <code>null</code> if it does not
+	 * exist.
+	 */
+	public static class Entry {
+		public final SftpATTRS attrs;
+		final long expires;
+		volatile long lastAccess;
+
+		Entry(SftpATTRS attrs, long now) {
+			this.attrs = attrs;
+			this.expires = now + (attrs != null ? TTL : NEGATIVE_TTL);
+			this.lastAccess = now;
+		}
+	}
+
+	private static final Comparator<Map.Entry<Key, Entry>> OLDEST_FIRST = (e1,
+			e2) -> Long.compare(e1.getValue().lastAccess,
+					e2.getValue().lastAccess);
+
+	private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * The directories whose children are all cached, to the time the listing
+	 * expires.
+	 */
+	private final Map<Key, Long> listedDirectories = new ConcurrentHashMap<>();
+
+	private final int maxEntries;
+
+	private final AtomicBoolean evicting = new AtomicBoolean();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	public SftpAttributeCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Returns the current time in nanoseconds, the entries expire relative to
+	 * it.
+	 */
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Returns the cached attributes of the file, or <code>null</code> if they
+	 * are not known.
+	 */
+	public Entry get(SshConnection connection, IPath path) {
+		final long now = nanoTime();
+		final Key key = new Key(connection, path);
+		Entry entry = entries.get(key);
+		if (entry != null && entry.expires - now > 0) {
+			entry.lastAccess = now;
+			hitCount.increment();
+			return entry;
+		}
+		if (entry == null && isListed(connection, path, now)) {
+			// the file was not in the listing of its directory, which stays
+			// the only record of it, so it does not outlive the listing
+			hitCount.increment();
+			return new Entry(null, now);
+		}
+		missCount.increment();
+		return null;
+	}
+
+	private boolean isListed(SshConnection connection, IPath path, long now) {
+		if (path.segmentCount() == 0) {
+			return false;
+		}
+		final Key parent = new Key(connection, path.removeLastSegments(1));
+		final Long expires = listedDirectories.get(parent);
+		return expires != null && expires.longValue() - now > 0;
+	}
+
+	public void put(SshConnection connection, IPath path, SftpATTRS attrs) {
+		put(new Key(connection, path), new Entry(attrs, nanoTime()));
+	}
+
+	/**
+	 * Caches the attributes of the children of the listed directory.
+	 */
+	public void putChildren(SshConnection connection, IPath directory,
+			Map<IPath, SftpATTRS> children) {
+		final long now = nanoTime();
+		for (Map.Entry<IPath, SftpATTRS> child : children.entrySet()) {
+			put(new Key(connection, child.getKey()),
+					new Entry(child.getValue(), now));
+		}
+		listedDirectories.put(new Key(connection, directory),
+				Long.valueOf(now + TTL));
+	}
+
+	private void put(Key key, Entry entry) {
+		entries.put(key, entry);
+		if (entries.size() > maxEntries) {
+			evict();
+		}
+	}
+
+	/**
+	 * Forgets the file, and the listing of its directory as it may have been
+	 * created or deleted.
+	 */
+	public void remove(SshConnection connection, IPath path) {
+		final Key key = new Key(connection, path);
+		entries.remove(key);
+		listedDirectories.remove(key);
+		removeParentListing(key);
+	}
+
+	private void removeParentListing(Key key) {
+		if (key.path.segmentCount() != 0) {
+			listedDirectories.remove(new Key(key.connection,
+					key.path.removeLastSegments(1)));
+		}
+	}
+
+	private void evict() {
+		if (!evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			final long now = nanoTime();
+			final List<Map.Entry<Key, Entry>> list = new ArrayList<>(
+					entries.entrySet());
+			list.sort(OLDEST_FIRST);
+			int count = (int) (list.size() * EVICTION_RATIO);
+			for (Map.Entry<Key, Entry> entry : list) {
+				if (count-- <= 0 && entry.getValue().expires - now > 0) {
+					continue;
+				}
+				if (entries.remove(entry.getKey(), entry.getValue())) {
+					evictionCount.increment();
+					// the missing children are no longer known from it
+					removeParentListing(entry.getKey());
+				}
+			}
+			listedDirectories.values()
+					.removeIf(expires -> expires.longValue() - now <= 0);
+		} finally {
+			evicting.set(false);
+		}
+	}
+
+	public void clear() {
+		entries.clear();
+		listedDirectories.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "SftpAttributeCache: " + size() + " entries, " + getHitCount() //$NON-NLS-1$ //$NON-NLS-2$
+				+ " hits, " + getMissCount() + " misses, " //$NON-NLS-1$ //$NON-NLS-2$
+				+ getEvictionCount() + " evictions"; //$NON-NLS-1$
+	}
+}
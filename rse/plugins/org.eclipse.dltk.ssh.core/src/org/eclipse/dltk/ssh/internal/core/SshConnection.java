@@ -2,10 +2,18 @@ package org.eclipse.dltk.ssh.internal.core;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import org.eclipse.core.runtime.CoreException;
@@ -13,7 +21,7 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.dltk.ssh.core.ISshConnection;
+import org.eclipse.dltk.ssh.core.ISshConnectionExtension;
 import org.eclipse.dltk.ssh.core.ISshFileHandle;
 
 import com.jcraft.jsch.ChannelSftp;
@@ -22,7 +30,8 @@ import com.jcraft.jsch.SftpATTRS;
 import com.jcraft.jsch.SftpException;
 import com.jcraft.jsch.ChannelSftp.LsEntry;
 
-public class SshConnection extends ChannelPool implements ISshConnection {
+public class SshConnection extends ChannelPool
+		implements ISshConnectionExtension {
 	private long disabledTime = 0;
 
 	private static abstract class Operation {
@@ -445,6 +454,31 @@ public class SshConnection extends ChannelPool implements ISshConnection {
 		}
 	}
 
+	private static class ReadOperation extends Operation {
+		private final IPath path;
+		private byte[] contents;
+
+		public ReadOperation(IPath path) {
+			this.path = path;
+		}
+
+		@Override
+		public String toString() {
+			return "Read file:" + path; //$NON-NLS-1$
+		}
+
+		@Override
+		public void perform(ChannelSftp channel) throws SftpException {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			channel.get(path.toString(), out);
+			contents = out.toByteArray();
+		}
+
+		public byte[] getContents() {
+			return contents;
+		}
+	}
+
 	static class MoveOperation extends Operation {
 
 		final IPath source;
@@ -494,27 +528,12 @@ public class SshConnection extends ChannelPool implements ISshConnection {
 		final ChannelSftp channel = acquireChannel(op, DEFAULT_ACQUIRE_TIMEOUT);
 		if (channel != null) {
 			try {
-				if (DEBUG) {
-					log(" [do] " + op); //$NON-NLS-1$
-				}
-				op.perform(channel);
-				op.setFinished();
-			} catch (SftpException e) {
-				if (e.id == ChannelSftp.SSH_FX_FAILURE
-						&& e.getCause() instanceof JSchException) {
-					Activator.log(e);
+				if (!perform(channel, op)) {
 					destroyChannel(channel);
 					disconnect();
 					if (tryCount > 0) {
 						performOperation(op, tryCount - 1);
 					}
-				} else if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
-					if (e.id == ChannelSftp.SSH_FX_PERMISSION_DENIED) {
-						Activator.log("Permission denied to perform:" //$NON-NLS-1$
-								+ op.toString());
-					} else {
-						Activator.log(e);
-					}
 				}
 			} finally {
 				if (!(op.isLongRunning() && op.isFinished())) {
@@ -524,6 +543,46 @@ public class SshConnection extends ChannelPool implements ISshConnection {
 		}
 	}
 
+	/**
+	 * Performs the operation on the channel, returns <code>false</code> if
+	 * the channel failed and the operation should be retried.
+	 */
+	private boolean perform(ChannelSftp channel, Operation op) {
+		try {
+			if (DEBUG) {
+				log(" [do] " + op); //$NON-NLS-1$
+			}
+			op.perform(channel);
+			op.setFinished();
+		} catch (SftpException e) {
+			if (e.id == ChannelSftp.SSH_FX_FAILURE
+					&& e.getCause() instanceof JSchException) {
+				Activator.log(e);
+				return false;
+			} else if (e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+				if (e.id == ChannelSftp.SSH_FX_PERMISSION_DENIED) {
+					Activator.log("Permission denied to perform:" //$NON-NLS-1$
+							+ op.toString());
+				} else {
+					Activator.log(e);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Performs the short running operations concurrently over the channels of
+	 * the pool, the operations failed because of their channel are retried
+	 * one by one.
+	 */
+	private void performOperations(List<? extends Operation> ops) {
+		for (Operation op : performConcurrently(ops, this::perform,
+				DEFAULT_ACQUIRE_TIMEOUT)) {
+			performOperation(op);
+		}
+	}
+
 	@Override
 	protected boolean canClose(Object context) {
 		return context instanceof StreamOperation;
@@ -576,6 +635,60 @@ public class SshConnection extends ChannelPool implements ISshConnection {
 		return null;
 	}
 
+	/**
+	 * Returns the attributes of the files which exist, they are fetched
+	 * concurrently.
+	 */
+	Map<IPath, SftpATTRS> getAttrs(Collection<IPath> paths) {
+		final List<GetStatOperation> ops = new ArrayList<>(paths.size());
+		for (IPath path : paths) {
+			ops.add(new GetStatOperation(path));
+		}
+		performOperations(ops);
+		final Map<IPath, SftpATTRS> result = new HashMap<>();
+		for (GetStatOperation op : ops) {
+			if (op.isFinished()) {
+				result.put(op.path, op.getAttrs());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public ISshFileHandle[] getHandles(IPath[] paths) {
+		if (isDisabled()) {
+			return null;
+		}
+		final Map<IPath, SftpATTRS> attrs = getAttrs(Arrays.asList(paths));
+		final SftpAttributeCache cache = SftpAttributeCache.getInstance();
+		final ISshFileHandle[] handles = new ISshFileHandle[paths.length];
+		for (int i = 0; i < paths.length; ++i) {
+			final SftpATTRS pathAttrs = attrs.get(paths[i]);
+			cache.put(this, paths[i], pathAttrs);
+			handles[i] = new SshFileHandle(this, paths[i], pathAttrs);
+		}
+		return handles;
+	}
+
+	@Override
+	public Map<IPath, byte[]> getContents(IPath[] paths) {
+		if (isDisabled()) {
+			return Collections.emptyMap();
+		}
+		final List<ReadOperation> ops = new ArrayList<>(paths.length);
+		for (IPath path : paths) {
+			ops.add(new ReadOperation(path));
+		}
+		performOperations(ops);
+		final Map<IPath, byte[]> result = new HashMap<>();
+		for (ReadOperation op : ops) {
+			if (op.isFinished()) {
+				result.put(op.path, op.getContents());
+			}
+		}
+		return result;
+	}
+
 	SftpATTRS getLAttrs(IPath path) {
 		GetLStatOperation op = new GetLStatOperation(path);
 		performOperation(op);
@@ -17,20 +17,8 @@ import com.jcraft.jsch.ChannelSftp.LsEntry;
 
 public class SshFileHandle implements ISshFileHandle,
 		IOutputStreamCloseListener {
-	private static final int CACHE_LIMIT = 1000;
-
-	private static class CacheEntry {
-		final SftpATTRS attrs;
-		final long lastAccess;
-
-		public CacheEntry(SftpATTRS attrs, long lastAccess) {
-			this.attrs = attrs;
-			this.lastAccess = lastAccess;
-		}
-
-	}
-
-	private static final Map<SshFileHandle, CacheEntry> attrCache = new HashMap<>();
+	private static final SftpAttributeCache attrCache = SftpAttributeCache
+			.getInstance();
 
 	private SshConnection connection = null;
 	private IPath path;
@@ -83,9 +71,7 @@ public class SshFileHandle implements ISshFileHandle,
 
 	private void cleanAttrs() {
 		attrs = null;
-		synchronized (attrCache) {
-			attrCache.remove(this);
-		}
+		attrCache.remove(connection, path);
 	}
 
 	private void fetchAttrs(boolean clean) {
@@ -99,27 +85,15 @@ public class SshFileHandle implements ISshFileHandle,
 	}
 
 	private SftpATTRS fetchCacheAttrs(boolean clean) {
-		long c = 0;
-		synchronized (attrCache) {
-			if (attrCache.size() > CACHE_LIMIT) {
-				attrCache.clear();
-			} else if (!clean) {
-				final CacheEntry entry = attrCache.get(this);
-				if (entry != null) {
-					c = System.currentTimeMillis();
-					if ((c - entry.lastAccess) < 1000 * 10) {
-						return entry.attrs;
-					}
-				}
+		if (!clean) {
+			final SftpAttributeCache.Entry entry = attrCache.get(connection,
+					path);
+			if (entry != null) {
+				return entry.attrs;
 			}
 		}
 		SftpATTRS attrs = connection.getAttrs(path);
-		if (c == 0) {
-			c = System.currentTimeMillis();
-		}
-		synchronized (attrCache) {
-			attrCache.put(this, new CacheEntry(attrs, c));
-		}
+		attrCache.put(connection, path, attrs);
 		return attrs;
 	}
 
@@ -147,7 +121,7 @@ public class SshFileHandle implements ISshFileHandle,
 		Vector<LsEntry> list = connection.list(path);
 		if (list != null) {
 			children.clear();
-			long c = System.currentTimeMillis();
+			final Map<IPath, SftpATTRS> childAttrsMap = new HashMap<>();
 			for (LsEntry entry : list) {
 				String filename = entry.getFilename();
 				if (filename.equals(".") || filename.equals("..")) { //$NON-NLS-1$ //$NON-NLS-2$
@@ -163,11 +137,10 @@ public class SshFileHandle implements ISshFileHandle,
 				}
 				SshFileHandle childHandle = new SshFileHandle(connection,
 						childPath, childAttrs);
-				synchronized (attrCache) {
-					attrCache.put(childHandle, new CacheEntry(childAttrs, c));
-				}
+				childAttrsMap.put(childPath, childAttrs);
 				children.put(filename, childHandle);
 			}
+			attrCache.putChildren(connection, path, childAttrsMap);
 			childrenFetched = true;
 		}
 	}
@@ -303,5 +276,7 @@ public class SshFileHandle implements ISshFileHandle,
 	@Override
 	public void move(IPath destination) throws CoreException {
 		connection.move(path, destination);
+		cleanAttrs();
+		attrCache.remove(connection, destination);
 	}
 }
@@ -0,0 +1,21 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.rse.core.tests;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+@RunWith(Suite.class)
+@Suite.SuiteClasses({ ChannelPoolTests.class, LatencyHistogramTests.class,
+		RSEEnvironmentMirrorTests.class, SftpAttributeCacheTests.class,
+		TarReaderTests.class })
+public class AllTests {
+
+}
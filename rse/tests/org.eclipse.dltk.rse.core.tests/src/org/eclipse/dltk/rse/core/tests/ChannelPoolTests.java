@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.rse.core.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+import org.eclipse.dltk.ssh.internal.core.AbstractChannelPool;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jcraft.jsch.JSchException;
+
+/**
+ * Runs the channel pool against a local stand-in of the SFTP server, which
+ * takes some time for each request and refuses channels over its limit.
+ */
+public class ChannelPoolTests extends Assert {
+
+	private static final long TIMEOUT = 10 * 1000;
+
+	private static class TestChannel {
+		volatile boolean open = true;
+	}
+
+	private static class TestPool extends AbstractChannelPool<TestChannel> {
+		private final int serverLimit;
+		private final List<TestChannel> openChannels = new ArrayList<>();
+		final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+		final Set<Integer> performed = Collections
+				.synchronizedSet(new HashSet<>());
+
+		TestPool(int serverLimit, int maxChannels) {
+			super(60 * 1000);
+			this.serverLimit = serverLimit;
+			setMaxChannels(maxChannels);
+		}
+
+		@Override
+		protected void connectSession() {
+		}
+
+		@Override
+		protected TestChannel openChannel() throws JSchException {
+			synchronized (openChannels) {
+				if (openChannels.size() >= serverLimit) {
+					throw new JSchException(CHANNEL_IS_NOT_OPENED);
+				}
+				final TestChannel channel = new TestChannel();
+				openChannels.add(channel);
+				return channel;
+			}
+		}
+
+		@Override
+		protected boolean isOpen(TestChannel channel) {
+			return channel.open;
+		}
+
+		@Override
+		protected void close(TestChannel channel) {
+			synchronized (openChannels) {
+				channel.open = false;
+				openChannels.remove(channel);
+			}
+		}
+
+		int getOpenChannelCount() {
+			synchronized (openChannels) {
+				return openChannels.size();
+			}
+		}
+
+		boolean perform(TestChannel channel, Integer task) {
+			assertTrue(channel.open);
+			final int count = active.incrementAndGet();
+			maxActive.accumulateAndGet(count, Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				return false;
+			} finally {
+				active.decrementAndGet();
+			}
+			performed.add(task);
+			return true;
+		}
+
+		List<Integer> performAll(List<Integer> tasks) {
+			return performAll(tasks, this::perform);
+		}
+
+		List<Integer> performAll(List<Integer> tasks,
+				BiPredicate<TestChannel, Integer> perform) {
+			return performConcurrently(tasks, perform, TIMEOUT);
+		}
+
+		TestChannel acquire(Object context) {
+			return acquireChannel(context, TIMEOUT);
+		}
+
+		void release(TestChannel channel) {
+			releaseChannel(channel);
+		}
+	}
+
+	private static List<Integer> tasks(int count) {
+		final List<Integer> tasks = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			tasks.add(Integer.valueOf(i));
+		}
+		return tasks;
+	}
+
+	@Test
+	public void testPerformConcurrently() {
+		final TestPool pool = new TestPool(100, 4);
+		final List<Integer> tasks = tasks(40);
+		assertTrue(pool.performAll(tasks).isEmpty());
+		assertEquals(new HashSet<>(tasks), pool.performed);
+		assertTrue(pool.maxActive.get() > 1);
+		assertTrue(pool.maxActive.get() <= 4);
+		assertTrue(pool.getOpenChannelCount() <= 4);
+		pool.disconnect();
+		assertEquals(0, pool.getOpenChannelCount());
+	}
+
+	@Test
+	public void testServerLimit() {
+		final TestPool pool = new TestPool(2, 8);
+		final List<Integer> tasks = tasks(20);
+		assertTrue(pool.performAll(tasks).isEmpty());
+		assertEquals(new HashSet<>(tasks), pool.performed);
+		assertTrue(pool.maxActive.get() <= 2);
+		// the limit drops to the channels the server allows
+		assertTrue(pool.getMaxChannels() <= 2);
+		pool.disconnect();
+		assertEquals(8, pool.getMaxChannels());
+	}
+
+	@Test
+	public void testChannelFailure() {
+		final TestPool pool = new TestPool(100, 1);
+		final List<Integer> retry = pool.performAll(tasks(6),
+				(channel, task) -> task.intValue() != 3
+						&& pool.perform(channel, task));
+		assertEquals(Arrays.asList(3, 4, 5), retry);
+		assertEquals(new HashSet<>(Arrays.asList(0, 1, 2)), pool.performed);
+		// the failed channel is closed and not reused
+		assertEquals(0, pool.getOpenChannelCount());
+		final TestChannel channel = pool.acquire("next"); //$NON-NLS-1$
+		assertNotNull(channel);
+		assertTrue(channel.open);
+		pool.release(channel);
+	}
+
+	@Test
+	public void testWaitForRelease() throws Exception {
+		final TestPool pool = new TestPool(100, 1);
+		final TestChannel first = pool.acquire("first"); //$NON-NLS-1$
+		assertNotNull(first);
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final Future<TestChannel> second = executor
+					.submit(() -> pool.acquire("second")); //$NON-NLS-1$
+			Thread.sleep(100);
+			assertFalse(second.isDone());
+			pool.release(first);
+			assertSame(first, second.get(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertEquals(1, pool.getOpenChannelCount());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
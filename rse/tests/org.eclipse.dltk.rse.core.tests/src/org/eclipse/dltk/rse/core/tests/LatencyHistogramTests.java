@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.rse.core.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.dltk.core.internal.rse.perfomance.LatencyHistogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTests extends Assert {
+
+	private static final long MICROS = TimeUnit.MICROSECONDS.toNanos(1);
+	private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void testEmpty() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getTotalTime());
+		assertEquals(0, histogram.getMaxTime());
+		assertEquals(0, histogram.getMeanTime());
+		assertEquals(0, histogram.getPercentile(50));
+	}
+
+	@Test
+	public void testRecord() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(10 * MICROS);
+		histogram.record(30 * MICROS);
+		histogram.record(-5);
+		assertEquals(3, histogram.getCount());
+		assertEquals(40 * MICROS, histogram.getTotalTime());
+		assertEquals(30 * MICROS, histogram.getMaxTime());
+		assertEquals(40 * MICROS / 3, histogram.getMeanTime());
+	}
+
+	@Test
+	public void testPercentiles() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 98; ++i) {
+			histogram.record(MILLIS);
+		}
+		histogram.record(100 * MILLIS);
+		histogram.record(1000 * MILLIS);
+		// within a factor of two
+		final long p50 = histogram.getPercentile(50);
+		assertTrue(p50 >= MILLIS && p50 < 2 * MILLIS);
+		assertEquals(p50, histogram.getPercentile(98));
+		final long p99 = histogram.getPercentile(99);
+		assertTrue(p99 >= 100 * MILLIS && p99 < 200 * MILLIS);
+		assertEquals(1000 * MILLIS, histogram.getPercentile(100));
+		assertEquals(p50, histogram.getPercentile(0));
+	}
+
+	@Test
+	public void testLargeDuration() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(1, histogram.getCount());
+		assertEquals(Long.MAX_VALUE, histogram.getMaxTime());
+		assertTrue(histogram.getPercentile(50) > 0);
+		assertTrue(histogram.getPercentile(50) <= Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testRecordSince() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		final long start = System.nanoTime() - 5 * MILLIS;
+		histogram.recordSince(start);
+		assertEquals(1, histogram.getCount());
+		assertTrue(histogram.getMaxTime() >= 5 * MILLIS);
+	}
+
+	@Test
+	public void testReset() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(MILLIS);
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMaxTime());
+		assertEquals(0, histogram.getPercentile(99));
+		histogram.record(2 * MILLIS);
+		assertEquals(2 * MILLIS, histogram.getMaxTime());
+	}
+
+	@Test
+	public void testConcurrentRecord() throws Exception {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		final int threads = 4;
+		final int records = 10000;
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; ++t) {
+				futures.add(executor.submit(() -> {
+					for (int i = 1; i <= records; ++i) {
+						histogram.record(i * MICROS);
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(threads * records, histogram.getCount());
+		assertEquals(threads * (long) records * (records + 1) / 2 * MICROS,
+				histogram.getTotalTime());
+		assertEquals(records * MICROS, histogram.getMaxTime());
+	}
+}
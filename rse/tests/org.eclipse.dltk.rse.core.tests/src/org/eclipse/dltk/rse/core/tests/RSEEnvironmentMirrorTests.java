@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.rse.core.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.dltk.core.environment.FileAsFileHandle;
+import org.eclipse.dltk.core.environment.IFileHandle;
+import org.eclipse.dltk.core.internal.rse.RSEEnvironmentMirror;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RSEEnvironmentMirrorTests extends Assert {
+
+	private static final long SECOND = 1000000000L;
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	/**
+	 * Archives the local folders as the remote ones, with the controlled
+	 * clock.
+	 */
+	private static class TestMirror extends RSEEnvironmentMirror {
+		long nanos = 0;
+		long offset = 0;
+		int status = 0;
+		final List<IPath> archived = new ArrayList<>();
+
+		TestMirror(File location, int maxFolders) {
+			super("test", location, maxFolders); //$NON-NLS-1$
+		}
+
+		static String getCommand(String folder) {
+			return String.join(" ", getArchiveCommand(folder)); //$NON-NLS-1$
+		}
+
+		@Override
+		protected long nanoTime() {
+			return nanos;
+		}
+
+		@Override
+		protected long currentTimeMillis() {
+			return System.currentTimeMillis() + offset;
+		}
+
+		@Override
+		protected Process archive(IPath folder) throws IOException {
+			archived.add(folder);
+			final TarBuilder builder = new TarBuilder();
+			for (File file : folder.toFile().listFiles()) {
+				builder.file(file.getName(), read(file));
+			}
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			try (OutputStream archive = new GZIPOutputStream(
+					Base64.getMimeEncoder().wrap(output))) {
+				archive.write(builder.build());
+			}
+			final byte[] line = ("\n#" + status + "\n") //$NON-NLS-1$ //$NON-NLS-2$
+					.getBytes(StandardCharsets.UTF_8);
+			output.write(line, 0, line.length);
+			return new OutputProcess(output.toByteArray());
+		}
+	}
+
+	private static class OutputProcess extends Process {
+		private final InputStream input;
+
+		OutputProcess(byte[] output) {
+			this.input = new ByteArrayInputStream(output);
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return new ByteArrayOutputStream();
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return input;
+		}
+
+		@Override
+		public InputStream getErrorStream() {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+
+		@Override
+		public int waitFor() {
+			return 0;
+		}
+
+		@Override
+		public int exitValue() {
+			return 0;
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+
+	private static String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()),
+				StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Creates the "remote" folder with the files, having the timestamp of the
+	 * archived ones.
+	 */
+	private List<IFileHandle> createFolder(String name, int count)
+			throws IOException {
+		final File folder = temp.newFolder(name);
+		final List<IFileHandle> files = new ArrayList<>();
+		for (int i = 0; i < count; ++i) {
+			final File file = new File(folder, "f" + i + ".tcl"); //$NON-NLS-1$ //$NON-NLS-2$
+			Files.write(file.toPath(),
+					(name + i).getBytes(StandardCharsets.UTF_8));
+			file.setLastModified(TarBuilder.MTIME * 1000);
+			files.add(new FileAsFileHandle(file));
+		}
+		return files;
+	}
+
+	private static IPath folderOf(List<IFileHandle> files) {
+		return files.get(0).getPath().removeLastSegments(1);
+	}
+
+	private TestMirror createMirror(int maxFolders) {
+		return new TestMirror(new File(temp.getRoot(), "mirror"), maxFolders); //$NON-NLS-1$
+	}
+
+	@Test
+	public void prefetchThresholds() throws Exception {
+		final TestMirror mirror = createMirror(4);
+		final List<IFileHandle> files = createFolder("lib", 12); //$NON-NLS-1$
+		final IPath folder = folderOf(files);
+		// too few files to transfer the folder
+		assertTrue(mirror.prefetch(folder, files.subList(0, 9), null));
+		assertTrue(mirror.archived.isEmpty());
+		assertNull(mirror.getFile(files.get(0)));
+
+		assertTrue(mirror.prefetch(folder, files, null));
+		assertEquals(1, mirror.archived.size());
+		assertEquals(folder, mirror.archived.get(0));
+		for (IFileHandle file : files) {
+			final File local = mirror.getFile(file);
+			assertNotNull(local);
+			assertEquals(file.getName(), local.getName());
+			assertEquals(read(new File(file.toOSString())), read(local));
+		}
+		// nothing changed
+		assertTrue(mirror.prefetch(folder, files, null));
+		assertEquals(1, mirror.archived.size());
+	}
+
+	@Test
+	public void verifiedReads() throws Exception {
+		final TestMirror mirror = createMirror(4);
+		final List<IFileHandle> files = createFolder("lib", 10); //$NON-NLS-1$
+		assertTrue(mirror.prefetch(folderOf(files), files, null));
+		final File changed = new File(files.get(0).toOSString());
+		changed.setLastModified(TarBuilder.MTIME * 1000 + 5000);
+		// not checked again right after the prefetch
+		mirror.nanos += 30 * SECOND;
+		assertNotNull(mirror.getFile(files.get(0)));
+		mirror.nanos += 31 * SECOND;
+		assertNull(mirror.getFile(files.get(0)));
+		assertNotNull(mirror.getFile(files.get(1)));
+	}
+
+	@Test
+	public void failedArchive() throws Exception {
+		final TestMirror mirror = createMirror(4);
+		final List<IFileHandle> files = createFolder("lib", 10); //$NON-NLS-1$
+		mirror.status = 2;
+		assertFalse(mirror.prefetch(folderOf(files), files, null));
+		assertNull(mirror.getFile(files.get(0)));
+		assertEquals(0, new File(temp.getRoot(), "mirror").list().length); //$NON-NLS-1$
+		// the folder is archived, the working folder of the shell is not used
+		final String command = TestMirror.getCommand("/home/it's"); //$NON-NLS-1$
+		assertTrue(command.contains("tar -czf - -C '/home/it'\\''s' . ")); //$NON-NLS-1$
+		assertFalse(command.contains("cd ")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void eviction() throws Exception {
+		final TestMirror mirror = createMirror(2);
+		final List<IFileHandle> a = createFolder("a", 10); //$NON-NLS-1$
+		final List<IFileHandle> b = createFolder("b", 10); //$NON-NLS-1$
+		final List<IFileHandle> c = createFolder("c", 10); //$NON-NLS-1$
+		assertTrue(mirror.prefetch(folderOf(a), a, null));
+		mirror.offset += 10000;
+		assertTrue(mirror.prefetch(folderOf(b), b, null));
+		mirror.offset += 10000;
+		// the use of the folder delays its eviction
+		assertTrue(mirror.prefetch(folderOf(a), a, null));
+		assertEquals(2, mirror.archived.size());
+		mirror.offset += 10000;
+		assertTrue(mirror.prefetch(folderOf(c), c, null));
+		assertEquals(3, mirror.archived.size());
+		assertNotNull(mirror.getFile(a.get(0)));
+		assertNull(mirror.getFile(b.get(0)));
+		assertNotNull(mirror.getFile(c.get(0)));
+		assertEquals(2, new File(temp.getRoot(), "mirror").list().length); //$NON-NLS-1$
+
+		// the mirrored folders are loaded again
+		final TestMirror loaded = createMirror(2);
+		assertNotNull(loaded.getFile(a.get(9)));
+		assertNull(loaded.getFile(b.get(9)));
+		assertNotNull(loaded.getFile(c.get(9)));
+	}
+}
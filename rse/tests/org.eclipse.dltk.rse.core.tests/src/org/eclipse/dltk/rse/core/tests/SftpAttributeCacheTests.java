@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.rse.core.tests;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.dltk.ssh.internal.core.SftpAttributeCache;
+import org.eclipse.dltk.ssh.internal.core.SshConnection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jcraft.jsch.SftpATTRS;
+
+public class SftpAttributeCacheTests extends Assert {
+
+	private static final long SECOND = 1000000000L;
+
+	private static class TestCache extends SftpAttributeCache {
+		long now = 0;
+
+		TestCache(int maxEntries) {
+			super(maxEntries);
+		}
+
+		@Override
+		protected long nanoTime() {
+			return now;
+		}
+	}
+
+	private final SshConnection connection = new SshConnection("user", //$NON-NLS-1$
+			"host", 22); //$NON-NLS-1$
+
+	private static SftpATTRS attrs() throws Exception {
+		final Constructor<SftpATTRS> constructor = SftpATTRS.class
+				.getDeclaredConstructor();
+		constructor.setAccessible(true);
+		return constructor.newInstance();
+	}
+
+	private static IPath file(int index) {
+		return new Path("/usr/lib/f" + index); //$NON-NLS-1$
+	}
+
+	private Map<IPath, SftpATTRS> listing(int count) throws Exception {
+		final Map<IPath, SftpATTRS> children = new HashMap<>();
+		for (int i = 0; i < count; ++i) {
+			children.put(file(i), attrs());
+		}
+		return children;
+	}
+
+	@Test
+	public void entriesExpire() throws Exception {
+		final TestCache cache = new TestCache(100);
+		final SftpATTRS attrs = attrs();
+		cache.put(connection, file(0), attrs);
+		cache.put(connection, file(1), null);
+		assertSame(attrs, cache.get(connection, file(0)).attrs);
+		assertNull(cache.get(connection, file(1)).attrs);
+		// the files known not to exist expire first
+		cache.now += 6 * SECOND;
+		assertNotNull(cache.get(connection, file(0)));
+		assertNull(cache.get(connection, file(1)));
+		cache.now += 5 * SECOND;
+		assertNull(cache.get(connection, file(0)));
+		assertEquals(3, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void missingFromListing() throws Exception {
+		final TestCache cache = new TestCache(100);
+		final IPath directory = new Path("/usr/lib"); //$NON-NLS-1$
+		cache.putChildren(connection, directory, listing(3));
+		assertNotNull(cache.get(connection, file(0)).attrs);
+		assertNull(cache.get(connection, file(5)).attrs);
+		assertNull(cache.get(connection, new Path("/usr/bin/f0"))); //$NON-NLS-1$
+		// not cached on its own, so it ends with the listing
+		assertEquals(3, cache.size());
+		cache.now += 11 * SECOND;
+		assertNull(cache.get(connection, file(5)));
+		cache.now = 0;
+		cache.remove(connection, file(1));
+		assertNull(cache.get(connection, file(5)));
+		assertNull(cache.get(new SshConnection("user", "other", 22), file(0))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void evictionForgetsListing() throws Exception {
+		final TestCache cache = new TestCache(10);
+		final IPath directory = new Path("/usr/lib"); //$NON-NLS-1$
+		cache.putChildren(connection, directory, listing(10));
+		cache.now += SECOND;
+		for (int i = 0; i < 10; ++i) {
+			cache.get(connection, file(i));
+		}
+		cache.now += SECOND;
+		cache.put(connection, new Path("/usr/bin/f0"), attrs()); //$NON-NLS-1$
+		assertTrue(cache.getEvictionCount() > 0);
+		assertTrue(cache.size() <= 10);
+		for (int i = 0; i < 10; ++i) {
+			final SftpAttributeCache.Entry entry = cache.get(connection,
+					file(i));
+			// an evicted file is not known, never known not to exist
+			assertTrue(entry == null || entry.attrs != null);
+		}
+		assertNull(cache.get(connection, file(10)));
+	}
+}
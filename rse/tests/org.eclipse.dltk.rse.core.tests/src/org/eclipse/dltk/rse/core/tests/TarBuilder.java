@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.rse.core.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes the entries of a tar archive, as <code>tar</code> does.
+ */
+class TarBuilder {
+
+	static final int BLOCK_SIZE = 512;
+	static final long MTIME = 1700000000L;
+
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	TarBuilder entry(String name, char type, byte[] data) {
+		return entry(name, null, type, data);
+	}
+
+	TarBuilder entry(String name, String prefix, char type, byte[] data) {
+		final byte[] header = new byte[BLOCK_SIZE];
+		put(header, 0, name, 100);
+		putOctal(header, 100, 0644, 8);
+		putOctal(header, 124, data.length, 12);
+		putOctal(header, 136, MTIME, 12);
+		Arrays.fill(header, 148, 156, (byte) ' ');
+		header[156] = (byte) type;
+		put(header, 257, "ustar", 6); //$NON-NLS-1$
+		put(header, 263, "00", 2); //$NON-NLS-1$
+		if (prefix != null) {
+			put(header, 345, prefix, 155);
+		}
+		long checksum = 0;
+		for (byte b : header) {
+			checksum += b & 0xFF;
+		}
+		putOctal(header, 148, checksum, 7);
+		output.write(header, 0, header.length);
+		output.write(data, 0, data.length);
+		final int padding = (BLOCK_SIZE - data.length % BLOCK_SIZE)
+				% BLOCK_SIZE;
+		output.write(new byte[padding], 0, padding);
+		return this;
+	}
+
+	TarBuilder file(String name, String content) {
+		return entry(name, '0', content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	byte[] build() {
+		output.write(new byte[BLOCK_SIZE * 2], 0, BLOCK_SIZE * 2);
+		return output.toByteArray();
+	}
+
+	private static void put(byte[] header, int offset, String value,
+			int length) {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		System.arraycopy(bytes, 0, header, offset,
+				Math.min(bytes.length, length));
+	}
+
+	private static void putOctal(byte[] header, int offset, long value,
+			int length) {
+		final String octal = Long.toOctalString(value);
+		final StringBuilder sb = new StringBuilder();
+		for (int i = octal.length(); i < length - 1; ++i) {
+			sb.append('0');
+		}
+		put(header, offset, sb.append(octal).toString(), length - 1);
+	}
+}
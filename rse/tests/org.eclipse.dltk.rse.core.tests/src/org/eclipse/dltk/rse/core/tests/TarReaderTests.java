@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 xored software, Inc. and others.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.dltk.rse.core.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.dltk.core.internal.rse.TarReader;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TarReaderTests extends Assert {
+
+	@Rule
+	public final TemporaryFolder temp = new TemporaryFolder();
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private int unpack(byte[] archive) throws IOException {
+		return new TarReader(new ByteArrayInputStream(archive),
+				temp.getRoot(), null).unpack();
+	}
+
+	private String read(String path) throws IOException {
+		return new String(
+				Files.readAllBytes(new File(temp.getRoot(), path).toPath()),
+				StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testFilesAndFolders() throws IOException {
+		final char[] large = new char[TarBuilder.BLOCK_SIZE * 3 + 17];
+		Arrays.fill(large, 'x');
+		final byte[] archive = new TarBuilder()
+				.entry("./", '5', new byte[0]) //$NON-NLS-1$
+				.entry("./lib/", '5', new byte[0]) //$NON-NLS-1$
+				.file("./lib/a.tcl", "proc a {} {}") //$NON-NLS-1$ //$NON-NLS-2$
+				.file("./lib/large.tcl", new String(large)) //$NON-NLS-1$
+				.entry("./empty", '5', new byte[0]) //$NON-NLS-1$
+				.file("./main.tcl", "") //$NON-NLS-1$ //$NON-NLS-2$
+				.build();
+		assertEquals(3, unpack(archive));
+		assertEquals("proc a {} {}", read("lib/a.tcl")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(new String(large), read("lib/large.tcl")); //$NON-NLS-1$
+		assertEquals("", read("main.tcl")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(new File(temp.getRoot(), "empty").isDirectory()); //$NON-NLS-1$
+		assertEquals(TarBuilder.MTIME * 1000,
+				new File(temp.getRoot(), "lib/a.tcl").lastModified()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testLongNames() throws IOException {
+		final char[] segment = new char[80];
+		Arrays.fill(segment, 'n');
+		final String dir = new String(segment);
+		final String gnuName = dir + '/' + dir + "/gnu.tcl"; //$NON-NLS-1$
+		final String paxName = dir + '/' + dir + "/pax.tcl"; //$NON-NLS-1$
+		final String pax = "path=" + paxName + '\n'; //$NON-NLS-1$
+		final String paxRecord = (pax.length() + 4) + " " + pax; //$NON-NLS-1$
+		final byte[] archive = new TarBuilder()
+				.entry("././@LongLink", 'L', bytes(gnuName + '\0')) //$NON-NLS-1$
+				.file(gnuName.substring(0, 99), "gnu") //$NON-NLS-1$
+				.entry("PaxHeader", 'x', bytes(paxRecord)) //$NON-NLS-1$
+				.file(paxName.substring(0, 99), "pax") //$NON-NLS-1$
+				.entry("ustar.tcl", dir, '0', bytes("ustar")) //$NON-NLS-1$ //$NON-NLS-2$
+				.build();
+		assertEquals(3, unpack(archive));
+		assertEquals("gnu", read(gnuName)); //$NON-NLS-1$
+		assertEquals("pax", read(paxName)); //$NON-NLS-1$
+		assertEquals("ustar", read(dir + "/ustar.tcl")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void testSkippedEntries() throws IOException {
+		final byte[] archive = new TarBuilder()
+				.entry("link.tcl", '2', new byte[0]) //$NON-NLS-1$
+				.file("/etc/absolute", "absolute") //$NON-NLS-1$ //$NON-NLS-2$
+				.file("main.tcl", "main") //$NON-NLS-1$ //$NON-NLS-2$
+				.build();
+		assertEquals(1, unpack(archive));
+		assertEquals("main", read("main.tcl")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(new File(temp.getRoot(), "etc").exists()); //$NON-NLS-1$
+		assertFalse(new File(temp.getRoot(), "link.tcl").exists()); //$NON-NLS-1$
+	}
+
+	@Test(expected = IOException.class)
+	public void testParentReference() throws IOException {
+		unpack(new TarBuilder().file("../outside.tcl", "outside").build()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test(expected = EOFException.class)
+	public void testTruncatedArchive() throws IOException {
+		final byte[] archive = new TarBuilder()
+				.file("main.tcl", "main") //$NON-NLS-1$ //$NON-NLS-2$
+				.build();
+		unpack(Arrays.copyOf(archive, TarBuilder.BLOCK_SIZE + 2));
+	}
+
+	@Test(expected = EOFException.class)
+	public void testMissingEnd() throws IOException {
+		final byte[] archive = new TarBuilder()
+				.file("main.tcl", "main") //$NON-NLS-1$ //$NON-NLS-2$
+				.build();
+		unpack(Arrays.copyOf(archive, TarBuilder.BLOCK_SIZE * 2));
+	}
+}